@@ -3,8 +3,10 @@ package com.autozone.inventory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class InventorySystemApplication {
 
 	public static void main(String[] args) {
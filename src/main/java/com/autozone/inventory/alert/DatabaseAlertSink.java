@@ -0,0 +1,54 @@
+package com.autozone.inventory.alert;
+
+import com.autozone.inventory.entity.ReorderAlertRecord;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.ReorderAlertRecordRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the reorder_alerts table: a row per raised alert, closed when it clears. Open
+ * rows also seed the de-duplication state after a restart.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseAlertSink implements ReorderAlertSink {
+
+    private final ReorderAlertRecordRepository alertRepository;
+    private final PartRepository partRepository;
+    private final StoreRepository storeRepository;
+
+    @Override
+    public String getName() {
+        return "database";
+    }
+
+    @Override
+    @Transactional
+    public void deliver(List<ReorderAlert> batch) {
+        List<ReorderAlertRecord> raised = new ArrayList<>();
+        for (ReorderAlert alert : batch) {
+            if (alert.getType() == ReorderAlert.Type.RAISED) {
+                raised.add(ReorderAlertRecord.builder()
+                        .part(partRepository.getReferenceById(alert.getPartId()))
+                        .store(storeRepository.getReferenceById(alert.getStoreId()))
+                        .quantity(alert.getQuantity())
+                        .reorderPoint(alert.getReorderPoint())
+                        .raisedAt(alert.getOccurredAt())
+                        .build());
+            } else {
+                // Save earlier raises in this batch first so the close can find them
+                alertRepository.saveAll(raised);
+                raised.clear();
+                alertRepository.flush();
+                alertRepository.resolveOpen(alert.getPartId(), alert.getStoreId(), alert.getOccurredAt());
+            }
+        }
+        alertRepository.saveAll(raised);
+    }
+}
@@ -0,0 +1,36 @@
+package com.autozone.inventory.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stand-in for an email digest: formats one message per batch and logs it instead of
+ * sending, until a mail server is configured for the stores.
+ */
+@Component
+@ConditionalOnExpression("!'${inventory.alerts.email.recipients:}'.isBlank()")
+@Slf4j
+public class EmailAlertSink implements ReorderAlertSink {
+
+    @Value("${inventory.alerts.email.recipients}")
+    private String recipients;
+
+    @Override
+    public String getName() {
+        return "email";
+    }
+
+    @Override
+    public void deliver(List<ReorderAlert> batch) {
+        StringBuilder body = new StringBuilder();
+        for (ReorderAlert alert : batch) {
+            body.append(String.format("%n  %-7s part %d at store %d: %d on hand, reorder point %d",
+                    alert.getType(), alert.getPartId(), alert.getStoreId(), alert.getQuantity(), alert.getReorderPoint()));
+        }
+        log.info("Reorder alert email to {} ({} alerts):{}", recipients, batch.size(), body);
+    }
+}
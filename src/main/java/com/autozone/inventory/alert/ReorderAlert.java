@@ -0,0 +1,29 @@
+package com.autozone.inventory.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reorder alert for one part at one store: RAISED when stock first falls to or below
+ * the reorder point, CLEARED when it is restocked above it (or the row is deleted).
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ReorderAlert {
+
+    public enum Type {
+        RAISED,
+        CLEARED
+    }
+
+    private final Type type;
+    private final Long partId;
+    private final Long storeId;
+    private final Integer quantity;
+    private final Integer reorderPoint;
+    private final LocalDateTime occurredAt;
+}
@@ -0,0 +1,15 @@
+package com.autozone.inventory.alert;
+
+import java.util.List;
+
+/**
+ * Destination for reorder alerts. Every sink bean receives every batch, in order, on the
+ * alert dispatcher thread; a sink that throws is retried and then skipped for that batch
+ * without affecting the others.
+ */
+public interface ReorderAlertSink {
+
+    String getName();
+
+    void deliver(List<ReorderAlert> batch) throws Exception;
+}
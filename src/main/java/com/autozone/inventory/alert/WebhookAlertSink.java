@@ -0,0 +1,55 @@
+package com.autozone.inventory.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array to the configured URL. Any non-2xx response counts
+ * as a failure so the dispatcher retries it.
+ */
+@Component
+@ConditionalOnExpression("!'${inventory.alerts.webhook.url:}'.isBlank()")
+public class WebhookAlertSink implements ReorderAlertSink {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI url;
+    private final Duration timeout;
+
+    public WebhookAlertSink(ObjectMapper objectMapper,
+                            @Value("${inventory.alerts.webhook.url}") String url,
+                            @Value("${inventory.alerts.webhook.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<ReorderAlert> batch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Alert webhook returned HTTP " + response.statusCode());
+        }
+    }
+}
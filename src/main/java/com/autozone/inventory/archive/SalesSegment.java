@@ -0,0 +1,175 @@
+package com.autozone.inventory.archive;
+
+import com.autozone.inventory.dto.SaleRecord;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of a segment file through a memory mapping. Only the index is parsed
+ * up front; a store's block is inflated when a query actually needs it, and blocks
+ * whose time range misses the query are skipped without being touched.
+ */
+@Getter
+public class SalesSegment {
+
+    private final Path path;
+    private final LocalDate rangeStart;
+    private final LocalDate rangeEnd;
+    private final long minMicros;
+    private final long maxMicros;
+    private final long maxSaleId;
+    private final long rowCount;
+    private final long fileSize;
+
+    private final MappedByteBuffer mapped;
+    private final Map<Long, Block> blocks = new LinkedHashMap<>();
+
+    private SalesSegment(Path path, MappedByteBuffer mapped) throws IOException {
+        this.path = path;
+        this.mapped = mapped;
+        this.fileSize = mapped.capacity();
+        if (fileSize < SegmentFormat.TRAILER_BYTES) {
+            throw new IOException("Segment " + path + " is truncated");
+        }
+
+        ByteBuffer trailer = mapped.slice((int) fileSize - SegmentFormat.TRAILER_BYTES, SegmentFormat.TRAILER_BYTES);
+        this.rangeStart = LocalDate.ofEpochDay(trailer.getInt());
+        this.rangeEnd = LocalDate.ofEpochDay(trailer.getInt());
+        this.minMicros = trailer.getLong();
+        this.maxMicros = trailer.getLong();
+        this.maxSaleId = trailer.getLong();
+        this.rowCount = trailer.getLong();
+        int stores = trailer.getInt();
+        long indexOffset = trailer.getLong();
+        int storedCrc = trailer.getInt();
+        if (trailer.getInt() != SegmentFormat.MAGIC) {
+            throw new IOException("Segment " + path + " has a bad magic number");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(mapped.slice(0, (int) fileSize - 8));
+        if ((int) crc.getValue() != storedCrc) {
+            throw new IOException("Segment " + path + " failed its checksum");
+        }
+
+        ByteBuffer index = mapped.slice((int) indexOffset, stores * SegmentFormat.INDEX_ENTRY_BYTES);
+        for (int i = 0; i < stores; i++) {
+            long storeId = index.getLong();
+            blocks.put(storeId, new Block(index.getInt(), index.getLong(), index.getLong(),
+                    (int) index.getLong(), index.getInt(), index.getInt()));
+        }
+    }
+
+    public static SalesSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SalesSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getStoreCount() {
+        return blocks.size();
+    }
+
+    public boolean overlaps(long fromMicros, long toMicros) {
+        return rowCount > 0 && minMicros <= toMicros && maxMicros >= fromMicros;
+    }
+
+    /**
+     * Streams rows with saleDate in [fromMicros, toMicros], optionally limited to one
+     * store and/or part.
+     */
+    public void scan(Long storeId, Long partId, long fromMicros, long toMicros, Consumer<SaleRecord> sink) {
+        if (!overlaps(fromMicros, toMicros)) {
+            return;
+        }
+        Collection<Map.Entry<Long, Block>> selected = storeId == null
+                ? blocks.entrySet()
+                : blocks.containsKey(storeId) ? List.of(Map.entry(storeId, blocks.get(storeId))) : List.of();
+
+        for (Map.Entry<Long, Block> entry : selected) {
+            Block block = entry.getValue();
+            if (block.minMicros > toMicros || block.maxMicros < fromMicros) {
+                continue;
+            }
+            ByteBuffer rows = inflate(block);
+            long id = 0;
+            long micros = 0;
+            for (int i = 0; i < block.rows; i++) {
+                id += SegmentFormat.unZigZag(SegmentFormat.readVarLong(rows));
+                micros += SegmentFormat.unZigZag(SegmentFormat.readVarLong(rows));
+                long part = SegmentFormat.readVarLong(rows);
+                int quantity = (int) SegmentFormat.readVarLong(rows);
+                long unitCents = SegmentFormat.readVarLong(rows);
+                long totalCents = SegmentFormat.readVarLong(rows);
+                int soldByLength = (int) SegmentFormat.readVarLong(rows);
+                String soldBy = null;
+                if (soldByLength > 0) {
+                    byte[] bytes = new byte[soldByLength - 1];
+                    rows.get(bytes);
+                    soldBy = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                // Rows are time-ordered within a block, so stop once past the range
+                if (micros > toMicros) {
+                    break;
+                }
+                if (micros >= fromMicros && (partId == null || partId == part)) {
+                    sink.accept(new SaleRecord(id, part, entry.getKey(), quantity,
+                            BigDecimal.valueOf(unitCents, 2), BigDecimal.valueOf(totalCents, 2),
+                            SegmentFormat.fromMicros(micros), soldBy, true));
+                }
+            }
+        }
+    }
+
+    private ByteBuffer inflate(Block block) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(mapped.slice(block.offset, block.compressedLength));
+            ByteBuffer raw = ByteBuffer.allocate(block.rawLength);
+            while (raw.hasRemaining() && !inflater.finished()) {
+                inflater.inflate(raw);
+            }
+            return raw.flip();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block in segment " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Block {
+        private final int rows;
+        private final long minMicros;
+        private final long maxMicros;
+        private final int offset;
+        private final int compressedLength;
+        private final int rawLength;
+
+        private Block(int rows, long minMicros, long maxMicros, int offset, int compressedLength, int rawLength) {
+            this.rows = rows;
+            this.minMicros = minMicros;
+            this.maxMicros = maxMicros;
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.rawLength = rawLength;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.autozone.inventory.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Layout of a cold sales segment file:
+ * <pre>
+ * block*   one deflate-compressed block per store, rows sorted by (saleDate, id)
+ * index    per store: i64 storeId | i32 rows | i64 minMicros | i64 maxMicros
+ *                     | i64 offset | i32 compressedLength | i32 rawLength
+ * trailer  i32 rangeStartDay | i32 rangeEndDay | i64 minMicros | i64 maxMicros
+ *          | i64 maxSaleId | i64 rows | i32 stores | i64 indexOffset | i32 crc32 | "AZSG"
+ * </pre>
+ * A block is a sequence of rows, each: varlong id delta | varlong time delta (micros)
+ * | varlong partId | varint quantity | varlong unitCents | varlong totalCents
+ * | varint soldBy length + 1 (0 = null) | soldBy UTF-8 bytes.
+ * The CRC covers everything before the CRC field.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x41_5A_53_47; // "AZSG"
+    static final int INDEX_ENTRY_BYTES = 8 + 4 + 8 + 8 + 8 + 4 + 4;
+    static final int TRAILER_BYTES = 4 + 4 + 8 + 8 + 8 + 8 + 4 + 8 + 4 + 4;
+
+    private SegmentFormat() {
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,192 @@
+package com.autozone.inventory.archive;
+
+import com.autozone.inventory.dto.SaleRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one immutable segment. Rows must arrive sorted by (storeId, saleDate, id).
+ * Everything goes to a temporary file that is fsynced and atomically renamed on
+ * {@link #finish()}, so a crash never leaves a partial segment under the final name.
+ */
+public class SegmentWriter implements AutoCloseable {
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final List<long[]> index = new ArrayList<>();
+    private final int rangeStartDay;
+    private final int rangeEndDay;
+
+    private long position;
+    private long rows;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros = Long.MIN_VALUE;
+    private long maxSaleId;
+    private boolean finished;
+
+    // Block for the store currently being written
+    private ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+    private long blockStore = Long.MIN_VALUE;
+    private int blockRows;
+    private long blockMinMicros;
+    private long blockMaxMicros;
+    private long lastId;
+    private long lastMicros;
+
+    private SegmentWriter(Path target, LocalDate rangeStart, LocalDate rangeEnd) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.rangeStartDay = (int) rangeStart.toEpochDay();
+        this.rangeEndDay = (int) rangeEnd.toEpochDay();
+    }
+
+    /** Starts a segment covering sale dates in [rangeStart, rangeEnd). */
+    public static SegmentWriter create(Path target, LocalDate rangeStart, LocalDate rangeEnd) throws IOException {
+        return new SegmentWriter(target, rangeStart, rangeEnd);
+    }
+
+    public void append(SaleRecord sale) throws IOException {
+        if (sale.getStoreId() != blockStore) {
+            if (blockStore != Long.MIN_VALUE && sale.getStoreId() < blockStore) {
+                throw new IllegalStateException("Segment rows must be sorted by store");
+            }
+            flushBlock();
+            blockStore = sale.getStoreId();
+            lastId = 0;
+            lastMicros = 0;
+            blockMinMicros = Long.MAX_VALUE;
+            blockMaxMicros = Long.MIN_VALUE;
+        }
+
+        long micros = SegmentFormat.toMicros(sale.getSaleDate());
+        byte[] soldBy = sale.getSoldBy() != null ? sale.getSoldBy().getBytes(StandardCharsets.UTF_8) : null;
+        ensureCapacity(7 * 10 + (soldBy != null ? soldBy.length : 0));
+
+        SegmentFormat.writeVarLong(block, SegmentFormat.zigZag(sale.getId() - lastId));
+        SegmentFormat.writeVarLong(block, SegmentFormat.zigZag(micros - lastMicros));
+        SegmentFormat.writeVarLong(block, sale.getPartId());
+        SegmentFormat.writeVarLong(block, sale.getQuantitySold());
+        SegmentFormat.writeVarLong(block, sale.getUnitPrice().movePointRight(2).longValueExact());
+        SegmentFormat.writeVarLong(block, sale.getTotalPrice().movePointRight(2).longValueExact());
+        SegmentFormat.writeVarLong(block, soldBy != null ? soldBy.length + 1 : 0);
+        if (soldBy != null) {
+            block.put(soldBy);
+        }
+
+        lastId = sale.getId();
+        lastMicros = micros;
+        blockRows++;
+        blockMinMicros = Math.min(blockMinMicros, micros);
+        blockMaxMicros = Math.max(blockMaxMicros, micros);
+        minMicros = Math.min(minMicros, micros);
+        maxMicros = Math.max(maxMicros, micros);
+        maxSaleId = Math.max(maxSaleId, sale.getId());
+        rows++;
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    /** Writes index and trailer, syncs, and moves the file into place. */
+    public SalesSegment finish() throws IOException {
+        flushBlock();
+
+        long indexOffset = position;
+        ByteBuffer indexBuffer = ByteBuffer.allocate(index.size() * SegmentFormat.INDEX_ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+        for (long[] entry : index) {
+            indexBuffer.putLong(entry[0]).putInt((int) entry[1]).putLong(entry[2]).putLong(entry[3])
+                    .putLong(entry[4]).putInt((int) entry[5]).putInt((int) entry[6]);
+        }
+        write(indexBuffer.flip());
+
+        ByteBuffer trailer = ByteBuffer.allocate(SegmentFormat.TRAILER_BYTES);
+        trailer.putInt(rangeStartDay).putInt(rangeEndDay)
+                .putLong(rows > 0 ? minMicros : 0).putLong(rows > 0 ? maxMicros : 0)
+                .putLong(maxSaleId).putLong(rows).putInt(index.size()).putLong(indexOffset);
+        crc.update(trailer.duplicate().flip());
+        trailer.putInt((int) crc.getValue()).putInt(SegmentFormat.MAGIC);
+        channel.write(trailer.flip());
+
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return SalesSegment.open(target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        block.flip();
+        int rawLength = block.remaining();
+        deflater.reset();
+        deflater.setInput(block);
+        deflater.finish();
+        ByteBuffer compressed = ByteBuffer.allocate(rawLength + rawLength / 100 + 64);
+        while (!deflater.finished()) {
+            if (!compressed.hasRemaining()) {
+                compressed = grow(compressed);
+            }
+            deflater.deflate(compressed);
+        }
+        compressed.flip();
+
+        index.add(new long[]{blockStore, blockRows, blockMinMicros, blockMaxMicros, position, compressed.remaining(), rawLength});
+        write(compressed);
+        block.clear();
+        blockRows = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (block.remaining() < bytes) {
+            block = grow(block, bytes);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        return grow(buffer, buffer.capacity());
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int atLeast) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() + Math.max(buffer.capacity(), atLeast));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
@@ -0,0 +1,72 @@
+package com.autozone.inventory.catalog;
+
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable copy of every part and store (deleted ones included, as the repositories
+ * return them), tagged with the database change marker it was loaded at. The entities
+ * are detached and must be treated as read-only.
+ */
+public class CatalogSnapshot {
+
+    public enum Source {
+        DATABASE,
+        SNAPSHOT_FILE
+    }
+
+    @Getter
+    private final String marker;
+    @Getter
+    private final Source source;
+    @Getter
+    private final LocalDateTime loadedAt;
+    @Getter
+    private final List<Part> parts;
+    @Getter
+    private final List<Store> stores;
+    private final Map<Long, Part> partsById = new HashMap<>();
+    private final Map<String, Part> partsBySku = new HashMap<>();
+    private final Map<Long, Store> storesById = new HashMap<>();
+    private final Map<String, Store> storesByNumber = new HashMap<>();
+
+    public CatalogSnapshot(String marker, Source source, List<Part> parts, List<Store> stores) {
+        this.marker = marker;
+        this.source = source;
+        this.loadedAt = LocalDateTime.now();
+        this.parts = parts.stream().sorted(Comparator.comparing(Part::getId)).toList();
+        this.stores = stores.stream().sorted(Comparator.comparing(Store::getId)).toList();
+        for (Part part : this.parts) {
+            partsById.put(part.getId(), part);
+            partsBySku.put(part.getSku(), part);
+        }
+        for (Store store : this.stores) {
+            storesById.put(store.getId(), store);
+            storesByNumber.put(store.getStoreNumber(), store);
+        }
+    }
+
+    public Optional<Part> findPart(Long id) {
+        return Optional.ofNullable(partsById.get(id));
+    }
+
+    public Optional<Part> findPartBySku(String sku) {
+        return Optional.ofNullable(partsBySku.get(sku));
+    }
+
+    public Optional<Store> findStore(Long id) {
+        return Optional.ofNullable(storesById.get(id));
+    }
+
+    public Optional<Store> findStoreByNumber(String storeNumber) {
+        return Optional.ofNullable(storesByNumber.get(storeNumber));
+    }
+}
@@ -0,0 +1,225 @@
+package com.autozone.inventory.catalog;
+
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary file holding a {@link CatalogSnapshot}:
+ *
+ * <pre>
+ * int magic "AZCT", int version, UTF marker,
+ * int parts, part*, int stores, store*,
+ * long CRC32 of everything before it
+ * </pre>
+ *
+ * Nullable values carry a presence byte. Bump {@link #VERSION} whenever Part or Store
+ * gain persisted fields; files of any other version are ignored and rewritten.
+ */
+public final class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x415A4354; // "AZCT"
+    static final int VERSION = 1;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /** Writes to a temporary file, fsyncs and renames, so readers never see a partial file. */
+    public static void write(Path target, CatalogSnapshot catalog) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(catalog.getMarker());
+            out.writeInt(catalog.getParts().size());
+            for (Part part : catalog.getParts()) {
+                writePart(out, part);
+            }
+            out.writeInt(catalog.getStores().size());
+            for (Store store : catalog.getStores()) {
+                writeStore(out, store);
+            }
+            out.flush();
+            // The trailer is written past the checksummed stream
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Empty if the file is missing or was written by another format version. */
+    public static Optional<CatalogSnapshot> read(Path source) throws IOException {
+        if (!Files.isRegularFile(source)) {
+            return Optional.empty();
+        }
+        byte[] bytes = Files.readAllBytes(source);
+        if (bytes.length < 16) {
+            throw new IOException("Catalog snapshot " + source + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Long.BYTES);
+        if (crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong()) {
+            throw new IOException("Catalog snapshot " + source + " failed its checksum");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(source + " is not a catalog snapshot");
+        }
+        if (in.readInt() != VERSION) {
+            return Optional.empty();
+        }
+        String marker = in.readUTF();
+        int partCount = in.readInt();
+        List<Part> parts = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            parts.add(readPart(in));
+        }
+        int storeCount = in.readInt();
+        List<Store> stores = new ArrayList<>(storeCount);
+        for (int i = 0; i < storeCount; i++) {
+            stores.add(readStore(in));
+        }
+        return Optional.of(new CatalogSnapshot(marker, CatalogSnapshot.Source.SNAPSHOT_FILE, parts, stores));
+    }
+
+    private static void writePart(DataOutputStream out, Part part) throws IOException {
+        out.writeLong(part.getId());
+        writeTimestamp(out, part.getCreatedAt());
+        writeTimestamp(out, part.getUpdatedAt());
+        out.writeBoolean(Boolean.TRUE.equals(part.getDeleted()));
+        writeString(out, part.getSku());
+        writeString(out, part.getName());
+        writeString(out, part.getDescription());
+        writeString(out, part.getCategory() == null ? null : part.getCategory().name());
+        writeString(out, part.getCost() == null ? null : part.getCost().toPlainString());
+        writeString(out, part.getPrice() == null ? null : part.getPrice().toPlainString());
+        writeString(out, part.getManufacturer());
+        writeString(out, part.getSupplierName());
+        writeInteger(out, part.getSupplierLeadTimeDays());
+    }
+
+    private static Part readPart(DataInputStream in) throws IOException {
+        Part part = new Part();
+        part.setId(in.readLong());
+        part.setCreatedAt(readTimestamp(in));
+        part.setUpdatedAt(readTimestamp(in));
+        part.setDeleted(in.readBoolean());
+        part.setSku(readString(in));
+        part.setName(readString(in));
+        part.setDescription(readString(in));
+        String category = readString(in);
+        part.setCategory(category == null ? null : Part.PartCategory.valueOf(category));
+        String cost = readString(in);
+        part.setCost(cost == null ? null : new BigDecimal(cost));
+        String price = readString(in);
+        part.setPrice(price == null ? null : new BigDecimal(price));
+        part.setManufacturer(readString(in));
+        part.setSupplierName(readString(in));
+        part.setSupplierLeadTimeDays(readInteger(in));
+        return part;
+    }
+
+    private static void writeStore(DataOutputStream out, Store store) throws IOException {
+        out.writeLong(store.getId());
+        writeTimestamp(out, store.getCreatedAt());
+        writeTimestamp(out, store.getUpdatedAt());
+        out.writeBoolean(Boolean.TRUE.equals(store.getDeleted()));
+        writeString(out, store.getStoreNumber());
+        writeString(out, store.getName());
+        writeString(out, store.getAddress());
+        writeString(out, store.getCity());
+        writeString(out, store.getState());
+        writeString(out, store.getZipCode());
+        writeString(out, store.getPhone());
+        writeDouble(out, store.getLatitude());
+        writeDouble(out, store.getLongitude());
+        writeString(out, store.getStoreType() == null ? null : store.getStoreType().name());
+    }
+
+    private static Store readStore(DataInputStream in) throws IOException {
+        Store store = new Store();
+        store.setId(in.readLong());
+        store.setCreatedAt(readTimestamp(in));
+        store.setUpdatedAt(readTimestamp(in));
+        store.setDeleted(in.readBoolean());
+        store.setStoreNumber(readString(in));
+        store.setName(readString(in));
+        store.setAddress(readString(in));
+        store.setCity(readString(in));
+        store.setState(readString(in));
+        store.setZipCode(readString(in));
+        store.setPhone(readString(in));
+        store.setLatitude(readDouble(in));
+        store.setLongitude(readDouble(in));
+        String type = readString(in);
+        store.setStoreType(type == null ? null : Store.StoreType.valueOf(type));
+        return store;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeString(out, value == null ? null : value.toString());
+    }
+
+    private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.autozone.inventory.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps sparse database ids to dense int codes (in first-seen order) and back, so
+ * columns and group-by accumulators can be plain arrays indexed by code.
+ */
+public class IdDictionary {
+
+    private final Map<Long, Integer> codes = new HashMap<>();
+    private long[] ids = new long[1024];
+
+    public int encode(long id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[next] = id;
+        codes.put(id, next);
+        return next;
+    }
+
+    /** Code for the id, or -1 when the id has never been seen. */
+    public int lookup(long id) {
+        Integer code = codes.get(id);
+        return code != null ? code : -1;
+    }
+
+    public long decode(int code) {
+        return ids[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.autozone.inventory.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only int column in direct (off-heap) buffers. Storage is split into fixed
+ * chunks so a column can outgrow the 2 GB limit of a single buffer and grows without
+ * copying.
+ */
+public class IntColumn {
+
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long size;
+
+    public void append(int value) {
+        int offset = (int) (size & CHUNK_MASK);
+        if (offset == 0) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE * Integer.BYTES).order(ByteOrder.nativeOrder()));
+        }
+        chunks.get(chunks.size() - 1).putInt(offset * Integer.BYTES, value);
+        size++;
+    }
+
+    public int get(long index) {
+        return chunks.get((int) (index >>> CHUNK_SHIFT)).getInt((int) (index & CHUNK_MASK) * Integer.BYTES);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long allocatedBytes() {
+        return (long) chunks.size() * CHUNK_SIZE * Integer.BYTES;
+    }
+}
@@ -0,0 +1,40 @@
+package com.autozone.inventory.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.autozone.inventory.columnar.IntColumn.CHUNK_MASK;
+import static com.autozone.inventory.columnar.IntColumn.CHUNK_SHIFT;
+import static com.autozone.inventory.columnar.IntColumn.CHUNK_SIZE;
+
+/**
+ * Append-only long column in chunked direct buffers; see {@link IntColumn}.
+ */
+public class LongColumn {
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long size;
+
+    public void append(long value) {
+        int offset = (int) (size & CHUNK_MASK);
+        if (offset == 0) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE * Long.BYTES).order(ByteOrder.nativeOrder()));
+        }
+        chunks.get(chunks.size() - 1).putLong(offset * Long.BYTES, value);
+        size++;
+    }
+
+    public long get(long index) {
+        return chunks.get((int) (index >>> CHUNK_SHIFT)).getLong((int) (index & CHUNK_MASK) * Long.BYTES);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long allocatedBytes() {
+        return (long) chunks.size() * CHUNK_SIZE * Long.BYTES;
+    }
+}
@@ -0,0 +1,313 @@
+package com.autozone.inventory.columnar;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar copy of sales history, rolled up to one row per (part, store, day).
+ *
+ * Rows are grouped by series and sorted by day within a series, so a series is one
+ * contiguous run and a date range within it is found by binary search. Each row costs
+ * 16 bytes off-heap (int day, int quantity, long cents); part and store ids are
+ * dictionary-encoded once per series rather than stored per row.
+ */
+public class SalesColumnStore {
+
+    public enum GroupBy {
+        PART,
+        STORE,
+        DAY
+    }
+
+    private final IdDictionary parts;
+    private final IdDictionary stores;
+    private final int[] seriesPart;
+    private final int[] seriesStore;
+    private final long[] seriesStart; // seriesStart[s]..seriesStart[s + 1] are series s's rows
+    private final Map<Long, Integer> seriesByKey;
+    private final IntColumn days;
+    private final IntColumn quantities;
+    private final LongColumn cents;
+
+    @Getter
+    private final LocalDateTime loadedAt;
+
+    private SalesColumnStore(Builder builder, LocalDateTime loadedAt) {
+        this.parts = builder.parts;
+        this.stores = builder.stores;
+        this.seriesPart = Arrays.copyOf(builder.seriesPart, builder.seriesCount);
+        this.seriesStore = Arrays.copyOf(builder.seriesStore, builder.seriesCount);
+        this.seriesStart = Arrays.copyOf(builder.seriesStart, builder.seriesCount + 1);
+        this.seriesStart[builder.seriesCount] = builder.days.size();
+        this.seriesByKey = builder.seriesByKey;
+        this.days = builder.days;
+        this.quantities = builder.quantities;
+        this.cents = builder.cents;
+        this.loadedAt = loadedAt;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getRowCount() {
+        return days.size();
+    }
+
+    public int getSeriesCount() {
+        return seriesPart.length;
+    }
+
+    public long getSeriesPartId(int series) {
+        return parts.decode(seriesPart[series]);
+    }
+
+    public long getSeriesStoreId(int series) {
+        return stores.decode(seriesStore[series]);
+    }
+
+    /**
+     * Writes one series' daily quantities for the target.length days starting at from
+     * into target, zero on days without sales. Allocates nothing, so replays can reuse
+     * one buffer across series.
+     */
+    public void fillDailyQuantities(int series, LocalDate from, int[] target) {
+        Arrays.fill(target, 0);
+        int fromDay = (int) from.toEpochDay();
+        long end = seriesStart[series + 1];
+        for (long row = firstRowOnOrAfter(series, fromDay); row < end; row++) {
+            int offset = days.get(row) - fromDay;
+            if (offset >= target.length) {
+                break;
+            }
+            target[offset] = quantities.get(row);
+        }
+    }
+
+    public long getOffHeapBytes() {
+        return days.allocatedBytes() + quantities.allocatedBytes() + cents.allocatedBytes();
+    }
+
+    /** Daily rows of one series within [from, to]; empty when the series has no history. */
+    public Optional<SeriesScan> scanSeries(long partId, long storeId, LocalDate from, LocalDate to) {
+        int partCode = parts.lookup(partId);
+        int storeCode = stores.lookup(storeId);
+        Integer series = partCode < 0 || storeCode < 0 ? null : seriesByKey.get(key(partCode, storeCode));
+        if (series == null) {
+            return Optional.empty();
+        }
+
+        int toDay = (int) to.toEpochDay();
+        long start = firstRowOnOrAfter(series, (int) from.toEpochDay());
+        long end = seriesStart[series + 1];
+        long stop = start;
+        while (stop < end && days.get(stop) <= toDay) {
+            stop++;
+        }
+
+        int count = (int) (stop - start);
+        SeriesScan scan = new SeriesScan(new int[count], new int[count], new long[count]);
+        for (int i = 0; i < count; i++) {
+            scan.days[i] = days.get(start + i);
+            scan.quantities[i] = quantities.get(start + i);
+            scan.cents[i] = cents.get(start + i);
+        }
+        return Optional.of(scan);
+    }
+
+    /**
+     * Totals over [from, to] grouped by part, store or day, optionally restricted to one
+     * part and/or store. Series are scanned in parallel with per-thread accumulators.
+     */
+    public GroupTotals aggregate(GroupBy groupBy, LocalDate from, LocalDate to, Long partId, Long storeId) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int partFilter = partId == null ? -1 : parts.lookup(partId);
+        int storeFilter = storeId == null ? -1 : stores.lookup(storeId);
+        if ((partId != null && partFilter < 0) || (storeId != null && storeFilter < 0) || toDay < fromDay) {
+            return new GroupTotals(groupBy, new long[0], new long[0], new long[0]);
+        }
+
+        int groups = switch (groupBy) {
+            case PART -> parts.size();
+            case STORE -> stores.size();
+            case DAY -> toDay - fromDay + 1;
+        };
+
+        Accumulator total = IntStream.range(0, seriesPart.length).parallel()
+                .filter(s -> (partFilter < 0 || seriesPart[s] == partFilter) && (storeFilter < 0 || seriesStore[s] == storeFilter))
+                .collect(() -> new Accumulator(groups),
+                        (accumulator, s) -> scanInto(accumulator, groupBy, s, fromDay, toDay),
+                        Accumulator::merge);
+
+        int nonEmpty = 0;
+        for (int g = 0; g < groups; g++) {
+            if (total.quantity[g] != 0 || total.cents[g] != 0) {
+                nonEmpty++;
+            }
+        }
+        long[] keys = new long[nonEmpty];
+        long[] quantity = new long[nonEmpty];
+        long[] revenueCents = new long[nonEmpty];
+        int i = 0;
+        for (int g = 0; g < groups; g++) {
+            if (total.quantity[g] != 0 || total.cents[g] != 0) {
+                keys[i] = switch (groupBy) {
+                    case PART -> parts.decode(g);
+                    case STORE -> stores.decode(g);
+                    case DAY -> fromDay + g;
+                };
+                quantity[i] = total.quantity[g];
+                revenueCents[i] = total.cents[g];
+                i++;
+            }
+        }
+        return new GroupTotals(groupBy, keys, quantity, revenueCents);
+    }
+
+    private void scanInto(Accumulator accumulator, GroupBy groupBy, int series, int fromDay, int toDay) {
+        int fixedGroup = switch (groupBy) {
+            case PART -> seriesPart[series];
+            case STORE -> seriesStore[series];
+            case DAY -> -1;
+        };
+        long end = seriesStart[series + 1];
+        for (long row = firstRowOnOrAfter(series, fromDay); row < end; row++) {
+            int day = days.get(row);
+            if (day > toDay) {
+                break;
+            }
+            int group = fixedGroup >= 0 ? fixedGroup : day - fromDay;
+            accumulator.quantity[group] += quantities.get(row);
+            accumulator.cents[group] += cents.get(row);
+        }
+    }
+
+    private long firstRowOnOrAfter(int series, int day) {
+        long low = seriesStart[series];
+        long high = seriesStart[series + 1];
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (days.get(mid) < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long key(int partCode, int storeCode) {
+        return ((long) partCode << 32) | (storeCode & 0xFFFFFFFFL);
+    }
+
+    @Getter
+    public static final class SeriesScan {
+        private final int[] days;       // epoch days
+        private final int[] quantities;
+        private final long[] cents;
+
+        private SeriesScan(int[] days, int[] quantities, long[] cents) {
+            this.days = days;
+            this.quantities = quantities;
+            this.cents = cents;
+        }
+    }
+
+    @Getter
+    public static final class GroupTotals {
+        private final GroupBy groupBy;
+        private final long[] keys;      // part id, store id or epoch day
+        private final long[] quantities;
+        private final long[] cents;
+
+        private GroupTotals(GroupBy groupBy, long[] keys, long[] quantities, long[] cents) {
+            this.groupBy = groupBy;
+            this.keys = keys;
+            this.quantities = quantities;
+            this.cents = cents;
+        }
+    }
+
+    private static final class Accumulator {
+        private final long[] quantity;
+        private final long[] cents;
+
+        private Accumulator(int groups) {
+            this.quantity = new long[groups];
+            this.cents = new long[groups];
+        }
+
+        private void merge(Accumulator other) {
+            for (int g = 0; g < quantity.length; g++) {
+                quantity[g] += other.quantity[g];
+                cents[g] += other.cents[g];
+            }
+        }
+    }
+
+    /**
+     * Accepts daily rows grouped by (part, store) with days ascending within a series,
+     * which is the order the loader's ORDER BY produces.
+     */
+    public static final class Builder {
+        private final IdDictionary parts = new IdDictionary();
+        private final IdDictionary stores = new IdDictionary();
+        private final Map<Long, Integer> seriesByKey = new HashMap<>();
+        private final IntColumn days = new IntColumn();
+        private final IntColumn quantities = new IntColumn();
+        private final LongColumn cents = new LongColumn();
+        private int[] seriesPart = new int[1024];
+        private int[] seriesStore = new int[1024];
+        private long[] seriesStart = new long[1025];
+        private int seriesCount;
+        private long currentKey = -1;
+        private int lastDay;
+
+        private Builder() {
+        }
+
+        public Builder append(long partId, long storeId, LocalDate day, int quantity, long revenueCents) {
+            int partCode = parts.encode(partId);
+            int storeCode = stores.encode(storeId);
+            long seriesKey = key(partCode, storeCode);
+            int epochDay = (int) day.toEpochDay();
+
+            if (seriesKey != currentKey) {
+                if (seriesByKey.containsKey(seriesKey)) {
+                    throw new IllegalStateException("Sales rows for part " + partId + " at store " + storeId + " are not contiguous");
+                }
+                if (seriesCount == seriesPart.length) {
+                    seriesPart = Arrays.copyOf(seriesPart, seriesCount * 2);
+                    seriesStore = Arrays.copyOf(seriesStore, seriesCount * 2);
+                    seriesStart = Arrays.copyOf(seriesStart, seriesCount * 2 + 1);
+                }
+                seriesPart[seriesCount] = partCode;
+                seriesStore[seriesCount] = storeCode;
+                seriesStart[seriesCount] = days.size();
+                seriesByKey.put(seriesKey, seriesCount);
+                seriesCount++;
+                currentKey = seriesKey;
+            } else if (epochDay < lastDay) {
+                throw new IllegalStateException("Sales rows for part " + partId + " at store " + storeId + " are not sorted by day");
+            }
+
+            lastDay = epochDay;
+            days.append(epochDay);
+            quantities.append(quantity);
+            cents.append(revenueCents);
+            return this;
+        }
+
+        public SalesColumnStore build() {
+            return new SalesColumnStore(this, LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.HotStockView;
+import com.autozone.inventory.dto.SalesPartitionView;
+import com.autozone.inventory.ratelimit.RateLimitProperties;
+import com.autozone.inventory.service.AggregateQueryCache;
+import com.autozone.inventory.service.HotStockService;
+import com.autozone.inventory.service.RateLimitService;
+import com.autozone.inventory.service.SalesPartitionService;
+import com.autozone.inventory.service.SoftDeletePurgeService;
+import com.autozone.inventory.service.StartupPipeline;
+import com.autozone.inventory.shard.ShardRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Administration", description = "Database maintenance, request limits and startup diagnostics (ADMIN role)")
+public class AdminController {
+
+    private final SalesPartitionService salesPartitionService;
+    private final RateLimitService rateLimitService;
+    private final StartupPipeline startupPipeline;
+    private final HotStockService hotStockService;
+    private final ShardRouter shardRouter;
+    private final SoftDeletePurgeService softDeletePurgeService;
+    private final AggregateQueryCache aggregateQueryCache;
+
+    @GetMapping("/sales-partitions")
+    @Operation(summary = "List the monthly partitions of the sales table")
+    public ResponseEntity<List<SalesPartitionView>> getSalesPartitions() {
+        if (!salesPartitionService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(salesPartitionService.getPartitions());
+    }
+
+    @PostMapping("/sales-partitions/maintain")
+    @Operation(summary = "Create missing future sales partitions and move rows out of the default partition (also runs nightly)")
+    public ResponseEntity<List<SalesPartitionView>> maintainSalesPartitions() {
+        if (!salesPartitionService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        salesPartitionService.maintainPartitions();
+        return ResponseEntity.ok(salesPartitionService.getPartitions());
+    }
+
+    @GetMapping("/sales-partitions/explain")
+    @Operation(summary = "Show which sales partitions a date-windowed query scans")
+    public ResponseEntity<SalesPartitionService.PlanCheck> explainSalesQuery(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesPartitionService.explainDateWindow(from, to));
+    }
+
+    @GetMapping("/rate-limits")
+    @Operation(summary = "Current rate and concurrency limit settings")
+    public ResponseEntity<RateLimitProperties> getRateLimits() {
+        return ResponseEntity.ok(rateLimitService.getSettings());
+    }
+
+    @PutMapping("/rate-limits")
+    @Operation(summary = "Replace rate and concurrency limit settings on this instance only (takes effect immediately, "
+            + "resets buckets; not persisted, so a restart returns to the configured settings)")
+    public ResponseEntity<?> updateRateLimits(@RequestBody RateLimitProperties settings) {
+        try {
+            rateLimitService.updateSettings(settings);
+            return ResponseEntity.ok(rateLimitService.getSettings());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/startup")
+    @Operation(summary = "Per-phase startup timings and where the catalog was loaded from")
+    public ResponseEntity<Map<String, Object>> getStartupReport() {
+        return ResponseEntity.ok(startupPipeline.getReport());
+    }
+
+    @GetMapping("/rate-limits/stats")
+    @Operation(summary = "Live concurrency limit, latency and per-class admission counters")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitService.getStats());
+    }
+
+    @GetMapping("/aggregate-cache")
+    @Operation(summary = "Dashboard query cache hit, coalesced and miss counts per view")
+    public ResponseEntity<Map<String, Object>> getAggregateCacheStats() {
+        return ResponseEntity.ok(aggregateQueryCache.getStats());
+    }
+
+    @GetMapping("/hot-stock")
+    @Operation(summary = "Items whose stock is split across slots, with their slot quantities")
+    public ResponseEntity<List<HotStockView>> getHotStock() {
+        return ResponseEntity.ok(hotStockService.getSplitItems());
+    }
+
+    @GetMapping("/hot-stock/contended")
+    @Operation(summary = "Items with slow stock updates in the current detection interval")
+    public ResponseEntity<List<Map<String, Object>>> getContendedStock() {
+        return ResponseEntity.ok(hotStockService.getContendedItems());
+    }
+
+    @PostMapping("/hot-stock/split")
+    @Operation(summary = "Split an item's stock across slots so concurrent sales do not queue on one row")
+    public ResponseEntity<?> splitStock(@RequestParam Long partId, @RequestParam Long storeId,
+                                        @RequestParam(required = false) Integer slots) {
+        if (!hotStockService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Hot stock splitting is disabled"));
+        }
+        shardRouter.bind(storeId);
+        try {
+            boolean split = slots != null ? hotStockService.split(partId, storeId, slots) : hotStockService.split(partId, storeId);
+            return split ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/hot-stock/merge")
+    @Operation(summary = "Fold a split item's slots back into its inventory row")
+    public ResponseEntity<Void> mergeStock(@RequestParam Long partId, @RequestParam Long storeId) {
+        shardRouter.bind(storeId);
+        return hotStockService.merge(partId, storeId) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/purge")
+    @Operation(summary = "Soft-deleted rows awaiting purge and the last purge run")
+    public ResponseEntity<Map<String, Object>> getPurgeStats() {
+        return ResponseEntity.ok(softDeletePurgeService.getStats());
+    }
+
+    @PostMapping("/purge")
+    @Operation(summary = "Archive and delete rows soft-deleted before the retention period (also runs nightly)")
+    public ResponseEntity<Map<String, Integer>> purgeDeletedRows() {
+        return softDeletePurgeService.purge()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
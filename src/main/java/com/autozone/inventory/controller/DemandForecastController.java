@@ -0,0 +1,75 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.DemandForecastView;
+import com.autozone.inventory.dto.ForecastRunResult;
+import com.autozone.inventory.dto.SafetyStockRunResult;
+import com.autozone.inventory.dto.SafetyStockView;
+import com.autozone.inventory.service.DemandForecastService;
+import com.autozone.inventory.service.SafetyStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/forecasts")
+@RequiredArgsConstructor
+@Tag(name = "Demand Forecasting", description = "Seasonal (Holt-Winters) demand forecasts per part and store")
+public class DemandForecastController {
+
+    private final DemandForecastService demandForecastService;
+    private final SafetyStockService safetyStockService;
+
+    @GetMapping
+    @Operation(summary = "Get the weekly demand forecast for a part at a store")
+    public ResponseEntity<DemandForecastView> getForecast(
+            @RequestParam Long partId,
+            @RequestParam Long storeId,
+            @RequestParam(defaultValue = "12") int weeks) {
+        return demandForecastService.getForecast(partId, storeId, weeks)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/refit")
+    @Operation(summary = "Refit every forecast from sales history")
+    public ResponseEntity<ForecastRunResult> refit() {
+        return run(demandForecastService::refitAll);
+    }
+
+    @PostMapping("/close")
+    @Operation(summary = "Fold closed days (through yesterday) into the forecasts")
+    public ResponseEntity<ForecastRunResult> close() {
+        return run(demandForecastService::closeThroughYesterday);
+    }
+
+    @GetMapping("/safety-stock")
+    @Operation(summary = "Get the simulated safety stock and stockout risk for a part at a store")
+    public ResponseEntity<SafetyStockView> getSafetyStock(@RequestParam Long partId, @RequestParam Long storeId) {
+        return safetyStockService.getRecommendation(partId, storeId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/safety-stock/simulate")
+    @Operation(summary = "Simulate stockouts for every part and store with sales history and store the recommended safety stock")
+    public ResponseEntity<SafetyStockRunResult> simulateSafetyStock() {
+        try {
+            return ResponseEntity.ok(safetyStockService.simulateAll());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    private static ResponseEntity<ForecastRunResult> run(Supplier<ForecastRunResult> job) {
+        try {
+            return ResponseEntity.ok(job.get());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package com.autozone.inventory.controller;
 
+import com.autozone.inventory.dto.InventoryChangeFeed;
+import com.autozone.inventory.dto.InventorySummary;
+import com.autozone.inventory.dto.NearbyStock;
 import com.autozone.inventory.entity.Inventory;
 import com.autozone.inventory.entity.Part;
 import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.service.AggregateQueryCache;
+import com.autozone.inventory.service.FieldProjectionService;
 import com.autozone.inventory.service.InventoryService;
+import com.autozone.inventory.service.InventorySyncService;
+import com.autozone.inventory.service.StockEventBroadcaster;
+import com.autozone.inventory.service.StockLocatorService;
+import com.autozone.inventory.service.InventoryVersionTracker;
 import com.autozone.inventory.service.PartService;
 import com.autozone.inventory.service.StoreService;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -25,11 +44,25 @@ public class InventoryController {
     private final InventoryService inventoryService;
     private final PartService partService;
     private final StoreService storeService;
+    private final InventoryVersionTracker inventoryVersionTracker;
+    private final InventorySyncService inventorySyncService;
+    private final StockEventBroadcaster stockEventBroadcaster;
+    private final StockLocatorService stockLocatorService;
+    private final FieldProjectionService fieldProjectionService;
+    private final ShardRouter shardRouter;
+    private final AggregateQueryCache aggregateQueryCache;
 
     @GetMapping
-    @Operation(summary = "Get all inventory")
-    public ResponseEntity<List<Inventory>> getAllInventory() {
-        return ResponseEntity.ok(inventoryService.getAllInventory());
+    @Operation(summary = "Get all inventory (optional ?fields=quantity,location,part.sku selects only those columns)")
+    public ResponseEntity<List<?>> getAllInventory(@RequestParam(required = false) String fields) {
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(shardRouter.scatter(() -> fieldProjectionService.findAll(Inventory.class, fields, null)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(shardRouter.scatter(inventoryService::getAllInventory));
     }
 
     @GetMapping("/{id}")
@@ -40,39 +73,114 @@ public class InventoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/nearby")
+    @Operation(summary = "Find the nearest stores with a part in stock, preferring HUB stores")
+    public ResponseEntity<List<NearbyStock>> findNearbyStock(
+            @RequestParam Long partId,
+            @RequestParam Long storeId,
+            @RequestParam(defaultValue = "1") int minQuantity,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "250") double maxMiles) {
+        return stockLocatorService.findNearbyStock(partId, storeId, minQuantity, limit, maxMiles)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/store/{storeId}")
-    @Operation(summary = "Get inventory for a specific store")
-    public ResponseEntity<List<Inventory>> getInventoryByStore(@PathVariable Long storeId) {
+    @Operation(summary = "Get inventory for a specific store (optional ?fields= as for the full list)")
+    public ResponseEntity<List<?>> getInventoryByStore(@PathVariable Long storeId,
+                                                       @RequestParam(required = false) String fields,
+                                                       WebRequest request) {
+        // Validate against the version before loading any rows
+        String etag = inventoryVersionTracker.etag("inventory", storeId);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        Optional<Store> store = storeService.getStoreById(storeId);
+        if (store.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return withETag(etag).body(fieldProjectionService.findAll(Inventory.class, fields,
+                        (cb, root) -> cb.equal(root.get("store").get("id"), storeId)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return withETag(etag).body(inventoryService.getInventoryByStore(store.get()));
+    }
+
+    @GetMapping("/store/{storeId}/changes")
+    @Operation(summary = "Get inventory rows of a store changed since a sync cursor")
+    public ResponseEntity<InventoryChangeFeed> getInventoryChanges(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(inventorySyncService.getChangesSince(storeId, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/store/{storeId}/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Download a compact binary snapshot of a store's inventory for first sync")
+    public ResponseEntity<StreamingResponseBody> getInventorySnapshot(@PathVariable Long storeId) {
         return storeService.getStoreById(storeId)
-                .map(store -> ResponseEntity.ok(inventoryService.getInventoryByStore(store)))
+                .map(store -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header("X-Snapshot-Format", String.valueOf(InventorySyncService.SNAPSHOT_FORMAT_VERSION))
+                        .<StreamingResponseBody>body(ShardContext.propagate(out -> inventorySyncService.writeSnapshot(storeId, out))))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to stock changes and reorder threshold crossings (Server-Sent Events)")
+    public ResponseEntity<SseEmitter> streamStockEvents(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long partId) {
+        return stockEventBroadcaster.subscribe(storeId, partId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     @GetMapping("/reorder")
     @Operation(summary = "Get all items needing reorder")
-    public ResponseEntity<List<Inventory>> getItemsNeedingReorder() {
-        return ResponseEntity.ok(inventoryService.getItemsNeedingReorder());
+    public ResponseEntity<List<InventorySummary>> getItemsNeedingReorder() {
+        return ResponseEntity.ok(aggregateQueryCache.get("reorder", "all", AggregateQueryCache.Source.INVENTORY,
+                () -> List.copyOf(shardRouter.scatter(inventoryService::getItemsNeedingReorder))));
     }
 
     @GetMapping("/reorder/store/{storeId}")
     @Operation(summary = "Get items needing reorder for a specific store")
-    public ResponseEntity<List<Inventory>> getItemsNeedingReorderByStore(@PathVariable Long storeId) {
+    public ResponseEntity<List<Inventory>> getItemsNeedingReorderByStore(@PathVariable Long storeId, WebRequest request) {
+        String etag = inventoryVersionTracker.etag("reorder", storeId);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         return storeService.getStoreById(storeId)
-                .map(store -> ResponseEntity.ok(inventoryService.getItemsNeedingReorderByStore(store)))
+                .map(store -> withETag(etag).body(inventoryService.getItemsNeedingReorderByStore(store)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/low-stock")
     @Operation(summary = "Get low stock items")
-    public ResponseEntity<List<Inventory>> getLowStockItems() {
-        return ResponseEntity.ok(inventoryService.getLowStockItems());
+    public ResponseEntity<List<InventorySummary>> getLowStockItems() {
+        return ResponseEntity.ok(aggregateQueryCache.get("low-stock", "all", AggregateQueryCache.Source.INVENTORY,
+                () -> List.copyOf(shardRouter.scatter(inventoryService::getLowStockItems))));
     }
 
     @PostMapping
     @Operation(summary = "Create or update inventory")
-    public ResponseEntity<Inventory> createInventory(@Valid @RequestBody Inventory inventory) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(inventoryService.createOrUpdateInventory(inventory));
+    public ResponseEntity<?> createInventory(@Valid @RequestBody Inventory inventory) {
+        shardRouter.bind(inventory.getStore() != null ? inventory.getStore().getId() : null);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(inventoryService.createOrUpdateInventory(inventory));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -102,4 +210,21 @@ public class InventoryController {
         inventoryService.updateAllReorderPoints();
         return ResponseEntity.ok("All reorder points updated successfully");
     }
+
+    private static ResponseEntity.BodyBuilder withETag(String etag) {
+        // no-cache: terminals may keep the body but must revalidate on every poll.
+        // The body may be JSON, CBOR or Smile for the same ETag, so caches must key on Accept.
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.CycleCountResult;
+import com.autozone.inventory.dto.MovementRequest;
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.dto.TransferRequest;
+import com.autozone.inventory.entity.InventoryMovement;
+import com.autozone.inventory.service.CycleCountService;
+import com.autozone.inventory.service.StockLedgerService;
+import com.autozone.inventory.shard.ShardRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Stock Ledger", description = "Inventory movement ledger and point-in-time stock")
+public class InventoryMovementController {
+
+    private final StockLedgerService stockLedgerService;
+    private final CycleCountService cycleCountService;
+    private final ShardRouter shardRouter;
+
+    @PostMapping("/movements")
+    @Operation(summary = "Record a sale, receipt or adjustment in the stock ledger")
+    public ResponseEntity<StockLevel> recordMovement(@Valid @RequestBody MovementRequest request) {
+        int delta = switch (request.getType()) {
+            case RECEIPT, TRANSFER_IN -> Math.abs(request.getQuantity());
+            case SALE, TRANSFER_OUT -> -Math.abs(request.getQuantity());
+            case ADJUSTMENT -> request.getQuantity();
+        };
+        try {
+            // The sale and its ledger row commit together on the store's shard
+            shardRouter.bind(request.getStoreId());
+            return stockLedgerService.recordMovement(request.getPartId(), request.getStoreId(), request.getType(),
+                            delta, request.getReason(), request.getReference())
+                    .map(level -> ResponseEntity.status(HttpStatus.CREATED).body(level))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/transfers")
+    @Operation(summary = "Transfer stock of a part between two stores")
+    public ResponseEntity<Void> transfer(@Valid @RequestBody TransferRequest request) {
+        try {
+            // Both legs must commit in one transaction, so both stores must share a shard
+            String shard = shardRouter.bind(request.getFromStoreId());
+            if (!shard.equals(shardRouter.shardFor(request.getToStoreId()))) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            stockLedgerService.transfer(request.getPartId(), request.getFromStoreId(), request.getToStoreId(),
+                    request.getQuantity(), request.getReason(), request.getReference());
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/movements")
+    @Operation(summary = "Get recent ledger movements for a part at a store")
+    public ResponseEntity<List<InventoryMovement>> getMovements(
+            @RequestParam Long partId,
+            @RequestParam Long storeId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(stockLedgerService.getRecentMovements(partId, storeId, limit));
+    }
+
+    @GetMapping("/stock-at")
+    @Operation(summary = "Get stock on hand for a part at a store at a point in time")
+    public ResponseEntity<Map<String, Object>> getStockAt(
+            @RequestParam Long partId,
+            @RequestParam Long storeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return stockLedgerService.getQuantityAt(partId, storeId, at)
+                .map(quantity -> ResponseEntity.ok(Map.<String, Object>of(
+                        "partId", partId,
+                        "storeId", storeId,
+                        "at", at,
+                        "quantity", quantity)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(value = "/store/{storeId}/cycle-count", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Reconcile a physical count (CSV sku,quantity) with stock, adjusting only items that differ")
+    public ResponseEntity<CycleCountResult> cycleCount(
+            @PathVariable Long storeId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "true") boolean apply,
+            @RequestParam(defaultValue = "false") boolean missingAsZero) throws IOException {
+        return reconcile(storeId, file.getInputStream(), apply, missingAsZero);
+    }
+
+    @PostMapping(value = "/store/{storeId}/cycle-count", consumes = "text/csv")
+    @Operation(summary = "Reconcile a physical count sent as the raw CSV request body")
+    public ResponseEntity<CycleCountResult> cycleCountRaw(
+            @PathVariable Long storeId,
+            @RequestParam(defaultValue = "true") boolean apply,
+            @RequestParam(defaultValue = "false") boolean missingAsZero,
+            HttpServletRequest request) throws IOException {
+        return reconcile(storeId, request.getInputStream(), apply, missingAsZero);
+    }
+
+    private ResponseEntity<CycleCountResult> reconcile(Long storeId, InputStream content, boolean apply, boolean missingAsZero) {
+        try {
+            return cycleCountService.reconcile(storeId, content, apply, missingAsZero)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.autozone.inventory.controller;
 
 import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.service.CatalogService;
+import com.autozone.inventory.service.FieldProjectionService;
 import com.autozone.inventory.service.PartService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,16 +21,26 @@ import java.util.List;
 
 public class PartController {
     private final PartService partService;
+    private final FieldProjectionService fieldProjectionService;
+    private final CatalogService catalogService;
+
     @GetMapping
-    @Operation(summary = "Get all parts")
-    public ResponseEntity<List<Part>> getAllParts(){
-        return ResponseEntity.ok(partService.getAllParts());
+    @Operation(summary = "Get all parts (optional ?fields=sku,name,price selects only those columns)")
+    public ResponseEntity<List<?>> getAllParts(@RequestParam(required = false) String fields){
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(fieldProjectionService.findAll(Part.class, fields, null));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(catalogService.getParts());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get part by ID")
     public ResponseEntity<Part> getPartById(@PathVariable Long id){
-        return partService.getPartById(id)
+        return catalogService.findPart(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -36,7 +48,7 @@ public class PartController {
     @GetMapping("/sku/{sku}")
     @Operation(summary = "Get part by SKU")
     public ResponseEntity<Part> getPartBySku(@PathVariable String sku){
-        return partService.getPartBySku(sku)
+        return catalogService.findPartBySku(sku)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -0,0 +1,82 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.entity.PartImportError;
+import com.autozone.inventory.entity.PartImportJob;
+import com.autozone.inventory.service.PartImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/parts/imports")
+@RequiredArgsConstructor
+@Tag(name = "Part Imports", description = "Bulk supplier catalog import from CSV, upserting by SKU")
+public class PartImportController {
+
+    private final PartImportService partImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload a parts CSV (sku,name,category,cost,price[,description,manufacturer,supplier_name,supplier_lead_time_days]) and start importing it")
+    public ResponseEntity<PartImportJob> upload(@RequestParam("file") MultipartFile file, Principal principal) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(partImportService.submit(file.getOriginalFilename(), file.getInputStream(), principal.getName()));
+    }
+
+    @PostMapping(consumes = "text/csv")
+    @Operation(summary = "Start importing a parts CSV sent as the raw request body")
+    public ResponseEntity<PartImportJob> uploadRaw(
+            @RequestParam(required = false) String fileName,
+            HttpServletRequest request,
+            Principal principal) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(partImportService.submit(fileName, request.getInputStream(), principal.getName()));
+    }
+
+    @GetMapping
+    @Operation(summary = "List the latest 100 part imports")
+    public ResponseEntity<List<PartImportJob>> getJobs() {
+        return ResponseEntity.ok(partImportService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a part import's status and progress")
+    public ResponseEntity<PartImportJob> getJob(@PathVariable Long id) {
+        return partImportService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/errors")
+    @Operation(summary = "Rows a part import rejected, by line number")
+    public ResponseEntity<List<PartImportError>> getErrors(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (partImportService.getJob(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(partImportService.getErrors(id, page, size));
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume a failed part import from its last committed batch")
+    public ResponseEntity<PartImportJob> resume(@PathVariable Long id) {
+        try {
+            return partImportService.resume(id)
+                    .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
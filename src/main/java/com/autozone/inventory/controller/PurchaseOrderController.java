@@ -0,0 +1,79 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.PurchaseOrderRunResult;
+import com.autozone.inventory.entity.PurchaseOrder;
+import com.autozone.inventory.service.PurchaseOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/purchase-orders")
+@RequiredArgsConstructor
+@Tag(name = "Purchase Orders", description = "Chain-wide purchase order generation")
+public class PurchaseOrderController {
+
+    private final PurchaseOrderService purchaseOrderService;
+
+    @PostMapping("/generate")
+    @Operation(summary = "Generate purchase orders for every item at or below its reorder point")
+    public ResponseEntity<PurchaseOrderRunResult> generate(@RequestParam(defaultValue = "false") boolean consolidateToHubs) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(purchaseOrderService.generatePurchaseOrders(consolidateToHubs));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "List purchase orders by status or generation run (latest 500 otherwise)")
+    public ResponseEntity<List<PurchaseOrder>> getPurchaseOrders(
+            @RequestParam(required = false) PurchaseOrder.Status status,
+            @RequestParam(required = false) String runId) {
+        return ResponseEntity.ok(purchaseOrderService.getPurchaseOrders(status, runId));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get purchase order by ID")
+    public ResponseEntity<PurchaseOrder> getPurchaseOrderById(@PathVariable Long id) {
+        return purchaseOrderService.getPurchaseOrderById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/approve")
+    @Operation(summary = "Approve a draft or held purchase order")
+    public ResponseEntity<PurchaseOrder> approve(@PathVariable Long id) {
+        return transition(id, purchaseOrderService::approve);
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel a purchase order")
+    public ResponseEntity<PurchaseOrder> cancel(@PathVariable Long id) {
+        return transition(id, purchaseOrderService::cancel);
+    }
+
+    @PostMapping("/{id}/receive")
+    @Operation(summary = "Receive an approved purchase order into store stock")
+    public ResponseEntity<PurchaseOrder> receive(@PathVariable Long id) {
+        return transition(id, purchaseOrderService::receive);
+    }
+
+    private ResponseEntity<PurchaseOrder> transition(Long id, Function<Long, Optional<PurchaseOrder>> action) {
+        try {
+            return action.apply(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.entity.ReorderAlertRecord;
+import com.autozone.inventory.service.ReorderAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/alerts")
+@RequiredArgsConstructor
+@Tag(name = "Reorder Alerts", description = "Reorder alerts raised when stock reaches the reorder point")
+public class ReorderAlertController {
+
+    private final ReorderAlertService reorderAlertService;
+
+    @GetMapping
+    @Operation(summary = "Get open reorder alerts, newest first")
+    public ResponseEntity<List<ReorderAlertRecord>> getOpenAlerts(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(reorderAlertService.getOpenAlerts(storeId, limit));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get alert pipeline counters and configured sinks")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(reorderAlertService.getStats());
+    }
+}
@@ -0,0 +1,35 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.ReorderReplayRequest;
+import com.autozone.inventory.service.ReorderReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics/reorder-replay")
+@RequiredArgsConstructor
+@Tag(name = "Reorder Policy Replay", description = "What-if replays of reorder policies over past sales")
+public class ReorderReplayController {
+
+    private final ReorderReplayService reorderReplayService;
+
+    @PostMapping
+    @Operation(summary = "Replay the current reorder policy and candidate variants day by day over the sales history, " +
+            "reporting stockouts, average stock and orders per store and category")
+    public ResponseEntity<?> replay(@Valid @RequestBody ReorderReplayRequest request) {
+        try {
+            return ResponseEntity.ok(reorderReplayService.replay(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
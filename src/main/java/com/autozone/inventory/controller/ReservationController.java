@@ -0,0 +1,95 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.ReservationRequest;
+import com.autozone.inventory.dto.ReservationView;
+import com.autozone.inventory.dto.StockAvailability;
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Paths carry the store, so the shard routing filter binds every call to the store's shard
+@RestController
+@RequestMapping("/api/inventory/store/{storeId}")
+@RequiredArgsConstructor
+@Tag(name = "Reservations", description = "Stock held for buy-online-pickup-in-store orders")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @GetMapping("/availability")
+    @Operation(summary = "On-hand, reserved and available stock of a part at a store")
+    public ResponseEntity<StockAvailability> getAvailability(@PathVariable Long storeId, @RequestParam Long partId) {
+        return reservationService.getAvailability(partId, storeId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/reservations")
+    @Operation(summary = "Hold stock for an order until it is picked up, released or its TTL runs out")
+    public ResponseEntity<?> reserve(@PathVariable Long storeId, @Valid @RequestBody ReservationRequest request) {
+        Map<Long, Integer> lines = new TreeMap<>();
+        request.getLines().forEach(line -> lines.merge(line.getPartId(), line.getQuantity(), Integer::sum));
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null;
+        try {
+            return reservationService.reserve(storeId, request.getOrderReference(), ttl, lines)
+                    .<ResponseEntity<?>>map(view -> ResponseEntity.status(HttpStatus.CREATED).body(view))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/reservations/{orderReference}")
+    @Operation(summary = "Get an order's reservation")
+    public ResponseEntity<ReservationView> getReservation(@PathVariable Long storeId, @PathVariable String orderReference) {
+        return reservationService.getReservation(storeId, orderReference)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/reservations/{orderReference}/expiry")
+    @Operation(summary = "Keep an active reservation for ttlSeconds from now")
+    public ResponseEntity<?> extend(@PathVariable Long storeId, @PathVariable String orderReference,
+                                    @RequestParam long ttlSeconds) {
+        try {
+            return reservationService.extend(storeId, orderReference, Duration.ofSeconds(ttlSeconds))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reservations/{orderReference}/fulfill")
+    @Operation(summary = "Hand an order over: end its hold and record its lines as sales in the stock ledger")
+    public ResponseEntity<List<StockLevel>> fulfill(@PathVariable Long storeId, @PathVariable String orderReference) {
+        try {
+            return reservationService.fulfill(storeId, orderReference)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/reservations/{orderReference}")
+    @Operation(summary = "Release an order's hold")
+    public ResponseEntity<Void> release(@PathVariable Long storeId, @PathVariable String orderReference) {
+        return reservationService.release(storeId, orderReference)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
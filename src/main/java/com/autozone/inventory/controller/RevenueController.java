@@ -0,0 +1,67 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.dto.RevenueCubeCheck;
+import com.autozone.inventory.dto.RevenueRollupRow;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.service.RevenueCubeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics/revenue")
+@RequiredArgsConstructor
+@Tag(name = "Revenue Analytics", description = "Rollups over the pre-aggregated revenue cube")
+public class RevenueController {
+
+    private final RevenueCubeService revenueCubeService;
+
+    @GetMapping
+    @Operation(summary = "Revenue, cost and margin by day, week, month or total, grouped by chain, store, region, store type or category")
+    public ResponseEntity<List<RevenueRollupRow>> getRevenue(
+            @RequestParam(defaultValue = "TOTAL") RevenueCubeService.Period period,
+            @RequestParam(defaultValue = "CHAIN") RevenueCubeService.Dimension groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Part.PartCategory category) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(revenueCubeService.rollup(period, groupBy, from, to, storeId, category));
+    }
+
+    @GetMapping("/verify")
+    @Operation(summary = "Compare the revenue cube against sums over raw sales")
+    public ResponseEntity<RevenueCubeCheck> verify(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(revenueCubeService.verify(from, to));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recompute the revenue cube for a date range from raw sales")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            int cells = revenueCubeService.rebuild(from, to);
+            return ResponseEntity.ok(Map.of("from", from, "to", to, "cells", cells));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.autozone.inventory.controller;
 
+import com.autozone.inventory.dto.ArchiveRunResult;
+import com.autozone.inventory.dto.ArchiveSegmentView;
+import com.autozone.inventory.dto.SaleRecord;
 import com.autozone.inventory.entity.Sale;
 import com.autozone.inventory.repository.SaleRepository;
+import com.autozone.inventory.service.AggregateQueryCache;
+import com.autozone.inventory.service.FieldProjectionService;
+import com.autozone.inventory.service.SalesArchiveService;
+import com.autozone.inventory.shard.ShardRouter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/sales")
@@ -18,41 +29,124 @@ import java.util.stream.Collectors;
 @Tag(name = "Sales", description = "Sales Management API")
 public class SaleController {
 
+    // Longest top-sellers ranking served; larger limits are clamped to it
+    private static final int TOP_SELLING_MAX = 100;
+
     private final SaleRepository saleRepository;
+    private final SalesArchiveService salesArchiveService;
+    private final FieldProjectionService fieldProjectionService;
+    private final ShardRouter shardRouter;
+    private final AggregateQueryCache aggregateQueryCache;
 
     @GetMapping
-    @Operation(summary = "Get all sales")
-    public ResponseEntity<List<Sale>> getAllSales() {
-        return ResponseEntity.ok(saleRepository.findAll());
+    @Operation(summary = "Get all sales (optional ?fields=saleDate,quantitySold,part.sku selects only those columns)")
+    public ResponseEntity<List<?>> getAllSales(@RequestParam(required = false) String fields) {
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(shardRouter.scatter(() -> fieldProjectionService.findAll(Sale.class, fields, null)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(shardRouter.scatter(saleRepository::findAll));
     }
 
     @GetMapping("/store/{storeId}")
-    @Operation(summary = "Get sales by store")
-    public ResponseEntity<List<Sale>> getSalesByStore(@PathVariable Long storeId) {
+    @Operation(summary = "Get sales by store (optional ?fields=)")
+    public ResponseEntity<List<?>> getSalesByStore(@PathVariable Long storeId, @RequestParam(required = false) String fields) {
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(fieldProjectionService.findAll(Sale.class, fields, (cb, root) -> cb.equal(root.get("store").get("id"), storeId)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         return ResponseEntity.ok(saleRepository.findByStoreId(storeId));
     }
 
     @GetMapping("/part/{partId}")
-    @Operation(summary = "Get sales by part")
-    public ResponseEntity<List<Sale>> getSalesByPart(@PathVariable Long partId) {
-        return ResponseEntity.ok(saleRepository.findByPartId(partId));
+    @Operation(summary = "Get sales by part (optional ?fields=)")
+    public ResponseEntity<List<?>> getSalesByPart(@PathVariable Long partId, @RequestParam(required = false) String fields) {
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(shardRouter.scatter(() -> fieldProjectionService.findAll(Sale.class, fields,
+                        (cb, root) -> cb.equal(root.get("part").get("id"), partId))));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(shardRouter.scatter(() -> saleRepository.findByPartId(partId)));
     }
 
     @GetMapping("/top-selling")
-    @Operation(summary = "Get top selling parts")
+    @Operation(summary = "Get top selling parts (limit 1-" + TOP_SELLING_MAX + ")")
     public ResponseEntity<List<Map<String, Object>>> getTopSellingParts(
             @RequestParam(defaultValue = "10") int limit) {
-        List<Object[]> topParts = saleRepository.getTopSellingParts();
+        // One cached list of the longest ranking serves every limit
+        List<Map<String, Object>> top = aggregateQueryCache.get("top-selling", TOP_SELLING_MAX, AggregateQueryCache.Source.SALES,
+                () -> topSellingParts(TOP_SELLING_MAX));
+        return ResponseEntity.ok(top.subList(0, Math.min(Math.max(limit, 1), top.size())));
+    }
+
+    @GetMapping("/history")
+    @Operation(summary = "Get sales history across live and archived sales")
+    public ResponseEntity<List<SaleRecord>> getSalesHistory(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long partId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesArchiveService.findSales(storeId, partId, from, to, limit));
+    }
+
+    @GetMapping("/history/total")
+    @Operation(summary = "Get total quantity sold across live and archived sales")
+    public ResponseEntity<Map<String, Object>> getSalesHistoryTotal(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long partId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        long total = salesArchiveService.getTotalQuantitySold(storeId, partId, from, to);
+        return ResponseEntity.ok(Map.of("from", from, "to", to, "totalQuantity", total));
+    }
 
-        List<Map<String, Object>> result = topParts.stream()
+    @PostMapping("/archive/run")
+    @Operation(summary = "Archive sales older than the retention period into segment files")
+    public ResponseEntity<ArchiveRunResult> runArchive() {
+        try {
+            return ResponseEntity.ok(salesArchiveService.archive());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/archive/segments")
+    @Operation(summary = "List archived sales segments")
+    public ResponseEntity<List<ArchiveSegmentView>> getArchiveSegments() {
+        return ResponseEntity.ok(salesArchiveService.getSegments());
+    }
+
+    // Each shard returns its own totals; sum them per part before ranking
+    private List<Map<String, Object>> topSellingParts(int limit) {
+        Map<Object, Object[]> totals = new LinkedHashMap<>();
+        for (Object[] row : shardRouter.scatter(saleRepository::getTopSellingParts)) {
+            totals.merge(row[0], row, (a, b) -> new Object[]{a[0], a[1], ((Number) a[2]).longValue() + ((Number) b[2]).longValue()});
+        }
+
+        return totals.values().stream()
+                .sorted(Comparator.comparingLong((Object[] row) -> ((Number) row[2]).longValue()).reversed())
                 .limit(limit)
                 .map(row -> Map.of(
                         "partId", row[0],
                         "partName", row[1],
                         "totalQuantity", row[2]
                 ))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(result);
+                .toList();
     }
 }
\ No newline at end of file
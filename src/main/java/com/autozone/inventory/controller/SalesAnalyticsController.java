@@ -0,0 +1,65 @@
+package com.autozone.inventory.controller;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.dto.SalesAggregateRow;
+import com.autozone.inventory.dto.SalesSeriesView;
+import com.autozone.inventory.service.SalesColumnStoreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics/sales")
+@RequiredArgsConstructor
+@Tag(name = "Sales Analytics", description = "Scans over the columnar in-memory sales history")
+public class SalesAnalyticsController {
+
+    private final SalesColumnStoreService salesColumnStoreService;
+
+    @GetMapping("/series")
+    @Operation(summary = "Daily sales of a part at a store")
+    public ResponseEntity<SalesSeriesView> getSeries(
+            @RequestParam Long partId,
+            @RequestParam Long storeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesColumnStoreService.getSeries(partId, storeId, from, to)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/aggregate")
+    @Operation(summary = "Sales totals grouped by part, store or day, optionally filtered to a part and/or store. " +
+            "The range is limited to the loaded history")
+    public ResponseEntity<?> aggregate(
+            @RequestParam(defaultValue = "STORE") SalesColumnStore.GroupBy groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long partId,
+            @RequestParam(required = false) Long storeId) {
+        try {
+            return ResponseEntity.ok(salesColumnStoreService.aggregate(groupBy, from, to, partId, storeId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Size and load time of the columnar sales store")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(salesColumnStoreService.getStats());
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "Rebuild the columnar sales store from the sales table")
+    public ResponseEntity<Map<String, Object>> reload() {
+        salesColumnStoreService.reload();
+        return ResponseEntity.ok(salesColumnStoreService.getStats());
+    }
+}
@@ -1,6 +1,8 @@
 package com.autozone.inventory.controller;
 
 import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.service.CatalogService;
+import com.autozone.inventory.service.FieldProjectionService;
 import com.autozone.inventory.service.StoreService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/stores")
@@ -19,17 +22,26 @@ import java.util.List;
 public class StoreController {
 
     private final StoreService storeService;
+    private final FieldProjectionService fieldProjectionService;
+    private final CatalogService catalogService;
 
     @GetMapping
-    @Operation(summary = "Get All stores")
-    public ResponseEntity<List<Store>> getAllStores(){
-        return ResponseEntity.ok(storeService.getAllStores());
+    @Operation(summary = "Get All stores (optional ?fields=storeNumber,name,city selects only those columns)")
+    public ResponseEntity<List<?>> getAllStores(@RequestParam(required = false) String fields){
+        if (FieldProjectionService.isRequested(fields)) {
+            try {
+                return ResponseEntity.ok(fieldProjectionService.findAll(Store.class, fields, null));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(catalogService.getStores());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get store by ID")
     public ResponseEntity<Store> getStoreById(@PathVariable Long id){
-        return storeService.getStoreById(id)
+        return catalogService.findStore(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -37,24 +49,32 @@ public class StoreController {
     @GetMapping("/number/{storeNumber}")
     @Operation(summary = "Get store by store number")
     public ResponseEntity<Store> getStoreByNumber(@PathVariable String storeNumber){
-        return storeService.getStoreByStoreNumber(storeNumber)
+        return catalogService.findStoreByNumber(storeNumber)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     @Operation(summary = "Create a new store")
-    public ResponseEntity<Store> createStore(@Valid @RequestBody Store store){
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(storeService.createStore(store));
+    public ResponseEntity<?> createStore(@Valid @RequestBody Store store){
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(storeService.createStore(store));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update a store")
-    public ResponseEntity<Store> updateStore(
+    public ResponseEntity<?> updateStore(
             @PathVariable Long id,
             @Valid @RequestBody Store store) {
-        return ResponseEntity.ok(storeService.updateStore(id, store));
+        try {
+            return ResponseEntity.ok(storeService.updateStore(id, store));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -31,11 +31,8 @@ public class DataLoader implements CommandLineRunner {
     public void run(String... args) {
         log.info("Loading seed data...");
 
-        // Always try to create users (it checks internally)
-        createTestUsers();
-
-        // Only load other data if database is empty
-        if (storeRepository.count() > 0) {
+        // Only load seed data if database is empty (users are seeded later by StartupPipeline)
+        if (storeRepository.countIncludingDeleted() > 0) {
             log.info("Store data already exists. Skipping store/part/inventory seed data.");
             return;
         }
@@ -59,7 +56,9 @@ public class DataLoader implements CommandLineRunner {
         log.info("Seed data loading completed!");
     }
 
-    private void createTestUsers() {
+    // Run by StartupPipeline after the application is ready: BCrypt hashing is slow and
+    // logins are not needed before then
+    public void seedUsers() {
         // Only create if no users exist
         if (userRepository.count() > 0) {
             log.info("Users already exist. Skipping user creation.");
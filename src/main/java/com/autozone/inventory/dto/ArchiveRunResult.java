@@ -0,0 +1,20 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of one sales archive run.
+ */
+@Getter
+@AllArgsConstructor
+public class ArchiveRunResult {
+
+    private LocalDate cutoff;
+    private int segmentsWritten;
+    private long rowsArchived;
+    private long bytesWritten;
+    private long elapsedMillis;
+}
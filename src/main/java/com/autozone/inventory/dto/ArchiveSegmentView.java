@@ -0,0 +1,22 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One cold sales segment file. The range end is exclusive.
+ */
+@Getter
+@AllArgsConstructor
+public class ArchiveSegmentView {
+
+    private String fileName;
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+    private long rows;
+    private int stores;
+    private long maxSaleId;
+    private long fileSizeBytes;
+}
@@ -0,0 +1,54 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Variance report for one store's cycle count. Items whose count matched are only
+ * counted; every other item is listed, largest value variance first.
+ */
+@Getter
+@AllArgsConstructor
+public class CycleCountResult {
+
+    private Long storeId;
+    private String reference;
+    private boolean applied;
+    private long linesRead;
+    private int itemsCounted;
+    private int matched;
+    private int adjusted;
+    private int notStocked;
+    private int notCounted;
+    private int rejected;
+    private long unitsOver;
+    private long unitsShort;
+    private BigDecimal valueOver;
+    private BigDecimal valueShort;
+    private long elapsedMillis;
+    private List<Variance> variances;
+    private List<String> errors;
+
+    public enum Status {
+        VARIANCE,       // Differs from system stock; not applied (preview)
+        ADJUSTED,       // Differs and the adjustment was written
+        REJECTED,       // Stock moved during the count and the adjustment would take it below zero
+        NOT_STOCKED,    // Counted, but the store has no inventory record for the part
+        NOT_COUNTED     // Stocked, but missing from the count and left as is
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Variance {
+        private Long partId;
+        private String sku;
+        private Integer systemQuantity;
+        private Integer countedQuantity;
+        private Integer delta;
+        private BigDecimal valueDelta;
+        private Status status;
+    }
+}
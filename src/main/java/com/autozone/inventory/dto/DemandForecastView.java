@@ -0,0 +1,31 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Weekly demand forecast for one part at one store.
+ */
+@Getter
+@AllArgsConstructor
+public class DemandForecastView {
+
+    private Long partId;
+    private Long storeId;
+    private Integer weeksObserved;
+    private Double meanAbsoluteError;
+    private Integer weekToDate;
+    private LocalDateTime fittedAt;
+    private List<WeeklyForecast> weeks;
+
+    @Getter
+    @AllArgsConstructor
+    public static class WeeklyForecast {
+        private LocalDate weekStart;
+        private Double quantity;
+    }
+}
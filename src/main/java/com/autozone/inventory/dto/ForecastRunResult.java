@@ -0,0 +1,17 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Summary of a forecast refit or daily close.
+ */
+@Getter
+@AllArgsConstructor
+public class ForecastRunResult {
+
+    private String operation;
+    private long seriesUpdated;
+    private long pointsProcessed;
+    private long elapsedMillis;
+}
@@ -0,0 +1,22 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A split inventory row. The row's quantity trails the slot total by up to one
+ * rebalance interval.
+ */
+@Getter
+@AllArgsConstructor
+public class HotStockView {
+
+    private Long inventoryId;
+    private Long partId;
+    private Long storeId;
+    private Integer quantity;
+    private Integer rowQuantity;
+    private List<Integer> slots;
+}
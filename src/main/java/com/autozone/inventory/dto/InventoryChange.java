@@ -0,0 +1,30 @@
+package com.autozone.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of one inventory row as seen by store terminals during delta sync.
+ * Deleted rows are included so terminals can drop them locally.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryChange {
+
+    private Long id;
+    private Long partId;
+    private String sku;
+    private Integer quantity;
+    private Integer reorderPoint;
+    private Integer reorderQuantity;
+    private Integer maxStockLevel;
+    private String location;
+    private Boolean deleted;
+    private LocalDateTime updatedAt;
+    // Position in the feed; terminals only see it inside the cursor
+    @JsonIgnore
+    private Long changeXid;
+}
@@ -0,0 +1,25 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class InventoryChangeFeed {
+
+    private List<InventoryChange> changes;
+
+    // Pass back as ?since= on the next call
+    private String nextCursor;
+
+    // True when the page was full and more changes are waiting
+    private boolean hasMore;
+
+    // True when deletions after the cursor were purged; reload a full snapshot instead
+    private boolean resyncRequired;
+
+    // How long the oldest transaction still running has held the feed back; 0 when none is
+    private long watermarkLagMillis;
+}
@@ -0,0 +1,32 @@
+package com.autozone.inventory.dto;
+
+import com.autozone.inventory.entity.Part;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An inventory row with its part and store flattened in, for the chain-wide dashboard
+ * lists. Unlike the entity it has no setters, so one cached list can be shared by
+ * every request.
+ */
+@Getter
+@AllArgsConstructor
+public class InventorySummary {
+
+    private Long id;
+    private Long partId;
+    private String sku;
+    private String partName;
+    private Part.PartCategory category;
+    private Long storeId;
+    private String storeNumber;
+    private String storeName;
+    private Integer quantity;
+    private Integer reorderPoint;
+    private Integer reorderQuantity;
+    private Integer maxStockLevel;
+    private String location;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.autozone.inventory.dto;
+
+import com.autozone.inventory.entity.InventoryMovement;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MovementRequest {
+
+    @NotNull
+    private Long partId;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private InventoryMovement.MovementType type;
+
+    // Units moved; signed for ADJUSTMENT, positive for every other type
+    @NotNull
+    private Integer quantity;
+
+    private String reason;
+
+    private String reference;
+}
@@ -0,0 +1,22 @@
+package com.autozone.inventory.dto;
+
+import com.autozone.inventory.entity.Store;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A store near the requesting store that has the part in stock.
+ */
+@Getter
+@AllArgsConstructor
+public class NearbyStock {
+
+    private Long storeId;
+    private String storeNumber;
+    private String storeName;
+    private String city;
+    private String state;
+    private Store.StoreType storeType;
+    private Double distanceMiles;
+    private Integer quantity;
+}
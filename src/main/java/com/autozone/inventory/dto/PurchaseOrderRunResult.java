@@ -0,0 +1,26 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Summary of one purchase order generation run.
+ */
+@Getter
+@AllArgsConstructor
+public class PurchaseOrderRunResult {
+
+    private String runId;
+    private boolean consolidated;
+    private int storesProcessed;
+    private int partitions;
+    private int failedPartitions;
+    private int ordersCreated;
+    private int ordersOnHold;
+    private int linesCreated;
+    private long totalUnits;
+    private BigDecimal totalCost;
+    private long elapsedMillis;
+}
@@ -0,0 +1,19 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Inventory row at or below its reorder point, as read by the purchase order engine.
+ */
+@Getter
+@AllArgsConstructor
+public class ReorderCandidate {
+
+    private Long inventoryId;
+    private Long partId;
+    private Long storeId;
+    private Integer quantity;
+    private Integer reorderQuantity;
+    private Integer maxStockLevel;
+}
@@ -0,0 +1,66 @@
+package com.autozone.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReorderReplayRequest {
+
+    // Days of sales replayed, ending yesterday, including the 90-day warm-up; defaults to all loaded history
+    @Positive
+    private Integer historyDays;
+
+    // How often reorder points are recalculated; defaults to inventory.reorder-replay.review-days
+    @Positive
+    private Integer reviewDays;
+
+    // Compared against the current policy, which is always replayed first
+    @Valid
+    private List<Variant> variants = new ArrayList<>();
+
+    /** A candidate policy; fields left unset keep the current policy's value. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Variant {
+
+        @NotBlank
+        @Size(max = 64)
+        private String name;
+
+        @PositiveOrZero
+        private Double weight30;
+
+        @PositiveOrZero
+        private Double weight60;
+
+        @PositiveOrZero
+        private Double weight90;
+
+        @PositiveOrZero
+        private Integer safetyStockDays;
+
+        @Positive
+        private Double leadTimeFactor;
+
+        @PositiveOrZero
+        private Integer leadTimeBufferDays;
+
+        @Positive
+        private Integer daysOfCover;
+
+        @PositiveOrZero
+        private Integer minimumReorderPoint;
+    }
+}
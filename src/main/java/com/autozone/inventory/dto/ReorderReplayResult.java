@@ -0,0 +1,53 @@
+package com.autozone.inventory.dto;
+
+import com.autozone.inventory.entity.Part.PartCategory;
+import com.autozone.inventory.service.ReorderPolicy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of replaying reorder policies over past sales, per policy and broken down by
+ * store and part category.
+ */
+@Getter
+@AllArgsConstructor
+public class ReorderReplayResult {
+
+    // Days scored, after the warm-up
+    private LocalDate from;
+    private LocalDate to;
+    private Integer reviewDays;
+    private Integer itemsReplayed;
+    private Long elapsedMillis;
+    private List<PolicyOutcome> policies;
+
+    @Getter
+    @AllArgsConstructor
+    public static class PolicyOutcome {
+        private String name;
+        private ReorderPolicy policy;
+        private Outcome total;
+        private List<Outcome> byStoreAndCategory;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Outcome {
+        // Null in a policy's total
+        private Long storeId;
+        private PartCategory category;
+        private Long items;
+        private Long stockoutDays;
+        // Share of item-days with lost sales
+        private Double stockoutRate;
+        private Long demand;
+        private Long lostSales;
+        private Double fillRate;
+        private Double averageStock;
+        private Long orders;
+        private Long unitsOrdered;
+    }
+}
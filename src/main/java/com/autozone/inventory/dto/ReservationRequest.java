@@ -0,0 +1,45 @@
+package com.autozone.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReservationRequest {
+
+    // The online order the stock is held for; one reservation per order and store
+    @NotBlank
+    @Size(max = 64)
+    private String orderReference;
+
+    // Defaults to inventory.reservations.default-ttl
+    @Positive
+    private Long ttlSeconds;
+
+    @NotEmpty
+    @Valid
+    private List<Line> lines;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Line {
+
+        @NotNull
+        private Long partId;
+
+        @NotNull
+        @Positive
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,29 @@
+package com.autozone.inventory.dto;
+
+import com.autozone.inventory.entity.StockReservation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order's hold on one store's stock. Every line shares the order's status and expiry.
+ */
+@Getter
+@AllArgsConstructor
+public class ReservationView {
+
+    private Long storeId;
+    private String orderReference;
+    private StockReservation.Status status;
+    private LocalDateTime expiresAt;
+    private List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private Long partId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of comparing the revenue cube against sums over the raw sales table.
+ */
+@Getter
+@AllArgsConstructor
+public class RevenueCubeCheck {
+
+    private LocalDate from;
+    private LocalDate to;
+    private int cellsCompared;
+    private int mismatchedCells;
+    private boolean consistent;
+    // At most the first 100 mismatches
+    private List<Mismatch> mismatches;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Mismatch {
+        private Long storeId;
+        private String category;
+        private LocalDate day;
+        private long cubeUnits;
+        private long salesUnits;
+        private long cubeRevenueCents;
+        private long salesRevenueCents;
+    }
+}
@@ -0,0 +1,24 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Revenue totals for one period and dimension value (e.g. a week and a region).
+ * The period is its first day; it is the query start when rolling up the whole range.
+ */
+@Getter
+@AllArgsConstructor
+public class RevenueRollupRow {
+
+    private LocalDate period;
+    private String key;
+    private long saleCount;
+    private long units;
+    private BigDecimal revenue;
+    private BigDecimal cost;
+    private BigDecimal grossMargin;
+}
@@ -0,0 +1,17 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Summary of a chain-wide safety stock simulation.
+ */
+@Getter
+@AllArgsConstructor
+public class SafetyStockRunResult {
+
+    private long seriesSimulated;
+    private long scenariosPerSeries;
+    private long salesDaysRead;
+    private long elapsedMillis;
+}
@@ -0,0 +1,27 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Simulated safety stock for one part at one store, next to what the fixed-days rule
+ * would keep and how often each runs out before a replenishment arrives.
+ */
+@Getter
+@AllArgsConstructor
+public class SafetyStockView {
+
+    private Long partId;
+    private Long storeId;
+    private Integer safetyStock;
+    private Double meanLeadTimeDemand;
+    private Double stockoutProbability;
+    private Double expectedShortfall;
+    private Double annualCost;
+    private Integer baselineSafetyStock;
+    private Double baselineStockoutProbability;
+    private Integer scenarios;
+    private LocalDateTime simulatedAt;
+}
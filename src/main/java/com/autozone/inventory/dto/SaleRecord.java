@@ -0,0 +1,31 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A sale as returned by the unified history API, from either the sales table or the
+ * cold archive.
+ */
+@Getter
+@AllArgsConstructor
+public class SaleRecord {
+
+    private Long id;
+    private Long partId;
+    private Long storeId;
+    private Integer quantitySold;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+    private LocalDateTime saleDate;
+    private String soldBy;
+    private boolean archived;
+
+    public SaleRecord(Long id, Long partId, Long storeId, Integer quantitySold, BigDecimal unitPrice,
+                      BigDecimal totalPrice, LocalDateTime saleDate, String soldBy) {
+        this(id, partId, storeId, quantitySold, unitPrice, totalPrice, saleDate, soldBy, false);
+    }
+}
@@ -0,0 +1,18 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales totals for one group (a part id, store id or ISO date, per the requested grouping).
+ */
+@Getter
+@AllArgsConstructor
+public class SalesAggregateRow {
+
+    private String key;
+    private Long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,17 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One partition of the sales table, with the planner's live-row estimate.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesPartitionView {
+
+    private String name;
+    private String bounds;
+    private long estimatedRows;
+    private long sizeBytes;
+}
@@ -0,0 +1,32 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily sales of one part at one store over a date range.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesSeriesView {
+
+    private Long partId;
+    private Long storeId;
+    private LocalDate from;
+    private LocalDate to;
+    private Long totalQuantity;
+    private BigDecimal totalRevenue;
+    private List<DailySales> days;
+
+    @Getter
+    @AllArgsConstructor
+    public static class DailySales {
+        private LocalDate date;
+        private Integer quantity;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,19 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How long one startup phase took. Critical phases finish before the application reports
+ * ready; deferred phases warm caches in the background afterwards.
+ */
+@Getter
+@AllArgsConstructor
+public class StartupPhaseTiming {
+
+    private String phase;
+    private boolean deferred;
+    private long durationMs;
+    private boolean succeeded;
+    private String error;
+}
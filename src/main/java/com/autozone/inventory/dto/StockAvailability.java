@@ -0,0 +1,20 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Stock of a part at a store that is free to sell or reserve.
+ */
+@Getter
+@AllArgsConstructor
+public class StockAvailability {
+
+    private Long partId;
+    private Long storeId;
+    private Integer quantity;
+    private Integer reserved;
+
+    // Never negative, even when a count left quantity below the units held
+    private Integer available;
+}
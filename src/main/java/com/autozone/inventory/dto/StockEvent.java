@@ -0,0 +1,30 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload pushed to stock stream subscribers.
+ */
+@Getter
+@AllArgsConstructor
+public class StockEvent {
+
+    private Type type;
+    private Long inventoryId;
+    private Long partId;
+    private Long storeId;
+    private Integer previousQuantity;
+    private Integer quantity;
+    private Integer reorderPoint;
+    private Boolean deleted;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        STOCK_CHANGED,
+        BELOW_REORDER_POINT,
+        RESTOCKED
+    }
+}
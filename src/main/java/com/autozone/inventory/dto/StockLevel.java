@@ -0,0 +1,19 @@
+package com.autozone.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Stock position of an inventory row right after a ledger movement was applied.
+ */
+@Getter
+@AllArgsConstructor
+public class StockLevel {
+
+    private Long inventoryId;
+    private Long partId;
+    private Long storeId;
+    private Integer quantity;
+    private Integer reorderPoint;
+    private Integer reorderQuantity;
+}
@@ -0,0 +1,30 @@
+package com.autozone.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransferRequest {
+
+    @NotNull
+    private Long partId;
+
+    @NotNull
+    private Long fromStoreId;
+
+    @NotNull
+    private Long toStoreId;
+
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+    private String reason;
+
+    private String reference;
+}
@@ -3,18 +3,30 @@ package com.autozone.inventory.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
+/**
+ * Soft-deleted rows are hidden from every HQL, criteria and derived repository query by
+ * the auto-enabled {@value #ACTIVE_ROWS} filter. Loading by id still finds them, so
+ * references from other rows keep resolving. Native SQL is not filtered; code that needs
+ * deleted rows in a query either uses native SQL or disables the filter on its session.
+ */
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
+@FilterDef(name = BaseEntity.ACTIVE_ROWS, defaultCondition = "deleted = false", autoEnabled = true)
+@Filter(name = BaseEntity.ACTIVE_ROWS)
 @Getter
 @Setter
 public abstract class BaseEntity {
 
+    public static final String ACTIVE_ROWS = "activeRows";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
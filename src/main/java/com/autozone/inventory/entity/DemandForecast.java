@@ -0,0 +1,65 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted Holt-Winters state for one (part, store) series. Written in bulk by the
+ * forecast jobs; the week in progress is accumulated in weekToDate as each day closes.
+ */
+@Entity
+@Table(name = "demand_forecasts", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"part_id", "store_id"})
+}, indexes = {
+        @Index(name = "idx_forecast_last_week", columnList = "lastFittedWeek")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DemandForecast extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Column(nullable = false)
+    private Double level;
+
+    @Column(nullable = false)
+    private Double trend;
+
+    // 52 big-endian floats, one seasonal factor per week of the year
+    @JsonIgnore
+    @Column(nullable = false)
+    private byte[] seasonals;
+
+    // Absolute week number (weeks since 1970-01-05) of the last week folded into the state
+    @Column(nullable = false)
+    private Integer lastFittedWeek;
+
+    @Column(nullable = false)
+    private Integer weekToDate;
+
+    private LocalDate lastClosedDate;
+
+    @Column(nullable = false)
+    private Integer weeksObserved;
+
+    @Column(nullable = false)
+    private Double meanAbsoluteError;
+
+    @Column(nullable = false)
+    private LocalDateTime fittedAt;
+}
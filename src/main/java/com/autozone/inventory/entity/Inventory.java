@@ -3,15 +3,19 @@ package com.autozone.inventory.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "inventory", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"part_id", "store_id"})
 
+}, indexes = {
+        @Index(name = "idx_inventory_store_change", columnList = "store_id, changeXid, id")
 })
-
+@EntityListeners(InventoryEntityListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
@@ -53,6 +57,34 @@ public class Inventory extends BaseEntity {
     @Column(length = 50)
     private String location; //Aisle/Bin location while in store
 
+    // Number of inventory_slots holding the quantity while the item is split; 0 when not split.
+    // Maintained only by HotStockService, so entity saves never change it.
+    @JsonIgnore
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer slotCount = 0;
+
+    // Units held by active reservations; available stock is quantity - reservedQuantity.
+    // Maintained only by ReservationService, so entity saves never change it.
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer reservedQuantity = 0;
+
+    // Id of the transaction that last wrote the row, stamped by a trigger (see InventorySyncService).
+    // The sync feed pages by it, so entity saves never change it.
+    @JsonIgnore
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long changeXid = 0L;
+
+    // Quantity as last read from / written to the database, used to detect threshold crossings
+    @Transient
+    @JsonIgnore
+    private Integer persistedQuantity;
+
 
 
 }
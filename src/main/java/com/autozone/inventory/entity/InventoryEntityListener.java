@@ -0,0 +1,42 @@
+package com.autozone.inventory.entity;
+
+import com.autozone.inventory.event.InventoryChangedEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns every write to an Inventory row into an InventoryChangedEvent so caches,
+ * versions and streams don't depend on each service remembering to notify them.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(Inventory inventory) {
+        inventory.setPersistedQuantity(inventory.getQuantity());
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Inventory inventory) {
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                inventory.getId(),
+                inventory.getPart().getId(),
+                inventory.getStore().getId(),
+                inventory.getPersistedQuantity(),
+                inventory.getQuantity(),
+                inventory.getReorderPoint(),
+                Boolean.TRUE.equals(inventory.getDeleted())
+        ));
+        inventory.setPersistedQuantity(inventory.getQuantity());
+    }
+}
@@ -0,0 +1,74 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * One append-only entry in the stock ledger. Rows are never updated; the current
+ * quantity on Inventory is kept in step with the ledger in the same transaction.
+ */
+@Entity
+@Table(name = "inventory_movements", indexes = {
+        @Index(name = "idx_movement_part_store_time", columnList = "part_id, store_id, occurredAt"),
+        @Index(name = "idx_movement_part_store_change", columnList = "part_id, store_id, changeXid")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryMovement extends BaseEntity {
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MovementType movementType;
+
+    // Signed change in on-hand quantity
+    @NotNull
+    @Column(nullable = false)
+    private Integer quantityDelta;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Column(length = 100)
+    private String reference; // Sale id, PO number, transfer id...
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Id of the writing transaction, stamped by a trigger (see StockLedgerService).
+    // Snapshots are cut by it, so a movement that commits late is never lost between two.
+    @JsonIgnore
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long changeXid = 0L;
+
+    public enum MovementType {
+        SALE,
+        RECEIPT,
+        ADJUSTMENT,
+        TRANSFER_IN,
+        TRANSFER_OUT
+    }
+}
@@ -0,0 +1,33 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * One share of a hot item's stock. While an inventory row is split, its on-hand quantity
+ * is the sum of its slots, so concurrent sales can each lock a different slot instead of
+ * queueing on the one inventory row. Written only through JDBC by HotStockService.
+ */
+@Entity
+@Table(name = "inventory_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_slot", columnNames = {"inventory_id", "slot"})
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySlot extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    private Inventory inventory;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
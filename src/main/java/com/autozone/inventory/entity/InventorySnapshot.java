@@ -0,0 +1,47 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * On-hand quantity of a part at a store made up of exactly the ledger movements whose
+ * transaction id is below snapshotXid, taken at snapshotAt. Point-in-time stock is this
+ * value corrected by the movements on the other side of both cuts.
+ */
+@Entity
+@Table(name = "inventory_snapshots", indexes = {
+        @Index(name = "idx_snapshot_part_store_time", columnList = "part_id, store_id, snapshotAt")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySnapshot extends BaseEntity {
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime snapshotAt;
+
+    // Null on snapshots cut by time before movements carried transaction ids; those are not used
+    private Long snapshotXid;
+}
@@ -0,0 +1,36 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * A row a part import rejected, with the reason.
+ */
+@Entity
+@Table(name = "part_import_errors", indexes = {
+        @Index(name = "idx_part_import_error_job", columnList = "job_id, lineNumber")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PartImportError extends BaseEntity {
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private PartImportJob job;
+
+    @Column(nullable = false)
+    private Long lineNumber;
+
+    @Column(length = 50)
+    private String sku;
+
+    @Column(nullable = false, length = 500)
+    private String message;
+}
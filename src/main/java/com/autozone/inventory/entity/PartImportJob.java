@@ -0,0 +1,80 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk parts catalog import. The uploaded file is kept on disk and the job records how
+ * far into it the last committed batch reached, so an interrupted or failed import
+ * resumes from that byte offset instead of starting over.
+ */
+@Entity
+@Table(name = "part_import_jobs", indexes = {
+        @Index(name = "idx_part_import_status", columnList = "status")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PartImportJob extends BaseEntity {
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @JsonIgnore
+    @Column(nullable = false, length = 500)
+    private String storedPath;
+
+    @Column(nullable = false)
+    private Long fileBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(length = 50)
+    private String requestedBy;
+
+    // Checkpoint: everything before this offset is committed
+    @Builder.Default
+    @Column(nullable = false)
+    private Long bytesProcessed = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long linesProcessed = 0L;
+
+    // Inserted, or updated because a field changed
+    @Builder.Default
+    @Column(nullable = false)
+    private Long rowsWritten = 0L;
+
+    // Matched an existing part exactly, so nothing was written
+    @Builder.Default
+    @Column(nullable = false)
+    private Long rowsUnchanged = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long rowsRejected = 0L;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String failureReason;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED      // Resumable from the checkpoint
+    }
+}
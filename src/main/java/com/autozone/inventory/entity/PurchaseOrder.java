@@ -0,0 +1,75 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generated order to one supplier, delivered to one store. When hub consolidation is
+ * on, the store is the HUB and each line records the store it is ultimately for.
+ */
+@Entity
+@Table(name = "purchase_orders", indexes = {
+        @Index(name = "idx_po_status", columnList = "status"),
+        @Index(name = "idx_po_run", columnList = "runId")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrder extends BaseEntity {
+
+    @NotBlank
+    @Column(unique = true, nullable = false, length = 40)
+    private String poNumber;
+
+    @NotBlank
+    @Column(nullable = false)
+    private String supplierName;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(length = 255)
+    private String holdReason;
+
+    @Column(nullable = false)
+    private boolean consolidated;
+
+    @Column(nullable = false, length = 36)
+    private String runId;
+
+    @Column(nullable = false)
+    private Integer totalUnits;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalCost;
+
+    @OneToMany(mappedBy = "purchaseOrder", fetch = FetchType.LAZY)
+    @OrderBy("id")
+    @Builder.Default
+    private List<PurchaseOrderLine> lines = new ArrayList<>();
+
+    public enum Status {
+        DRAFT,
+        ON_HOLD,    // Below the supplier's minimum order value
+        APPROVED,
+        RECEIVED,
+        CANCELLED
+    }
+}
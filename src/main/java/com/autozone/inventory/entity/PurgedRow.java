@@ -0,0 +1,43 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archived copy of a soft-deleted row removed by SoftDeletePurgeService, kept as the
+ * row's JSON so any table fits. Written only through JDBC in the purge statement.
+ */
+@Entity
+@Table(name = "purged_rows", indexes = {
+        @Index(name = "idx_purged_row_table_deleted", columnList = "table_name, deleted_at")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurgedRow extends BaseEntity {
+
+    @Column(name = "table_name", nullable = false, length = 64)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private Long rowId;
+
+    // When the row was soft-deleted (its last updated_at)
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "row_data", nullable = false, columnDefinition = "jsonb")
+    private String rowData;
+
+    @Column(name = "purged_at", nullable = false)
+    private LocalDateTime purgedAt;
+}
@@ -0,0 +1,42 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reorder alert as stored by the database sink. Open while resolvedAt is null.
+ */
+@Entity
+@Table(name = "reorder_alerts", indexes = {
+        @Index(name = "idx_reorder_alert_open", columnList = "part_id, store_id, resolvedAt")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReorderAlertRecord extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Integer reorderPoint;
+
+    @Column(nullable = false)
+    private LocalDateTime raisedAt;
+
+    private LocalDateTime resolvedAt;
+}
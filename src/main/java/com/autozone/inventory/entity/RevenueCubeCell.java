@@ -0,0 +1,54 @@
+package com.autozone.inventory.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * One (store, category, day) cell of the revenue cube. Cells are only ever written by
+ * RevenueCubeService's native upserts, so this does not extend BaseEntity: audit columns
+ * and soft deletes would cost a write per sale and mean nothing for a running total.
+ */
+@Entity
+@Table(name = "revenue_cube", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_cube_cell", columnNames = {"store_id", "category", "sale_day"})
+}, indexes = {
+        @Index(name = "idx_revenue_cube_day", columnList = "sale_day")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueCubeCell {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Part.PartCategory category;
+
+    @Column(name = "sale_day", nullable = false)
+    private LocalDate saleDay;
+
+    @Column(nullable = false)
+    private Long saleCount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Long revenueCents;
+
+    @Column(nullable = false)
+    private Long costCents;
+}
@@ -0,0 +1,61 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Simulated safety stock for one (part, store), with the stockout risk it leaves and
+ * the risk the fixed-days rule would have. Rewritten in bulk by each simulation run.
+ */
+@Entity
+@Table(name = "safety_stock_recommendations", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"part_id", "store_id"})
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SafetyStockRecommendation extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Column(nullable = false)
+    private Integer safetyStock;
+
+    @Column(nullable = false)
+    private Double meanLeadTimeDemand;
+
+    @Column(nullable = false)
+    private Double stockoutProbability;
+
+    // Units of demand missed per replenishment cycle, on average
+    @Column(nullable = false)
+    private Double expectedShortfall;
+
+    // Holding cost of the safety stock plus expected stockout cost, per year
+    @Column(nullable = false)
+    private Double annualCost;
+
+    @Column(nullable = false)
+    private Integer baselineSafetyStock;
+
+    @Column(nullable = false)
+    private Double baselineStockoutProbability;
+
+    @Column(nullable = false)
+    private Integer scenarios;
+
+    @Column(nullable = false)
+    private LocalDateTime simulatedAt;
+}
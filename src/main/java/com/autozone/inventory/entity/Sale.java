@@ -11,10 +11,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sales", indexes = {
-        @Index(name = "idx_sale_date", columnList = "saleDate"),
-        @Index(name = "idx_part_store", columnList = "part_id, store_id")
-})
+// Indexes and foreign keys are created by SalesPartitionService: Hibernate's schema
+// update cannot see them on a partitioned table and would try to recreate them on every start
+@Table(name = "sales")
+@EntityListeners(SaleEntityListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
@@ -26,12 +26,12 @@ public class Sale extends BaseEntity {
 
     @NotNull
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "part_id", nullable = false)
+    @JoinColumn(name = "part_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Part part;
 
     @NotNull
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "store_id", nullable = false)
+    @JoinColumn(name = "store_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Store store;
 
     @NotNull
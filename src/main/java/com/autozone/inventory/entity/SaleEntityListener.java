@@ -0,0 +1,31 @@
+package com.autozone.inventory.entity;
+
+import com.autozone.inventory.event.SaleRecordedEvent;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Announces every inserted sale so pre-aggregated views can be maintained in the same
+ * transaction, whichever code path wrote the sale.
+ */
+@Component
+@RequiredArgsConstructor
+public class SaleEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onInsert(Sale sale) {
+        Part part = sale.getPart();
+        eventPublisher.publishEvent(new SaleRecordedEvent(
+                sale.getStore().getId(),
+                part.getCategory(),
+                sale.getSaleDate().toLocalDate(),
+                sale.getQuantitySold(),
+                sale.getTotalPrice().movePointRight(2).longValue(),
+                part.getCost().movePointRight(2).longValue() * sale.getQuantitySold()
+        ));
+    }
+}
@@ -0,0 +1,63 @@
+package com.autozone.inventory.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One line of an order's hold on store stock. While ACTIVE its quantity is counted in
+ * Inventory.reservedQuantity; the hold ends when the order is picked up, released or
+ * expires. Written only through JDBC by ReservationService.
+ */
+@Entity
+@Table(name = "stock_reservations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reservation_line", columnNames = {"store_id", "order_reference", "part_id"})
+}, indexes = {
+        @Index(name = "idx_reservation_status_expires", columnList = "status, expires_at")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation extends BaseEntity {
+
+    @NotNull
+    @Column(name = "order_reference", nullable = false, length = 64)
+    private String orderReference;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "part_id", nullable = false)
+    private Part part;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @NotNull
+    @Positive
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        ACTIVE,
+        FULFILLED,  // Picked up; the stock left through the ledger as a sale
+        RELEASED,   // Cancelled by the order
+        EXPIRED     // Not picked up before its TTL ran out
+    }
+}
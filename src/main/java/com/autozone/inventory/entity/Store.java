@@ -44,6 +44,11 @@ public class Store extends BaseEntity{
     @Column(length = 20)
     private String phone;
 
+    // Derived from zipCode when not supplied; used by the nearest-store finder
+    private Double latitude;
+
+    private Double longitude;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private StoreType storeType = StoreType.STANDARD;
@@ -0,0 +1,16 @@
+package com.autozone.inventory.event;
+
+import com.autozone.inventory.catalog.CatalogSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after the in-memory part/store catalog is (re)loaded, so indexes derived
+ * from it can rebuild from the new snapshot instead of querying the database.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+
+    private final CatalogSnapshot catalog;
+}
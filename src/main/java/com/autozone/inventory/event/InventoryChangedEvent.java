@@ -0,0 +1,35 @@
+package com.autozone.inventory.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever an inventory row is inserted, updated or soft-deleted.
+ * Listeners that need committed data should use @TransactionalEventListener.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class InventoryChangedEvent {
+
+    private final Long inventoryId;
+    private final Long partId;
+    private final Long storeId;
+
+    // Null when the row was just created
+    private final Integer previousQuantity;
+    private final Integer quantity;
+    private final Integer reorderPoint;
+    private final boolean deleted;
+
+    public boolean crossedBelowReorderPoint() {
+        return !deleted && quantity <= reorderPoint
+                && (previousQuantity == null || previousQuantity > reorderPoint);
+    }
+
+    public boolean crossedAboveReorderPoint() {
+        return !deleted && quantity > reorderPoint
+                && previousQuantity != null && previousQuantity <= reorderPoint;
+    }
+}
@@ -0,0 +1,17 @@
+package com.autozone.inventory.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a part is created, updated or deleted, so the in-memory catalog can
+ * reload after the change commits. The part id is null after a bulk import.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class PartChangedEvent {
+
+    private final Long partId;
+}
@@ -0,0 +1,25 @@
+package com.autozone.inventory.event;
+
+import com.autozone.inventory.entity.Part;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Published inside the inserting transaction whenever a sale row is persisted. Amounts
+ * are in cents; cost is the part's cost at the time of sale.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SaleRecordedEvent {
+
+    private final Long storeId;
+    private final Part.PartCategory category;
+    private final LocalDate saleDay;
+    private final int quantity;
+    private final long revenueCents;
+    private final long costCents;
+}
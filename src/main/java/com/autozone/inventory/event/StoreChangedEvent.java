@@ -0,0 +1,17 @@
+package com.autozone.inventory.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a store is created, updated or deleted, so in-memory store indexes
+ * can rebuild after the change commits.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class StoreChangedEvent {
+
+    private final Long storeId;
+}
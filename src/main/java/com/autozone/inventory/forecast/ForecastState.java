@@ -0,0 +1,49 @@
+package com.autozone.inventory.forecast;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holt-Winters state of one (part, store) series after its last fitted week.
+ * Seasonal factors are indexed by absolute week number modulo the season length.
+ */
+@Getter
+@Setter
+public class ForecastState {
+
+    private double level;
+    private double trend;
+    private double[] seasonals;
+    private int lastFittedWeek;
+    private int weeksObserved;
+    private double meanAbsoluteError;
+
+    public ForecastState(double level, double trend, double[] seasonals, int lastFittedWeek,
+                         int weeksObserved, double meanAbsoluteError) {
+        this.level = level;
+        this.trend = trend;
+        this.seasonals = seasonals;
+        this.lastFittedWeek = lastFittedWeek;
+        this.weeksObserved = weeksObserved;
+        this.meanAbsoluteError = meanAbsoluteError;
+    }
+
+    public byte[] encodeSeasonals() {
+        ByteBuffer buffer = ByteBuffer.allocate(seasonals.length * Float.BYTES);
+        for (double seasonal : seasonals) {
+            buffer.putFloat((float) seasonal);
+        }
+        return buffer.array();
+    }
+
+    public static double[] decodeSeasonals(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        double[] seasonals = new double[encoded.length / Float.BYTES];
+        for (int i = 0; i < seasonals.length; i++) {
+            seasonals[i] = buffer.getFloat();
+        }
+        return seasonals;
+    }
+}
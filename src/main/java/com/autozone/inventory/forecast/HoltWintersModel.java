@@ -0,0 +1,134 @@
+package com.autozone.inventory.forecast;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Additive Holt-Winters with a damped trend over weekly demand, with a 52-week season
+ * so yearly patterns (batteries in winter, A/C parts in summer) are captured. Additive
+ * rather than multiplicative because most store-level series are sparse and a zero
+ * week would wipe out a multiplicative seasonal factor.
+ */
+public class HoltWintersModel {
+
+    public static final int SEASON_LENGTH = 52;
+
+    // Week 0 starts on Monday 1970-01-05, so week numbers line up with ISO weeks
+    private static final LocalDate WEEK_ZERO = LocalDate.of(1970, 1, 5);
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final double phi;
+
+    public HoltWintersModel(double alpha, double beta, double gamma, double phi) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.phi = phi;
+    }
+
+    public static int weekOf(LocalDate date) {
+        return (int) Math.floorDiv(ChronoUnit.DAYS.between(WEEK_ZERO, date), 7);
+    }
+
+    public static LocalDate startOfWeek(int week) {
+        return WEEK_ZERO.plusWeeks(week);
+    }
+
+    /**
+     * Fits a series of consecutive weekly totals, the first of which is firstWeek.
+     * With two full seasons the trend comes from the season-over-season change; with
+     * one the seasonal factors start from that season; with less the model starts
+     * non-seasonal and learns seasonal factors as the weeks come round.
+     */
+    public ForecastState fit(int firstWeek, int[] weekly) {
+        int n = weekly.length;
+        double[] seasonals = new double[SEASON_LENGTH];
+        if (n == 0) {
+            return new ForecastState(0, 0, seasonals, firstWeek - 1, 0, 0);
+        }
+
+        int initWeeks = Math.min(n, SEASON_LENGTH);
+        double level = mean(weekly, 0, initWeeks);
+        double trend = n >= 2 * SEASON_LENGTH
+                ? (mean(weekly, SEASON_LENGTH, 2 * SEASON_LENGTH) - level) / SEASON_LENGTH
+                : 0;
+        int start = 0;
+        if (n >= SEASON_LENGTH) {
+            // The season's mean sits mid-season: detrend the factors around it and move the level to its last week
+            double middle = (SEASON_LENGTH - 1) / 2.0;
+            for (int i = 0; i < SEASON_LENGTH; i++) {
+                seasonals[Math.floorMod(firstWeek + i, SEASON_LENGTH)] = weekly[i] - (level + trend * (i - middle));
+            }
+            level += trend * middle;
+            start = SEASON_LENGTH;
+        }
+
+        ForecastState state = new ForecastState(level, trend, seasonals, firstWeek + start - 1, start, 0);
+        for (int i = start; i < n; i++) {
+            update(state, weekly[i]);
+        }
+        return state;
+    }
+
+    /** Folds one more completed week into the state. */
+    public void update(ForecastState state, double observed) {
+        int week = state.getLastFittedWeek() + 1;
+        int slot = Math.floorMod(week, SEASON_LENGTH);
+        double[] seasonals = state.getSeasonals();
+        double seasonal = seasonals[slot];
+        double level = state.getLevel();
+        double trend = state.getTrend();
+
+        double predicted = level + phi * trend + seasonal;
+        int observedWeeks = state.getWeeksObserved() + 1;
+        // Running mean absolute one-step error, turning into an EWMA once history is long
+        double weight = Math.max(1.0 / observedWeeks, 1.0 / SEASON_LENGTH);
+        state.setMeanAbsoluteError(state.getMeanAbsoluteError() + weight * (Math.abs(observed - predicted) - state.getMeanAbsoluteError()));
+
+        double newLevel = alpha * (observed - seasonal) + (1 - alpha) * (level + phi * trend);
+        state.setTrend(beta * (newLevel - level) + (1 - beta) * phi * trend);
+        state.setLevel(newLevel);
+        seasonals[slot] = gamma * (observed - newLevel) + (1 - gamma) * seasonal;
+        state.setLastFittedWeek(week);
+        state.setWeeksObserved(observedWeeks);
+    }
+
+    /** Expected demand for the week that is the given number of weeks after the last fitted one. */
+    public double forecastWeek(ForecastState state, int weeksAhead) {
+        double dampedTrend = 0;
+        double factor = 1;
+        for (int h = 0; h < weeksAhead; h++) {
+            factor *= phi;
+            dampedTrend += factor;
+        }
+        int slot = Math.floorMod(state.getLastFittedWeek() + weeksAhead, SEASON_LENGTH);
+        return Math.max(0, state.getLevel() + dampedTrend * state.getTrend() + state.getSeasonals()[slot]);
+    }
+
+    /** Expected demand over a run of days, spreading each week's forecast evenly over its days. */
+    public double forecastDays(ForecastState state, LocalDate from, int days) {
+        double total = 0;
+        int week = weekOf(from);
+        int remaining = days;
+        int dayInWeek = (int) ChronoUnit.DAYS.between(startOfWeek(week), from);
+        while (remaining > 0) {
+            int daysThisWeek = Math.min(7 - dayInWeek, remaining);
+            int weeksAhead = Math.max(1, week - state.getLastFittedWeek());
+            total += forecastWeek(state, weeksAhead) * daysThisWeek / 7.0;
+            remaining -= daysThisWeek;
+            dayInWeek = 0;
+            week++;
+        }
+        return total;
+    }
+
+    private static double mean(int[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return (double) sum / (to - from);
+    }
+}
@@ -0,0 +1,216 @@
+package com.autozone.inventory.forecast;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.service.ReorderPolicy;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Day-by-day replay of reorder policies over past daily sales, so candidate policies
+ * can be compared on the same history before one goes live.
+ *
+ * Every item starts at its max stock level. Each day, orders due that day arrive, the
+ * recorded sales are served from stock (demand beyond it is lost), and when stock plus
+ * open orders is at or below the reorder point an order sized by the policy is placed,
+ * arriving after the supplier's quoted lead time. Reorder points are recalculated from
+ * the trailing 30, 60 and 90 days of sales every review period; the first 90 days of
+ * the history only fill those windows.
+ *
+ * Stores are replayed in parallel. Each series is unpacked once into a primitive buffer
+ * and run through every policy, and each store's totals occupy their own slice of one
+ * array, so workers share nothing and allocate only their per-store buffers.
+ */
+public class ReorderReplay {
+
+    public static final int WARM_UP_DAYS = 90;
+
+    /** Totals kept per policy, store and category. */
+    public enum Metric {
+        ITEMS,
+        ITEM_DAYS,
+        // Days on which some demand found the shelf empty
+        STOCKOUT_DAYS,
+        DEMAND,
+        LOST_SALES,
+        // End-of-day stock summed over days, for the average stock held
+        STOCK_UNIT_DAYS,
+        ORDERS,
+        UNITS_ORDERED
+    }
+
+    private static final int METRICS = Metric.values().length;
+
+    private final List<ReorderPolicy> policies;
+    private final int reviewDays;
+
+    public ReorderReplay(List<ReorderPolicy> policies, int reviewDays) {
+        if (policies.isEmpty() || reviewDays < 1) {
+            throw new IllegalArgumentException("At least one policy and a positive review period are required");
+        }
+        this.policies = List.copyOf(policies);
+        this.reviewDays = reviewDays;
+    }
+
+    /**
+     * Replays every item over the days [from, from + days).
+     */
+    public Totals run(SalesColumnStore sales, Items items, LocalDate from, int days) {
+        if (days <= WARM_UP_DAYS) {
+            throw new IllegalArgumentException("The replay needs more than " + WARM_UP_DAYS + " days of history");
+        }
+
+        // Counting sort of the replayed series by store
+        int[] storeStart = new int[items.storeCount + 1];
+        for (int s = 0; s < items.store.length; s++) {
+            if (items.store[s] >= 0) {
+                storeStart[items.store[s] + 1]++;
+            }
+        }
+        for (int store = 0; store < items.storeCount; store++) {
+            storeStart[store + 1] += storeStart[store];
+        }
+        int[] seriesByStore = new int[storeStart[items.storeCount]];
+        int[] next = Arrays.copyOf(storeStart, items.storeCount);
+        for (int s = 0; s < items.store.length; s++) {
+            if (items.store[s] >= 0) {
+                seriesByStore[next[items.store[s]]++] = s;
+            }
+        }
+
+        long[] totals = new long[items.storeCount * items.categoryCount * policies.size() * METRICS];
+        IntStream.range(0, items.storeCount).parallel().forEach(store -> {
+            int[] demand = new int[days];
+            long[] cumulative = new long[days + 1];
+            int[] arrivals = new int[days];
+            for (int i = storeStart[store]; i < storeStart[store + 1]; i++) {
+                int series = seriesByStore[i];
+                sales.fillDailyQuantities(series, from, demand);
+                for (int day = 0; day < days; day++) {
+                    cumulative[day + 1] = cumulative[day] + demand[day];
+                }
+                int cell = (store * items.categoryCount + items.category[series]) * policies.size();
+                for (int p = 0; p < policies.size(); p++) {
+                    replayItem(policies.get(p), demand, cumulative, arrivals,
+                            items.leadTimeDays[series], items.maxStockLevel[series], totals, (cell + p) * METRICS);
+                }
+            }
+        });
+        return new Totals(totals, items.categoryCount, policies.size(), seriesByStore.length);
+    }
+
+    private void replayItem(ReorderPolicy policy, int[] demand, long[] cumulative, int[] arrivals,
+                            int leadTimeDays, int maxStockLevel, long[] totals, int offset) {
+        int days = demand.length;
+        Arrays.fill(arrivals, 0);
+        int onHand = maxStockLevel;
+        int onOrder = 0;
+        int reorderPoint = 0;
+        long stockoutDays = 0;
+        long demanded = 0;
+        long lost = 0;
+        long stockUnitDays = 0;
+        long orders = 0;
+        long unitsOrdered = 0;
+
+        for (int day = WARM_UP_DAYS; day < days; day++) {
+            onHand += arrivals[day];
+            onOrder -= arrivals[day];
+
+            long sold30 = cumulative[day] - cumulative[day - 30];
+            if ((day - WARM_UP_DAYS) % reviewDays == 0) {
+                double velocity = policy.dailyVelocity(sold30,
+                        cumulative[day] - cumulative[day - 60], cumulative[day] - cumulative[day - 90]);
+                reorderPoint = policy.reorderPoint(velocity, leadTimeDays);
+            }
+
+            int wanted = demand[day];
+            int served = Math.min(wanted, onHand);
+            onHand -= served;
+            demanded += wanted;
+            if (served < wanted) {
+                stockoutDays++;
+                lost += wanted - served;
+            }
+
+            // Open orders count toward the position, so one shortfall is not ordered twice
+            int position = onHand + onOrder;
+            if (position <= reorderPoint) {
+                int quantity = policy.orderQuantity(sold30, position, maxStockLevel);
+                if (quantity > 0) {
+                    orders++;
+                    unitsOrdered += quantity;
+                    onOrder += quantity;
+                    int arrival = day + Math.max(1, leadTimeDays);
+                    if (arrival < days) {
+                        arrivals[arrival] += quantity;
+                    }
+                }
+            }
+            stockUnitDays += onHand;
+        }
+
+        totals[offset + Metric.ITEMS.ordinal()]++;
+        totals[offset + Metric.ITEM_DAYS.ordinal()] += days - WARM_UP_DAYS;
+        totals[offset + Metric.STOCKOUT_DAYS.ordinal()] += stockoutDays;
+        totals[offset + Metric.DEMAND.ordinal()] += demanded;
+        totals[offset + Metric.LOST_SALES.ordinal()] += lost;
+        totals[offset + Metric.STOCK_UNIT_DAYS.ordinal()] += stockUnitDays;
+        totals[offset + Metric.ORDERS.ordinal()] += orders;
+        totals[offset + Metric.UNITS_ORDERED.ordinal()] += unitsOrdered;
+    }
+
+    /**
+     * The items to replay, indexed by series of the sales store. Series left unset (no
+     * stock row to replay against) are skipped.
+     */
+    public static final class Items {
+        private final int[] store;
+        private final int[] category;
+        private final int[] leadTimeDays;
+        private final int[] maxStockLevel;
+        private final int storeCount;
+        private final int categoryCount;
+
+        public Items(int seriesCount, int storeCount, int categoryCount) {
+            this.store = new int[seriesCount];
+            this.category = new int[seriesCount];
+            this.leadTimeDays = new int[seriesCount];
+            this.maxStockLevel = new int[seriesCount];
+            this.storeCount = storeCount;
+            this.categoryCount = categoryCount;
+            Arrays.fill(store, -1);
+        }
+
+        public void set(int series, int storeIndex, int categoryIndex, int leadTimeDays, int maxStockLevel) {
+            this.store[series] = storeIndex;
+            this.category[series] = categoryIndex;
+            this.leadTimeDays[series] = leadTimeDays;
+            this.maxStockLevel[series] = maxStockLevel;
+        }
+    }
+
+    public static final class Totals {
+        private final long[] totals;
+        private final int categoryCount;
+        private final int policyCount;
+        private final int itemCount;
+
+        private Totals(long[] totals, int categoryCount, int policyCount, int itemCount) {
+            this.totals = totals;
+            this.categoryCount = categoryCount;
+            this.policyCount = policyCount;
+            this.itemCount = itemCount;
+        }
+
+        public long get(int policy, int storeIndex, int categoryIndex, Metric metric) {
+            return totals[((storeIndex * categoryCount + categoryIndex) * policyCount + policy) * METRICS + metric.ordinal()];
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+}
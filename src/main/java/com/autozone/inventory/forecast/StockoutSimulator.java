@@ -0,0 +1,165 @@
+package com.autozone.inventory.forecast;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Monte Carlo choice of safety stock for one (part, store): the reorder point that
+ * minimizes the yearly cost of the extra stock held plus the sales lost while waiting
+ * for replenishment.
+ *
+ * Each scenario draws a lead time uniformly around the supplier's quoted one and the
+ * demand over it by block bootstrap: runs of consecutive recorded days starting at
+ * random points in the history, so weekday patterns and bursts of demand survive
+ * resampling. Sorting the outcomes then prices every candidate reorder point in one
+ * pass.
+ *
+ * An instance keeps its scratch arrays between items and is not thread-safe; use one
+ * per worker thread. Nothing is allocated per scenario.
+ */
+public class StockoutSimulator {
+
+    private final int scenarios;
+    private final int blockDays;
+    private final double leadTimeVariation;
+    private final double minServiceLevel;
+    private final int[] outcomes;
+    private long[] cumulative = new long[1];
+
+    /**
+     * @param blockDays length of the runs of history drawn together
+     * @param leadTimeVariation lead times are drawn within this fraction of the quoted one
+     * @param minServiceLevel lowest acceptable share of cycles without a stockout
+     */
+    public StockoutSimulator(int scenarios, int blockDays, double leadTimeVariation, double minServiceLevel) {
+        if (scenarios < 1 || blockDays < 1) {
+            throw new IllegalArgumentException("scenarios and blockDays must be positive");
+        }
+        this.scenarios = scenarios;
+        this.blockDays = blockDays;
+        this.leadTimeVariation = leadTimeVariation;
+        this.minServiceLevel = minServiceLevel;
+        this.outcomes = new int[scenarios];
+    }
+
+    /**
+     * @param dailyDemand units sold on each day of the history, oldest first
+     * @param holdingCost cost of keeping one unit in stock for a year
+     * @param stockoutCost cost of one unit of demand that finds the shelf empty
+     * @param cyclesPerYear replenishments a year, each exposed to one lead time
+     * @param baselineSafetyStock safety stock of the rule being replaced, priced for comparison
+     */
+    public Result simulate(int[] dailyDemand, int leadTimeDays, double holdingCost, double stockoutCost,
+                           double cyclesPerYear, int baselineSafetyStock, SplittableRandom random) {
+        int days = dailyDemand.length;
+        if (days == 0) {
+            throw new IllegalArgumentException("No demand history");
+        }
+        if (cumulative.length < days + 1) {
+            cumulative = new long[days + 1];
+        }
+        for (int day = 0; day < days; day++) {
+            cumulative[day + 1] = cumulative[day] + dailyDemand[day];
+        }
+
+        int spread = (int) Math.round(leadTimeDays * leadTimeVariation);
+        int minLead = Math.max(1, leadTimeDays - spread);
+        int maxLead = Math.max(minLead, leadTimeDays + spread);
+        long demandSum = 0;
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            int lead = minLead == maxLead ? minLead : random.nextInt(minLead, maxLead + 1);
+            long demand = 0;
+            for (int remaining = lead; remaining > 0; ) {
+                int length = Math.min(Math.min(blockDays, remaining), days);
+                demand += windowSum(random.nextInt(days), length, days);
+                remaining -= length;
+            }
+            int outcome = (int) Math.min(demand, Integer.MAX_VALUE);
+            outcomes[scenario] = outcome;
+            demandSum += outcome;
+        }
+        Arrays.sort(outcomes);
+        double mean = (double) demandSum / scenarios;
+
+        // Candidates are the mean (no safety stock) and every outcome above it. For a
+        // reorder point r, 'covered' outcomes are <= r and the rest run short by x - r.
+        double maxStockoutProbability = 1 - minServiceLevel + 1e-9;
+        int reorderPoint = (int) Math.ceil(mean);
+        int covered = 0;
+        long coveredSum = 0;
+        int bestReorderPoint = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        double bestStockoutProbability = 0;
+        double bestShortfall = 0;
+        while (true) {
+            while (covered < scenarios && outcomes[covered] <= reorderPoint) {
+                coveredSum += outcomes[covered++];
+            }
+            int uncovered = scenarios - covered;
+            double stockoutProbability = (double) uncovered / scenarios;
+            if (stockoutProbability <= maxStockoutProbability) {
+                double shortfall = (double) (demandSum - coveredSum - (long) uncovered * reorderPoint) / scenarios;
+                double cost = holdingCost * (reorderPoint - mean) + cyclesPerYear * stockoutCost * shortfall;
+                if (cost < bestCost) {
+                    bestReorderPoint = reorderPoint;
+                    bestCost = cost;
+                    bestStockoutProbability = stockoutProbability;
+                    bestShortfall = shortfall;
+                }
+            }
+            if (covered == scenarios) {
+                break;
+            }
+            reorderPoint = outcomes[covered];
+        }
+
+        long baselineReorderPoint = (long) Math.ceil(mean) + baselineSafetyStock;
+        double baselineStockoutProbability = (double) (scenarios - coveredCount(baselineReorderPoint)) / scenarios;
+        return new Result(bestReorderPoint, Math.max(0, (int) Math.ceil(bestReorderPoint - mean)), mean,
+                bestStockoutProbability, bestShortfall, bestCost, baselineStockoutProbability);
+    }
+
+    // Demand over days [start, start + length) of the history, wrapping past the end
+    private long windowSum(int start, int length, int days) {
+        int end = start + length;
+        if (end <= days) {
+            return cumulative[end] - cumulative[start];
+        }
+        return cumulative[days] - cumulative[start] + cumulative[end - days];
+    }
+
+    // Number of outcomes <= value
+    private int coveredCount(long value) {
+        int low = 0;
+        int high = scenarios;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (outcomes[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Result {
+        private final int reorderPoint;
+        // Units kept above the mean lead-time demand
+        private final int safetyStock;
+        private final double meanLeadTimeDemand;
+        // Share of replenishment cycles that run out before the order arrives
+        private final double stockoutProbability;
+        // Units of demand missed per cycle, on average
+        private final double expectedShortfall;
+        // Yearly holding cost of the safety stock plus the expected cost of stockouts
+        private final double annualCost;
+        private final double baselineStockoutProbability;
+    }
+}
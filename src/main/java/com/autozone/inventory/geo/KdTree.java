@@ -0,0 +1,158 @@
+package com.autozone.inventory.geo;
+
+import java.util.PriorityQueue;
+
+/**
+ * Static 3-d tree over points on the unit sphere. Latitude/longitude are mapped to
+ * unit vectors, where straight-line (chord) distance grows monotonically with
+ * great-circle distance, so Euclidean bounds prune exactly without special-casing
+ * the poles or the antimeridian.
+ *
+ * The tree is implicit: the points array is arranged so the median of every range is
+ * that subtree's splitting point, with the split axis cycling x, y, z by depth.
+ */
+public class KdTree {
+
+    private final double[][] coords; // [i] = {x, y, z}, arranged in tree order
+    private final int[] ids;         // caller's index for each arranged point
+
+    public KdTree(GeoPoint[] points) {
+        int n = points.length;
+        this.coords = new double[n][];
+        this.ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            coords[i] = toUnitVector(points[i]);
+            ids[i] = i;
+        }
+        build(0, n, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Walks points in increasing distance from the origin (best-first search), so
+     * callers can filter and stop as soon as they have enough results.
+     */
+    public Cursor nearest(GeoPoint origin) {
+        return new Cursor(toUnitVector(origin));
+    }
+
+    public class Cursor {
+
+        private final double[] query;
+        // Entries are either a subtree range (point = -1) or a single arranged point
+        private final PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        private double lastChord;
+
+        private Cursor(double[] query) {
+            this.query = query;
+            if (ids.length > 0) {
+                queue.add(new double[]{0.0, -1, 0, ids.length, 0});
+            }
+        }
+
+        /** Caller index of the next nearest point, or -1 when exhausted. */
+        public int next() {
+            while (!queue.isEmpty()) {
+                double[] entry = queue.poll();
+                if (entry[1] >= 0) {
+                    lastChord = entry[0];
+                    return ids[(int) entry[1]];
+                }
+                int lo = (int) entry[2];
+                int hi = (int) entry[3];
+                int depth = (int) entry[4];
+                int mid = (lo + hi) >>> 1;
+                int axis = depth % 3;
+
+                queue.add(new double[]{chord(query, coords[mid]), mid, 0, 0, 0});
+
+                double planeGap = query[axis] - coords[mid][axis];
+                double nearBound = entry[0];
+                double farBound = Math.max(entry[0], Math.abs(planeGap));
+                if (lo < mid) {
+                    queue.add(new double[]{planeGap <= 0 ? nearBound : farBound, -1, lo, mid, depth + 1});
+                }
+                if (mid + 1 < hi) {
+                    queue.add(new double[]{planeGap > 0 ? nearBound : farBound, -1, mid + 1, hi, depth + 1});
+                }
+            }
+            return -1;
+        }
+
+        /** Great-circle distance in miles of the point last returned by next(). */
+        public double lastDistanceMiles() {
+            return chordToMiles(lastChord);
+        }
+
+        /** Lower bound, in miles, on the distance of every point not yet returned. */
+        public double remainingLowerBoundMiles() {
+            return queue.isEmpty() ? Double.POSITIVE_INFINITY : chordToMiles(queue.peek()[0]);
+        }
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, depth % 3);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    // Quickselect: afterwards coords[k] holds the k-th smallest along axis within [lo, hi]
+    private void select(int lo, int hi, int k, int axis) {
+        while (lo < hi) {
+            double pivot = coords[(lo + hi) >>> 1][axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coords[i][axis] < pivot) {
+                    i++;
+                }
+                while (coords[j][axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double[] c = coords[a];
+        coords[a] = coords[b];
+        coords[b] = c;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+
+    private static double[] toUnitVector(GeoPoint point) {
+        double lat = Math.toRadians(point.getLatitude());
+        double lon = Math.toRadians(point.getLongitude());
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double chord(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static double chordToMiles(double chord) {
+        return 2 * GeoPoint.EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, chord / 2));
+    }
+}
@@ -0,0 +1,107 @@
+package com.autozone.inventory.geo;
+
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.CatalogChangedEvent;
+import com.autozone.inventory.service.CatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory spatial index over all active stores. The index is an immutable snapshot
+ * that is rebuilt whole from the store catalog whenever the catalog reloads; a
+ * chain-sized rebuild takes a few milliseconds and stores change rarely, so readers
+ * never need to lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoreLocationIndex {
+
+    private final CatalogService catalogService;
+    private final ZipCodeGeocoder geocoder;
+
+    private volatile Snapshot snapshot;
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuild(event.getCatalog().getStores());
+    }
+
+    public Snapshot rebuild() {
+        return rebuild(catalogService.getStores());
+    }
+
+    private synchronized Snapshot rebuild(List<Store> stores) {
+        List<StoreSite> sites = new ArrayList<>();
+        int unlocated = 0;
+        for (Store store : stores) {
+            if (Boolean.TRUE.equals(store.getDeleted())) {
+                continue;
+            }
+            Optional<GeoPoint> location = store.getLatitude() != null && store.getLongitude() != null
+                    ? Optional.of(new GeoPoint(store.getLatitude(), store.getLongitude()))
+                    : geocoder.locate(store.getZipCode());
+            if (location.isEmpty()) {
+                unlocated++;
+                continue;
+            }
+            sites.add(new StoreSite(store.getId(), store.getStoreNumber(), store.getName(), store.getCity(),
+                    store.getState(), store.getStoreType(), location.get()));
+        }
+        if (unlocated > 0) {
+            log.warn("{} stores have no coordinates and no known ZIP centroid; they are excluded from nearby search",
+                    unlocated);
+        }
+
+        Snapshot rebuilt = new Snapshot(sites);
+        snapshot = rebuilt;
+        log.debug("Rebuilt store location index with {} stores", sites.size());
+        return rebuilt;
+    }
+
+    public static final class Snapshot {
+
+        private final StoreSite[] sites;
+        private final Map<Long, StoreSite> byId = new HashMap<>();
+        private final KdTree tree;
+
+        private Snapshot(List<StoreSite> sites) {
+            this.sites = sites.toArray(new StoreSite[0]);
+            GeoPoint[] points = new GeoPoint[this.sites.length];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = this.sites[i].getLocation();
+                byId.put(this.sites[i].getStoreId(), this.sites[i]);
+            }
+            this.tree = new KdTree(points);
+        }
+
+        public Optional<StoreSite> find(Long storeId) {
+            return Optional.ofNullable(byId.get(storeId));
+        }
+
+        public KdTree.Cursor nearest(GeoPoint origin) {
+            return tree.nearest(origin);
+        }
+
+        public StoreSite site(int index) {
+            return sites[index];
+        }
+
+        public int size() {
+            return sites.length;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.autozone.inventory.geo;
+
+import com.autozone.inventory.entity.Store;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable copy of the store fields the location index needs, so queries never touch
+ * managed entities.
+ */
+@Getter
+@AllArgsConstructor
+public class StoreSite {
+
+    private final Long storeId;
+    private final String storeNumber;
+    private final String name;
+    private final String city;
+    private final String state;
+    private final Store.StoreType storeType;
+    private final GeoPoint location;
+}
@@ -0,0 +1,36 @@
+package com.autozone.inventory.geo;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * US Census Bureau regions, derived from a store's two-letter state code.
+ */
+public enum UsRegion {
+    NORTHEAST("CT", "ME", "MA", "NH", "RI", "VT", "NJ", "NY", "PA"),
+    MIDWEST("IL", "IN", "MI", "OH", "WI", "IA", "KS", "MN", "MO", "NE", "ND", "SD"),
+    SOUTH("DE", "DC", "FL", "GA", "MD", "NC", "SC", "VA", "WV", "AL", "KY", "MS", "TN", "AR", "LA", "OK", "TX"),
+    WEST("AZ", "CO", "ID", "MT", "NV", "NM", "UT", "WY", "AK", "CA", "HI", "OR", "WA"),
+    OTHER;
+
+    private static final Map<String, UsRegion> BY_STATE = new HashMap<>();
+
+    static {
+        for (UsRegion region : values()) {
+            for (String state : region.states) {
+                BY_STATE.put(state, region);
+            }
+        }
+    }
+
+    private final String[] states;
+
+    UsRegion(String... states) {
+        this.states = states;
+    }
+
+    public static UsRegion ofState(String state) {
+        return state == null ? OTHER : BY_STATE.getOrDefault(state.trim().toUpperCase(Locale.ROOT), OTHER);
+    }
+}
@@ -0,0 +1,62 @@
+package com.autozone.inventory.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline geocoding from ZIP code centroids. Lookups use the 5-digit ZIP and fall back
+ * to the average of all known ZIPs sharing its 3-digit prefix (sectional center), which
+ * is within a few miles for store-ranking purposes.
+ */
+@Component
+@Slf4j
+public class ZipCodeGeocoder {
+
+    private final Map<String, GeoPoint> byZip = new HashMap<>();
+    private final Map<String, GeoPoint> byPrefix = new HashMap<>();
+
+    public ZipCodeGeocoder(@Value("${inventory.geo.zip-centroids:classpath:geo/zip-centroids.csv}") Resource centroids)
+            throws IOException {
+        Map<String, double[]> prefixSums = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(centroids.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("zip")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                String zip = fields[0].trim();
+                double latitude = Double.parseDouble(fields[1].trim());
+                double longitude = Double.parseDouble(fields[2].trim());
+                byZip.put(zip, new GeoPoint(latitude, longitude));
+
+                double[] sum = prefixSums.computeIfAbsent(zip.substring(0, 3), prefix -> new double[3]);
+                sum[0] += latitude;
+                sum[1] += longitude;
+                sum[2]++;
+            }
+        }
+        prefixSums.forEach((prefix, sum) -> byPrefix.put(prefix, new GeoPoint(sum[0] / sum[2], sum[1] / sum[2])));
+        log.info("Loaded {} ZIP code centroids", byZip.size());
+    }
+
+    public Optional<GeoPoint> locate(String zipCode) {
+        if (zipCode == null || zipCode.length() < 5) {
+            return Optional.empty();
+        }
+        String zip = zipCode.substring(0, 5);
+        GeoPoint point = byZip.get(zip);
+        return Optional.ofNullable(point != null ? point : byPrefix.get(zip.substring(0, 3)));
+    }
+}
@@ -0,0 +1,161 @@
+package com.autozone.inventory.importer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader that reports the exact byte offset after each record, so a
+ * job can checkpoint that offset and later resume by skipping straight to it.
+ *
+ * Records are split on raw {@code \n} bytes, which never occur inside a multi-byte UTF-8
+ * sequence, and decoded one line at a time. A quoted field may span lines; the record
+ * then keeps the line number it started on. Memory use is bounded by the longest record.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private int bufferPosition;
+    private int bufferLimit;
+
+    private long position;
+    private long lineNumber;
+    private long recordLine;
+
+    public CsvRecordReader(InputStream in) {
+        this.in = in;
+    }
+
+    /** Skips forward to a previously reported {@link #getPosition()} and line number. */
+    public void skipTo(long offset, long line) throws IOException {
+        if (offset < position) {
+            throw new IllegalArgumentException("Cannot skip backwards from " + position + " to " + offset);
+        }
+        long remaining = offset - position;
+        int buffered = Math.min(bufferLimit - bufferPosition, (int) Math.min(remaining, Integer.MAX_VALUE));
+        bufferPosition += buffered;
+        in.skipNBytes(remaining - buffered);
+        position = offset;
+        lineNumber = line;
+    }
+
+    /** Byte offset just past the last record returned. */
+    public long getPosition() {
+        return position;
+    }
+
+    /** Physical lines consumed so far. */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /** 1-based line the last record returned started on. */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    /** The next record's fields, or null at end of input. Blank lines are skipped. */
+    public List<String> readRecord() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isEmpty());
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Quoted field continues on the next physical line
+                String next = readLine();
+                if (next == null) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                field.append('\n');
+                text = next;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readLine() throws IOException {
+        line.reset();
+        boolean any = false;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                bufferLimit = in.read(buffer);
+                bufferPosition = 0;
+                if (bufferLimit <= 0) {
+                    bufferLimit = 0;
+                    if (!any) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+            any = true;
+            int start = bufferPosition;
+            while (bufferPosition < bufferLimit && buffer[bufferPosition] != '\n') {
+                bufferPosition++;
+            }
+            line.write(buffer, start, bufferPosition - start);
+            position += bufferPosition - start;
+            if (bufferPosition < bufferLimit) {
+                bufferPosition++;
+                position++;
+                break;
+            }
+        }
+        lineNumber++;
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        int offset = lineNumber == 1 && hasBom(bytes) ? 3 : 0;
+        return new String(bytes, offset, length - offset, StandardCharsets.UTF_8);
+    }
+
+    private static boolean hasBom(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
+    }
+}
@@ -0,0 +1,108 @@
+package com.autozone.inventory.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit driven by request latency.
+ *
+ * The baseline is the lowest latency seen over the last one or two windows. While the
+ * smoothed latency stays within {@code tolerance * baseline + slack} and the limit is
+ * actually being used, the limit grows by roughly one per round trip; once latency
+ * rises past that, it is cut by {@code backoffRatio}, at most once per round trip.
+ * Callers admit a class only while in-flight requests are below its share of the
+ * limit, so shrinking the limit sheds the smallest shares first.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long slackNanos;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private long baselineRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private long windowStart;
+    private double smoothedRtt;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      long slackNanos, double backoffRatio, long windowNanos, long now) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.slackNanos = slackNanos;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.limit = initialLimit;
+        this.windowStart = now;
+        this.lastDecrease = now;
+    }
+
+    /** Admits a request if in-flight work is below {@code share} of the current limit. */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Feeds one completed request's latency into the limit. {@code inFlightAtStart} is
+     * what the request saw when admitted, so a mostly idle server does not inflate the limit.
+     */
+    public synchronized void onSample(long rttNanos, int inFlightAtStart, long now) {
+        if (now - windowStart >= windowNanos) {
+            // Let the baseline drift up if the old minimum is no longer reachable
+            baselineRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowStart = now;
+        }
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        long baseline = Math.min(baselineRtt, windowMinRtt);
+        smoothedRtt = smoothedRtt == 0 ? rttNanos : smoothedRtt + SMOOTHING * (rttNanos - smoothedRtt);
+
+        double current = limit;
+        if (smoothedRtt > baseline * tolerance + slackNanos) {
+            if (now - lastDecrease >= smoothedRtt) {
+                limit = Math.max(minLimit, current * backoffRatio);
+                lastDecrease = now;
+            }
+        } else if (inFlightAtStart >= current / 2) {
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized long getBaselineRttNanos() {
+        long baseline = Math.min(baselineRtt, windowMinRtt);
+        return baseline == Long.MAX_VALUE ? 0 : baseline;
+    }
+
+    public synchronized long getSmoothedRttNanos() {
+        return (long) smoothedRtt;
+    }
+}
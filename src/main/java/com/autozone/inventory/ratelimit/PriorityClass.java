@@ -0,0 +1,12 @@
+package com.autozone.inventory.ratelimit;
+
+/**
+ * Admission classes, highest priority first. When the concurrency limit shrinks, the
+ * classes with the smallest share of it are turned away first.
+ */
+public enum PriorityClass {
+    POS_WRITE,
+    STANDARD,
+    REPORT,
+    EXPORT
+}
@@ -0,0 +1,130 @@
+package com.autozone.inventory.ratelimit;
+
+import com.autozone.inventory.service.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Applies {@link RateLimitService} to API calls. Runs after JWT authentication so
+ * limits are keyed by user; anonymous calls are keyed by client address.
+ *
+ * The store a request acts for comes from a {@code /store/{id}} or {@code /stores/{id}}
+ * path segment, else a {@code storeId} parameter, else the {@code X-Store-Id} header (sent
+ * by store terminals, whose writes carry the store in the body). The URL names the data
+ * the request touches, so a header can never redirect it.
+ *
+ * Only a store in the URL is charged to that store's bucket. Users are not tied to
+ * stores, so a header would let any caller spend another store's budget (or dodge its
+ * own) by naming it; requests that name their store only in the header are limited by
+ * the per-user bucket alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String STORE_HEADER = "X-Store-Id";
+
+    private static final Pattern STORE_PATH = Pattern.compile("/stores?/(\\d+)(?:/|$)");
+
+    private final RateLimitService rateLimitService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // The SSE stream would hold a concurrency slot for its whole lifetime
+        return !rateLimitService.isEnabled()
+                || !path.startsWith("/api/")
+                || path.startsWith("/api/auth/")
+                || path.equals("/api/inventory/stream")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PriorityClass priority = rateLimitService.classify(request.getMethod(), path);
+        RateLimitService.Admission admission = rateLimitService.admit(priority, principal(request), urlStoreId(request));
+
+        if (!admission.isAdmitted()) {
+            HttpStatus status = admission.isOverloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+            response.setStatus(status.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"" + (admission.isOverloaded() ? "Server busy" : "Rate limit exceeded")
+                    + "\",\"priority\":\"" + priority + "\",\"retryAfterSeconds\":" + admission.getRetryAfterSeconds() + "}");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admission.complete();
+        }
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null
+                && !"anonymousUser".equals(authentication.getName())) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /** The store a request acts for, or null; see the class comment for the lookup order. */
+    public static Long storeId(HttpServletRequest request) {
+        return Stream.of(pathStoreId(request), parseId(request.getParameter("storeId")), parseId(request.getHeader(STORE_HEADER)))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** The store named by the path or the {@code storeId} parameter, or null. */
+    public static Long urlStoreId(HttpServletRequest request) {
+        Long storeId = pathStoreId(request);
+        return storeId != null ? storeId : parseId(request.getParameter("storeId"));
+    }
+
+    /** True when the path, {@code storeId} parameter and header name different stores. */
+    public static boolean hasConflictingStores(HttpServletRequest request) {
+        return Stream.of(pathStoreId(request), parseId(request.getParameter("storeId")), parseId(request.getHeader(STORE_HEADER)))
+                .filter(Objects::nonNull)
+                .distinct()
+                .count() > 1;
+    }
+
+    private static Long pathStoreId(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher matcher = STORE_PATH.matcher(path);
+        return matcher.find() ? parseId(matcher.group(1)) : null;
+    }
+
+    private static Long parseId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.autozone.inventory.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission settings bound from {@code inventory.limits.*}. The same shape is accepted by
+ * {@code PUT /api/admin/rate-limits}, which replaces the live settings without a restart.
+ * That change is local to the instance that receives it and is not persisted: other
+ * instances keep their settings, and a restart goes back to the configured ones.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "inventory.limits")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private Concurrency concurrency = new Concurrency();
+    private Map<PriorityClass, ClassLimits> classes = new EnumMap<>(PriorityClass.class);
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 200;
+        // Latency above tolerance * baseline + slack counts as congestion
+        private double latencyTolerance = 2.0;
+        private Duration latencySlack = Duration.ofMillis(20);
+        private double backoffRatio = 0.9;
+        private Duration baselineWindow = Duration.ofMinutes(2);
+    }
+
+    @Getter
+    @Setter
+    public static class ClassLimits {
+        // Requests per second and burst size; a rate of 0 disables that bucket
+        private double userRate;
+        private int userBurst;
+        private double storeRate;
+        private int storeBurst;
+        // Fraction of the concurrency limit this class may occupy
+        private double concurrencyShare = 1.0;
+        // Whether this class's latency drives the concurrency limit
+        private boolean latencySensitive;
+        // "METHOD /path/**" or "/path/**" (any method); the first matching class wins
+        private List<String> routes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,39 @@
+package com.autozone.inventory.ratelimit;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously at
+ * {@code tokensPerSecond}. Time is passed in so callers read the clock once per request.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private volatile long lastUsed;
+
+    TokenBucket(double tokensPerSecond, int capacity, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastUsed = now;
+    }
+
+    /** Takes one token; returns 0 on success, otherwise the nanos until one is available. */
+    synchronized long tryAcquire(long now) {
+        lastUsed = now;
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /** Idle long enough to have refilled completely, so dropping it loses nothing. */
+    boolean isFullAt(long now) {
+        return (now - lastUsed) * tokensPerNano >= capacity;
+    }
+}
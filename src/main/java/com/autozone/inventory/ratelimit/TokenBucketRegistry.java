@@ -0,0 +1,38 @@
+package com.autozone.inventory.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets per priority class and key (a user or a store), created on first use.
+ * Buckets that have refilled completely are equivalent to new ones and can be evicted.
+ */
+public class TokenBucketRegistry<K> {
+
+    private final Map<PriorityClass, Map<K, TokenBucket>> buckets = new EnumMap<>(PriorityClass.class);
+
+    public TokenBucketRegistry() {
+        for (PriorityClass priority : PriorityClass.values()) {
+            buckets.put(priority, new ConcurrentHashMap<>());
+        }
+    }
+
+    /** Returns 0 if a token was taken (or the rate is 0, meaning unlimited), else nanos to wait. */
+    public long tryAcquire(PriorityClass priority, K key, double tokensPerSecond, int burst, long now) {
+        if (tokensPerSecond <= 0) {
+            return 0;
+        }
+        return buckets.get(priority)
+                .computeIfAbsent(key, k -> new TokenBucket(tokensPerSecond, burst, now))
+                .tryAcquire(now);
+    }
+
+    public void evictFull(long now) {
+        buckets.values().forEach(byKey -> byKey.values().removeIf(bucket -> bucket.isFullAt(now)));
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(Map::size).sum();
+    }
+}
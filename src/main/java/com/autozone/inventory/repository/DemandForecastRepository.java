@@ -0,0 +1,18 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.DemandForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, Long> {
+
+    Optional<DemandForecast> findByPartIdAndStoreId(Long partId, Long storeId);
+
+    // Oldest week still open in any series; daily closing catches up from there
+    @Query("SELECT MIN(f.lastFittedWeek) FROM DemandForecast f")
+    Integer findOldestFittedWeek();
+}
@@ -0,0 +1,38 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    // Most recent movements for a part at a store
+    @Query("SELECT m FROM InventoryMovement m WHERE m.part.id = :partId AND m.store.id = :storeId " +
+            "ORDER BY m.occurredAt DESC, m.id DESC")
+    List<InventoryMovement> findRecent(
+            @Param("partId") Long partId,
+            @Param("storeId") Long storeId,
+            Pageable pageable
+    );
+
+    // What a snapshot cut at snapshotXid is missing for stock at :at: movements after the cut
+    // that occurred by :at, less movements before the cut that occurred after :at
+    @Query("SELECT COALESCE(SUM(CASE WHEN m.changeXid >= :snapshotXid THEN m.quantityDelta " +
+            "ELSE -m.quantityDelta END), 0) FROM InventoryMovement m " +
+            "WHERE m.part.id = :partId AND m.store.id = :storeId " +
+            "AND ((m.changeXid >= :snapshotXid AND m.occurredAt <= :at) " +
+            "OR (m.changeXid < :snapshotXid AND m.occurredAt > :at))")
+    Integer sumDeltaOutsideSnapshot(
+            @Param("partId") Long partId,
+            @Param("storeId") Long storeId,
+            @Param("snapshotXid") Long snapshotXid,
+            @Param("at") LocalDateTime at
+    );
+}
@@ -1,14 +1,25 @@
 package com.autozone.inventory.repository;
 
+import com.autozone.inventory.dto.InventoryChange;
+import com.autozone.inventory.dto.InventorySummary;
+import com.autozone.inventory.dto.ReorderCandidate;
 import com.autozone.inventory.entity.Inventory;
 import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.PurchaseOrder;
 import com.autozone.inventory.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
@@ -19,15 +30,99 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     List<Inventory> findByPart(Part part);
 
-    // Find items that need reordering (quantity <= reorderPoint)
-    @Query("SELECT i FROM Inventory i WHERE i.quantity <= i.reorderPoint AND i.deleted = false")
-    List<Inventory> findItemsNeedingReorder();
+    // Find items that need reordering (quantity <= reorderPoint), as immutable rows that can be cached
+    @Query("SELECT new com.autozone.inventory.dto.InventorySummary(i.id, p.id, p.sku, p.name, p.category, s.id, " +
+            "s.storeNumber, s.name, i.quantity, i.reorderPoint, i.reorderQuantity, i.maxStockLevel, i.location, i.updatedAt) " +
+            "FROM Inventory i JOIN i.part p JOIN i.store s " +
+            "WHERE i.quantity <= i.reorderPoint AND i.deleted = false")
+    List<InventorySummary> findItemsNeedingReorder();
 
     // Find items that need reordering for a specific store
     @Query("SELECT i FROM Inventory i WHERE i.store = :store AND i.quantity <= i.reorderPoint AND i.deleted = false")
     List<Inventory> findItemsNeedingReorderByStore(Store store);
 
-    // Find low stock items (below 20% of max)
-    @Query("SELECT i FROM Inventory i WHERE i.quantity < (i.maxStockLevel * 0.2) AND i.deleted = false")
-    List<Inventory> findLowStockItems();
+    // Find low stock items (below 20% of max), as immutable rows like the reorder list
+    @Query("SELECT new com.autozone.inventory.dto.InventorySummary(i.id, p.id, p.sku, p.name, p.category, s.id, " +
+            "s.storeNumber, s.name, i.quantity, i.reorderPoint, i.reorderQuantity, i.maxStockLevel, i.location, i.updatedAt) " +
+            "FROM Inventory i JOIN i.part p JOIN i.store s " +
+            "WHERE i.quantity < (i.maxStockLevel * 0.2) AND i.deleted = false")
+    List<InventorySummary> findLowStockItems();
+
+    // Rows of a store changed after (sinceTime, sinceId), oldest first; includes soft-deleted rows
+    @Query("SELECT new com.autozone.inventory.dto.InventoryChange(i.id, p.id, p.sku, i.quantity, i.reorderPoint, " +
+            "i.reorderQuantity, i.maxStockLevel, i.location, i.deleted, i.updatedAt, i.changeXid) " +
+            "FROM Inventory i JOIN i.part p " +
+            "WHERE i.store.id = :storeId AND i.changeXid < :watermark " +
+            "AND (i.changeXid > :sinceXid OR (i.changeXid = :sinceXid AND i.id > :sinceId)) " +
+            "ORDER BY i.changeXid, i.id")
+    List<InventoryChange> findChangesSince(
+            @Param("storeId") Long storeId,
+            @Param("sinceXid") Long sinceXid,
+            @Param("sinceId") Long sinceId,
+            @Param("watermark") Long watermark,
+            Pageable pageable
+    );
+
+    // Active rows of a store for a full snapshot; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT new com.autozone.inventory.dto.InventoryChange(i.id, p.id, p.sku, i.quantity, i.reorderPoint, " +
+            "i.reorderQuantity, i.maxStockLevel, i.location, i.deleted, i.updatedAt, i.changeXid) " +
+            "FROM Inventory i JOIN i.part p " +
+            "WHERE i.store.id = :storeId AND i.deleted = false " +
+            "ORDER BY i.id")
+    Stream<InventoryChange> streamActiveByStore(@Param("storeId") Long storeId);
+
+    // Atomically applies a quantity change without reading the row first; refuses to go below zero,
+    // and a decrement refuses to take units held by reservations.
+    // Returns (id, quantity, reorder_point, reorder_quantity) of the updated row, or nothing.
+    // Split rows are skipped: their stock lives in inventory_slots.
+    @Query(value = "UPDATE inventory SET quantity = quantity + :delta, updated_at = :now " +
+            "WHERE part_id = :partId AND store_id = :storeId AND deleted = false AND slot_count = 0 " +
+            "AND quantity + :delta >= CASE WHEN :delta < 0 THEN reserved_quantity ELSE 0 END " +
+            "RETURNING id, quantity, reorder_point, reorder_quantity", nativeQuery = true)
+    List<Object[]> applyQuantityDelta(
+            @Param("partId") Long partId,
+            @Param("storeId") Long storeId,
+            @Param("delta") int delta,
+            @Param("now") LocalDateTime now
+    );
+
+    // Sets the reorder point alone, so a ledger movement made since the row was read is kept.
+    // Returns (part_id, store_id, quantity) of the updated row, or nothing.
+    @Query(value = "UPDATE inventory SET reorder_point = :reorderPoint, updated_at = :now WHERE id = :id " +
+            "RETURNING part_id, store_id, quantity", nativeQuery = true)
+    List<Object[]> updateReorderPoint(
+            @Param("id") Long id,
+            @Param("reorderPoint") int reorderPoint,
+            @Param("now") LocalDateTime now
+    );
+
+    // Soft-deletes a row without writing back the rest of it.
+    // Returns (part_id, store_id, quantity, reorder_point) of the deleted row, or nothing.
+    @Query(value = "UPDATE inventory SET deleted = true, updated_at = :now WHERE id = :id AND deleted = false " +
+            "RETURNING part_id, store_id, quantity, reorder_point", nativeQuery = true)
+    List<Object[]> softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Row-locks an inventory row for a read-modify-write; returns its (part_id, store_id), or nothing
+    @Query(value = "SELECT part_id, store_id FROM inventory WHERE id = :id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(i) > 0 FROM Inventory i WHERE i.part.id = :partId AND i.store.id = :storeId AND i.deleted = false")
+    boolean existsActive(@Param("partId") Long partId, @Param("storeId") Long storeId);
+
+    // Store id and quantity of every active row for a part
+    @Query("SELECT i.store.id, i.quantity FROM Inventory i WHERE i.part.id = :partId AND i.deleted = false")
+    List<Object[]> findStockLevelsByPart(@Param("partId") Long partId);
+
+    // Rows at or below reorder point in a set of stores, skipping any already on an open purchase order
+    @Query("SELECT new com.autozone.inventory.dto.ReorderCandidate(i.id, i.part.id, i.store.id, i.quantity, " +
+            "i.reorderQuantity, i.maxStockLevel) " +
+            "FROM Inventory i " +
+            "WHERE i.store.id IN :storeIds AND i.quantity <= i.reorderPoint AND i.deleted = false " +
+            "AND NOT EXISTS (SELECT l.id FROM PurchaseOrderLine l " +
+            "WHERE l.part = i.part AND l.store = i.store AND l.purchaseOrder.status IN :openStatuses)")
+    List<ReorderCandidate> findReorderCandidates(
+            @Param("storeIds") Collection<Long> storeIds,
+            @Param("openStatuses") Collection<PurchaseOrder.Status> openStatuses
+    );
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    Optional<InventorySnapshot> findFirstByPartIdAndStoreIdAndSnapshotAtLessThanEqualAndSnapshotXidNotNullOrderBySnapshotAtDesc(
+            Long partId, Long storeId, LocalDateTime at);
+
+    boolean existsBySnapshotXidNotNull();
+
+    // Snapshot every active row as the movements below the statement's xmin: every
+    // transaction under it has finished, so the stock read here already holds all of them,
+    // and the committed movements at or above it are backed out. One statement, so stock
+    // and ledger come from the same database snapshot. Split items count their slots.
+    @Modifying
+    @Query(value = "INSERT INTO inventory_snapshots (part_id, store_id, quantity, snapshot_at, snapshot_xid, " +
+            "created_at, updated_at, deleted) " +
+            "SELECT i.part_id, i.store_id, " +
+            "CASE WHEN i.slot_count > 0 THEN COALESCE((SELECT SUM(s.quantity) FROM inventory_slots s " +
+            "WHERE s.inventory_id = i.id), 0) ELSE i.quantity END " +
+            "- COALESCE((SELECT SUM(m.quantity_delta) FROM inventory_movements m " +
+            "WHERE m.part_id = i.part_id AND m.store_id = i.store_id AND m.change_xid >= w.xid), 0), " +
+            ":now, w.xid, :now, :now, false " +
+            "FROM inventory i, (SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS xid) w " +
+            "WHERE i.deleted = false", nativeQuery = true)
+    int snapshotAll(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,14 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.PartImportError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PartImportErrorRepository extends JpaRepository<PartImportError, Long> {
+
+    List<PartImportError> findByJobIdOrderByLineNumber(Long jobId, Pageable pageable);
+}
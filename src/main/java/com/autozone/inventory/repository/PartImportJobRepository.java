@@ -0,0 +1,15 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.PartImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PartImportJobRepository extends JpaRepository<PartImportJob, Long> {
+
+    List<PartImportJob> findTop100ByOrderByIdDesc();
+
+    List<PartImportJob> findByStatusInOrderById(List<PartImportJob.Status> statuses);
+}
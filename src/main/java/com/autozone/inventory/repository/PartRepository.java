@@ -12,6 +12,8 @@ import java.util.Optional;
 public interface PartRepository extends JpaRepository<Part, Long>{
     Optional<Part> findBySku(String sku);
 
+    // SKUs stay unique across deleted rows too, so this checks every row
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM parts WHERE sku = :sku)", nativeQuery = true)
     Boolean existsBySku(String sku);
 
     List<Part> findByCategory(Part.PartCategory category);
@@ -0,0 +1,25 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.PurchaseOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+
+    List<PurchaseOrder> findByStatusOrderByIdDesc(PurchaseOrder.Status status);
+
+    List<PurchaseOrder> findByRunIdOrderById(String runId);
+
+    List<PurchaseOrder> findTop500ByOrderByIdDesc();
+
+    // Orders with their store and lines fetched, so they can be serialized after the session is gone
+    @Query("SELECT DISTINCT o FROM PurchaseOrder o JOIN FETCH o.store LEFT JOIN FETCH o.lines l " +
+           "LEFT JOIN FETCH l.part LEFT JOIN FETCH l.store WHERE o.id IN :ids")
+    List<PurchaseOrder> findWithLinesByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,34 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.ReorderAlertRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReorderAlertRecordRepository extends JpaRepository<ReorderAlertRecord, Long> {
+
+    // Open alerts, newest first, optionally for one store
+    @Query("SELECT a FROM ReorderAlertRecord a JOIN FETCH a.part JOIN FETCH a.store " +
+            "WHERE a.resolvedAt IS NULL AND (:storeId IS NULL OR a.store.id = :storeId) ORDER BY a.raisedAt DESC")
+    List<ReorderAlertRecord> findOpen(@Param("storeId") Long storeId, Pageable pageable);
+
+    // (part id, store id) of every open alert
+    @Query("SELECT a.part.id, a.store.id FROM ReorderAlertRecord a WHERE a.resolvedAt IS NULL")
+    List<Object[]> findOpenKeys();
+
+    @Modifying
+    @Query("UPDATE ReorderAlertRecord a SET a.resolvedAt = :resolvedAt, a.updatedAt = :resolvedAt " +
+            "WHERE a.part.id = :partId AND a.store.id = :storeId AND a.resolvedAt IS NULL")
+    int resolveOpen(
+            @Param("partId") Long partId,
+            @Param("storeId") Long storeId,
+            @Param("resolvedAt") LocalDateTime resolvedAt
+    );
+}
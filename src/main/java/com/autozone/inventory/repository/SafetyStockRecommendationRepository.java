@@ -0,0 +1,13 @@
+package com.autozone.inventory.repository;
+
+import com.autozone.inventory.entity.SafetyStockRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SafetyStockRecommendationRepository extends JpaRepository<SafetyStockRecommendation, Long> {
+
+    Optional<SafetyStockRecommendation> findByPartIdAndStoreId(Long partId, Long storeId);
+}
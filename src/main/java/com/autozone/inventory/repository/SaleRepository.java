@@ -1,12 +1,15 @@
 package com.autozone.inventory.repository;
 
+import com.autozone.inventory.dto.SaleRecord;
 import com.autozone.inventory.entity.Sale;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -41,6 +44,41 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
             @Param("end") LocalDateTime end
     );
 
+    // Get total quantity sold per (part, store) for a set of stores within date range
+    @Query("SELECT s.part.id, s.store.id, SUM(s.quantitySold) FROM Sale s " +
+            "WHERE s.store.id IN :storeIds AND s.saleDate BETWEEN :start AND :end " +
+            "GROUP BY s.part.id, s.store.id")
+    List<Object[]> getTotalQuantitySoldByPartAndStore(
+            @Param("storeIds") Collection<Long> storeIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Live sales as flat records, optionally filtered by store and/or part, oldest first
+    @Query("SELECT new com.autozone.inventory.dto.SaleRecord(s.id, s.part.id, s.store.id, s.quantitySold, " +
+            "s.unitPrice, s.totalPrice, s.saleDate, s.soldBy) FROM Sale s " +
+            "WHERE s.deleted = false AND (:storeId IS NULL OR s.store.id = :storeId) " +
+            "AND (:partId IS NULL OR s.part.id = :partId) AND s.saleDate BETWEEN :start AND :end " +
+            "ORDER BY s.saleDate, s.id")
+    List<SaleRecord> findSaleRecords(
+            @Param("storeId") Long storeId,
+            @Param("partId") Long partId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable
+    );
+
+    // Total quantity of live sales, optionally filtered by store and/or part
+    @Query("SELECT COALESCE(SUM(s.quantitySold), 0) FROM Sale s " +
+            "WHERE s.deleted = false AND (:storeId IS NULL OR s.store.id = :storeId) " +
+            "AND (:partId IS NULL OR s.part.id = :partId) AND s.saleDate BETWEEN :start AND :end")
+    Long sumQuantitySold(
+            @Param("storeId") Long storeId,
+            @Param("partId") Long partId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
     // Get top selling parts across all stores
     @Query("SELECT s.part.id, s.part.name, SUM(s.quantitySold) as total " +
             "FROM Sale s " +
@@ -2,8 +2,10 @@ package com.autozone.inventory.repository;
 
 import com.autozone.inventory.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -11,5 +13,15 @@ import java.util.Optional;
 public interface StoreRepository extends JpaRepository<Store, Long>{
 
     Optional<Store> findByStoreNumber(String storeNumber);
+
+    // Store numbers stay unique across deleted rows too, so this checks every row
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM stores WHERE store_number = :storeNumber)", nativeQuery = true)
     Boolean existsByStoreNumber(String storeNumber);
+
+    // Deleted stores included, for history that still refers to them
+    @Query(value = "SELECT * FROM stores", nativeQuery = true)
+    List<Store> findAllIncludingDeleted();
+
+    @Query(value = "SELECT count(*) FROM stores", nativeQuery = true)
+    long countIncludingDeleted();
 }
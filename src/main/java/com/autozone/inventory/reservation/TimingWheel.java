@@ -0,0 +1,192 @@
+package com.autozone.inventory.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) for millions of deadlines at tick
+ * resolution. Scheduling and cancelling are O(1); advancing costs one bucket per tick
+ * plus, once per wheel revolution, moving the next bucket of the level above down into
+ * the levels below. Each level has {@code 2^bits} buckets of doubly linked timeouts and
+ * spans {@code 2^bits} times the level below it, so four levels of 512 buckets at 100 ms
+ * cover over two centuries. Deadlines further out wait in the top level and are
+ * re-placed as it turns.
+ *
+ * Deadlines are plain millisecond timestamps; the wheel never reads a clock. All methods
+ * synchronize on the wheel, and every operation touches a handful of pointers.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Bucket<T>[][] levels;
+
+    // Next tick to expire; every timeout due before it has already been returned
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || levelCount <= 0 || Integer.bitCount(wheelSize) != 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("Tick must be positive, levels at least one and wheel size a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        if ((long) bits * levelCount >= 62) {
+            throw new IllegalArgumentException("Wheel spans more ticks than fit in a long");
+        }
+        this.mask = wheelSize - 1;
+        this.levels = new Bucket[levelCount][wheelSize];
+        for (Bucket<T>[] level : levels) {
+            for (int i = 0; i < wheelSize; i++) {
+                level[i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /** Schedules an item; a deadline already past expires on the next advance. */
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(item, ceilDiv(deadlineMillis, tickMillis));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** False when the timeout already expired or was cancelled. */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /** Moves a pending timeout to a new deadline; false when it already expired or was cancelled. */
+    public synchronized boolean reschedule(Timeout<T> timeout, long deadlineMillis) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        timeout.deadlineTick = ceilDiv(deadlineMillis, tickMillis);
+        place(timeout);
+        return true;
+    }
+
+    /** Expires every tick up to {@code nowMillis} and returns the items that came due, tick by tick. */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick <= targetTick) {
+            if ((currentTick & mask) == 0) {
+                cascade();
+            }
+            Bucket<T> bucket = levels[0][(int) (currentTick & mask)];
+            for (Timeout<T> timeout = bucket.head; timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                bucket.remove(timeout);
+                expired.add(timeout.item);
+                timeout = next;
+            }
+            currentTick++;
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // At the start of each revolution of a level, the next bucket of the level above comes due
+    private void cascade() {
+        for (int level = 1; level < levels.length; level++) {
+            int index = (int) ((currentTick >>> (bits * level)) & mask);
+            Bucket<T> bucket = levels[level][index];
+            for (Timeout<T> timeout = bucket.head; timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                bucket.remove(timeout);
+                place(timeout);
+                timeout = next;
+            }
+            if (index != 0) {
+                break;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long tick = Math.max(timeout.deadlineTick, currentTick);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (bits * levels.length)) {
+            // Beyond the top level's span: park in its last reachable bucket and re-place from there
+            tick = currentTick + (1L << (bits * levels.length)) - 1;
+        }
+        levels[level][(int) ((tick >>> (bits * level)) & mask)].add(timeout);
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /** Handle for cancelling or moving a scheduled item. */
+    public static final class Timeout<T> {
+        private final T item;
+        private long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.event.PartChangedEvent;
+import com.autozone.inventory.event.SaleRecordedEvent;
+import com.autozone.inventory.event.StoreChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived results of the chain-wide dashboard queries (reorder list, low stock, top
+ * sellers), which many screens poll at once.
+ *
+ * Each result is tagged with the generation of the data it was read from. A committed
+ * inventory or sale write bumps that generation, so the next request reloads; the TTL
+ * only bounds staleness from writes that publish no events. Outdated and expired
+ * results are swept out once per TTL, so they do not stay in memory until requested again.
+ * Concurrent misses for the same key share one query: the first caller loads and the
+ * others wait for its result. Cached values are handed to every caller, so loaders must
+ * return immutable, fully fetched results.
+ */
+@Service
+public class AggregateQueryCache {
+
+    /** The data a cached result is read from, and so what invalidates it. */
+    public enum Source {
+        INVENTORY,
+        SALES
+    }
+
+    private final Map<Source, AtomicLong> generations = new EnumMap<>(Source.class);
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @Value("${inventory.aggregate-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.aggregate-cache.ttl:15s}")
+    private Duration ttl;
+
+    public AggregateQueryCache() {
+        for (Source source : Source.values()) {
+            generations.put(source, new AtomicLong());
+        }
+    }
+
+    /**
+     * Returns the cached result of a view for the given parameters, loading it if it is
+     * missing, expired or older than the last write to its source.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String view, Object parameters, Source source, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = view + ":" + parameters;
+        Counters viewCounters = counters.computeIfAbsent(view, v -> new Counters());
+        long generation = generations.get(source).get();
+
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isCurrent(generation, ttl)) {
+                (entry.result.isDone() ? viewCounters.hits : viewCounters.coalesced).increment();
+                return (T) await(entry);
+            }
+            Entry loading = new Entry(source, generation);
+            boolean claimed = entry == null
+                    ? entries.putIfAbsent(key, loading) == null
+                    : entries.replace(key, entry, loading);
+            if (!claimed) {
+                // Another caller started a load first; wait for that one instead
+                continue;
+            }
+            viewCounters.misses.increment();
+            try {
+                T value = loader.get();
+                loading.loadedAt = System.nanoTime();
+                loading.result.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                // Waiters must not block on a load that will never finish
+                entries.remove(key, loading);
+                loading.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /** Removes finished results that are expired or older than the last write to their source. */
+    @Scheduled(fixedDelayString = "${inventory.aggregate-cache.ttl:15s}")
+    public void evictStale() {
+        entries.forEach((key, entry) -> {
+            if (entry.result.isDone() && !entry.isCurrent(generations.get(entry.source).get(), ttl)) {
+                entries.remove(key, entry);
+            }
+        });
+    }
+
+    /** Drops every result read from the source, for writes that publish no change events. */
+    public void invalidate(Source source) {
+        generations.get(source).incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> views = new TreeMap<>();
+        counters.forEach((view, c) -> {
+            long hits = c.hits.sum();
+            long coalesced = c.coalesced.sum();
+            long misses = c.misses.sum();
+            long requests = hits + coalesced + misses;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", hits);
+            stats.put("coalesced", coalesced);
+            stats.put("misses", misses);
+            // Coalesced requests did not query the database either
+            stats.put("hitRatio", requests == 0 ? 0.0 : (double) (hits + coalesced) / requests);
+            views.put(view, stats);
+        });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttl", ttl.toString());
+        stats.put("entries", entries.size());
+        Map<Source, Long> currentGenerations = new EnumMap<>(Source.class);
+        generations.forEach((source, generation) -> currentGenerations.put(source, generation.get()));
+        stats.put("generations", currentGenerations);
+        stats.put("views", views);
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        invalidate(Source.INVENTORY);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        invalidate(Source.SALES);
+    }
+
+    // Both views embed part details: inventory rows carry the part, top sellers its name
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPartChanged(PartChangedEvent event) {
+        invalidate(Source.INVENTORY);
+        invalidate(Source.SALES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent event) {
+        invalidate(Source.INVENTORY);
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            // The loading caller's own exception, rethrown to everyone who waited on it
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    private static final class Entry {
+        private final Source source;
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long loadedAt;
+
+        private Entry(Source source, long generation) {
+            this.source = source;
+            this.generation = generation;
+        }
+
+        // A load still running is joined; its generation was current when it started.
+        // A newer entry than the caller's generation is just as good.
+        private boolean isCurrent(long currentGeneration, Duration ttl) {
+            return generation >= currentGeneration
+                    && (!result.isDone() || System.nanoTime() - loadedAt < ttl.toNanos());
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
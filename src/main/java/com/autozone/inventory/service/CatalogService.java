@@ -0,0 +1,237 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.catalog.CatalogSnapshot;
+import com.autozone.inventory.catalog.CatalogSnapshotFile;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.CatalogChangedEvent;
+import com.autozone.inventory.event.PartChangedEvent;
+import com.autozone.inventory.event.StoreChangedEvent;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only, in-memory copy of the part and store catalog for the hot lookup endpoints.
+ *
+ * On a warm start the catalog is restored from a local snapshot file instead of the
+ * database, provided the file's change marker still matches the database's. The marker
+ * is a version row that statement triggers on both tables bump in the writing
+ * transaction, so every committed change moves it, including ones made outside JPA. The
+ * row lock orders the bumps, so a transaction that commits late still gets a version
+ * above every one read before. It is also polled periodically, so changes made by other
+ * instances are picked up without events.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class CatalogService {
+
+    // Bumped before the first row is touched, so writers queue on the version row holding no part or store locks
+    private static final List<String> VERSION_DDL = List.of(
+            "CREATE TABLE IF NOT EXISTS catalog_version (id INT PRIMARY KEY CHECK (id = 1), version BIGINT NOT NULL)",
+            "INSERT INTO catalog_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING",
+            "CREATE OR REPLACE FUNCTION catalog_bump_version() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                    "BEGIN UPDATE catalog_version SET version = version + 1 WHERE id = 1; RETURN NULL; END $$",
+            "CREATE OR REPLACE TRIGGER parts_catalog_version BEFORE INSERT OR UPDATE OR DELETE OR TRUNCATE ON parts " +
+                    "FOR EACH STATEMENT EXECUTE FUNCTION catalog_bump_version()",
+            "CREATE OR REPLACE TRIGGER stores_catalog_version BEFORE INSERT OR UPDATE OR DELETE OR TRUNCATE ON stores " +
+                    "FOR EACH STATEMENT EXECUTE FUNCTION catalog_bump_version()"
+    );
+
+    private static final String MARKER_SQL = "SELECT 'v' || version FROM catalog_version WHERE id = 1";
+
+    private static final String PARTS_SQL = "SELECT id, created_at, updated_at, deleted, sku, name, description, category, " +
+            "cost, price, manufacturer, supplier_name, supplier_lead_time_days FROM parts";
+    private static final int PART_FETCH_SIZE = 10_000;
+
+    private final StoreRepository storeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    @Value("${inventory.startup.warm-start:true}")
+    private boolean warmStart;
+
+    @Value("${inventory.startup.catalog-snapshot:./data/catalog.snapshot}")
+    private Path snapshotFile;
+
+    private volatile CatalogSnapshot catalog;
+
+    @PostConstruct
+    public void installVersionTrigger() {
+        shardRouter.forEachShard(shard -> VERSION_DDL.forEach(jdbcTemplate::execute));
+    }
+
+    /** Restores from the snapshot file when it is current, otherwise loads from the database. */
+    public synchronized CatalogSnapshot load() {
+        String marker = currentMarker();
+        if (warmStart) {
+            try {
+                Optional<CatalogSnapshot> restored = CatalogSnapshotFile.read(snapshotFile);
+                if (restored.isPresent() && restored.get().getMarker().equals(marker)) {
+                    return install(restored.get());
+                }
+                log.info("Catalog snapshot {} is missing or stale, loading from the database", snapshotFile);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable catalog snapshot {}: {}", snapshotFile, e.toString());
+            }
+        }
+        return reload(marker);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPartChanged(PartChangedEvent event) {
+        reload(currentMarker());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent event) {
+        reload(currentMarker());
+    }
+
+    // Catches changes made by other instances or outside the application
+    @Scheduled(fixedDelayString = "${inventory.startup.catalog-check-interval:1m}",
+            initialDelayString = "${inventory.startup.catalog-check-interval:1m}")
+    public void refreshIfChanged() {
+        CatalogSnapshot current = catalog;
+        String marker = currentMarker();
+        if (current != null && !current.getMarker().equals(marker)) {
+            reload(marker);
+        }
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = catalog;
+        return current != null ? current : load();
+    }
+
+    public List<Part> getParts() {
+        return current().getParts();
+    }
+
+    public Optional<Part> findPart(Long id) {
+        return current().findPart(id);
+    }
+
+    public Optional<Part> findPartBySku(String sku) {
+        return current().findPartBySku(sku);
+    }
+
+    public List<Store> getStores() {
+        return current().getStores();
+    }
+
+    public Optional<Store> findStore(Long id) {
+        return current().findStore(id);
+    }
+
+    public Optional<Store> findStoreByNumber(String storeNumber) {
+        return current().findStoreByNumber(storeNumber);
+    }
+
+    public Map<String, Object> getStats() {
+        CatalogSnapshot current = current();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("source", current.getSource());
+        stats.put("marker", current.getMarker());
+        stats.put("loadedAt", current.getLoadedAt());
+        stats.put("parts", current.getParts().size());
+        stats.put("stores", current.getStores().size());
+        stats.put("snapshotFile", snapshotFile.toAbsolutePath().normalize().toString());
+        return stats;
+    }
+
+    private synchronized CatalogSnapshot reload(String marker) {
+        // A new transaction gets its own persistence context, so the catalog never holds
+        // entities managed by the request that triggered the reload
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        CatalogSnapshot loaded = readOnly.execute(status -> new CatalogSnapshot(marker, CatalogSnapshot.Source.DATABASE,
+                loadParts(), storeRepository.findAllIncludingDeleted()));
+        if (warmStart) {
+            try {
+                CatalogSnapshotFile.write(snapshotFile, loaded);
+            } catch (IOException e) {
+                log.warn("Could not write catalog snapshot {}: {}", snapshotFile, e.toString());
+            }
+        }
+        return install(loaded);
+    }
+
+    private CatalogSnapshot install(CatalogSnapshot loaded) {
+        catalog = loaded;
+        log.info("Catalog loaded from {} with {} parts and {} stores", loaded.getSource(),
+                loaded.getParts().size(), loaded.getStores().size());
+        eventPublisher.publishEvent(new CatalogChangedEvent(loaded));
+        return loaded;
+    }
+
+    // Bulk imports make the part table large, so parts are streamed over JDBC rather than
+    // going through the persistence context, and repeated strings such as supplier names are shared
+    private List<Part> loadParts() {
+        List<Part> parts = new ArrayList<>();
+        Map<String, String> shared = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(PARTS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(PART_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            Part part = new Part();
+            part.setId(rs.getLong(1));
+            part.setCreatedAt(toLocalDateTime(rs.getTimestamp(2)));
+            part.setUpdatedAt(toLocalDateTime(rs.getTimestamp(3)));
+            part.setDeleted(rs.getBoolean(4));
+            part.setSku(rs.getString(5));
+            part.setName(rs.getString(6));
+            part.setDescription(share(shared, rs.getString(7)));
+            part.setCategory(Part.PartCategory.valueOf(rs.getString(8)));
+            part.setCost(rs.getBigDecimal(9));
+            part.setPrice(rs.getBigDecimal(10));
+            part.setManufacturer(share(shared, rs.getString(11)));
+            part.setSupplierName(share(shared, rs.getString(12)));
+            part.setSupplierLeadTimeDays(rs.getInt(13));
+            parts.add(part);
+        });
+        return parts;
+    }
+
+    private static String share(Map<String, String> shared, String value) {
+        return value == null ? null : shared.computeIfAbsent(value, v -> v);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private String currentMarker() {
+        return jdbcTemplate.queryForObject(MARKER_SQL, String.class);
+    }
+}
@@ -0,0 +1,360 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.CycleCountResult;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.importer.CsvRecordReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reconciles a store's physical count with system stock.
+ *
+ * The count file is streamed once into per-part totals (several lines for the same SKU,
+ * e.g. from different bins, are added up). Those part ids are sorted and merge-joined
+ * against the store's inventory rows read in part id order, so the diff is one pass
+ * over both sides. Only items whose count differs are written: a single
+ * {@code UPDATE ... FROM unnest(...)} applies every adjustment as a delta, plus one
+ * ledger insert for the lot. Applying deltas rather than the counted figure keeps sales
+ * made while the count was being reconciled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CycleCountService {
+
+    private static final String STOCK_SQL =
+            "SELECT id, part_id, quantity FROM inventory WHERE store_id = ? AND deleted = false ORDER BY part_id";
+
+    // Refuses any adjustment that a concurrent sale would turn into negative stock
+    private static final String APPLY_SQL = "UPDATE inventory i SET quantity = i.quantity + d.delta, updated_at = ? " +
+            "FROM unnest(?::bigint[], ?::int[]) AS d(id, delta) " +
+            "WHERE i.id = d.id AND i.deleted = false AND i.quantity + d.delta >= 0 " +
+            "RETURNING i.id, i.part_id, i.quantity, i.reorder_point";
+
+    private static final String MOVEMENTS_SQL = "INSERT INTO inventory_movements (part_id, store_id, movement_type, " +
+            "quantity_delta, reason, reference, occurred_at, created_at, updated_at, deleted) " +
+            "SELECT m.part_id, ?, 'ADJUSTMENT', m.delta, ?, ?, ?, ?, ?, false FROM unnest(?::bigint[], ?::int[]) AS m(part_id, delta)";
+
+    private static final int STOCK_FETCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String REASON = "Cycle count";
+    private static final DateTimeFormatter REFERENCE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final CatalogService catalogService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockService hotStockService;
+
+    /**
+     * Diffs a count file ({@code sku,quantity} or {@code part_id,quantity}) against the
+     * store's stock and, when {@code apply} is set, writes the adjustments. Empty when the
+     * store does not exist.
+     *
+     * @param missingAsZero treat stocked items absent from the file as counted at zero
+     * @throws IllegalArgumentException when the file has no usable header or is malformed
+     */
+    public Optional<CycleCountResult> reconcile(Long storeId, InputStream content, boolean apply, boolean missingAsZero) {
+        Optional<Store> store = catalogService.findStore(storeId).filter(s -> !Boolean.TRUE.equals(s.getDeleted()));
+        if (store.isEmpty()) {
+            return Optional.empty();
+        }
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        String reference = "CC-" + store.get().getStoreNumber() + "-" + now.format(REFERENCE_TIME);
+
+        Count count = readCount(content);
+        long[] countedParts = count.totals.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        Diff diff = transactionTemplate.execute(status -> {
+            if (apply) {
+                // Counted quantities replace row quantities, so split items must be whole first
+                hotStockService.mergeStore(storeId);
+            }
+            Diff result = merge(storeId, countedParts, count.totals, missingAsZero);
+            result.applied = apply;
+            if (apply && !result.adjustments.isEmpty()) {
+                applyAdjustments(storeId, result, reference, now);
+            }
+            return result;
+        });
+
+        CycleCountResult report = report(storeId, reference, apply, count, diff, (System.nanoTime() - started) / 1_000_000);
+        log.info("Cycle count {} at store {}: {} counted, {} matched, {} adjusted, {} not stocked, {} rejected lines in {} ms",
+                reference, storeId, report.getItemsCounted(), report.getMatched(), report.getAdjusted(),
+                report.getNotStocked(), report.getRejected(), report.getElapsedMillis());
+        return Optional.of(report);
+    }
+
+    private Count readCount(InputStream content) {
+        Count count = new Count();
+        try (CsvRecordReader reader = new CsvRecordReader(content)) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The count file is empty");
+            }
+            int skuColumn = -1;
+            int partIdColumn = -1;
+            int quantityColumn = -1;
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "")) {
+                    case "sku" -> skuColumn = skuColumn < 0 ? i : skuColumn;
+                    case "partid" -> partIdColumn = partIdColumn < 0 ? i : partIdColumn;
+                    case "quantity", "qty", "count", "counted" -> quantityColumn = quantityColumn < 0 ? i : quantityColumn;
+                    default -> {
+                        // Other columns (bin, description, counter...) are ignored
+                    }
+                }
+            }
+            if ((skuColumn < 0 && partIdColumn < 0) || quantityColumn < 0) {
+                throw new IllegalArgumentException("Count file header needs a sku or part_id column and a quantity column");
+            }
+
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                count.lines++;
+                String key = field(record, skuColumn >= 0 ? skuColumn : partIdColumn);
+                Optional<Part> part = key == null ? Optional.empty()
+                        : skuColumn >= 0 ? catalogService.findPartBySku(key) : findPartById(key);
+                if (part.isEmpty() || Boolean.TRUE.equals(part.get().getDeleted())) {
+                    count.reject(reader.getRecordLine(), key == null ? "missing " + (skuColumn >= 0 ? "sku" : "part_id")
+                            : "unknown " + (skuColumn >= 0 ? "SKU '" : "part id '") + key + "'");
+                    continue;
+                }
+                Integer quantity = quantity(field(record, quantityColumn));
+                if (quantity == null) {
+                    count.reject(reader.getRecordLine(), "quantity for " + key + " must be a whole number of 0 or more");
+                    continue;
+                }
+                count.totals.merge(part.get().getId(), quantity, Integer::sum);
+            }
+        } catch (IOException e) {
+            // Only malformed input can fail here; the upload itself was already received
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return count;
+    }
+
+    // Merge-joins the sorted counted part ids with the store's rows streamed in part id order
+    private Diff merge(Long storeId, long[] countedParts, Map<Long, Integer> totals, boolean missingAsZero) {
+        Diff diff = new Diff();
+        int[] next = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STOCK_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STOCK_FETCH_SIZE);
+            ps.setLong(1, storeId);
+            return ps;
+        }, rs -> {
+            long inventoryId = rs.getLong(1);
+            long partId = rs.getLong(2);
+            int system = rs.getInt(3);
+            while (next[0] < countedParts.length && countedParts[next[0]] < partId) {
+                diff.notStocked.add(countedParts[next[0]++]);
+            }
+            Integer counted = null;
+            if (next[0] < countedParts.length && countedParts[next[0]] == partId) {
+                counted = totals.get(countedParts[next[0]++]);
+            } else if (missingAsZero) {
+                counted = 0;
+            } else {
+                diff.notCounted.add(new Item(inventoryId, partId, system, null));
+                return;
+            }
+            if (counted == system) {
+                diff.matched++;
+            } else {
+                diff.adjustments.add(new Item(inventoryId, partId, system, counted));
+            }
+        });
+        while (next[0] < countedParts.length) {
+            diff.notStocked.add(countedParts[next[0]++]);
+        }
+        return diff;
+    }
+
+    private void applyAdjustments(Long storeId, Diff diff, String reference, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Long[] ids = new Long[diff.adjustments.size()];
+        Integer[] deltas = new Integer[ids.length];
+        Map<Long, Item> byId = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            Item item = diff.adjustments.get(i);
+            ids[i] = item.inventoryId;
+            deltas[i] = item.delta();
+            byId.put(item.inventoryId, item);
+        }
+
+        List<Long> appliedParts = new ArrayList<>();
+        List<Integer> appliedDeltas = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(APPLY_SQL);
+            ps.setTimestamp(1, timestamp);
+            ps.setArray(2, connection.createArrayOf("bigint", ids));
+            ps.setArray(3, connection.createArrayOf("integer", deltas));
+            return ps;
+        }, rs -> {
+            Item item = byId.get(rs.getLong(1));
+            int quantity = rs.getInt(3);
+            item.applied = true;
+            appliedParts.add(item.partId);
+            appliedDeltas.add(item.delta());
+            // Bulk updates bypass the entity listener, so announce the change ourselves
+            eventPublisher.publishEvent(new InventoryChangedEvent(item.inventoryId, item.partId, storeId,
+                    quantity - item.delta(), quantity, rs.getInt(4), false));
+        });
+
+        if (!appliedParts.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(MOVEMENTS_SQL);
+                ps.setLong(1, storeId);
+                ps.setString(2, REASON);
+                ps.setString(3, reference);
+                ps.setTimestamp(4, timestamp);
+                ps.setTimestamp(5, timestamp);
+                ps.setTimestamp(6, timestamp);
+                ps.setArray(7, connection.createArrayOf("bigint", appliedParts.toArray(new Long[0])));
+                ps.setArray(8, connection.createArrayOf("integer", appliedDeltas.toArray(new Integer[0])));
+                return ps;
+            });
+        }
+    }
+
+    private CycleCountResult report(Long storeId, String reference, boolean apply, Count count, Diff diff, long elapsedMillis) {
+        List<CycleCountResult.Variance> variances = new ArrayList<>();
+        long unitsOver = 0;
+        long unitsShort = 0;
+        BigDecimal valueOver = BigDecimal.ZERO;
+        BigDecimal valueShort = BigDecimal.ZERO;
+        int adjusted = 0;
+        for (Item item : diff.adjustments) {
+            CycleCountResult.Status status = !diff.applied ? CycleCountResult.Status.VARIANCE
+                    : item.applied ? CycleCountResult.Status.ADJUSTED : CycleCountResult.Status.REJECTED;
+            CycleCountResult.Variance variance = variance(item.partId, item.system, item.counted, item.delta(), status);
+            variances.add(variance);
+            if (status == CycleCountResult.Status.REJECTED) {
+                continue;
+            }
+            adjusted += status == CycleCountResult.Status.ADJUSTED ? 1 : 0;
+            if (item.delta() > 0) {
+                unitsOver += item.delta();
+                valueOver = valueOver.add(variance.getValueDelta());
+            } else {
+                unitsShort -= item.delta();
+                valueShort = valueShort.subtract(variance.getValueDelta());
+            }
+        }
+        for (Item item : diff.notCounted) {
+            variances.add(variance(item.partId, item.system, null, null, CycleCountResult.Status.NOT_COUNTED));
+        }
+        for (Long partId : diff.notStocked) {
+            Integer counted = count.totals.get(partId);
+            variances.add(variance(partId, null, counted, null, CycleCountResult.Status.NOT_STOCKED));
+        }
+        variances.sort(Comparator.comparing((CycleCountResult.Variance v) -> v.getValueDelta() == null ? BigDecimal.ZERO : v.getValueDelta().abs())
+                .reversed()
+                .thenComparing(CycleCountResult.Variance::getPartId));
+
+        return new CycleCountResult(storeId, reference, diff.applied, count.lines, count.totals.size(), diff.matched,
+                adjusted, diff.notStocked.size(), diff.notCounted.size(), count.rejected, unitsOver, unitsShort,
+                valueOver, valueShort, elapsedMillis, variances, count.errors);
+    }
+
+    private CycleCountResult.Variance variance(Long partId, Integer system, Integer counted, Integer delta,
+                                               CycleCountResult.Status status) {
+        Optional<Part> part = catalogService.findPart(partId);
+        BigDecimal value = delta == null || part.isEmpty() || part.get().getCost() == null ? null
+                : part.get().getCost().multiply(BigDecimal.valueOf(delta));
+        return new CycleCountResult.Variance(partId, part.map(Part::getSku).orElse(null), system, counted, delta, value, status);
+    }
+
+    private Optional<Part> findPartById(String value) {
+        try {
+            return catalogService.findPart(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        if (column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer quantity(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int quantity = Integer.parseInt(value);
+            return quantity >= 0 ? quantity : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Count {
+        private final Map<Long, Integer> totals = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private long lines;
+        private int rejected;
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + line + ": " + message);
+            }
+        }
+    }
+
+    private static final class Diff {
+        private final List<Item> adjustments = new ArrayList<>();
+        private final List<Item> notCounted = new ArrayList<>();
+        private final List<Long> notStocked = new ArrayList<>();
+        private int matched;
+        private boolean applied;
+    }
+
+    private static final class Item {
+        private final long inventoryId;
+        private final long partId;
+        private final int system;
+        private final Integer counted;
+        private boolean applied;
+
+        private Item(long inventoryId, long partId, int system, Integer counted) {
+            this.inventoryId = inventoryId;
+            this.partId = partId;
+            this.system = system;
+            this.counted = counted;
+        }
+
+        private int delta() {
+            return counted - system;
+        }
+    }
+}
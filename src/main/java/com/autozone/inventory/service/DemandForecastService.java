@@ -0,0 +1,505 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.DemandForecastView;
+import com.autozone.inventory.dto.ForecastRunResult;
+import com.autozone.inventory.entity.DemandForecast;
+import com.autozone.inventory.forecast.ForecastState;
+import com.autozone.inventory.forecast.HoltWintersModel;
+import com.autozone.inventory.repository.DemandForecastRepository;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Seasonal demand forecasts per (part, store).
+ *
+ * A full refit streams weekly sales totals out of the database in series order, fits
+ * batches of series on a fork/join pool and upserts the results from a single writer
+ * thread, so reading, fitting and writing overlap and memory stays bounded by a few
+ * batches. Between refits each closed day is added to the series' week-to-date total,
+ * and when a week ends every series folds that week into its state with one O(1)
+ * Holt-Winters update instead of refitting its history. Forecasts are stored on the
+ * shard of the sales they are fitted from, so each job runs once per shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class DemandForecastService {
+
+    private static final int BATCH_SERIES = 2000;
+    private static final int FIT_THRESHOLD = 64;
+    private static final int MAX_BATCHES_IN_FLIGHT = 4;
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    private static final String WEEKLY_SALES_SQL =
+            "SELECT part_id, store_id, (sale_date::date - DATE '1970-01-05') / 7 AS week, SUM(quantity_sold) " +
+            "FROM sales WHERE sale_date >= ? AND sale_date < ? " +
+            "GROUP BY part_id, store_id, week ORDER BY part_id, store_id, week";
+
+    private static final String UPSERT_SQL = "INSERT INTO demand_forecasts (part_id, store_id, level, trend, seasonals, " +
+            "last_fitted_week, week_to_date, last_closed_date, weeks_observed, mean_absolute_error, fitted_at, " +
+            "created_at, updated_at, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false) " +
+            "ON CONFLICT (part_id, store_id) DO UPDATE SET level = EXCLUDED.level, trend = EXCLUDED.trend, " +
+            "seasonals = EXCLUDED.seasonals, last_fitted_week = EXCLUDED.last_fitted_week, " +
+            "week_to_date = EXCLUDED.week_to_date, last_closed_date = EXCLUDED.last_closed_date, " +
+            "weeks_observed = EXCLUDED.weeks_observed, mean_absolute_error = EXCLUDED.mean_absolute_error, " +
+            "fitted_at = EXCLUDED.fitted_at, updated_at = EXCLUDED.updated_at";
+
+    private static final String OPEN_SERIES_SQL = "SELECT part_id, store_id, level, trend, seasonals, weeks_observed, " +
+            "mean_absolute_error, week_to_date FROM demand_forecasts WHERE last_fitted_week = ?";
+
+    private static final String CLOSE_WEEK_SQL = "UPDATE demand_forecasts SET level = ?, trend = ?, seasonals = ?, " +
+            "last_fitted_week = ?, week_to_date = 0, weeks_observed = ?, mean_absolute_error = ?, updated_at = ? " +
+            "WHERE part_id = ? AND store_id = ? AND last_fitted_week = ?";
+
+    private static final String DAILY_SALES_SQL = "SELECT part_id, store_id, SUM(quantity_sold) FROM sales " +
+            "WHERE sale_date >= ? AND sale_date < ? GROUP BY part_id, store_id";
+
+    // The guard on last_closed_date makes closing the same day twice a no-op
+    private static final String ADD_DAY_SQL = "UPDATE demand_forecasts SET week_to_date = week_to_date + ?, " +
+            "last_closed_date = ?, updated_at = ? WHERE part_id = ? AND store_id = ? AND last_fitted_week = ? " +
+            "AND (last_closed_date IS NULL OR last_closed_date < ?)";
+
+    private final DemandForecastRepository forecastRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${inventory.forecast.alpha:0.2}")
+    private double alpha;
+
+    @Value("${inventory.forecast.beta:0.05}")
+    private double beta;
+
+    @Value("${inventory.forecast.gamma:0.3}")
+    private double gamma;
+
+    @Value("${inventory.forecast.trend-damping:0.98}")
+    private double phi;
+
+    @Value("${inventory.forecast.history-weeks:156}")
+    private int historyWeeks;
+
+    // Series with less history than this are left to the moving-average reorder point
+    @Value("${inventory.forecast.min-weeks:8}")
+    private int minWeeks;
+
+    @Value("${inventory.forecast.parallelism:0}")
+    private int parallelism;
+
+    public Optional<DemandForecastView> getForecast(Long partId, Long storeId, int weeks) {
+        HoltWintersModel model = model();
+        return forecastRepository.findByPartIdAndStoreId(partId, storeId).map(forecast -> {
+            ForecastState state = toState(forecast);
+            List<DemandForecastView.WeeklyForecast> ahead = new ArrayList<>();
+            for (int h = 1; h <= Math.max(1, Math.min(weeks, HoltWintersModel.SEASON_LENGTH)); h++) {
+                ahead.add(new DemandForecastView.WeeklyForecast(
+                        HoltWintersModel.startOfWeek(state.getLastFittedWeek() + h),
+                        Math.round(model.forecastWeek(state, h) * 100) / 100.0));
+            }
+            return new DemandForecastView(partId, storeId, forecast.getWeeksObserved(),
+                    forecast.getMeanAbsoluteError(), forecast.getWeekToDate(), forecast.getFittedAt(), ahead);
+        });
+    }
+
+    /**
+     * Expected demand over the next days for a part at a store. Empty when there is
+     * no forecast or it has too little history to trust.
+     */
+    public Optional<Double> forecastDemand(Long partId, Long storeId, int days) {
+        return forecastRepository.findByPartIdAndStoreId(partId, storeId)
+                .filter(forecast -> forecast.getWeeksObserved() >= minWeeks)
+                .map(forecast -> model().forecastDays(toState(forecast), LocalDate.now(), days));
+    }
+
+    /**
+     * Refits every series with sales in the history window from scratch. Series with no
+     * sales left in the window are removed.
+     *
+     * @throws IllegalStateException when another forecast job is running
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(cron = "${inventory.forecast.refit-cron:0 0 3 * * SUN}")
+    public ForecastRunResult refitAll() {
+        return exclusively(() -> onEveryShard("refit", this::runRefit));
+    }
+
+    /**
+     * Closes every day from the oldest open week up to yesterday.
+     *
+     * @throws IllegalStateException when another forecast job is running
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(cron = "${inventory.forecast.close-cron:0 10 0 * * *}")
+    public ForecastRunResult closeThroughYesterday() {
+        return exclusively(() -> onEveryShard("close", this::runClose));
+    }
+
+    // A shard with no forecasts at all is a fresh database; seed them so reorder points can use them
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void fitInitialForecasts() {
+        if (shardRouter.scatter(() -> List.of(forecastRepository.count())).contains(0L)) {
+            refitAll();
+        }
+    }
+
+    private ForecastRunResult onEveryShard(String operation, Supplier<ForecastRunResult> job) {
+        long started = System.nanoTime();
+        long[] totals = new long[2];
+        shardRouter.forEachShard(shard -> {
+            ForecastRunResult result = job.get();
+            totals[0] += result.getSeriesUpdated();
+            totals[1] += result.getPointsProcessed();
+        });
+        return new ForecastRunResult(operation, totals[0], totals[1], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private ForecastRunResult runClose() {
+        long started = System.nanoTime();
+        Integer oldest = forecastRepository.findOldestFittedWeek();
+        long series = 0;
+        long points = 0;
+        if (oldest != null) {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            for (LocalDate day = HoltWintersModel.startOfWeek(oldest + 1); !day.isAfter(yesterday); day = day.plusDays(1)) {
+                long[] closed = closeDay(day);
+                series += closed[0];
+                points += closed[1];
+            }
+        }
+        return new ForecastRunResult("close", series, points, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private ForecastRunResult runRefit() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        int currentWeek = HoltWintersModel.weekOf(today);
+        LocalDateTime fittedAt = LocalDateTime.now();
+        Timestamp fittedAtTimestamp = Timestamp.valueOf(fittedAt);
+        Date lastClosed = Date.valueOf(today.minusDays(1));
+        HoltWintersModel model = model();
+        AtomicLong points = new AtomicLong();
+        AtomicLong series = new AtomicLong();
+
+        try (Pipeline pipeline = new Pipeline(
+                work -> work.state = model.fit(work.firstWeek, work.weekly),
+                batch -> {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, work) -> {
+                        ForecastState state = work.state;
+                        ps.setLong(1, work.partId);
+                        ps.setLong(2, work.storeId);
+                        ps.setDouble(3, state.getLevel());
+                        ps.setDouble(4, state.getTrend());
+                        ps.setBytes(5, state.encodeSeasonals());
+                        ps.setInt(6, state.getLastFittedWeek());
+                        ps.setInt(7, work.weekToDate);
+                        ps.setDate(8, lastClosed);
+                        ps.setInt(9, state.getWeeksObserved());
+                        ps.setDouble(10, state.getMeanAbsoluteError());
+                        ps.setTimestamp(11, fittedAtTimestamp);
+                        ps.setTimestamp(12, fittedAtTimestamp);
+                        ps.setTimestamp(13, fittedAtTimestamp);
+                    });
+                    series.addAndGet(batch.size());
+                })) {
+
+            SeriesReader reader = new SeriesReader(currentWeek, pipeline);
+            stream(WEEKLY_SALES_SQL, ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(HoltWintersModel.startOfWeek(currentWeek - historyWeeks).atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(today.atStartOfDay()));
+            }, rs -> {
+                points.incrementAndGet();
+                reader.accept(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4));
+            });
+            reader.finish();
+            pipeline.awaitCompletion();
+        }
+
+        int removed = jdbcTemplate.update("DELETE FROM demand_forecasts WHERE fitted_at < ?", fittedAtTimestamp);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Refit {} demand forecasts from {} weekly points in {} ms ({} stale removed)",
+                series.get(), points.get(), elapsedMillis, removed);
+        return new ForecastRunResult("refit", series.get(), points.get(), elapsedMillis);
+    }
+
+    // Returns {series updated, sales points read}
+    private long[] closeDay(LocalDate day) {
+        int week = HoltWintersModel.weekOf(day);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date closedDate = Date.valueOf(day);
+        List<Object[]> increments = jdbcTemplate.query(DAILY_SALES_SQL,
+                (rs, rowNum) -> new Object[]{rs.getInt(3), closedDate, now, rs.getLong(1), rs.getLong(2), week - 1, closedDate},
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADD_DAY_SQL, increments));
+
+        long closed = 0;
+        if (day.equals(HoltWintersModel.startOfWeek(week).plusDays(6))) {
+            closed = closeWeek(week);
+        }
+        return new long[]{closed, increments.size()};
+    }
+
+    // Folds the finished week's total into every series whose open week it is
+    private long closeWeek(int week) {
+        HoltWintersModel model = model();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        AtomicLong series = new AtomicLong();
+
+        try (Pipeline pipeline = new Pipeline(
+                work -> model.update(work.state, work.weekToDate),
+                batch -> {
+                    jdbcTemplate.batchUpdate(CLOSE_WEEK_SQL, batch, batch.size(), (ps, work) -> {
+                        ForecastState state = work.state;
+                        ps.setDouble(1, state.getLevel());
+                        ps.setDouble(2, state.getTrend());
+                        ps.setBytes(3, state.encodeSeasonals());
+                        ps.setInt(4, state.getLastFittedWeek());
+                        ps.setInt(5, state.getWeeksObserved());
+                        ps.setDouble(6, state.getMeanAbsoluteError());
+                        ps.setTimestamp(7, now);
+                        ps.setLong(8, work.partId);
+                        ps.setLong(9, work.storeId);
+                        ps.setInt(10, week - 1);
+                    });
+                    series.addAndGet(batch.size());
+                })) {
+
+            List<SeriesWork> batch = new ArrayList<>(BATCH_SERIES);
+            stream(OPEN_SERIES_SQL, ps -> ps.setInt(1, week - 1), rs -> {
+                SeriesWork work = new SeriesWork(rs.getLong(1), rs.getLong(2));
+                work.state = new ForecastState(rs.getDouble(3), rs.getDouble(4),
+                        ForecastState.decodeSeasonals(rs.getBytes(5)), week - 1, rs.getInt(6), rs.getDouble(7));
+                work.weekToDate = rs.getInt(8);
+                batch.add(work);
+                if (batch.size() == BATCH_SERIES) {
+                    pipeline.submit(new ArrayList<>(batch));
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                pipeline.submit(batch);
+            }
+            pipeline.awaitCompletion();
+        }
+        log.info("Closed forecast week starting {} for {} series", HoltWintersModel.startOfWeek(week), series.get());
+        return series.get();
+    }
+
+    // Server-side cursor: requires a transaction so the driver fetches in chunks
+    private void stream(String sql, PreparedStatementSetter parameters, RowHandler handler) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            parameters.setValues(ps);
+            return ps;
+        }, rs -> {
+            handler.handle(rs);
+        }));
+    }
+
+    private ForecastRunResult exclusively(Supplier<ForecastRunResult> job) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A forecast job is already running");
+        }
+        try {
+            return job.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private HoltWintersModel model() {
+        return new HoltWintersModel(alpha, beta, gamma, phi);
+    }
+
+    private static ForecastState toState(DemandForecast forecast) {
+        return new ForecastState(forecast.getLevel(), forecast.getTrend(),
+                ForecastState.decodeSeasonals(forecast.getSeasonals()), forecast.getLastFittedWeek(),
+                forecast.getWeeksObserved(), forecast.getMeanAbsoluteError());
+    }
+
+    @FunctionalInterface
+    private interface PreparedStatementSetter {
+        void setValues(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet rs) throws SQLException;
+    }
+
+    private static final class SeriesWork {
+        private final long partId;
+        private final long storeId;
+        private int firstWeek;
+        private int[] weekly;
+        private int weekToDate;
+        private ForecastState state;
+
+        private SeriesWork(long partId, long storeId) {
+            this.partId = partId;
+            this.storeId = storeId;
+        }
+    }
+
+    /**
+     * Groups weekly rows (sorted by series, then week) into dense per-series arrays,
+     * treating weeks with no row as zero demand. The week in progress becomes weekToDate.
+     */
+    private static final class SeriesReader {
+        private final int currentWeek;
+        private final Pipeline pipeline;
+        private List<SeriesWork> batch = new ArrayList<>(BATCH_SERIES);
+        private SeriesWork current;
+
+        private SeriesReader(int currentWeek, Pipeline pipeline) {
+            this.currentWeek = currentWeek;
+            this.pipeline = pipeline;
+        }
+
+        private void accept(long partId, long storeId, int week, int quantity) {
+            if (current == null || current.partId != partId || current.storeId != storeId) {
+                flushSeries();
+                current = new SeriesWork(partId, storeId);
+                current.firstWeek = Math.min(week, currentWeek);
+                current.weekly = new int[currentWeek - current.firstWeek];
+            }
+            if (week >= currentWeek) {
+                current.weekToDate += quantity;
+            } else {
+                current.weekly[week - current.firstWeek] = quantity;
+            }
+        }
+
+        private void finish() {
+            flushSeries();
+            if (!batch.isEmpty()) {
+                pipeline.submit(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        private void flushSeries() {
+            if (current == null) {
+                return;
+            }
+            batch.add(current);
+            current = null;
+            if (batch.size() == BATCH_SERIES) {
+                pipeline.submit(batch);
+                batch = new ArrayList<>(BATCH_SERIES);
+            }
+        }
+    }
+
+    /**
+     * Reader -> fork/join compute -> single writer, with a cap on batches in flight so a
+     * slow database applies back-pressure to the reader instead of filling the heap.
+     */
+    private final class Pipeline implements AutoCloseable {
+        private final ForkJoinPool pool;
+        private final ExecutorService writer;
+        private final Semaphore inFlight = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        private final Consumer<SeriesWork> compute;
+        private final Consumer<List<SeriesWork>> write;
+
+        private Pipeline(Consumer<SeriesWork> compute, Consumer<List<SeriesWork>> write) {
+            this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            // The writer commits to the shard the job is reading from
+            String shard = ShardContext.current();
+            this.writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    ShardContext.set(shard);
+                    runnable.run();
+                }, "forecast-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.compute = compute;
+            this.write = write;
+        }
+
+        private void submit(List<SeriesWork> batch) {
+            inFlight.acquireUninterruptibly();
+            pending.add(CompletableFuture
+                    .runAsync(() -> new ComputeTask(batch, 0, batch.size(), compute).invoke(), pool)
+                    .thenRunAsync(() -> transactionTemplate.executeWithoutResult(status -> write.accept(batch)), writer)
+                    .whenComplete((result, error) -> inFlight.release()));
+        }
+
+        private void awaitCompletion() {
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        @Override
+        public void close() {
+            pool.shutdownNow();
+            writer.shutdownNow();
+        }
+    }
+
+    private static final class ComputeTask extends RecursiveAction {
+        private final List<SeriesWork> batch;
+        private final int from;
+        private final int to;
+        private final Consumer<SeriesWork> compute;
+
+        private ComputeTask(List<SeriesWork> batch, int from, int to, Consumer<SeriesWork> compute) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.compute = compute;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    compute.accept(batch.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ComputeTask(batch, from, mid, compute), new ComputeTask(batch, mid, to, compute));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.autozone.inventory.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets for list endpoints ({@code ?fields=sku,quantity,part.name}).
+ *
+ * Requested fields become a Criteria tuple query that selects only those columns, so
+ * associations nobody asked for are never joined or loaded. A field is a basic attribute
+ * of the entity or of one of its to-one associations ({@code part.sku}); naming the
+ * association alone ({@code part}) selects all of its basic attributes. Rows come back as
+ * nested maps in the order requested, always starting with {@code id}.
+ */
+@Service
+@RequiredArgsConstructor
+public class FieldProjectionService {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    @FunctionalInterface
+    public interface Filter<T> {
+        Predicate toPredicate(CriteriaBuilder cb, Root<T> root);
+    }
+
+    public static boolean isRequested(String fields) {
+        return StringUtils.hasText(fields);
+    }
+
+    @Transactional(readOnly = true)
+    public <T> List<Map<String, Object>> findAll(Class<T> entityType, String fields, Filter<T> filter) {
+        EntityType<T> entity = entityManager.getMetamodel().entity(entityType);
+        List<String> paths = resolve(entity, fields);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            int dot = path.indexOf('.');
+            if (dot < 0) {
+                selections.add(root.get(path).alias(path));
+            } else {
+                String association = path.substring(0, dot);
+                String attribute = path.substring(dot + 1);
+                // The foreign key already holds the target's id, so no join is needed for it
+                selections.add(ID.equals(attribute)
+                        ? root.get(association).get(ID).alias(path)
+                        : joins.computeIfAbsent(association, a -> root.join(a, JoinType.LEFT)).get(attribute).alias(path));
+            }
+        }
+        query.multiselect(selections).orderBy(cb.asc(root.get(ID)));
+        if (filter != null) {
+            query.where(filter.toPredicate(cb, root));
+        }
+
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String path : paths) {
+                int dot = path.indexOf('.');
+                if (dot < 0) {
+                    row.put(path, tuple.get(path));
+                } else {
+                    nested(row, path.substring(0, dot)).put(path.substring(dot + 1), tuple.get(path));
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nested(Map<String, Object> row, String association) {
+        Object value = row.get(association);
+        if (value == null) {
+            value = new LinkedHashMap<String, Object>();
+            row.put(association, value);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static List<String> resolve(EntityType<?> entity, String fields) {
+        Set<String> paths = new LinkedHashSet<>();
+        paths.add(ID);
+        for (String field : StringUtils.commaDelimitedListToStringArray(fields)) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String[] parts = name.split("\\.");
+            if (parts.length > 2) {
+                throw new IllegalArgumentException("Field '" + name + "' is nested too deeply");
+            }
+            Attribute<?, ?> attribute = visible(entity, parts[0], name);
+            if (!isAssociation(attribute)) {
+                if (parts.length > 1 || !isBasic(attribute)) {
+                    throw new IllegalArgumentException("Unknown field '" + name + "'");
+                }
+                paths.add(name);
+                continue;
+            }
+
+            ManagedType<?> target = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+            if (parts.length == 2) {
+                Attribute<?, ?> nested = visible(target, parts[1], name);
+                if (!isBasic(nested)) {
+                    throw new IllegalArgumentException("Unknown field '" + name + "'");
+                }
+                paths.add(name);
+            } else {
+                target.getAttributes().stream()
+                        .filter(FieldProjectionService::isBasic)
+                        .filter(a -> !isJsonIgnored(a))
+                        .map(Attribute::getName)
+                        .sorted((a, b) -> ID.equals(a) ? -1 : ID.equals(b) ? 1 : a.compareTo(b))
+                        .forEach(a -> paths.add(parts[0] + "." + a));
+            }
+        }
+        return List.copyOf(paths);
+    }
+
+    private static Attribute<?, ?> visible(ManagedType<?> type, String name, String field) {
+        Attribute<?, ?> attribute = type.getAttributes().stream()
+                .filter(a -> a.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + field + "'"));
+        if (isJsonIgnored(attribute)) {
+            throw new IllegalArgumentException("Unknown field '" + field + "'");
+        }
+        return attribute;
+    }
+
+    private static boolean isBasic(Attribute<?, ?> attribute) {
+        return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC;
+    }
+
+    private static boolean isAssociation(Attribute<?, ?> attribute) {
+        return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ONE_TO_ONE;
+    }
+
+    // Fields hidden from the full JSON (e.g. passwords) must not be reachable this way either
+    private static boolean isJsonIgnored(Attribute<?, ?> attribute) {
+        return attribute.getJavaMember() instanceof AnnotatedElement member && member.isAnnotationPresent(JsonIgnore.class);
+    }
+}
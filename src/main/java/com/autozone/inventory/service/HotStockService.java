@@ -0,0 +1,441 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.HotStockView;
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relieves row-lock contention on hot items by splitting their stock into slots.
+ *
+ * A split inventory row keeps its reorder settings but its on-hand quantity lives in N
+ * inventory_slots rows. A sale updates one slot that can cover it, starting from a random
+ * one and skipping slots other sales have locked, so N sales proceed at once; only when
+ * no single free slot can cover it does it lock every slot and take from several. The
+ * row's own quantity is refreshed from the slot totals every rebalance interval, so
+ * reports, reorder lists and sync feeds lag split items by at most that long, while the
+ * ledger's responses and change events carry the live total. The same pass evens out
+ * slots that have run low.
+ *
+ * Units held by reservations are shared out over the slots, slot i keeping
+ * ceil((reserved - i) / N) of them, and a sale never takes a slot below its share. Each
+ * slot is checked under its own lock, so sales on different slots cannot together dip
+ * into held stock. A sale reads the reserved count under a key-share lock on the item's
+ * row, which sales do not contend on but a new hold waits for; the hold then locks the
+ * slots and evens them out if one is short of its new share.
+ *
+ * With detection enabled, ledger updates slower than slow-update are counted per item;
+ * an item with hot-threshold of them in one detect interval is split, and a split item
+ * that sees fewer writes than that for cool-down is merged back. Full-record edits and
+ * cycle counts merge an item before they touch its quantity. Items left split when the
+ * feature is turned off are merged by the first rebalance after startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockService {
+
+    // Holds (and merges) take the row FOR UPDATE, so the reserved count stays put until the sale commits
+    private static final String FIND_SPLIT_SQL = "SELECT id, slot_count, reorder_point, reorder_quantity, reserved_quantity FROM inventory " +
+            "WHERE part_id = ? AND store_id = ? AND deleted = false AND slot_count > 0 FOR KEY SHARE";
+
+    // One free slot that can take the change and keep its share of the reserved units, searched
+    // from a random starting slot. A scalar subquery runs once; as a joined subquery it can be
+    // rescanned and pick a second slot.
+    private static final String PICK_SLOT_SQL = "UPDATE inventory_slots SET quantity = quantity + ?, updated_at = ? " +
+            "WHERE id = (SELECT id FROM inventory_slots WHERE inventory_id = ? AND quantity + ? >= (? + ? - 1 - slot) / ? " +
+            "ORDER BY (slot + ?) % ? LIMIT 1 FOR UPDATE SKIP LOCKED)";
+
+    private static final String LOCK_SLOTS_SQL =
+            "SELECT id, quantity, slot FROM inventory_slots WHERE inventory_id = ? ORDER BY slot FOR UPDATE";
+
+    private static final String TOTAL_SQL = "SELECT coalesce(sum(quantity), 0) FROM inventory_slots WHERE inventory_id = ?";
+
+    private static final String FOLD_SQL = "UPDATE inventory i SET quantity = s.total, updated_at = ? " +
+            "FROM (SELECT inventory_id, sum(quantity)::int AS total FROM inventory_slots GROUP BY inventory_id) s " +
+            "WHERE i.id = s.inventory_id AND i.slot_count > 0 AND i.quantity <> s.total " +
+            "RETURNING i.id, i.part_id, i.store_id, i.quantity, i.reorder_point, i.deleted";
+
+    // Items with a slot below half its even share
+    private static final String UNEVEN_SQL = "SELECT inventory_id FROM inventory_slots GROUP BY inventory_id " +
+            "HAVING min(quantity) * count(*) * 2 < sum(quantity) AND max(quantity) - min(quantity) > 1";
+
+    private static final String SPLIT_ITEMS_SQL = "SELECT i.id, i.part_id, i.store_id FROM inventory i " +
+            "WHERE i.id IN (SELECT DISTINCT inventory_id FROM inventory_slots)";
+
+    private static final String VIEW_SQL = "SELECT i.id, i.part_id, i.store_id, i.quantity, " +
+            "array_agg(s.quantity ORDER BY s.slot) FROM inventory i JOIN inventory_slots s ON s.inventory_id = i.id " +
+            "GROUP BY i.id, i.part_id, i.store_id, i.quantity ORDER BY i.store_id, i.part_id";
+
+    private static final int MAX_SLOTS = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    @Value("${inventory.hot-stock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot-stock.slots:8}")
+    private int defaultSlots;
+
+    @Value("${inventory.hot-stock.slow-update:5ms}")
+    private Duration slowUpdate;
+
+    @Value("${inventory.hot-stock.hot-threshold:20}")
+    private int hotThreshold;
+
+    @Value("${inventory.hot-stock.cool-down:15m}")
+    private Duration coolDown;
+
+    // Per detect interval: slow updates of unsplit items and writes to split ones
+    private volatile Map<StockKey, AtomicInteger> contended = new ConcurrentHashMap<>();
+    private volatile Map<StockKey, AtomicInteger> slotWrites = new ConcurrentHashMap<>();
+    private final Map<StockKey, Long> quietSince = new ConcurrentHashMap<>();
+    private volatile boolean leftoversMerged;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Counts a ledger update of an unsplit item toward hot-item detection. */
+    public void recordUpdate(Long partId, Long storeId, long elapsedNanos) {
+        if (enabled && elapsedNanos >= slowUpdate.toNanos()) {
+            contended.computeIfAbsent(new StockKey(partId, storeId), key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Applies a stock change to a split item within the caller's transaction. Empty when
+     * the item is not split.
+     *
+     * @throws IllegalStateException when the item's total stock cannot cover the change
+     */
+    public Optional<StockLevel> applyDelta(Long partId, Long storeId, int delta, LocalDateTime now) {
+        List<int[]> settings = new ArrayList<>();
+        List<Long> ids = jdbcTemplate.query(FIND_SPLIT_SQL, (rs, rowNum) -> {
+            settings.add(new int[]{rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)});
+            return rs.getLong(1);
+        }, partId, storeId);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        Long inventoryId = ids.get(0);
+        int slots = settings.get(0)[0];
+        // An increase may go to any slot, even one short of its share
+        int reserved = delta < 0 ? settings.get(0)[3] : 0;
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        int updated = jdbcTemplate.update(PICK_SLOT_SQL, delta, timestamp, inventoryId, delta, reserved, slots, slots,
+                ThreadLocalRandom.current().nextInt(slots), slots);
+        if (updated == 0 && !applyAcrossSlots(inventoryId, partId, storeId, delta, reserved, timestamp)) {
+            // Merged back since it was looked up
+            return Optional.empty();
+        }
+        slotWrites.computeIfAbsent(new StockKey(partId, storeId), key -> new AtomicInteger()).incrementAndGet();
+
+        Integer total = jdbcTemplate.queryForObject(TOTAL_SQL, Integer.class, inventoryId);
+        return Optional.of(new StockLevel(inventoryId, partId, storeId, total, settings.get(0)[1], settings.get(0)[2]));
+    }
+
+    /**
+     * Checks a new hold against a split item's slot total, with every slot locked until the
+     * caller's transaction ends, and evens the slots out if one would be short of its share
+     * of the new reserved count. Returns the total, or empty when it cannot cover the hold.
+     * The caller holds the row FOR UPDATE and raises reserved_quantity itself.
+     */
+    public Optional<Integer> holdInSlots(Long inventoryId, int reserved, int quantity) {
+        List<long[]> slots = jdbcTemplate.query(LOCK_SLOTS_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2), rs.getInt(3)}, inventoryId);
+        int total = (int) slots.stream().mapToLong(slot -> slot[1]).sum();
+        if (total - reserved < quantity) {
+            return Optional.empty();
+        }
+        if (slots.stream().anyMatch(slot -> slot[1] < share(reserved + quantity, (int) slot[2], slots.size()))) {
+            evenOut(inventoryId);
+        }
+        return Optional.of(total);
+    }
+
+    /** Splits an item into the configured number of slots. */
+    public boolean split(Long partId, Long storeId) {
+        return split(partId, storeId, defaultSlots);
+    }
+
+    /**
+     * Splits an item's stock evenly across slots. False when the part is not stocked at
+     * the store. The caller binds the store's shard.
+     *
+     * @throws IllegalStateException when the item is already split
+     */
+    public boolean split(Long partId, Long storeId, int slots) {
+        if (slots < 2 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Slots must be between 2 and " + MAX_SLOTS);
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<int[]> rows = new ArrayList<>();
+            List<Long> ids = jdbcTemplate.query("SELECT id, quantity, slot_count FROM inventory " +
+                    "WHERE part_id = ? AND store_id = ? AND deleted = false FOR UPDATE", (rs, rowNum) -> {
+                rows.add(new int[]{rs.getInt(2), rs.getInt(3)});
+                return rs.getLong(1);
+            }, partId, storeId);
+            if (ids.isEmpty()) {
+                return false;
+            }
+            if (rows.get(0)[1] > 0) {
+                throw new IllegalStateException("Part " + partId + " at store " + storeId + " is already split");
+            }
+            int quantity = rows.get(0)[0];
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> inserts = new ArrayList<>(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                int share = quantity / slots + (slot < quantity % slots ? 1 : 0);
+                inserts.add(new Object[]{ids.get(0), slot, share, now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO inventory_slots (inventory_id, slot, quantity, created_at, updated_at, deleted) " +
+                    "VALUES (?, ?, ?, ?, ?, false)", inserts);
+            jdbcTemplate.update("UPDATE inventory SET slot_count = ? WHERE id = ?", slots, ids.get(0));
+            quietSince.put(new StockKey(partId, storeId), System.nanoTime());
+            return true;
+        }));
+    }
+
+    /** Folds a split item's slots back into its row. False when it is not split. */
+    public boolean merge(Long partId, Long storeId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM inventory " +
+                    "WHERE part_id = ? AND store_id = ? AND slot_count > 0 FOR UPDATE", Long.class, partId, storeId);
+            ids.forEach(this::mergeLocked);
+            return !ids.isEmpty();
+        }));
+    }
+
+    /** Merges every split item of a store, e.g. before a cycle count sets its quantities. */
+    public void mergeStore(Long storeId) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.queryForList(
+                "SELECT id FROM inventory WHERE store_id = ? AND slot_count > 0 ORDER BY id FOR UPDATE", Long.class, storeId)
+                .forEach(this::mergeLocked));
+    }
+
+    /** Split items with their slot quantities, on every shard. */
+    public List<HotStockView> getSplitItems() {
+        return shardRouter.scatter(() -> jdbcTemplate.query(VIEW_SQL, (rs, rowNum) -> {
+            Integer[] slots = (Integer[]) rs.getArray(5).getArray();
+            int total = Arrays.stream(slots).mapToInt(Integer::intValue).sum();
+            return new HotStockView(rs.getLong(1), rs.getLong(2), rs.getLong(3), total, rs.getInt(4), Arrays.asList(slots));
+        }));
+    }
+
+    /** Items with slow updates in the current detect interval, most contended first. */
+    public List<Map<String, Object>> getContendedItems() {
+        return contended.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<StockKey, AtomicInteger> entry) -> entry.getValue().get()).reversed())
+                .limit(100)
+                .map(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("partId", entry.getKey().partId);
+                    row.put("storeId", entry.getKey().storeId);
+                    row.put("slowUpdates", entry.getValue().get());
+                    return row;
+                })
+                .toList();
+    }
+
+    /**
+     * Refreshes split rows' quantities from their slots and evens out uneven slots, on
+     * every shard. With the feature disabled, the first run merges every split item and
+     * later runs do nothing.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-stock.rebalance-interval:1s}")
+    public void rebalance() {
+        if (!enabled) {
+            if (!leftoversMerged) {
+                shardRouter.forEachShard(shard -> jdbcTemplate
+                        .query(SPLIT_ITEMS_SQL, (rs, rowNum) -> new StockKey(rs.getLong(2), rs.getLong(3)))
+                        .forEach(key -> merge(key.partId, key.storeId)));
+                leftoversMerged = true;
+            }
+            return;
+        }
+        shardRouter.forEachShard(shard -> {
+            for (Long inventoryId : jdbcTemplate.queryForList(UNEVEN_SQL, Long.class)) {
+                transactionTemplate.executeWithoutResult(status -> evenOut(inventoryId));
+            }
+            transactionTemplate.executeWithoutResult(status -> fold());
+        });
+    }
+
+    /** Splits items that turned hot in the last interval and merges those that cooled down. */
+    @Scheduled(fixedDelayString = "${inventory.hot-stock.detect-interval:10s}")
+    public void detect() {
+        Map<StockKey, AtomicInteger> slow = contended;
+        Map<StockKey, AtomicInteger> writes = slotWrites;
+        contended = new ConcurrentHashMap<>();
+        slotWrites = new ConcurrentHashMap<>();
+        if (!enabled) {
+            return;
+        }
+
+        slow.forEach((key, count) -> {
+            if (count.get() >= hotThreshold) {
+                inStore(key, () -> {
+                    try {
+                        if (split(key.partId, key.storeId)) {
+                            log.info("Split part {} at store {} into {} slots after {} slow stock updates",
+                                    key.partId, key.storeId, defaultSlots, count.get());
+                        }
+                    } catch (IllegalStateException e) {
+                        // Split by another instance in the meantime
+                    }
+                });
+            }
+        });
+
+        long now = System.nanoTime();
+        shardRouter.forEachShard(shard -> {
+            for (StockKey key : jdbcTemplate.query(SPLIT_ITEMS_SQL, (rs, rowNum) -> new StockKey(rs.getLong(2), rs.getLong(3)))) {
+                AtomicInteger written = writes.get(key);
+                if (written != null && written.get() >= hotThreshold) {
+                    quietSince.remove(key);
+                } else if (now - quietSince.computeIfAbsent(key, k -> now) >= coolDown.toNanos()) {
+                    quietSince.remove(key);
+                    if (merge(key.partId, key.storeId)) {
+                        log.info("Merged part {} at store {} back into one row after {} quiet", key.partId, key.storeId, coolDown);
+                    }
+                }
+            }
+        });
+    }
+
+    // Lock order is always slot order, as in the rebalance, so the slow path cannot deadlock
+    private boolean applyAcrossSlots(Long inventoryId, Long partId, Long storeId, int delta, int reserved, Timestamp now) {
+        List<long[]> slots = jdbcTemplate.query(LOCK_SLOTS_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2), rs.getInt(3)}, inventoryId);
+        if (slots.isEmpty()) {
+            return false;
+        }
+        // Each slot may give what it holds above its share of the reserved units
+        for (long[] slot : slots) {
+            slot[2] = slot[1] - share(reserved, (int) slot[2], slots.size());
+        }
+        long spare = slots.stream().mapToLong(slot -> Math.max(0, slot[2])).sum();
+        if (delta < 0 && spare + delta < 0) {
+            throw new IllegalStateException("Insufficient inventory for part " + partId + " at store " + storeId);
+        }
+        List<Object[]> updates = new ArrayList<>();
+        if (delta >= 0) {
+            updates.add(new Object[]{(int) slots.get(0)[1] + delta, now, slots.get(0)[0]});
+        } else {
+            // Take from the slots with the most to spare first
+            slots.sort(Comparator.comparingLong((long[] slot) -> slot[2]).reversed());
+            int needed = -delta;
+            for (long[] slot : slots) {
+                int taken = (int) Math.min(Math.max(0, slot[2]), needed);
+                if (taken > 0) {
+                    updates.add(new Object[]{(int) slot[1] - taken, now, slot[0]});
+                    needed -= taken;
+                }
+                if (needed == 0) {
+                    break;
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE inventory_slots SET quantity = ?, updated_at = ? WHERE id = ?", updates);
+        return true;
+    }
+
+    private void evenOut(Long inventoryId) {
+        List<long[]> slots = jdbcTemplate.query(LOCK_SLOTS_SQL, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2)}, inventoryId);
+        if (slots.isEmpty()) {
+            return;
+        }
+        int total = (int) slots.stream().mapToLong(slot -> slot[1]).sum();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            updates.add(new Object[]{total / slots.size() + (i < total % slots.size() ? 1 : 0), now, slots.get(i)[0]});
+        }
+        jdbcTemplate.batchUpdate("UPDATE inventory_slots SET quantity = ?, updated_at = ? WHERE id = ?", updates);
+    }
+
+    // Slot i's share of the reserved units; the shares add up to reserved
+    private static int share(int reserved, int slot, int slots) {
+        return Math.max(0, (reserved + slots - 1 - slot) / slots);
+    }
+
+    // Listeners already saw each change through the ledger; this only resyncs the row
+    private void fold() {
+        jdbcTemplate.query(FOLD_SQL, rs -> {
+            int quantity = rs.getInt(4);
+            eventPublisher.publishEvent(new InventoryChangedEvent(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    quantity, quantity, rs.getInt(5), rs.getBoolean(6)));
+        }, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void mergeLocked(Long inventoryId) {
+        List<long[]> slots = jdbcTemplate.query(LOCK_SLOTS_SQL, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2)}, inventoryId);
+        int total = (int) slots.stream().mapToLong(slot -> slot[1]).sum();
+        jdbcTemplate.query("UPDATE inventory SET quantity = ?, slot_count = 0, updated_at = ? WHERE id = ? " +
+                "RETURNING part_id, store_id, reorder_point, deleted", rs -> {
+            quietSince.remove(new StockKey(rs.getLong(1), rs.getLong(2)));
+            eventPublisher.publishEvent(new InventoryChangedEvent(inventoryId, rs.getLong(1), rs.getLong(2),
+                    total, total, rs.getInt(3), rs.getBoolean(4)));
+        }, total, Timestamp.valueOf(LocalDateTime.now()), inventoryId);
+        jdbcTemplate.update("DELETE FROM inventory_slots WHERE inventory_id = ?", inventoryId);
+    }
+
+    private void inStore(StockKey key, Runnable task) {
+        shardRouter.bind(key.storeId);
+        try {
+            task.run();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    // Part and store ids, which is how the ledger and the split and merge calls name an item
+    private static final class StockKey {
+        private final long partId;
+        private final long storeId;
+
+        private StockKey(long partId, long storeId) {
+            this.partId = partId;
+            this.storeId = storeId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StockKey key && key.partId == partId && key.storeId == storeId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(partId, storeId);
+        }
+    }
+}
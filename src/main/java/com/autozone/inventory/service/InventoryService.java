@@ -1,14 +1,19 @@
 package com.autozone.inventory.service;
 
+import com.autozone.inventory.dto.InventorySummary;
+import com.autozone.inventory.dto.StockLevel;
 import com.autozone.inventory.entity.Inventory;
+import com.autozone.inventory.entity.InventoryMovement;
 import com.autozone.inventory.entity.Part;
 import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.InventoryChangedEvent;
 import com.autozone.inventory.repository.InventoryRepository;
 import com.autozone.inventory.repository.SaleRepository;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cglib.core.Local;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +29,11 @@ import java.time.LocalDateTime;
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
     private final SaleRepository saleRepository;
+    private final StockLedgerService stockLedgerService;
+    private final DemandForecastService demandForecastService;
+    private final SafetyStockService safetyStockService;
+    private final HotStockService hotStockService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Inventory> getAllInventory(){
         return inventoryRepository.findAll();
@@ -41,7 +51,7 @@ public class InventoryService {
         return inventoryRepository.findByStore(store);
     }
 
-    public List<Inventory> getItemsNeedingReorder(){
+    public List<InventorySummary> getItemsNeedingReorder(){
         return inventoryRepository.findItemsNeedingReorder();
     }
 
@@ -49,53 +59,112 @@ public class InventoryService {
         return inventoryRepository.findItemsNeedingReorderByStore(store);
     }
 
-    public List<Inventory> getLowStockItems(){
+    public List<InventorySummary> getLowStockItems(){
         return inventoryRepository.findLowStockItems();
     }
 
+    /**
+     * Creates a row, or updates the quantity, thresholds and location of an existing one.
+     * An update holds the row lock from reading the current quantity until commit, so a
+     * concurrent ledger movement either lands before it (and is counted in the recorded
+     * adjustment) or waits for it; it is never overwritten. The row's part, store and
+     * reservations are not changed by an update.
+     *
+     * @throws IllegalArgumentException when the id of an update does not exist
+     */
     public Inventory createOrUpdateInventory(Inventory inventory){
-        return inventoryRepository.save(inventory);
+        if (inventory.getId() == null) {
+            Inventory saved = inventoryRepository.save(inventory);
+            if (saved.getQuantity() != 0) {
+                stockLedgerService.recordAppliedChange(saved.getPart().getId(), saved.getStore().getId(),
+                        saved.getQuantity(), "Opening balance");
+            }
+            return saved;
+        }
+
+        List<Object[]> locked = inventoryRepository.lockById(inventory.getId());
+        if (locked.isEmpty()) {
+            throw new IllegalArgumentException("Inventory not found: " + inventory.getId());
+        }
+        Long partId = ((Number) locked.get(0)[0]).longValue();
+        Long storeId = ((Number) locked.get(0)[1]).longValue();
+        // A split item's stock is in its slots; fold them back before setting the quantity.
+        // The row lock keeps it from being split again until this update commits.
+        hotStockService.merge(partId, storeId);
+
+        Inventory current = inventoryRepository.findById(inventory.getId()).orElseThrow();
+        int previousQuantity = current.getQuantity();
+        if (inventory.getQuantity() != null) {
+            current.setQuantity(inventory.getQuantity());
+        }
+        if (inventory.getReorderPoint() != null) {
+            current.setReorderPoint(inventory.getReorderPoint());
+        }
+        if (inventory.getReorderQuantity() != null) {
+            current.setReorderQuantity(inventory.getReorderQuantity());
+        }
+        if (inventory.getMaxStockLevel() != null) {
+            current.setMaxStockLevel(inventory.getMaxStockLevel());
+        }
+        current.setLocation(inventory.getLocation());
+        Inventory saved = inventoryRepository.save(current);
+
+        // Keep the ledger complete when quantity is set directly on the record
+        int delta = saved.getQuantity() - previousQuantity;
+        if (delta != 0) {
+            stockLedgerService.recordAppliedChange(partId, storeId, delta, "Inventory record update");
+        }
+        return saved;
     }
 
     public void deleteInventory(Long id){
-        inventoryRepository.findById(id).ifPresent(inventory->{
-            inventory.setDeleted(true);
-            inventoryRepository.save(inventory);
-        });
+        // A targeted update, so a sale committed since the row was read is not written back over
+        for (Object[] row : inventoryRepository.softDelete(id, LocalDateTime.now())) {
+            int quantity = ((Number) row[2]).intValue();
+            eventPublisher.publishEvent(new InventoryChangedEvent(id, ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(), quantity, quantity, ((Number) row[3]).intValue(), true));
+        }
     }
 
     /**
      * Intelligent reorder point calculation based on sales velocity
-     * Uses 30-day, 60-day, and 90-day sales trends
+     * Uses the seasonal demand forecast when the item has one, otherwise
+     * 30-day, 60-day, and 90-day sales trends, plus the simulated safety stock
+     * (or a week of average sales when the item has not been simulated)
      */
 
     public Integer calculateOptimalReorderPoint(Part part, Store store){
         LocalDateTime now = LocalDateTime.now();
 
+        int leadTimeDays = part.getSupplierLeadTimeDays();
+        Optional<Integer> safetyStock = safetyStockService.getSafetyStock(part.getId(), store.getId());
+
+        //Seasonal forecast covers the lead time, and the safety stock window when there is no simulated safety stock
+
+        Optional<Double> forecastDemand = demandForecastService.forecastDemand(part.getId(), store.getId(),
+                leadTimeDays + (safetyStock.isPresent() ? 0 : ReorderPolicy.CURRENT.getSafetyStockDays()));
+        if (forecastDemand.isPresent()) {
+            return Math.max((int) Math.ceil(forecastDemand.get() + safetyStock.orElse(0)),
+                    ReorderPolicy.CURRENT.getMinimumReorderPoint());
+        }
+
         //Get sales data for different periods
 
         Integer sold30 = saleRepository.getTotalQuantitySold(part.getId(), store.getId(), now.minusDays(30), now);
         Integer sold60 = saleRepository.getTotalQuantitySold(part.getId(), store.getId(), now.minusDays(60), now);
         Integer sold90 = saleRepository.getTotalQuantitySold(part.getId(), store.getId(), now.minusDays(90), now);
 
-        // Calculate average daily sales with weighted average (recent data weighted more)
-
-        double dailyVelocity30 = sold30 != null ? sold30 / 30.0 : 0;
-        double dailyVelocity60 = sold60 != null ? sold60 / 60.0 : 0;
-        double dailyVelocity90 = sold90 != null ? sold90 / 90.0 : 0;
-
-        //Weighted average: 50% weight on last 30 days, 30% on 60 days, 20% on 90 days
+        // Weighted average daily sales: 50% weight on last 30 days, 30% on 60 days, 20% on 90 days
 
-        double weightedDailySales = (dailyVelocity30 * 0.5) + (dailyVelocity60 * 0.3) + (dailyVelocity90 * 0.2);
+        ReorderPolicy policy = ReorderPolicy.CURRENT;
+        double weightedDailySales = policy.dailyVelocity(sold30 != null ? sold30 : 0,
+                sold60 != null ? sold60 : 0, sold90 != null ? sold90 : 0);
 
-        //Calculate reorder point: (average daily sales * lead time) + safety stock
+        //Calculate reorder point: (average daily sales * lead time) + safety stock (an extra week of buffer by default)
 
-        int leadTimeDays = part.getSupplierLeadTimeDays();
-        int safetyStockDays = 7; //Extra week of buffer
-
-        int reorderPoint = (int) Math.ceil(weightedDailySales * (leadTimeDays + safetyStockDays));
-
-        return Math.max(reorderPoint, 5);
+        return safetyStock.isPresent()
+                ? policy.reorderPoint(weightedDailySales, leadTimeDays, safetyStock.get())
+                : policy.reorderPoint(weightedDailySales, leadTimeDays);
     }
 
     /**
@@ -107,18 +176,8 @@ public class InventoryService {
 
         // Get 30-day sales trend
         Integer sold30Days = saleRepository.getTotalQuantitySold(part.getId(), store.getId(), now.minusDays(30), now);
-        double dailyVelocity = sold30Days != null ? sold30Days / 30.0 : 0;
-
-        // Order enough to last 30-45 days
-        int targetDays = 30;
-        int optimalQuantity = (int) Math.ceil(dailyVelocity * targetDays);
 
-        // Don't exceed max stock level
-        int currentStock = inventory.getQuantity();
-        int maxOrder = inventory.getMaxStockLevel() - currentStock;
-
-        // Return the minimum of optimal quantity and what fits in max stock
-        return Math.min(optimalQuantity, maxOrder);
+        return ReorderMath.optimalReorderQuantity(sold30Days, inventory.getQuantity(), inventory.getMaxStockLevel());
     }
 
     /**
@@ -133,8 +192,12 @@ public class InventoryService {
                     inventory.getStore()
             );
 
-            inventory.setReorderPoint(optimalReorderPoint);
-            inventoryRepository.save(inventory);
+            // Only the reorder point is written; the quantity read above may be stale by now
+            for (Object[] row : inventoryRepository.updateReorderPoint(inventory.getId(), optimalReorderPoint, LocalDateTime.now())) {
+                int quantity = ((Number) row[2]).intValue();
+                eventPublisher.publishEvent(new InventoryChangedEvent(inventory.getId(), ((Number) row[0]).longValue(),
+                        ((Number) row[1]).longValue(), quantity, quantity, optimalReorderPoint, false));
+            }
             log.info("Updated reorder point for Part: {} at Store: {} to {}",
                     inventory.getPart().getSku(),
                     inventory.getStore().getStoreNumber(),
@@ -147,30 +210,18 @@ public class InventoryService {
      */
 
     public void processSale(Part part, Store store, Integer quantity){
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByPartAndStore(part, store);
+        Optional<StockLevel> levelOpt = stockLedgerService.recordMovement(
+                part.getId(), store.getId(), InventoryMovement.MovementType.SALE, -quantity, "Sale", null);
 
-        if(inventoryOpt.isPresent()){
-            Inventory inventory = inventoryOpt.get();
-            int newQuantity = inventory.getQuantity() - quantity;
-
-            if (newQuantity < 0){
-                throw new IllegalStateException("Insufficient inventory for sale");
-            }
-
-            inventory.setQuantity(newQuantity);
-            inventoryRepository.save(inventory);
+        if(levelOpt.isPresent()){
+            StockLevel level = levelOpt.get();
 
             log.info("Processed sale: {} units of {} at Store {}. New inventory: {}",
                     quantity,
                     part.getSku(),
                     store.getStoreNumber(),
-                    newQuantity);
-
-            if (newQuantity <= inventory.getReorderQuantity()){
-                log.warn("REORDER ALERT: Part {} at Store {} is below reorder point!",
-                        part.getSku(),
-                        store.getStoreNumber());
-            }
+                    level.getQuantity());
+            // Reorder alerts are raised asynchronously by ReorderAlertService from the change event
         }
     }
 
@@ -0,0 +1,222 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.InventoryChange;
+import com.autozone.inventory.dto.InventoryChangeFeed;
+import com.autozone.inventory.entity.BaseEntity;
+import com.autozone.inventory.repository.InventoryRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Delta sync and full snapshots for store terminals.
+ *
+ * A trigger stamps every inventory write with the id of its transaction, and a cursor
+ * is the (transaction id, row id) of the last row a terminal has seen. Rows are only
+ * handed out below the xmin of the current snapshot: every transaction under it has
+ * committed or rolled back, so a slow-committing transaction can never land behind a
+ * cursor that has already moved past it, however long it stays open. A long-running
+ * transaction holds the feed back instead; each page reports for how long, and a hold
+ * past inventory.sync.watermark-lag-warning is logged. Transaction ids are per database, which is
+ * fine because a store's rows all live on its shard.
+ *
+ * Deleted rows are part of the feed as tombstones until the purge removes them; a cursor
+ * older than the newest purged tombstone can no longer be caught up and the terminal is
+ * told to resync.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+@DependsOn("entityManagerFactory")
+public class InventorySyncService {
+
+    public static final int SNAPSHOT_FORMAT_VERSION = 1;
+    private static final byte[] SNAPSHOT_MAGIC = {'A', 'Z', 'I', 'S'};
+    private static final int MAX_PAGE_SIZE = 5000;
+    private static final String CURSOR_PREFIX = "x";
+
+    private static final List<String> CHANGE_XID_DDL = List.of(
+            "CREATE OR REPLACE FUNCTION inventory_stamp_change_xid() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                    "BEGIN NEW.change_xid := pg_current_xact_id()::text::bigint; RETURN NEW; END $$",
+            "CREATE OR REPLACE TRIGGER inventory_change_xid BEFORE INSERT OR UPDATE ON inventory " +
+                    "FOR EACH ROW EXECUTE FUNCTION inventory_stamp_change_xid()",
+            "DROP INDEX IF EXISTS idx_inventory_store_updated"
+    );
+
+    // Every transaction id below xmin has finished; the oldest open writing transaction holds it there
+    private static final String WATERMARK_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS xmin, " +
+            "COALESCE((SELECT (EXTRACT(EPOCH FROM clock_timestamp() - min(xact_start)) * 1000)::bigint " +
+            "FROM pg_stat_activity WHERE backend_xid IS NOT NULL AND pid <> pg_backend_pid()), 0) AS lag_millis";
+
+    private final InventoryRepository inventoryRepository;
+    private final SoftDeletePurgeService softDeletePurgeService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    // A feed held back longer than this is logged, at most once per this interval
+    @Value("${inventory.sync.watermark-lag-warning:1m}")
+    private Duration watermarkLagWarning;
+
+    private final AtomicLong lastLagWarning = new AtomicLong();
+
+    @PostConstruct
+    public void installChangeTrigger() {
+        shardRouter.forEachShard(shard -> CHANGE_XID_DDL.forEach(jdbcTemplate::execute));
+    }
+
+    public InventoryChangeFeed getChangesSince(Long storeId, String since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long sinceXid = 0L;
+        long sinceId = 0L;
+
+        if (since != null && !since.isBlank()) {
+            if (!since.startsWith(CURSOR_PREFIX)) {
+                // A timestamp cursor from before transaction ids; its position cannot be mapped
+                return new InventoryChangeFeed(List.of(), since, false, true, 0L);
+            }
+            String[] parts = since.substring(CURSOR_PREFIX.length()).split("\\.");
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                sinceXid = Long.parseLong(parts[0]);
+                sinceId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid sync cursor: " + since);
+            }
+
+            long cursorXid = sinceXid;
+            if (softDeletePurgeService.getInventoryPurgedThroughXid().filter(purged -> purged >= cursorXid).isPresent()) {
+                return new InventoryChangeFeed(List.of(), since, false, true, 0L);
+            }
+        }
+
+        // Taken before the rows are read, so everything under it is visible to the read
+        Watermark mark = watermark();
+        long watermark = mark.getXid();
+
+        // The feed carries deletions, so it must see deleted rows
+        Session session = entityManager.unwrap(Session.class);
+        session.disableFilter(BaseEntity.ACTIVE_ROWS);
+        List<InventoryChange> changes;
+        try {
+            changes = inventoryRepository.findChangesSince(
+                    storeId, sinceXid, sinceId, watermark, PageRequest.of(0, pageSize));
+        } finally {
+            session.enableFilter(BaseEntity.ACTIVE_ROWS);
+        }
+
+        boolean hasMore = changes.size() == pageSize;
+        String nextCursor;
+        if (hasMore) {
+            InventoryChange last = changes.get(changes.size() - 1);
+            nextCursor = cursor(last.getChangeXid(), last.getId());
+        } else {
+            // Caught up: nothing under the watermark is left, and nothing can still appear there
+            nextCursor = cursor(Math.max(watermark, sinceXid), watermark > sinceXid ? 0L : sinceId);
+        }
+        return new InventoryChangeFeed(changes, nextCursor, hasMore, false, mark.getLagMillis());
+    }
+
+    /**
+     * Writes every active row of a store in the compact snapshot format (gzip-compressed):
+     * <pre>
+     * "AZIS" | u16 version | i64 storeId | utf cursor
+     * repeated: u8 1 | varlong id | varlong partId | utf sku | varint quantity
+     *           | varint reorderPoint | varint reorderQuantity | varint maxStockLevel | utf location
+     * u8 0
+     * </pre>
+     * The embedded cursor is taken before reading, so following it with delta sync may
+     * replay a few rows but never skips one.
+     */
+    public void writeSnapshot(Long storeId, OutputStream target) throws IOException {
+        String cursor = cursor(watermark().getXid(), 0L);
+
+        GZIPOutputStream gzip = new GZIPOutputStream(target, 64 * 1024);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, 64 * 1024));
+        out.write(SNAPSHOT_MAGIC);
+        out.writeShort(SNAPSHOT_FORMAT_VERSION);
+        out.writeLong(storeId);
+        out.writeUTF(cursor);
+
+        try (Stream<InventoryChange> rows = inventoryRepository.streamActiveByStore(storeId)) {
+            rows.forEach(row -> {
+                try {
+                    out.writeByte(1);
+                    writeVarLong(out, row.getId());
+                    writeVarLong(out, row.getPartId());
+                    out.writeUTF(row.getSku());
+                    writeVarLong(out, row.getQuantity());
+                    writeVarLong(out, row.getReorderPoint());
+                    writeVarLong(out, row.getReorderQuantity());
+                    writeVarLong(out, row.getMaxStockLevel());
+                    out.writeUTF(row.getLocation() != null ? row.getLocation() : "");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        out.writeByte(0);
+        out.flush();
+        gzip.finish();
+    }
+
+    private Watermark watermark() {
+        Watermark mark = jdbcTemplate.queryForObject(WATERMARK_SQL,
+                (rs, rowNum) -> new Watermark(rs.getLong("xmin"), rs.getLong("lag_millis")));
+        long now = System.currentTimeMillis();
+        long last = lastLagWarning.get();
+        if (mark.getLagMillis() > watermarkLagWarning.toMillis()
+                && now - last >= watermarkLagWarning.toMillis() && lastLagWarning.compareAndSet(last, now)) {
+            log.warn("Inventory sync feed held back for {} ms by a long-running transaction", mark.getLagMillis());
+        }
+        return mark;
+    }
+
+    private static String cursor(long xid, long id) {
+        return CURSOR_PREFIX + xid + "." + id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Watermark {
+        private final long xid;
+        private final long lagMillis;
+    }
+
+    // Unsigned LEB128; all values written here are non-negative
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
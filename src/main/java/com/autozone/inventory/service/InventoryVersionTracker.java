@@ -0,0 +1,40 @@
+package com.autozone.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-store inventory version used for conditional GETs.
+ *
+ * The version is read from the database rather than counted in memory, so every node
+ * agrees on it and it moves with writes made by any node, reservation holds or raw SQL.
+ * It combines the catalog version (parts and stores are embedded in the views) with the
+ * row count and the sum of the change transaction ids of the store's rows. Every
+ * committed write restamps its rows with a new transaction id, so the sum moves even
+ * when a transaction commits after a later one; a maximum would not. Only committed
+ * rows are visible to the read, so a client can never cache pre-commit data under a
+ * newer version.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryVersionTracker {
+
+    // Covered by idx_inventory_store_change, so no rows are read
+    private static final String VERSION_SQL = "SELECT (SELECT version FROM catalog_version WHERE id = 1) || '.' || " +
+            "count(*) || '.' || coalesce(sum(change_xid), 0) FROM inventory WHERE store_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public String currentVersion(Long storeId) {
+        return jdbcTemplate.queryForObject(VERSION_SQL, String.class, storeId);
+    }
+
+    /**
+     * Strong ETag for a store-scoped view; the view name keeps different endpoints from
+     * sharing validators.
+     */
+    public String etag(String view, Long storeId) {
+        return "\"" + view + "-" + storeId + "-" + currentVersion(storeId) + "\"";
+    }
+}
@@ -0,0 +1,452 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.PartImportError;
+import com.autozone.inventory.entity.PartImportJob;
+import com.autozone.inventory.event.PartChangedEvent;
+import com.autozone.inventory.importer.CsvRecordReader;
+import com.autozone.inventory.repository.PartImportErrorRepository;
+import com.autozone.inventory.repository.PartImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk parts catalog import from supplier CSV files, upserting by SKU.
+ *
+ * The upload is spooled to disk and processed by a background job that streams it in
+ * batches: each batch is validated in parallel, written with one JDBC batch of
+ * {@code INSERT ... ON CONFLICT (sku) DO UPDATE} statements, and committed together with
+ * its rejected rows and the job's checkpoint (byte offset into the file). Memory stays
+ * bounded by one batch whatever the file size, and a job interrupted by a restart or a
+ * database outage resumes from its last committed batch. Rows identical to the stored
+ * part are skipped by the upsert's WHERE clause rather than rewritten.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartImportService {
+
+    // Header names are matched ignoring case, spaces, '-' and '_'
+    private static final List<String> COLUMNS = List.of("sku", "name", "description", "category", "cost", "price",
+            "manufacturer", "suppliername", "supplierleadtimedays");
+    private static final Set<String> REQUIRED = Set.of("sku", "name", "category", "cost", "price");
+    private static final int DEFAULT_LEAD_TIME_DAYS = 7;
+    private static final BigDecimal MAX_MONEY = new BigDecimal("99999999.99");
+
+    private static final String UPSERT_SQL = "INSERT INTO parts (sku, name, description, category, cost, price, " +
+            "manufacturer, supplier_name, supplier_lead_time_days, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false) " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, " +
+            "category = EXCLUDED.category, cost = EXCLUDED.cost, price = EXCLUDED.price, " +
+            "manufacturer = EXCLUDED.manufacturer, supplier_name = EXCLUDED.supplier_name, " +
+            "supplier_lead_time_days = EXCLUDED.supplier_lead_time_days, updated_at = EXCLUDED.updated_at, deleted = false " +
+            "WHERE (parts.name, parts.description, parts.category, parts.cost, parts.price, parts.manufacturer, " +
+            "parts.supplier_name, parts.supplier_lead_time_days, parts.deleted) IS DISTINCT FROM " +
+            "(EXCLUDED.name, EXCLUDED.description, EXCLUDED.category, EXCLUDED.cost, EXCLUDED.price, " +
+            "EXCLUDED.manufacturer, EXCLUDED.supplier_name, EXCLUDED.supplier_lead_time_days, false)";
+
+    private static final String INSERT_ERROR_SQL = "INSERT INTO part_import_errors (job_id, line_number, sku, message, " +
+            "created_at, updated_at, deleted) VALUES (?, ?, ?, ?, ?, ?, false)";
+
+    private static final String CHECKPOINT_SQL = "UPDATE part_import_jobs SET bytes_processed = ?, lines_processed = ?, " +
+            "rows_written = rows_written + ?, rows_unchanged = rows_unchanged + ?, rows_rejected = rows_rejected + ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    private static final String STATUS_SQL = "UPDATE part_import_jobs SET status = ?, started_at = COALESCE(started_at, ?), " +
+            "finished_at = ?, failure_reason = ?, updated_at = ? WHERE id = ?";
+
+    private final PartImportJobRepository jobRepository;
+    private final PartImportErrorRepository errorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Jobs queued or running in this instance
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "part-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${inventory.imports.directory:./data/imports}")
+    private Path directory;
+
+    @Value("${inventory.imports.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${inventory.imports.parallelism:0}")
+    private int parallelism;
+
+    // Rejected rows beyond this are counted but their details are not stored
+    @Value("${inventory.imports.max-stored-errors:10000}")
+    private long maxStoredErrors;
+
+    /** Spools the file to disk and queues the import; the returned job is QUEUED. */
+    public PartImportJob submit(String fileName, InputStream content, String requestedBy) throws IOException {
+        Files.createDirectories(directory);
+        Path stored = directory.resolve(UUID.randomUUID() + ".csv");
+        long bytes;
+        try (content) {
+            bytes = Files.copy(content, stored);
+        }
+        PartImportJob job;
+        try {
+            job = jobRepository.save(PartImportJob.builder()
+                    .fileName(fileName == null || fileName.isBlank() ? stored.getFileName().toString() : fileName)
+                    .storedPath(stored.toAbsolutePath().normalize().toString())
+                    .fileBytes(bytes)
+                    .status(PartImportJob.Status.QUEUED)
+                    .requestedBy(requestedBy)
+                    .build());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(stored);
+            throw e;
+        }
+        schedule(job.getId());
+        log.info("Queued part import {} of {} ({} bytes)", job.getId(), job.getFileName(), bytes);
+        return job;
+    }
+
+    /** Re-queues a failed job from its checkpoint. Empty if there is no such job. */
+    public Optional<PartImportJob> resume(Long id) {
+        return jobRepository.findById(id).map(job -> {
+            if (job.getStatus() == PartImportJob.Status.COMPLETED) {
+                throw new IllegalStateException("Part import " + id + " has already completed");
+            }
+            if (active.contains(id)) {
+                throw new IllegalStateException("Part import " + id + " is already queued or running");
+            }
+            updateStatus(id, PartImportJob.Status.QUEUED, null);
+            job.setStatus(PartImportJob.Status.QUEUED);
+            job.setFinishedAt(null);
+            job.setFailureReason(null);
+            schedule(id);
+            return job;
+        });
+    }
+
+    /** Picks up jobs a previous run of the application left queued or part way through. */
+    public int resumeInterrupted() {
+        List<PartImportJob> interrupted = jobRepository.findByStatusInOrderById(
+                List.of(PartImportJob.Status.QUEUED, PartImportJob.Status.RUNNING));
+        for (PartImportJob job : interrupted) {
+            if (!active.contains(job.getId())) {
+                log.info("Resuming part import {} from byte {}", job.getId(), job.getBytesProcessed());
+                schedule(job.getId());
+            }
+        }
+        return interrupted.size();
+    }
+
+    public Optional<PartImportJob> getJob(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    public List<PartImportJob> getJobs() {
+        return jobRepository.findTop100ByOrderByIdDesc();
+    }
+
+    public List<PartImportError> getErrors(Long id, int page, int size) {
+        return errorRepository.findByJobIdOrderByLineNumber(id,
+                PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 1000))));
+    }
+
+    // Running jobs stop between batches and stay RUNNING, so the next start resumes them
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        runner.shutdownNow();
+        runner.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void schedule(Long id) {
+        active.add(id);
+        runner.execute(() -> {
+            try {
+                run(id);
+            } finally {
+                active.remove(id);
+            }
+        });
+    }
+
+    private void run(Long id) {
+        PartImportJob job = jobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        updateStatus(id, PartImportJob.Status.RUNNING, null);
+        Progress progress = new Progress();
+        ForkJoinPool validators = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try (CsvRecordReader reader = new CsvRecordReader(Files.newInputStream(Path.of(job.getStoredPath())))) {
+            int[] columns = mapHeader(reader.readRecord());
+            if (job.getBytesProcessed() > reader.getPosition()) {
+                reader.skipTo(job.getBytesProcessed(), job.getLinesProcessed());
+            }
+
+            List<RawRow> batch = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                batch.add(new RawRow(reader.getRecordLine(), record));
+                if (batch.size() == batchSize) {
+                    commitBatch(job, batch, columns, validators, reader, progress);
+                    batch.clear();
+                    if (Thread.currentThread().isInterrupted()) {
+                        log.info("Part import {} paused at byte {} for shutdown", id, reader.getPosition());
+                        return;
+                    }
+                }
+            }
+            commitBatch(job, batch, columns, validators, reader, progress);
+            updateStatus(id, PartImportJob.Status.COMPLETED, null);
+            Files.deleteIfExists(Path.of(job.getStoredPath()));
+            log.info("Part import {} completed in {} ms: {} written, {} unchanged, {} rejected", id,
+                    (System.nanoTime() - started) / 1_000_000, progress.written, progress.unchanged, progress.rejected);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            log.error("Part import {} failed after {} rows written", id, progress.written, e);
+            updateStatus(id, PartImportJob.Status.FAILED, e.getMessage() == null ? e.toString() : e.getMessage());
+        } finally {
+            validators.shutdown();
+            if (progress.written > 0) {
+                eventPublisher.publishEvent(new PartChangedEvent(null));
+            }
+        }
+    }
+
+    // Rows, rejects and the checkpoint commit together, so a resumed job neither skips nor repeats a row
+    private void commitBatch(PartImportJob job, List<RawRow> batch, int[] columns, ForkJoinPool validators,
+                             CsvRecordReader reader, Progress progress) throws InterruptedException, ExecutionException {
+        List<ParsedRow> rows = validators.submit(() -> batch.parallelStream().map(row -> parse(row, columns)).toList()).get();
+        List<ParsedRow> valid = new ArrayList<>(rows.size());
+        List<ParsedRow> rejected = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            (row.error == null ? valid : rejected).add(row);
+        }
+        long storedBefore = job.getRowsRejected() + progress.rejected;
+        List<ParsedRow> storedErrors = rejected.subList(0,
+                (int) Math.max(0, Math.min(rejected.size(), maxStoredErrors - storedBefore)));
+        Long id = job.getId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] counts = transactionTemplate.execute(status -> {
+            int[] written = valid.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPSERT_SQL, valid, valid.size(), (ps, row) -> {
+                ps.setString(1, row.sku);
+                ps.setString(2, row.name);
+                ps.setString(3, row.description);
+                ps.setString(4, row.category.name());
+                ps.setBigDecimal(5, row.cost);
+                ps.setBigDecimal(6, row.price);
+                ps.setString(7, row.manufacturer);
+                ps.setString(8, row.supplierName);
+                ps.setInt(9, row.leadTimeDays);
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, now);
+            })[0];
+            if (!storedErrors.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ERROR_SQL, storedErrors, storedErrors.size(), (ps, row) -> {
+                    ps.setLong(1, id);
+                    ps.setLong(2, row.line);
+                    ps.setString(3, truncate(row.sku, 50));
+                    ps.setString(4, truncate(row.error, 500));
+                    ps.setTimestamp(5, now);
+                    ps.setTimestamp(6, now);
+                });
+            }
+            int changed = 0;
+            for (int count : written) {
+                changed += count > 0 ? 1 : 0;
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, reader.getPosition(), reader.getLineNumber(), changed,
+                    valid.size() - changed, rejected.size(), now, id);
+            return new int[]{changed, valid.size() - changed};
+        });
+        progress.written += counts[0];
+        progress.unchanged += counts[1];
+        progress.rejected += rejected.size();
+    }
+
+    private void updateStatus(Long id, PartImportJob.Status status, String failureReason) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        boolean finished = status == PartImportJob.Status.COMPLETED || status == PartImportJob.Status.FAILED;
+        jdbcTemplate.update(STATUS_SQL, status.name(), status == PartImportJob.Status.RUNNING ? now : null,
+                finished ? now : null, truncate(failureReason, 1000), now, id);
+    }
+
+    // Index of each known column in the file, -1 when absent
+    private static int[] mapHeader(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(normalize(header.get(i)), i);
+        }
+        int[] columns = new int[COLUMNS.size()];
+        List<String> missing = new ArrayList<>();
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            columns[c] = positions.getOrDefault(COLUMNS.get(c), -1);
+            if (columns[c] < 0 && REQUIRED.contains(COLUMNS.get(c))) {
+                missing.add(COLUMNS.get(c));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Header is missing required columns " + missing);
+        }
+        return columns;
+    }
+
+    private static ParsedRow parse(RawRow raw, int[] columns) {
+        ParsedRow row = new ParsedRow(raw.line);
+        String[] values = new String[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] >= 0 && columns[c] < raw.fields.size()) {
+                String value = raw.fields.get(columns[c]).trim();
+                values[c] = value.isEmpty() ? null : value;
+            }
+        }
+        row.sku = values[0];
+        try {
+            row.sku = required(values[0], "sku", 50);
+            row.name = required(values[1], "name", 255);
+            row.description = optional(values[2], "description", 1000);
+            row.category = category(required(values[3], "category", 255));
+            row.cost = money(required(values[4], "cost", 50), "cost");
+            row.price = money(required(values[5], "price", 50), "price");
+            row.manufacturer = optional(values[6], "manufacturer", 100);
+            row.supplierName = optional(values[7], "supplier_name", 100);
+            row.leadTimeDays = leadTime(values[8]);
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+        }
+        return row;
+    }
+
+    private static String required(String value, String column, int maxLength) {
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return optional(value, column, maxLength);
+    }
+
+    private static String optional(String value, String column, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static Part.PartCategory category(String value) {
+        try {
+            return Part.PartCategory.valueOf(value.toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category '" + value + "'");
+        }
+    }
+
+    private static BigDecimal money(String value, String column) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value.startsWith("$") ? value.substring(1) : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " '" + value + "' is not a number");
+        }
+        if (amount.signum() <= 0 || amount.compareTo(MAX_MONEY) > 0) {
+            throw new IllegalArgumentException(column + " must be greater than 0 and at most " + MAX_MONEY);
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException(column + " '" + value + "' has more than 2 decimal places");
+        }
+        return amount;
+    }
+
+    private static int leadTime(String value) {
+        if (value == null) {
+            return DEFAULT_LEAD_TIME_DAYS;
+        }
+        try {
+            int days = Integer.parseInt(value);
+            if (days >= 0) {
+                return days;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("supplier_lead_time_days '" + value + "' is not a whole number of days");
+    }
+
+    private static String normalize(String header) {
+        return header.trim().toLowerCase(Locale.ROOT).replace("_", "").replace("-", "").replace(" ", "");
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static final class RawRow {
+        private final long line;
+        private final List<String> fields;
+
+        private RawRow(long line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    private static final class ParsedRow {
+        private final long line;
+        private String sku;
+        private String name;
+        private String description;
+        private Part.PartCategory category;
+        private BigDecimal cost;
+        private BigDecimal price;
+        private String manufacturer;
+        private String supplierName;
+        private int leadTimeDays;
+        private String error;
+
+        private ParsedRow(long line) {
+            this.line = line;
+        }
+    }
+
+    private static final class Progress {
+        private long written;
+        private long unchanged;
+        private long rejected;
+    }
+}
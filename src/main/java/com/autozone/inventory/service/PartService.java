@@ -1,8 +1,10 @@
 package com.autozone.inventory.service;
 
 import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.event.PartChangedEvent;
 import com.autozone.inventory.repository.PartRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,7 @@ import java.util.Optional;
 public class PartService {
 
     private final PartRepository partRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Part> getAllParts(){
         return partRepository.findAll();
@@ -40,7 +43,9 @@ public class PartService {
         if (partRepository.existsBySku(part.getSku())){
             throw new IllegalArgumentException(("Part with SKU " + part.getSku() + " already exists"));
         }
-        return partRepository.save(part);
+        Part saved = partRepository.save(part);
+        eventPublisher.publishEvent(new PartChangedEvent(saved.getId()));
+        return saved;
     }
 
     public Part updatePart(Long id, Part partDetails){
@@ -53,7 +58,9 @@ public class PartService {
             part.setManufacturer(partDetails.getManufacturer());
             part.setSupplierName(partDetails.getSupplierName());
             part.setSupplierLeadTimeDays(partDetails.getSupplierLeadTimeDays());
-            return partRepository.save(part);
+            Part saved = partRepository.save(part);
+            eventPublisher.publishEvent(new PartChangedEvent(id));
+            return saved;
         })
                 .orElseThrow(() -> new RuntimeException("Part not found with id: " + id));
     }
@@ -61,6 +68,7 @@ public class PartService {
         partRepository.findById(id).ifPresent(part -> {
             part.setDeleted(true);
             partRepository.save(part);
+            eventPublisher.publishEvent(new PartChangedEvent(id));
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.repository.InventoryRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-part view of stock on hand by store, for lookups that need every store's
+ * quantity of one part. Parts are loaded on first use, kept in LRU order, and then
+ * patched in place from committed inventory changes instead of being reloaded.
+ */
+@Service
+@Slf4j
+public class PartStockCache {
+
+    private final InventoryRepository inventoryRepository;
+    private final ShardRouter shardRouter;
+    private final int maxParts;
+    private final Map<Long, Entry> parts;
+
+    // Bounds the damage if two changes to the same row are applied out of order
+    @Value("${inventory.geo.stock-cache-ttl:10m}")
+    private Duration ttl;
+
+    public PartStockCache(InventoryRepository inventoryRepository,
+                          ShardRouter shardRouter,
+                          @Value("${inventory.geo.stock-cache-parts:5000}") int maxParts) {
+        this.inventoryRepository = inventoryRepository;
+        this.shardRouter = shardRouter;
+        this.maxParts = maxParts;
+        this.parts = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > PartStockCache.this.maxParts;
+            }
+        };
+    }
+
+    /** Quantity on hand by store id for every store that stocks the part. */
+    public Map<Long, Integer> getStockByStore(Long partId) {
+        Entry entry;
+        synchronized (parts) {
+            entry = parts.get(partId);
+            if (entry == null || entry.isExpired(ttl)) {
+                entry = new Entry();
+                parts.put(partId, entry);
+            }
+        }
+        entry.ensureLoaded(partId);
+        return Collections.unmodifiableMap(entry.levels);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        Entry entry;
+        synchronized (parts) {
+            entry = parts.get(change.getPartId());
+        }
+        if (entry != null) {
+            entry.apply(change.getStoreId(), change.isDeleted() ? null : change.getQuantity());
+        }
+    }
+
+    private final class Entry {
+        private final Map<Long, Integer> levels = new ConcurrentHashMap<>();
+        // Stores changed while the initial load was running; their loaded value is stale
+        private Set<Long> touchedDuringLoad = new HashSet<>();
+        private volatile boolean loaded;
+        private long loadedAt;
+
+        private boolean isExpired(Duration ttl) {
+            return loaded && System.nanoTime() - loadedAt > ttl.toNanos();
+        }
+
+        private void ensureLoaded(Long partId) {
+            if (loaded) {
+                return;
+            }
+            synchronized (this) {
+                if (loaded) {
+                    return;
+                }
+                for (Object[] row : shardRouter.scatter(() -> inventoryRepository.findStockLevelsByPart(partId))) {
+                    Long storeId = (Long) row[0];
+                    if (!touchedDuringLoad.contains(storeId)) {
+                        levels.put(storeId, (Integer) row[1]);
+                    }
+                }
+                touchedDuringLoad = null;
+                loadedAt = System.nanoTime();
+                loaded = true;
+            }
+        }
+
+        private synchronized void apply(Long storeId, Integer quantity) {
+            if (quantity == null) {
+                levels.remove(storeId);
+            } else {
+                levels.put(storeId, quantity);
+            }
+            if (!loaded) {
+                touchedDuringLoad.add(storeId);
+            }
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.PurchaseOrderRunResult;
+import com.autozone.inventory.dto.ReorderCandidate;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.PurchaseOrder;
+import com.autozone.inventory.entity.PurchaseOrderLine;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.geo.KdTree;
+import com.autozone.inventory.geo.StoreLocationIndex;
+import com.autozone.inventory.geo.StoreSite;
+import com.autozone.inventory.repository.InventoryRepository;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.PurchaseOrderRepository;
+import com.autozone.inventory.repository.SaleRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns everything at or below its reorder point into supplier purchase orders.
+ *
+ * Stores are split into partitions that are processed in parallel, each in its own
+ * transaction: one query for the partition's reorder candidates, one aggregate query
+ * for their 30-day sales, in-memory sizing and grouping, then batched inserts. With
+ * hub consolidation, every store is placed in the same partition as its nearest HUB
+ * so a supplier's order for the hub is always built by a single worker. With sharding,
+ * partitions and hubs never span shards: each partition is written on its stores' shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PurchaseOrderService {
+
+    // Lines on these orders are still expected to arrive, so their items are not reordered
+    public static final Set<PurchaseOrder.Status> OPEN_STATUSES =
+            EnumSet.of(PurchaseOrder.Status.DRAFT, PurchaseOrder.Status.ON_HOLD, PurchaseOrder.Status.APPROVED);
+
+    private static final int ORDER_LIST_LIMIT = 500;
+
+    private static final String INSERT_LINE_SQL = "INSERT INTO purchase_order_lines " +
+            "(purchase_order_id, part_id, store_id, quantity, unit_cost, line_cost, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final InventoryRepository inventoryRepository;
+    private final SaleRepository saleRepository;
+    private final PartRepository partRepository;
+    private final StoreRepository storeRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final StoreLocationIndex storeLocationIndex;
+    private final StockLedgerService stockLedgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${inventory.purchasing.partition-size:200}")
+    private int partitionSize;
+
+    @Value("${inventory.purchasing.parallelism:8}")
+    private int parallelism;
+
+    @Value("${inventory.purchasing.hub-radius-miles:150}")
+    private double hubRadiusMiles;
+
+    @Value("${inventory.purchasing.default-minimum-order:0}")
+    private BigDecimal defaultMinimumOrder;
+
+    @Value("#{${inventory.purchasing.supplier-minimums:{:}}}")
+    private Map<String, BigDecimal> supplierMinimums;
+
+    // Orders live on their store's shard, so every shard is queried and the results merged
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<PurchaseOrder> getPurchaseOrders(PurchaseOrder.Status status, String runId) {
+        List<PurchaseOrder> orders = new ArrayList<>(shardRouter.scatter(() -> withLines(
+                runId != null ? purchaseOrderRepository.findByRunIdOrderById(runId)
+                        : status != null ? purchaseOrderRepository.findByStatusOrderByIdDesc(status)
+                        : purchaseOrderRepository.findTop500ByOrderByIdDesc())));
+        Comparator<PurchaseOrder> byId = Comparator.comparing(PurchaseOrder::getId);
+        orders.sort(runId != null ? byId : byId.reversed());
+        if (runId == null && status == null && orders.size() > ORDER_LIST_LIMIT) {
+            return new ArrayList<>(orders.subList(0, ORDER_LIST_LIMIT));
+        }
+        return orders;
+    }
+
+    private List<PurchaseOrder> withLines(List<PurchaseOrder> orders) {
+        List<PurchaseOrder> fetched = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += 1000) {
+            List<Long> ids = orders.subList(from, Math.min(from + 1000, orders.size())).stream()
+                    .map(PurchaseOrder::getId)
+                    .toList();
+            fetched.addAll(purchaseOrderRepository.findWithLinesByIdIn(ids));
+        }
+        return fetched;
+    }
+
+    public Optional<PurchaseOrder> getPurchaseOrderById(Long id) {
+        return purchaseOrderRepository.findById(id);
+    }
+
+    /**
+     * Generates purchase orders for the whole chain. Partitions that fail are logged and
+     * counted; the rest still commit, and the failed stores are picked up by the next run.
+     *
+     * @throws IllegalStateException when another run is in progress
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PurchaseOrderRunResult generatePurchaseOrders(boolean consolidateToHubs) {
+        // Two overlapping runs would both see the same items as not yet on order
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A purchase order run is already in progress");
+        }
+        try {
+            return runGeneration(consolidateToHubs);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PurchaseOrderRunResult runGeneration(boolean consolidateToHubs) {
+        long started = System.nanoTime();
+        String runId = UUID.randomUUID().toString();
+        String poPrefix = "PO-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "-" + runId.substring(0, 8) + "-";
+        AtomicInteger poSequence = new AtomicInteger();
+
+        Map<Long, Part> parts = partRepository.findAll().stream()
+                .collect(Collectors.toMap(Part::getId, Function.identity()));
+        List<Long> storeIds = storeRepository.findAll().stream()
+                .filter(store -> !Boolean.TRUE.equals(store.getDeleted()))
+                .map(Store::getId)
+                .toList();
+        Map<Long, Long> destinations = consolidateToHubs ? assignHubs(storeIds) : Map.of();
+        List<List<Long>> partitions = partition(storeIds, destinations);
+
+        RunContext context = new RunContext(runId, poPrefix, poSequence, consolidateToHubs, parts, destinations);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, partitions.size())));
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        try {
+            for (List<Long> partition : partitions) {
+                String shard = shardRouter.shardFor(partition.get(0));
+                futures.add(workers.submit(() -> {
+                    ShardContext.set(shard);
+                    try {
+                        return transactionTemplate.execute(status -> processPartition(partition, context));
+                    } finally {
+                        ShardContext.clear();
+                    }
+                }));
+            }
+
+            PartitionResult total = new PartitionResult();
+            int failed = 0;
+            for (Future<PartitionResult> future : futures) {
+                try {
+                    total.add(future.get());
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("Purchase order partition failed in run {}", runId, e.getCause());
+                }
+            }
+
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("PO run {}: {} orders ({} on hold), {} lines for {} stores in {} partitions, {} ms",
+                    runId, total.orders, total.onHold, total.lines, storeIds.size(), partitions.size(), elapsedMillis);
+            return new PurchaseOrderRunResult(runId, consolidateToHubs, storeIds.size(), partitions.size(), failed,
+                    total.orders, total.onHold, total.lines, total.units, total.cost, elapsedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purchase order generation was interrupted", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Releases a draft or held order to the supplier.
+     *
+     * @throws IllegalStateException when the order is not DRAFT or ON_HOLD
+     */
+    public Optional<PurchaseOrder> approve(Long id) {
+        return purchaseOrderRepository.findById(id).map(order -> {
+            if (order.getStatus() != PurchaseOrder.Status.DRAFT && order.getStatus() != PurchaseOrder.Status.ON_HOLD) {
+                throw new IllegalStateException("Cannot approve a " + order.getStatus() + " purchase order");
+            }
+            order.setStatus(PurchaseOrder.Status.APPROVED);
+            order.setHoldReason(null);
+            return purchaseOrderRepository.save(order);
+        });
+    }
+
+    /**
+     * @throws IllegalStateException when the order has already been received
+     */
+    public Optional<PurchaseOrder> cancel(Long id) {
+        return purchaseOrderRepository.findById(id).map(order -> {
+            if (order.getStatus() == PurchaseOrder.Status.RECEIVED) {
+                throw new IllegalStateException("Cannot cancel a received purchase order");
+            }
+            order.setStatus(PurchaseOrder.Status.CANCELLED);
+            return purchaseOrderRepository.save(order);
+        });
+    }
+
+    /**
+     * Books every line into stock at the store it is for. Consolidated orders are treated
+     * as cross-docked at the hub, so lines go straight to their final store. The order is
+     * received whole or not at all.
+     *
+     * @throws IllegalStateException when the order is not APPROVED, or a line's part is no
+     *                               longer stocked at its store (nothing is booked)
+     */
+    public Optional<PurchaseOrder> receive(Long id) {
+        return purchaseOrderRepository.findById(id).map(order -> {
+            if (order.getStatus() != PurchaseOrder.Status.APPROVED) {
+                throw new IllegalStateException("Only approved purchase orders can be received");
+            }
+            for (PurchaseOrderLine line : order.getLines()) {
+                // Throwing rolls back the lines already booked, so no units go missing
+                stockLedgerService.recordMovement(line.getPart().getId(), line.getStore().getId(),
+                                MovementType.RECEIPT, line.getQuantity(), "Purchase order receipt", order.getPoNumber())
+                        .orElseThrow(() -> new IllegalStateException("Part " + line.getPart().getSku()
+                                + " is no longer stocked at store " + line.getStore().getStoreNumber()
+                                + "; purchase order " + order.getPoNumber() + " was not received"));
+            }
+            order.setStatus(PurchaseOrder.Status.RECEIVED);
+            return purchaseOrderRepository.save(order);
+        });
+    }
+
+    private PartitionResult processPartition(List<Long> storeIds, RunContext context) {
+        PartitionResult result = new PartitionResult();
+        List<ReorderCandidate> candidates = inventoryRepository.findReorderCandidates(storeIds, OPEN_STATUSES);
+        if (candidates.isEmpty()) {
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Number> sold30Days = new HashMap<>();
+        for (Object[] row : saleRepository.getTotalQuantitySoldByPartAndStore(storeIds, now.minusDays(30), now)) {
+            sold30Days.put(key((Long) row[0], (Long) row[1]), (Number) row[2]);
+        }
+
+        // Size every line and group them into one draft per (destination store, supplier)
+        Map<String, OrderDraft> drafts = new LinkedHashMap<>();
+        for (ReorderCandidate candidate : candidates) {
+            Part part = context.parts.get(candidate.getPartId());
+            if (part == null) {
+                continue;
+            }
+            int quantity = ReorderMath.optimalReorderQuantity(
+                    sold30Days.get(key(candidate.getPartId(), candidate.getStoreId())),
+                    candidate.getQuantity(), candidate.getMaxStockLevel());
+            if (quantity <= 0) {
+                // No recent sales to size from: fall back to the item's configured reorder quantity
+                quantity = Math.min(candidate.getReorderQuantity(), candidate.getMaxStockLevel() - candidate.getQuantity());
+            }
+            if (quantity <= 0) {
+                continue;
+            }
+
+            Long destination = context.destinations.getOrDefault(candidate.getStoreId(), candidate.getStoreId());
+            String supplier = part.getSupplierName() != null ? part.getSupplierName() : "Unassigned";
+            drafts.computeIfAbsent(destination + "|" + supplier, k -> new OrderDraft(supplier, destination))
+                    .add(candidate, part.getCost(), quantity);
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> lineRows = new ArrayList<>();
+        for (OrderDraft draft : drafts.values()) {
+            BigDecimal minimum = supplierMinimums.getOrDefault(draft.supplier, defaultMinimumOrder);
+            boolean belowMinimum = draft.cost.compareTo(minimum) < 0;
+
+            PurchaseOrder order = purchaseOrderRepository.save(PurchaseOrder.builder()
+                    .poNumber(context.poPrefix + String.format("%05d", context.poSequence.incrementAndGet()))
+                    .supplierName(draft.supplier)
+                    .store(storeRepository.getReferenceById(draft.destinationStoreId))
+                    .status(belowMinimum ? PurchaseOrder.Status.ON_HOLD : PurchaseOrder.Status.DRAFT)
+                    .holdReason(belowMinimum ? "Below " + draft.supplier + " minimum order of $" + minimum : null)
+                    .consolidated(context.consolidated)
+                    .runId(context.runId)
+                    .totalUnits(draft.units)
+                    .totalCost(draft.cost)
+                    .build());
+
+            for (PlannedLine line : draft.lines) {
+                lineRows.add(new Object[]{order.getId(), line.partId, line.storeId, line.quantity,
+                        line.unitCost, line.unitCost.multiply(BigDecimal.valueOf(line.quantity)), timestamp, timestamp});
+            }
+            result.orders++;
+            result.onHold += belowMinimum ? 1 : 0;
+            result.units += draft.units;
+            result.cost = result.cost.add(draft.cost);
+        }
+
+        // Lines are written in JDBC batches; per-row IDENTITY inserts would dominate the run
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lineRows);
+        result.lines = lineRows.size();
+        return result;
+    }
+
+    // Nearest HUB within range on the store's shard; HUBs and out-of-range stores map to themselves
+    private Map<Long, Long> assignHubs(List<Long> storeIds) {
+        StoreLocationIndex.Snapshot index = storeLocationIndex.current();
+        Map<Long, Long> destinations = new HashMap<>();
+        for (Long storeId : storeIds) {
+            Long destination = storeId;
+            Optional<StoreSite> site = index.find(storeId);
+            if (site.isPresent() && site.get().getStoreType() != Store.StoreType.HUB) {
+                KdTree.Cursor cursor = index.nearest(site.get().getLocation());
+                int next;
+                while ((next = cursor.next()) >= 0 && cursor.lastDistanceMiles() <= hubRadiusMiles) {
+                    StoreSite candidate = index.site(next);
+                    if (candidate.getStoreType() == Store.StoreType.HUB
+                            && shardRouter.shardFor(candidate.getStoreId()).equals(shardRouter.shardFor(storeId))) {
+                        destination = candidate.getStoreId();
+                        break;
+                    }
+                }
+            }
+            destinations.put(storeId, destination);
+        }
+        return destinations;
+    }
+
+    // Packs stores into partitions of about partitionSize, never splitting a hub's stores or mixing shards
+    private List<List<Long>> partition(List<Long> storeIds, Map<Long, Long> destinations) {
+        Map<Long, List<Long>> groups = new LinkedHashMap<>();
+        for (Long storeId : storeIds) {
+            Long group = destinations.isEmpty() ? storeId : destinations.getOrDefault(storeId, storeId);
+            groups.computeIfAbsent(group, k -> new ArrayList<>()).add(storeId);
+        }
+
+        List<List<Long>> partitions = new ArrayList<>();
+        for (String shard : shardRouter.getShards()) {
+            List<Long> current = new ArrayList<>();
+            for (Map.Entry<Long, List<Long>> group : groups.entrySet()) {
+                if (!shard.equals(shardRouter.shardFor(group.getKey()))) {
+                    continue;
+                }
+                current.addAll(group.getValue());
+                if (current.size() >= partitionSize) {
+                    partitions.add(current);
+                    current = new ArrayList<>();
+                }
+            }
+            if (!current.isEmpty()) {
+                partitions.add(current);
+            }
+        }
+        return partitions;
+    }
+
+    private static long key(long partId, long storeId) {
+        return (partId << 32) ^ storeId;
+    }
+
+    private static final class RunContext {
+        private final String runId;
+        private final String poPrefix;
+        private final AtomicInteger poSequence;
+        private final boolean consolidated;
+        private final Map<Long, Part> parts;
+        private final Map<Long, Long> destinations;
+
+        private RunContext(String runId, String poPrefix, AtomicInteger poSequence, boolean consolidated,
+                           Map<Long, Part> parts, Map<Long, Long> destinations) {
+            this.runId = runId;
+            this.poPrefix = poPrefix;
+            this.poSequence = poSequence;
+            this.consolidated = consolidated;
+            this.parts = parts;
+            this.destinations = destinations;
+        }
+    }
+
+    private static final class PlannedLine {
+        private final long partId;
+        private final long storeId;
+        private final int quantity;
+        private final BigDecimal unitCost;
+
+        private PlannedLine(long partId, long storeId, int quantity, BigDecimal unitCost) {
+            this.partId = partId;
+            this.storeId = storeId;
+            this.quantity = quantity;
+            this.unitCost = unitCost;
+        }
+    }
+
+    private static final class OrderDraft {
+        private final String supplier;
+        private final Long destinationStoreId;
+        private final List<PlannedLine> lines = new ArrayList<>();
+        private int units;
+        private BigDecimal cost = BigDecimal.ZERO;
+
+        private OrderDraft(String supplier, Long destinationStoreId) {
+            this.supplier = supplier;
+            this.destinationStoreId = destinationStoreId;
+        }
+
+        private void add(ReorderCandidate candidate, BigDecimal unitCost, int quantity) {
+            lines.add(new PlannedLine(candidate.getPartId(), candidate.getStoreId(), quantity, unitCost));
+            units += quantity;
+            cost = cost.add(unitCost.multiply(BigDecimal.valueOf(quantity)));
+        }
+    }
+
+    private static final class PartitionResult {
+        private int orders;
+        private int onHold;
+        private int lines;
+        private long units;
+        private BigDecimal cost = BigDecimal.ZERO;
+
+        private void add(PartitionResult other) {
+            if (other == null) {
+                return;
+            }
+            orders += other.orders;
+            onHold += other.onHold;
+            lines += other.lines;
+            units += other.units;
+            cost = cost.add(other.cost);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.ratelimit.AdaptiveConcurrencyLimiter;
+import com.autozone.inventory.ratelimit.PriorityClass;
+import com.autozone.inventory.ratelimit.RateLimitProperties;
+import com.autozone.inventory.ratelimit.TokenBucketRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a request may run, in two steps: per-user and per-store token buckets
+ * for its priority class (429 when empty), then the shared adaptive concurrency limit
+ * (503 when the class's share of it is used up).
+ *
+ * Settings live in one immutable {@link Policy}; replacing them swaps the policy, which
+ * also starts fresh buckets and a fresh limiter.
+ */
+@Service
+@Slf4j
+public class RateLimitService {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final Map<PriorityClass, Counters> counters = new EnumMap<>(PriorityClass.class);
+    private volatile Policy policy;
+
+    public RateLimitService(RateLimitProperties properties) {
+        for (PriorityClass priority : PriorityClass.values()) {
+            counters.put(priority, new Counters());
+        }
+        this.policy = compile(properties);
+    }
+
+    public boolean isEnabled() {
+        return policy.settings.isEnabled();
+    }
+
+    public RateLimitProperties getSettings() {
+        return policy.settings;
+    }
+
+    public void updateSettings(RateLimitProperties settings) {
+        policy = compile(settings);
+        log.info("Rate limit settings replaced (enabled={}, classes={})", settings.isEnabled(), settings.getClasses().keySet());
+    }
+
+    public PriorityClass classify(String method, String path) {
+        for (Route route : policy.routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(method)) && PATHS.match(route.pattern, path)) {
+                return route.priority;
+            }
+        }
+        return PriorityClass.STANDARD;
+    }
+
+    /**
+     * @param principal the authenticated username, or a client address for anonymous calls
+     * @param storeId   the store the request acts for, or null when it is not store-scoped
+     */
+    public Admission admit(PriorityClass priority, String principal, Long storeId) {
+        Policy current = policy;
+        RateLimitProperties.ClassLimits limits = current.settings.getClasses().get(priority);
+        Counters count = counters.get(priority);
+        long now = System.nanoTime();
+
+        if (limits != null) {
+            long wait = current.userBuckets.tryAcquire(priority, principal, limits.getUserRate(), limits.getUserBurst(), now);
+            if (wait == 0 && storeId != null) {
+                wait = current.storeBuckets.tryAcquire(priority, storeId, limits.getStoreRate(), limits.getStoreBurst(), now);
+            }
+            if (wait > 0) {
+                count.rateLimited.incrementAndGet();
+                return Admission.rejected(priority, false, retryAfterSeconds(wait));
+            }
+        }
+
+        double share = limits == null ? 1.0 : limits.getConcurrencyShare();
+        if (!current.limiter.tryAcquire(share)) {
+            count.shed.incrementAndGet();
+            return Admission.rejected(priority, true, 1);
+        }
+        count.admitted.incrementAndGet();
+        boolean sampled = limits != null && limits.isLatencySensitive();
+        return new Admission(priority, current.limiter, sampled, current.limiter.getInFlight(), now);
+    }
+
+    public Map<String, Object> getStats() {
+        Policy current = policy;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", current.settings.isEnabled());
+        stats.put("concurrencyLimit", current.limiter.getLimit());
+        stats.put("inFlight", current.limiter.getInFlight());
+        stats.put("baselineLatencyMs", TimeUnit.NANOSECONDS.toMillis(current.limiter.getBaselineRttNanos()));
+        stats.put("smoothedLatencyMs", TimeUnit.NANOSECONDS.toMillis(current.limiter.getSmoothedRttNanos()));
+        stats.put("userBuckets", current.userBuckets.size());
+        stats.put("storeBuckets", current.storeBuckets.size());
+        Map<String, Object> byClass = new LinkedHashMap<>();
+        counters.forEach((priority, count) -> byClass.put(priority.name(), Map.of(
+                "admitted", count.admitted.get(),
+                "rateLimited", count.rateLimited.get(),
+                "shed", count.shed.get())));
+        stats.put("classes", byClass);
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        policy.userBuckets.evictFull(now);
+        policy.storeBuckets.evictFull(now);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private static Policy compile(RateLimitProperties settings) {
+        RateLimitProperties.Concurrency concurrency = settings.getConcurrency();
+        if (concurrency == null || concurrency.getMinLimit() < 1 || concurrency.getMaxLimit() < concurrency.getMinLimit()
+                || concurrency.getInitialLimit() < concurrency.getMinLimit()
+                || concurrency.getInitialLimit() > concurrency.getMaxLimit()) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (concurrency.getLatencyTolerance() < 1 || concurrency.getBackoffRatio() <= 0 || concurrency.getBackoffRatio() >= 1
+                || concurrency.getLatencySlack() == null || concurrency.getLatencySlack().isNegative()
+                || concurrency.getBaselineWindow() == null || concurrency.getBaselineWindow().isZero()
+                || concurrency.getBaselineWindow().isNegative()) {
+            throw new IllegalArgumentException("Latency tolerance must be >= 1, backoff ratio in (0, 1) and windows positive");
+        }
+
+        List<Route> routes = new ArrayList<>();
+        Map<PriorityClass, RateLimitProperties.ClassLimits> classes = settings.getClasses() == null
+                ? Map.of() : settings.getClasses();
+        // Walk classes in priority order so an overlapping route resolves to the higher class
+        for (PriorityClass priority : PriorityClass.values()) {
+            RateLimitProperties.ClassLimits limits = classes.get(priority);
+            if (limits == null) {
+                continue;
+            }
+            if (limits.getUserRate() < 0 || limits.getStoreRate() < 0
+                    || (limits.getUserRate() > 0 && limits.getUserBurst() < 1)
+                    || (limits.getStoreRate() > 0 && limits.getStoreBurst() < 1)) {
+                throw new IllegalArgumentException(priority + ": rates must be >= 0 and bursts >= 1 where a rate is set");
+            }
+            if (limits.getConcurrencyShare() <= 0 || limits.getConcurrencyShare() > 1) {
+                throw new IllegalArgumentException(priority + ": concurrency share must be in (0, 1]");
+            }
+            for (String spec : limits.getRoutes() == null ? List.<String>of() : limits.getRoutes()) {
+                routes.add(Route.parse(spec, priority));
+            }
+        }
+
+        long now = System.nanoTime();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                concurrency.getInitialLimit(), concurrency.getMinLimit(), concurrency.getMaxLimit(),
+                concurrency.getLatencyTolerance(), concurrency.getLatencySlack().toNanos(),
+                concurrency.getBackoffRatio(), concurrency.getBaselineWindow().toNanos(), now);
+        return new Policy(settings, List.copyOf(routes), limiter);
+    }
+
+    /**
+     * Outcome of {@link #admit}. An admitted request holds a concurrency slot until
+     * {@link #complete()} is called.
+     */
+    @Getter
+    public static final class Admission {
+        private final PriorityClass priority;
+        private final boolean admitted;
+        private final boolean overloaded;
+        private final long retryAfterSeconds;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final boolean sampled;
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Admission(PriorityClass priority, AdaptiveConcurrencyLimiter limiter, boolean sampled,
+                          int inFlightAtStart, long startNanos) {
+            this.priority = priority;
+            this.admitted = true;
+            this.overloaded = false;
+            this.retryAfterSeconds = 0;
+            this.limiter = limiter;
+            this.sampled = sampled;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        private Admission(PriorityClass priority, boolean overloaded, long retryAfterSeconds) {
+            this.priority = priority;
+            this.admitted = false;
+            this.overloaded = overloaded;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.limiter = null;
+            this.sampled = false;
+            this.inFlightAtStart = 0;
+            this.startNanos = 0;
+        }
+
+        private static Admission rejected(PriorityClass priority, boolean overloaded, long retryAfterSeconds) {
+            return new Admission(priority, overloaded, retryAfterSeconds);
+        }
+
+        public void complete() {
+            if (limiter == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            limiter.release();
+            if (sampled) {
+                limiter.onSample(now - startNanos, inFlightAtStart, now);
+            }
+        }
+    }
+
+    private static final class Policy {
+        private final RateLimitProperties settings;
+        private final List<Route> routes;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final TokenBucketRegistry<String> userBuckets = new TokenBucketRegistry<>();
+        private final TokenBucketRegistry<Long> storeBuckets = new TokenBucketRegistry<>();
+
+        private Policy(RateLimitProperties settings, List<Route> routes, AdaptiveConcurrencyLimiter limiter) {
+            this.settings = settings;
+            this.routes = routes;
+            this.limiter = limiter;
+        }
+    }
+
+    private static final class Route {
+        private final String method;
+        private final String pattern;
+        private final PriorityClass priority;
+
+        private Route(String method, String pattern, PriorityClass priority) {
+            this.method = method;
+            this.pattern = pattern;
+            this.priority = priority;
+        }
+
+        private static Route parse(String spec, PriorityClass priority) {
+            String[] parts = StringUtils.tokenizeToStringArray(spec, " ");
+            if (parts.length == 1 && parts[0].startsWith("/")) {
+                return new Route(null, parts[0], priority);
+            }
+            if (parts.length == 2 && parts[1].startsWith("/")) {
+                return new Route(parts[0].toUpperCase(), parts[1], priority);
+            }
+            throw new IllegalArgumentException(priority + ": route must be \"METHOD /path\" or \"/path\", got \"" + spec + "\"");
+        }
+    }
+
+    private static final class Counters {
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+    }
+}
@@ -0,0 +1,226 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.alert.ReorderAlert;
+import com.autozone.inventory.alert.ReorderAlertSink;
+import com.autozone.inventory.entity.ReorderAlertRecord;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.repository.ReorderAlertRecordRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns committed stock changes into reorder alerts and delivers them off the sale path.
+ *
+ * An alert is raised once per (part, store) when stock is at or below the reorder point
+ * and is not raised again until the item is restocked above it. After-commit events of
+ * one row can arrive out of order, so an event that would raise or clear an alert is
+ * checked against the row as committed now, under a per-item lock, and the alert follows
+ * the row rather than the event. Events that change nothing cost no read. The listener only
+ * updates that state and enqueues; a single dispatcher thread drains the queue in
+ * batches and hands each batch to every {@link ReorderAlertSink}, so a slow or failing
+ * sink delays alerts, never sales. If the queue is full, alerts are dropped and counted
+ * rather than blocking the caller.
+ */
+@Service
+@Slf4j
+public class ReorderAlertService {
+
+    // Live stock of a row: a split item's units are in its slots
+    private static final String CURRENT_STOCK_SQL = "SELECT CASE WHEN i.slot_count > 0 THEN " +
+            "(SELECT coalesce(sum(s.quantity), 0) FROM inventory_slots s WHERE s.inventory_id = i.id) ELSE i.quantity END, " +
+            "i.reorder_point, i.deleted FROM inventory i WHERE i.id = ?";
+
+    private final List<ReorderAlertSink> sinks;
+    private final ReorderAlertRecordRepository alertRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ReorderAlert> queue;
+    private final Set<Long> open = ConcurrentHashMap.newKeySet();
+    private final Object[] itemLocks = new Object[64];
+    private final Thread dispatcher;
+
+    private final AtomicLong raised = new AtomicLong();
+    private final AtomicLong cleared = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong staleEvents = new AtomicLong();
+    private final AtomicLong batchesDelivered = new AtomicLong();
+    private final AtomicLong deliveryFailures = new AtomicLong();
+
+    @Value("${inventory.alerts.batch-size:100}")
+    private int batchSize;
+
+    @Value("${inventory.alerts.batch-window:2s}")
+    private Duration batchWindow;
+
+    @Value("${inventory.alerts.max-attempts:3}")
+    private int maxAttempts;
+
+    private volatile boolean running = true;
+
+    public ReorderAlertService(List<ReorderAlertSink> sinks,
+                               ReorderAlertRecordRepository alertRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${inventory.alerts.queue-capacity:10000}") int queueCapacity) {
+        this.sinks = sinks;
+        this.alertRepository = alertRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        for (int i = 0; i < itemLocks.length; i++) {
+            itemLocks[i] = new Object();
+        }
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.dispatcher = new Thread(this::dispatchLoop, "reorder-alerts");
+        this.dispatcher.setDaemon(true);
+    }
+
+    // Alerts still open in the table must not be raised again after a restart
+    public void start() {
+        for (Object[] key : alertRepository.findOpenKeys()) {
+            open.add(key((Long) key[0], (Long) key[1]));
+        }
+        dispatcher.start();
+        log.info("Reorder alert dispatcher started with sinks {} and {} open alerts",
+                sinks.stream().map(ReorderAlertSink::getName).toList(), open.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        long key = key(change.getPartId(), change.getStoreId());
+        boolean below = !change.isDeleted() && change.getQuantity() <= change.getReorderPoint();
+        if (below == open.contains(key)) {
+            return;
+        }
+
+        synchronized (itemLocks[Math.floorMod(Long.hashCode(key), itemLocks.length)]) {
+            // The event may be older than one already applied; the committed row decides
+            List<int[]> rows = jdbcTemplate.query(CURRENT_STOCK_SQL,
+                    (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2), rs.getBoolean(3) ? 1 : 0}, change.getInventoryId());
+            int quantity = rows.isEmpty() ? change.getQuantity() : rows.get(0)[0];
+            int reorderPoint = rows.isEmpty() ? change.getReorderPoint() : rows.get(0)[1];
+            boolean deleted = rows.isEmpty() || rows.get(0)[2] == 1;
+            boolean belowNow = !deleted && quantity <= reorderPoint;
+            if (belowNow != below) {
+                staleEvents.incrementAndGet();
+            }
+            if (belowNow ? open.add(key) : open.remove(key)) {
+                ReorderAlert alert = new ReorderAlert(belowNow ? ReorderAlert.Type.RAISED : ReorderAlert.Type.CLEARED,
+                        change.getPartId(), change.getStoreId(), quantity, reorderPoint, LocalDateTime.now());
+                (belowNow ? raised : cleared).incrementAndGet();
+                if (!queue.offer(alert)) {
+                    dropped.incrementAndGet();
+                    log.warn("Reorder alert queue full, dropped {}", alert);
+                }
+            }
+        }
+    }
+
+    public List<ReorderAlertRecord> getOpenAlerts(Long storeId, int limit) {
+        return alertRepository.findOpen(storeId, PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openAlerts", open.size());
+        stats.put("queued", queue.size());
+        stats.put("raised", raised.get());
+        stats.put("cleared", cleared.get());
+        stats.put("dropped", dropped.get());
+        stats.put("staleEvents", staleEvents.get());
+        stats.put("batchesDelivered", batchesDelivered.get());
+        stats.put("deliveryFailures", deliveryFailures.get());
+        stats.put("sinks", sinks.stream().map(ReorderAlertSink::getName).toList());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void dispatchLoop() {
+        List<ReorderAlert> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ReorderAlert first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                // Give a burst (e.g. a bulk receipt) a moment to accumulate into one batch
+                long deadline = System.nanoTime() + batchWindow.toNanos();
+                while (batch.size() < batchSize && running) {
+                    ReorderAlert next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+            } catch (InterruptedException e) {
+                // Shutting down: deliver what we have, then drain the rest without waiting
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void deliver(List<ReorderAlert> batch) {
+        List<ReorderAlert> readOnly = List.copyOf(batch);
+        for (ReorderAlertSink sink : sinks) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    sink.deliver(readOnly);
+                    break;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        deliveryFailures.incrementAndGet();
+                        log.error("Reorder alert sink {} failed {} times, skipping batch of {}",
+                                sink.getName(), attempt, readOnly.size(), e);
+                        break;
+                    }
+                    log.warn("Reorder alert sink {} failed (attempt {}): {}", sink.getName(), attempt, e.toString());
+                    if (!backOff(attempt)) {
+                        break;
+                    }
+                }
+            }
+        }
+        batchesDelivered.incrementAndGet();
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(200L << Math.min(attempt, 6));
+            return true;
+        } catch (InterruptedException e) {
+            // Keep the interrupt for the loop, but still deliver to the remaining sinks
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long key(Long partId, Long storeId) {
+        return (partId << 32) ^ storeId;
+    }
+}
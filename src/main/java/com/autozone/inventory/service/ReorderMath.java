@@ -0,0 +1,38 @@
+package com.autozone.inventory.service;
+
+/**
+ * Reorder sizing formulas shared by the per-item API and the batch purchase order
+ * engine, so both always agree on how much to order.
+ */
+public final class ReorderMath {
+
+    // Order enough to last 30-45 days
+    public static final int TARGET_DAYS_OF_COVER = 30;
+
+    // Safety stock, in days of average sales, for items without a simulated recommendation
+    public static final int DEFAULT_SAFETY_STOCK_DAYS = 7;
+
+    private ReorderMath() {
+    }
+
+    /**
+     * Optimal reorder quantity from the last 30 days of sales, capped so stock never
+     * exceeds the max stock level.
+     */
+    public static int optimalReorderQuantity(Number sold30Days, int currentStock, int maxStockLevel) {
+        return optimalReorderQuantity(sold30Days, currentStock, maxStockLevel, TARGET_DAYS_OF_COVER);
+    }
+
+    /**
+     * Reorder quantity covering the given number of days of sales, capped so stock never
+     * exceeds the max stock level.
+     */
+    public static int optimalReorderQuantity(Number sold30Days, int currentStock, int maxStockLevel, int daysOfCover) {
+        double dailyVelocity = sold30Days != null ? sold30Days.doubleValue() / 30.0 : 0;
+        int optimalQuantity = (int) Math.ceil(dailyVelocity * daysOfCover);
+
+        // Don't exceed max stock level
+        int maxOrder = maxStockLevel - currentStock;
+        return Math.min(optimalQuantity, maxOrder);
+    }
+}
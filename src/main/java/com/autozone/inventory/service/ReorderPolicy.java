@@ -0,0 +1,71 @@
+package com.autozone.inventory.service;
+
+import lombok.Getter;
+
+/**
+ * The sales-velocity reorder rule: a weighted average of 30, 60 and 90-day daily sales,
+ * times the planned lead time plus safety stock, and orders sized to a number of days
+ * of cover. CURRENT is the rule the reorder point calculation applies; the replay
+ * engine runs candidate variants of it over past sales.
+ */
+@Getter
+public final class ReorderPolicy {
+
+    public static final ReorderPolicy CURRENT = new ReorderPolicy(0.5, 0.3, 0.2,
+            ReorderMath.DEFAULT_SAFETY_STOCK_DAYS, 1.0, 0, ReorderMath.TARGET_DAYS_OF_COVER, 5);
+
+    private final double weight30;
+    private final double weight60;
+    private final double weight90;
+    // Days of average sales kept as safety stock when there is no simulated recommendation
+    private final int safetyStockDays;
+    // The lead time planned for is the supplier's quoted one times the factor, plus the buffer
+    private final double leadTimeFactor;
+    private final int leadTimeBufferDays;
+    private final int daysOfCover;
+    private final int minimumReorderPoint;
+
+    public ReorderPolicy(double weight30, double weight60, double weight90, int safetyStockDays,
+                         double leadTimeFactor, int leadTimeBufferDays, int daysOfCover, int minimumReorderPoint) {
+        if (weight30 < 0 || weight60 < 0 || weight90 < 0 || weight30 + weight60 + weight90 <= 0) {
+            throw new IllegalArgumentException("Velocity weights must be non-negative and not all zero");
+        }
+        if (safetyStockDays < 0 || leadTimeFactor <= 0 || leadTimeBufferDays < 0 || daysOfCover < 1 || minimumReorderPoint < 0) {
+            throw new IllegalArgumentException("Invalid reorder policy: safety stock, lead time buffer and minimum reorder point " +
+                    "must be non-negative, lead time factor and days of cover positive");
+        }
+        this.weight30 = weight30;
+        this.weight60 = weight60;
+        this.weight90 = weight90;
+        this.safetyStockDays = safetyStockDays;
+        this.leadTimeFactor = leadTimeFactor;
+        this.leadTimeBufferDays = leadTimeBufferDays;
+        this.daysOfCover = daysOfCover;
+        this.minimumReorderPoint = minimumReorderPoint;
+    }
+
+    /** Weighted average daily sales from the units sold over the last 30, 60 and 90 days. */
+    public double dailyVelocity(long sold30, long sold60, long sold90) {
+        return (sold30 / 30.0 * weight30) + (sold60 / 60.0 * weight60) + (sold90 / 90.0 * weight90);
+    }
+
+    public int plannedLeadTimeDays(int quotedLeadTimeDays) {
+        return (int) Math.round(quotedLeadTimeDays * leadTimeFactor) + leadTimeBufferDays;
+    }
+
+    /** Reorder point with the policy's days-of-sales safety stock. */
+    public int reorderPoint(double dailyVelocity, int quotedLeadTimeDays) {
+        return Math.max((int) Math.ceil(dailyVelocity * (plannedLeadTimeDays(quotedLeadTimeDays) + safetyStockDays)),
+                minimumReorderPoint);
+    }
+
+    /** Reorder point with a safety stock given in units, such as a simulated recommendation. */
+    public int reorderPoint(double dailyVelocity, int quotedLeadTimeDays, double safetyStockUnits) {
+        return Math.max((int) Math.ceil(dailyVelocity * plannedLeadTimeDays(quotedLeadTimeDays) + safetyStockUnits),
+                minimumReorderPoint);
+    }
+
+    public int orderQuantity(long sold30Days, int currentStock, int maxStockLevel) {
+        return ReorderMath.optimalReorderQuantity(sold30Days, currentStock, maxStockLevel, daysOfCover);
+    }
+}
@@ -0,0 +1,191 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.dto.ReorderReplayRequest;
+import com.autozone.inventory.dto.ReorderReplayResult;
+import com.autozone.inventory.entity.Part.PartCategory;
+import com.autozone.inventory.forecast.ReorderReplay;
+import com.autozone.inventory.forecast.ReorderReplay.Metric;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * What-if replays of candidate reorder policies over the columnar sales history, to
+ * tune the weights, safety stock and lead time handling before changing the live rule.
+ * The current policy is always replayed alongside the candidates as the baseline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderReplayService {
+
+    private static final String ITEMS_SQL = "SELECT i.part_id, i.store_id, i.max_stock_level, p.category, " +
+            "p.supplier_lead_time_days FROM inventory i JOIN parts p ON p.id = i.part_id " +
+            "WHERE i.deleted = false AND p.deleted = false";
+
+    private final SalesColumnStoreService salesColumnStoreService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${inventory.columnar.history-days:400}")
+    private int loadedHistoryDays;
+
+    @Value("${inventory.reorder-replay.review-days:7}")
+    private int defaultReviewDays;
+
+    @Value("${inventory.reorder-replay.max-variants:64}")
+    private int maxVariants;
+
+    /**
+     * @throws IllegalArgumentException for an invalid variant or history window
+     * @throws IllegalStateException when a replay is already running
+     */
+    public ReorderReplayResult replay(ReorderReplayRequest request) {
+        List<ReorderReplayRequest.Variant> variants = request.getVariants() != null ? request.getVariants() : List.of();
+        if (variants.size() > maxVariants) {
+            throw new IllegalArgumentException("At most " + maxVariants + " variants can be replayed at once");
+        }
+        int historyDays = request.getHistoryDays() != null ? request.getHistoryDays() : loadedHistoryDays;
+        if (historyDays <= ReorderReplay.WARM_UP_DAYS || historyDays > loadedHistoryDays) {
+            throw new IllegalArgumentException("historyDays must be between " + (ReorderReplay.WARM_UP_DAYS + 1) +
+                    " and the " + loadedHistoryDays + " days of loaded sales history");
+        }
+        int reviewDays = request.getReviewDays() != null ? request.getReviewDays() : defaultReviewDays;
+
+        List<String> names = new ArrayList<>();
+        List<ReorderPolicy> policies = new ArrayList<>();
+        names.add("current");
+        policies.add(ReorderPolicy.CURRENT);
+        Set<String> seen = new HashSet<>(names);
+        for (ReorderReplayRequest.Variant variant : variants) {
+            if (!seen.add(variant.getName())) {
+                throw new IllegalArgumentException("Duplicate variant name: " + variant.getName());
+            }
+            names.add(variant.getName());
+            policies.add(toPolicy(variant));
+        }
+        ReorderReplay replay = new ReorderReplay(policies, reviewDays);
+
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reorder policy replay is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            SalesColumnStore sales = salesColumnStoreService.current();
+            LocalDate from = LocalDate.now().minusDays(historyDays);
+
+            List<Long> storeIds = new ArrayList<>();
+            ReorderReplay.Items items = loadItems(sales, storeIds);
+            ReorderReplay.Totals totals = replay.run(sales, items, from, historyDays);
+
+            List<ReorderReplayResult.PolicyOutcome> outcomes = new ArrayList<>();
+            for (int p = 0; p < policies.size(); p++) {
+                outcomes.add(outcome(totals, p, names.get(p), policies.get(p), storeIds));
+            }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Replayed {} reorder policies over {} items and {} days in {} ms",
+                    policies.size(), totals.getItemCount(), historyDays - ReorderReplay.WARM_UP_DAYS, elapsedMillis);
+            return new ReorderReplayResult(from.plusDays(ReorderReplay.WARM_UP_DAYS), from.plusDays(historyDays - 1),
+                    reviewDays, totals.getItemCount(), elapsedMillis, outcomes);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static ReorderPolicy toPolicy(ReorderReplayRequest.Variant variant) {
+        ReorderPolicy current = ReorderPolicy.CURRENT;
+        return new ReorderPolicy(
+                variant.getWeight30() != null ? variant.getWeight30() : current.getWeight30(),
+                variant.getWeight60() != null ? variant.getWeight60() : current.getWeight60(),
+                variant.getWeight90() != null ? variant.getWeight90() : current.getWeight90(),
+                variant.getSafetyStockDays() != null ? variant.getSafetyStockDays() : current.getSafetyStockDays(),
+                variant.getLeadTimeFactor() != null ? variant.getLeadTimeFactor() : current.getLeadTimeFactor(),
+                variant.getLeadTimeBufferDays() != null ? variant.getLeadTimeBufferDays() : current.getLeadTimeBufferDays(),
+                variant.getDaysOfCover() != null ? variant.getDaysOfCover() : current.getDaysOfCover(),
+                variant.getMinimumReorderPoint() != null ? variant.getMinimumReorderPoint() : current.getMinimumReorderPoint());
+    }
+
+    // Stock rows with sales history, keyed by the sales store's series; items that never sold behave the same under every policy
+    private ReorderReplay.Items loadItems(SalesColumnStore sales, List<Long> storeIds) {
+        Map<Long, Map<Long, int[]>> stockByPart = new HashMap<>();
+        List<long[]> rows = shardRouter.scatter(() -> jdbcTemplate.query(ITEMS_SQL, (rs, rowNum) -> new long[]{
+                rs.getLong(1), rs.getLong(2), rs.getInt(3), PartCategory.valueOf(rs.getString(4)).ordinal(), rs.getInt(5)}));
+        for (long[] row : rows) {
+            int[] item = {(int) row[2], (int) row[3], (int) row[4]};
+            stockByPart.computeIfAbsent(row[0], id -> new HashMap<>()).put(row[1], item);
+        }
+
+        Map<Long, Integer> storeIndex = new HashMap<>();
+        int[][] matched = new int[sales.getSeriesCount()][];
+        int[] matchedStore = new int[sales.getSeriesCount()];
+        for (int series = 0; series < sales.getSeriesCount(); series++) {
+            long storeId = sales.getSeriesStoreId(series);
+            int[] item = stockByPart.getOrDefault(sales.getSeriesPartId(series), Map.of()).get(storeId);
+            if (item != null) {
+                matched[series] = item;
+                matchedStore[series] = storeIndex.computeIfAbsent(storeId, id -> {
+                    storeIds.add(id);
+                    return storeIds.size() - 1;
+                });
+            }
+        }
+
+        ReorderReplay.Items items = new ReorderReplay.Items(sales.getSeriesCount(), storeIds.size(), PartCategory.values().length);
+        for (int series = 0; series < matched.length; series++) {
+            if (matched[series] != null) {
+                items.set(series, matchedStore[series], matched[series][1], matched[series][2], matched[series][0]);
+            }
+        }
+        return items;
+    }
+
+    private static ReorderReplayResult.PolicyOutcome outcome(ReorderReplay.Totals totals, int policy, String name,
+                                                             ReorderPolicy reorderPolicy, List<Long> storeIds) {
+        long[] sum = new long[Metric.values().length];
+        List<ReorderReplayResult.Outcome> cells = new ArrayList<>();
+        for (int store = 0; store < storeIds.size(); store++) {
+            for (PartCategory category : PartCategory.values()) {
+                long[] cell = new long[Metric.values().length];
+                for (Metric metric : Metric.values()) {
+                    cell[metric.ordinal()] = totals.get(policy, store, category.ordinal(), metric);
+                    sum[metric.ordinal()] += cell[metric.ordinal()];
+                }
+                if (cell[Metric.ITEMS.ordinal()] > 0) {
+                    cells.add(toOutcome(storeIds.get(store), category, cell));
+                }
+            }
+        }
+        return new ReorderReplayResult.PolicyOutcome(name, reorderPolicy, toOutcome(null, null, sum), cells);
+    }
+
+    private static ReorderReplayResult.Outcome toOutcome(Long storeId, PartCategory category, long[] metrics) {
+        long itemDays = metrics[Metric.ITEM_DAYS.ordinal()];
+        long demand = metrics[Metric.DEMAND.ordinal()];
+        long lost = metrics[Metric.LOST_SALES.ordinal()];
+        return new ReorderReplayResult.Outcome(storeId, category,
+                metrics[Metric.ITEMS.ordinal()],
+                metrics[Metric.STOCKOUT_DAYS.ordinal()],
+                itemDays == 0 ? 0.0 : (double) metrics[Metric.STOCKOUT_DAYS.ordinal()] / itemDays,
+                demand,
+                lost,
+                demand == 0 ? 1.0 : (double) (demand - lost) / demand,
+                itemDays == 0 ? 0.0 : (double) metrics[Metric.STOCK_UNIT_DAYS.ordinal()] / itemDays,
+                metrics[Metric.ORDERS.ordinal()],
+                metrics[Metric.UNITS_ORDERED.ordinal()]);
+    }
+}
@@ -0,0 +1,471 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.ReservationView;
+import com.autozone.inventory.dto.StockAvailability;
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.entity.StockReservation.Status;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.reservation.TimingWheel;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds store stock for online pickup orders without taking it off the shelf count.
+ *
+ * Each active hold adds to Inventory.reservedQuantity under the row lock it checks
+ * quantity - reservedQuantity against, so availability is one row read however many
+ * holds an item has, and ledger decrements (counter sales) cannot dip into held stock.
+ * Picking up an order ends the hold and records its lines as ledger sales in one
+ * transaction. Taking and giving back a hold publish InventoryChangedEvent like any
+ * other stock change, so caches and stock streams see availability move.
+ *
+ * Expiry is driven by an in-memory hierarchical timing wheel rather than by polling the
+ * table: every hold known to this instance sits in the wheel under its order, and a
+ * single thread advances the wheel each tick and expires what came due in batches. The
+ * table stays authoritative; an expiry only ends lines still ACTIVE and past their
+ * expiry, so a hold extended or ended elsewhere is simply rescheduled or dropped. Active
+ * holds are loaded into the wheel at startup, which also catches up on anything that
+ * expired while no instance was running.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationService {
+
+    private static final String FIND_SQL = "SELECT part_id, quantity, status, expires_at FROM stock_reservations " +
+            "WHERE store_id = ? AND order_reference = ? ORDER BY part_id";
+
+    private static final String LOCK_SQL = "SELECT id, quantity, reserved_quantity, slot_count, reorder_point FROM inventory " +
+            "WHERE part_id = ? AND store_id = ? AND deleted = false FOR UPDATE";
+
+    private static final String HOLD_SQL = "UPDATE inventory SET reserved_quantity = reserved_quantity + ? WHERE id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO stock_reservations " +
+            "(store_id, order_reference, part_id, quantity, status, expires_at, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, 'ACTIVE', ?, ?, ?, false)";
+
+    private static final String END_SQL = "UPDATE stock_reservations SET status = ?, updated_at = ? " +
+            "WHERE store_id = ? AND order_reference = ? AND status = 'ACTIVE' RETURNING part_id, quantity";
+
+    private static final String EXPIRE_SQL = "UPDATE stock_reservations SET status = 'EXPIRED', updated_at = ? " +
+            "WHERE store_id = ? AND order_reference = ANY(?) AND status = 'ACTIVE' AND expires_at <= ? " +
+            "RETURNING order_reference, part_id, quantity";
+
+    private static final String UNHOLD_SQL = "UPDATE inventory SET reserved_quantity = greatest(reserved_quantity - ?, 0) " +
+            "WHERE part_id = ? AND store_id = ? RETURNING id, quantity, reorder_point, deleted";
+
+    private static final String STILL_ACTIVE_SQL = "SELECT order_reference, min(expires_at) FROM stock_reservations " +
+            "WHERE store_id = ? AND order_reference = ANY(?) AND status = 'ACTIVE' GROUP BY order_reference";
+
+    private static final String LOAD_SQL = "SELECT store_id, order_reference, min(expires_at) FROM stock_reservations " +
+            "WHERE status = 'ACTIVE' GROUP BY store_id, order_reference";
+
+    private static final String AVAILABILITY_SQL = "SELECT quantity, reserved_quantity FROM inventory " +
+            "WHERE part_id = ? AND store_id = ? AND deleted = false";
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final int WHEEL_LEVELS = 4;
+    private static final String PICKUP_REASON = "Reservation pickup";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLedgerService stockLedgerService;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockService hotStockService;
+
+    @Value("${inventory.reservations.default-ttl:30m}")
+    private Duration defaultTtl;
+
+    @Value("${inventory.reservations.max-ttl:7d}")
+    private Duration maxTtl;
+
+    @Value("${inventory.reservations.tick:100ms}")
+    private Duration tick;
+
+    @Value("${inventory.reservations.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${inventory.reservations.expiry-batch-size:1000}")
+    private int expiryBatchSize;
+
+    // A failed expiry batch is tried again this much later
+    @Value("${inventory.reservations.retry-delay:5s}")
+    private Duration retryDelay;
+
+    private final Map<HoldKey, TimingWheel.Timeout<HoldKey>> holds = new ConcurrentHashMap<>();
+    private final AtomicLong expired = new AtomicLong();
+    private TimingWheel<HoldKey> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void createWheel() {
+        wheel = new TimingWheel<>(tick.toMillis(), wheelSize, WHEEL_LEVELS, System.currentTimeMillis());
+    }
+
+    /** Loads every active hold into the wheel and starts expiring them. */
+    public void start() {
+        shardRouter.forEachShard(shard -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(LOAD_FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                schedule(new HoldKey(rs.getLong(1), rs.getString(2)), rs.getTimestamp(3).toLocalDateTime());
+            }));
+        });
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::expireDue, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Reservation expiry started with {} active holds", wheel.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Holds stock for every line of an order, or for none. Repeating the same request for
+     * an active hold returns it unchanged. Empty when a part is not stocked at the store.
+     * The caller binds the store's shard.
+     *
+     * @throws IllegalStateException when stock is short or the order already has a different reservation
+     * @throws IllegalArgumentException when the TTL exceeds the maximum
+     */
+    public Optional<ReservationView> reserve(Long storeId, String orderReference, Duration ttl, Map<Long, Integer> lines) {
+        Duration holdFor = ttl != null ? ttl : defaultTtl;
+        if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation TTL must be positive and at most " + maxTtl);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Postgres keeps microseconds, so the returned expiry matches what a later read sees
+        LocalDateTime expiresAt = now.plus(holdFor).truncatedTo(ChronoUnit.MICROS);
+        // Part id order, so two orders for the same parts cannot deadlock
+        Map<Long, Integer> sorted = new TreeMap<>(lines);
+
+        ReservationView view;
+        try {
+            view = transactionTemplate.execute(status -> {
+                Optional<ReservationView> existing = find(storeId, orderReference);
+                if (existing.isPresent()) {
+                    if (existing.get().getStatus() == Status.ACTIVE && sameLines(existing.get(), sorted)) {
+                        return existing.get();
+                    }
+                    throw new IllegalStateException("Order " + orderReference + " already has a reservation at store " + storeId);
+                }
+                List<Object[]> rows = new ArrayList<>(sorted.size());
+                for (Map.Entry<Long, Integer> line : sorted.entrySet()) {
+                    if (!hold(storeId, line.getKey(), line.getValue())) {
+                        if (!stocked(line.getKey(), storeId)) {
+                            status.setRollbackOnly();
+                            return null;
+                        }
+                        throw new IllegalStateException("Insufficient available stock for part " + line.getKey() + " at store " + storeId);
+                    }
+                    rows.add(new Object[]{storeId, orderReference, line.getKey(), line.getValue(),
+                            Timestamp.valueOf(expiresAt), Timestamp.valueOf(now), Timestamp.valueOf(now)});
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                return new ReservationView(storeId, orderReference, Status.ACTIVE, expiresAt, sorted.entrySet().stream()
+                        .map(line -> new ReservationView.Line(line.getKey(), line.getValue())).toList());
+            });
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Order " + orderReference + " already has a reservation at store " + storeId);
+        }
+        if (view != null) {
+            schedule(new HoldKey(storeId, orderReference), view.getExpiresAt());
+        }
+        return Optional.ofNullable(view);
+    }
+
+    public Optional<ReservationView> getReservation(Long storeId, String orderReference) {
+        return find(storeId, orderReference);
+    }
+
+    /**
+     * Moves an active hold's expiry to {@code ttl} from now. Empty when the order has no
+     * active hold at the store.
+     */
+    public Optional<ReservationView> extend(Long storeId, String orderReference, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation TTL must be positive and at most " + maxTtl);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl).truncatedTo(ChronoUnit.MICROS);
+        int updated = jdbcTemplate.update("UPDATE stock_reservations SET expires_at = ?, updated_at = ? " +
+                        "WHERE store_id = ? AND order_reference = ? AND status = 'ACTIVE'",
+                Timestamp.valueOf(expiresAt), Timestamp.valueOf(now), storeId, orderReference);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        schedule(new HoldKey(storeId, orderReference), expiresAt);
+        return find(storeId, orderReference);
+    }
+
+    /** Cancels an order's hold. False when it has no active hold at the store. */
+    public boolean release(Long storeId, String orderReference) {
+        boolean released = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                !end(storeId, orderReference, Status.RELEASED).isEmpty()));
+        unschedule(new HoldKey(storeId, orderReference));
+        return released;
+    }
+
+    /**
+     * Ends an order's hold and records its lines as sales in the stock ledger, all in one
+     * transaction. Empty when the order has no active hold at the store.
+     *
+     * @throws IllegalStateException when the stock is no longer there, e.g. after a count
+     */
+    public Optional<List<StockLevel>> fulfill(Long storeId, String orderReference) {
+        List<StockLevel> levels = transactionTemplate.execute(status -> {
+            Map<Long, Integer> lines = end(storeId, orderReference, Status.FULFILLED);
+            if (lines.isEmpty()) {
+                return null;
+            }
+            List<StockLevel> result = new ArrayList<>(lines.size());
+            for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                result.add(stockLedgerService.recordMovement(line.getKey(), storeId, MovementType.SALE, -line.getValue(),
+                                PICKUP_REASON, orderReference)
+                        .orElseThrow(() -> new IllegalStateException("Part " + line.getKey() + " is no longer stocked at store " + storeId)));
+            }
+            return result;
+        });
+        unschedule(new HoldKey(storeId, orderReference));
+        return Optional.ofNullable(levels);
+    }
+
+    /** On-hand, held and available units. Empty when the part is not stocked at the store. */
+    public Optional<StockAvailability> getAvailability(Long partId, Long storeId) {
+        return jdbcTemplate.query(AVAILABILITY_SQL, (rs, rowNum) -> {
+            int quantity = rs.getInt(1);
+            int reserved = rs.getInt(2);
+            return new StockAvailability(partId, storeId, quantity, reserved, Math.max(0, quantity - reserved));
+        }, partId, storeId).stream().findFirst();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scheduledHolds", wheel.size());
+        stats.put("expired", expired.get());
+        stats.put("tickMillis", wheel.getTickMillis());
+        return stats;
+    }
+
+    /** Expires every hold that came due; runs on the ticker thread, and tests may call it directly. */
+    public void expireDue() {
+        try {
+            List<HoldKey> due = wheel.advance(System.currentTimeMillis());
+            if (due.isEmpty()) {
+                return;
+            }
+            Map<Long, List<HoldKey>> byStore = new HashMap<>();
+            for (HoldKey key : due) {
+                // Keep a mapping that was rescheduled after this timeout fired
+                holds.computeIfPresent(key, (k, timeout) -> timeout.getItem() == key ? null : timeout);
+                byStore.computeIfAbsent(key.storeId, s -> new ArrayList<>()).add(key);
+            }
+            byStore.forEach((storeId, keys) -> {
+                for (int from = 0; from < keys.size(); from += expiryBatchSize) {
+                    List<HoldKey> batch = keys.subList(from, Math.min(keys.size(), from + expiryBatchSize));
+                    try {
+                        expireBatch(storeId, batch);
+                    } catch (RuntimeException e) {
+                        log.error("Could not expire {} reservations at store {}, retrying in {}", batch.size(), storeId, retryDelay, e);
+                        LocalDateTime retryAt = LocalDateTime.now().plus(retryDelay);
+                        batch.forEach(key -> schedule(new HoldKey(key.storeId, key.orderReference), retryAt));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // An exception would cancel the ticker's schedule
+            log.error("Reservation expiry tick failed", e);
+        }
+    }
+
+    private void expireBatch(Long storeId, List<HoldKey> batch) {
+        String[] references = batch.stream().map(key -> key.orderReference).toArray(String[]::new);
+        shardRouter.bind(storeId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                Map<Long, Integer> released = new TreeMap<>();
+                Set<String> ended = new HashSet<>();
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(EXPIRE_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setLong(2, storeId);
+                    ps.setArray(3, connection.createArrayOf("varchar", references));
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                    return ps;
+                }, rs -> {
+                    ended.add(rs.getString(1));
+                    released.merge(rs.getLong(2), rs.getInt(3), Integer::sum);
+                });
+                unhold(storeId, released);
+                expired.addAndGet(ended.size());
+
+                if (ended.size() < references.length) {
+                    // Extended since it was scheduled here, e.g. through another instance
+                    jdbcTemplate.query(connection -> {
+                        PreparedStatement ps = connection.prepareStatement(STILL_ACTIVE_SQL);
+                        ps.setLong(1, storeId);
+                        ps.setArray(2, connection.createArrayOf("varchar", references));
+                        return ps;
+                    }, rs -> {
+                        schedule(new HoldKey(storeId, rs.getString(1)), rs.getTimestamp(2).toLocalDateTime());
+                    });
+                }
+            });
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    // Ends the active lines of an order and gives their units back; returns part id -> quantity
+    private Map<Long, Integer> end(Long storeId, String orderReference, Status status) {
+        Map<Long, Integer> lines = new TreeMap<>();
+        jdbcTemplate.query(END_SQL, rs -> {
+            lines.merge(rs.getLong(1), rs.getInt(2), Integer::sum);
+        }, status.name(), Timestamp.valueOf(LocalDateTime.now()), storeId, orderReference);
+        unhold(storeId, lines);
+        return lines;
+    }
+
+    // Holds only what is not already sold or held. A split item's row quantity lags its
+    // slots, so its stock is their total, read with the slots locked; sales on them wait.
+    private boolean hold(Long storeId, Long partId, int quantity) {
+        List<int[]> rows = new ArrayList<>();
+        List<Long> ids = jdbcTemplate.query(LOCK_SQL, (rs, rowNum) -> {
+            rows.add(new int[]{rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)});
+            return rs.getLong(1);
+        }, partId, storeId);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        int[] row = rows.get(0);
+        Optional<Integer> covered = row[2] > 0 ? hotStockService.holdInSlots(ids.get(0), row[1], quantity)
+                : Optional.of(row[0]).filter(onHand -> onHand - row[1] >= quantity);
+        if (covered.isEmpty()) {
+            return false;
+        }
+        int onHand = covered.get();
+        jdbcTemplate.update(HOLD_SQL, quantity, ids.get(0));
+        eventPublisher.publishEvent(new InventoryChangedEvent(ids.get(0), partId, storeId, onHand, onHand, row[3], false));
+        return true;
+    }
+
+    private void unhold(Long storeId, Map<Long, Integer> lines) {
+        lines.forEach((partId, quantity) -> jdbcTemplate.query(UNHOLD_SQL, rs -> {
+            publishChange(rs, partId, storeId, rs.getBoolean(4));
+        }, quantity, partId, storeId));
+    }
+
+    // Available stock moved though the shelf count did not; listeners run after commit
+    private void publishChange(ResultSet rs, Long partId, Long storeId, boolean deleted) throws SQLException {
+        int onHand = rs.getInt(2);
+        eventPublisher.publishEvent(new InventoryChangedEvent(rs.getLong(1), partId, storeId,
+                onHand, onHand, rs.getInt(3), deleted));
+    }
+
+    private Optional<ReservationView> find(Long storeId, String orderReference) {
+        List<ReservationView.Line> lines = new ArrayList<>();
+        Status[] status = new Status[1];
+        LocalDateTime[] expiresAt = new LocalDateTime[1];
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            lines.add(new ReservationView.Line(rs.getLong(1), rs.getInt(2)));
+            status[0] = Status.valueOf(rs.getString(3));
+            expiresAt[0] = rs.getTimestamp(4).toLocalDateTime();
+        }, storeId, orderReference);
+        return lines.isEmpty() ? Optional.empty()
+                : Optional.of(new ReservationView(storeId, orderReference, status[0], expiresAt[0], lines));
+    }
+
+    private boolean stocked(Long partId, Long storeId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM inventory WHERE part_id = ? AND store_id = ? AND deleted = false",
+                Integer.class, partId, storeId).isEmpty();
+    }
+
+    private static boolean sameLines(ReservationView view, Map<Long, Integer> lines) {
+        Map<Long, Integer> held = new TreeMap<>();
+        view.getLines().forEach(line -> held.put(line.getPartId(), line.getQuantity()));
+        return held.equals(lines);
+    }
+
+    private void schedule(HoldKey key, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        holds.compute(key, (k, timeout) -> timeout != null && wheel.reschedule(timeout, deadline)
+                ? timeout : wheel.schedule(key, deadline));
+    }
+
+    private void unschedule(HoldKey key) {
+        TimingWheel.Timeout<HoldKey> timeout = holds.remove(key);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    // An order's hold at one store; also the item scheduled in the wheel
+    private static final class HoldKey {
+        private final long storeId;
+        private final String orderReference;
+
+        private HoldKey(long storeId, String orderReference) {
+            this.storeId = storeId;
+            this.orderReference = orderReference;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof HoldKey key && key.storeId == storeId && key.orderReference.equals(orderReference);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storeId, orderReference);
+        }
+    }
+}
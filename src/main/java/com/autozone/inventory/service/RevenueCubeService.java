@@ -0,0 +1,321 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.RevenueCubeCheck;
+import com.autozone.inventory.dto.RevenueRollupRow;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.SaleRecordedEvent;
+import com.autozone.inventory.geo.UsRegion;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the revenue cube: units, revenue and cost per (store, category, day), in
+ * cents. Each transaction that inserts sales folds them into one delta per touched cell
+ * and upserts those cells just before it commits, so the cube stays exactly in step with
+ * the sales table and hot cells are locked only for the commit itself. Rollups by week,
+ * month, region or store type then read a few thousand cells instead of every sale.
+ * A store's cells live on its shard beside its sales, so rebuilds and checks run per
+ * shard and rollups merge the cells of every shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueCubeService {
+
+    public enum Period {
+        DAY,
+        WEEK,
+        MONTH,
+        TOTAL
+    }
+
+    public enum Dimension {
+        CHAIN,
+        STORE,
+        REGION,
+        STORE_TYPE,
+        CATEGORY
+    }
+
+    private static final String UPSERT_SQL = "INSERT INTO revenue_cube " +
+            "(store_id, category, sale_day, sale_count, units, revenue_cents, cost_cents) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (store_id, category, sale_day) DO UPDATE SET " +
+            "sale_count = revenue_cube.sale_count + EXCLUDED.sale_count, " +
+            "units = revenue_cube.units + EXCLUDED.units, " +
+            "revenue_cents = revenue_cube.revenue_cents + EXCLUDED.revenue_cents, " +
+            "cost_cents = revenue_cube.cost_cents + EXCLUDED.cost_cents";
+
+    private static final String RAW_CELLS_SQL = "SELECT s.store_id, p.category, s.sale_date::date AS day, COUNT(*) AS sale_count, " +
+            "SUM(s.quantity_sold) AS units, SUM(ROUND(s.total_price * 100))::bigint AS revenue_cents, " +
+            "SUM(s.quantity_sold * ROUND(p.cost * 100))::bigint AS cost_cents " +
+            "FROM sales s JOIN parts p ON p.id = s.part_id " +
+            "WHERE s.deleted = false AND s.sale_date >= ? AND s.sale_date < ? GROUP BY 1, 2, 3";
+
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StoreRepository storeRepository;
+    private final ShardRouter shardRouter;
+
+    @EventListener
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingCells single = new PendingCells();
+            single.add(event);
+            single.upsert();
+            return;
+        }
+        PendingCells pending = (PendingCells) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingCells();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(event);
+    }
+
+    // The cube is derived data; fill it from the sales table the first time it is empty
+    public void backfillIfEmpty() {
+        shardRouter.forEachShard(shard -> {
+            Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM revenue_cube)", Boolean.class);
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(sale_date) AS oldest, MAX(sale_date) AS newest FROM sales");
+            if (Boolean.TRUE.equals(empty) && range.get("oldest") != null) {
+                int cells = rebuildShard(((Timestamp) range.get("oldest")).toLocalDateTime().toLocalDate(),
+                        ((Timestamp) range.get("newest")).toLocalDateTime().toLocalDate());
+                log.info("Backfilled revenue cube on shard {} with {} cells", shard, cells);
+            }
+        });
+    }
+
+    /**
+     * Recomputes the cube for [from, to] from the sales table. Costs are recomputed at
+     * current part cost. Returns the number of cells written.
+     *
+     * @throws IllegalArgumentException when the range reaches back past the oldest sale
+     *                                  still in a shard's table, whose cube cells are the
+     *                                  only remaining totals for archived sales
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        // Every shard is checked before any is rebuilt, so a refused range changes nothing
+        shardRouter.forEachShard(shard -> {
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(sale_date) FROM sales", LocalDateTime.class);
+            boolean archived = oldest == null
+                    ? Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM revenue_cube " +
+                            "WHERE sale_day BETWEEN ? AND ?)", Boolean.class, Date.valueOf(from), Date.valueOf(to)))
+                    : from.isBefore(oldest.toLocalDate());
+            if (archived) {
+                throw new IllegalArgumentException("Sales before " + (oldest == null ? to : oldest.toLocalDate())
+                        + " are not in the sales table of shard " + shard + "; rebuilding would discard their totals");
+            }
+        });
+        int[] cells = new int[1];
+        shardRouter.forEachShard(shard -> cells[0] += rebuildShard(from, to));
+        return cells[0];
+    }
+
+    private int rebuildShard(LocalDate from, LocalDate to) {
+        Integer cells = transactionTemplate.execute(status -> {
+            // Blocks sale upserts until we commit; sales committing before the lock are in
+            // the SELECT below, and sales committing after it add on top of the rebuilt cells
+            jdbcTemplate.execute("LOCK TABLE revenue_cube IN SHARE ROW EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM revenue_cube WHERE sale_day BETWEEN ? AND ?", Date.valueOf(from), Date.valueOf(to));
+            return jdbcTemplate.update("INSERT INTO revenue_cube " +
+                            "(store_id, category, sale_day, sale_count, units, revenue_cents, cost_cents) " + RAW_CELLS_SQL,
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        });
+        return cells != null ? cells : 0;
+    }
+
+    /** Compares units and revenue of every cube cell in [from, to] with sums over raw sales. */
+    public RevenueCubeCheck verify(LocalDate from, LocalDate to) {
+        List<RevenueCubeCheck> checks = shardRouter.scatter(() -> List.of(verifyShard(from, to)));
+        List<RevenueCubeCheck.Mismatch> mismatches = new ArrayList<>();
+        int compared = 0;
+        int mismatched = 0;
+        for (RevenueCubeCheck check : checks) {
+            compared += check.getCellsCompared();
+            mismatched += check.getMismatchedCells();
+            mismatches.addAll(check.getMismatches());
+        }
+        return new RevenueCubeCheck(from, to, compared, mismatched, mismatched == 0,
+                mismatches.subList(0, Math.min(mismatches.size(), MAX_REPORTED_MISMATCHES)));
+    }
+
+    private RevenueCubeCheck verifyShard(LocalDate from, LocalDate to) {
+        List<RevenueCubeCheck.Mismatch> mismatches = new ArrayList<>();
+        int[] compared = new int[1];
+        int[] mismatched = new int[1];
+        jdbcTemplate.query("WITH raw AS (" + RAW_CELLS_SQL + "), " +
+                        "cube AS (SELECT store_id, category, sale_day AS day, units, revenue_cents FROM revenue_cube " +
+                        "WHERE sale_day BETWEEN ? AND ?) " +
+                        "SELECT COALESCE(c.store_id, r.store_id), COALESCE(c.category, r.category), COALESCE(c.day, r.day), " +
+                        "COALESCE(c.units, 0), COALESCE(r.units, 0), COALESCE(c.revenue_cents, 0), COALESCE(r.revenue_cents, 0) " +
+                        "FROM cube c FULL OUTER JOIN raw r " +
+                        "ON c.store_id = r.store_id AND c.category = r.category AND c.day = r.day",
+                rs -> {
+                    compared[0]++;
+                    if (rs.getLong(4) != rs.getLong(5) || rs.getLong(6) != rs.getLong(7)) {
+                        mismatched[0]++;
+                        if (mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                            mismatches.add(new RevenueCubeCheck.Mismatch(rs.getLong(1), rs.getString(2),
+                                    rs.getDate(3).toLocalDate(), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)));
+                        }
+                    }
+                },
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()),
+                Date.valueOf(from), Date.valueOf(to));
+        return new RevenueCubeCheck(from, to, compared[0], mismatched[0], mismatched[0] == 0, mismatches);
+    }
+
+    /**
+     * Revenue over [from, to] bucketed by period and grouped by one dimension, optionally
+     * filtered to a store and/or category.
+     */
+    public List<RevenueRollupRow> rollup(Period period, Dimension dimension, LocalDate from, LocalDate to,
+                                         Long storeId, Part.PartCategory category) {
+        String bucket = switch (period) {
+            case DAY -> "sale_day";
+            case WEEK -> "date_trunc('week', sale_day)::date";
+            case MONTH -> "date_trunc('month', sale_day)::date";
+            case TOTAL -> "CAST(? AS date)";
+        };
+        String group = switch (dimension) {
+            case CHAIN -> "'CHAIN'";
+            case STORE, REGION, STORE_TYPE -> "store_id::text";
+            case CATEGORY -> "category";
+        };
+
+        List<Object> args = new ArrayList<>();
+        if (period == Period.TOTAL) {
+            args.add(Date.valueOf(from));
+        }
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        StringBuilder sql = new StringBuilder("SELECT " + bucket + " AS period, " + group + " AS grp, SUM(sale_count), SUM(units), " +
+                "SUM(revenue_cents), SUM(cost_cents) FROM revenue_cube WHERE sale_day BETWEEN ? AND ?");
+        if (storeId != null) {
+            sql.append(" AND store_id = ?");
+            args.add(storeId);
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+            args.add(category.name());
+        }
+        sql.append(" GROUP BY 1, 2");
+
+        Function<String, String> keyOf = keyMapper(dimension);
+        Map<LocalDate, Map<String, long[]>> totals = new TreeMap<>();
+        List<Object[]> cells = shardRouter.scatter(() -> jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new Object[]{
+                rs.getDate(1).toLocalDate(), rs.getString(2),
+                new long[]{rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6)}}, args.toArray()));
+        for (Object[] cell : cells) {
+            long[] sums = totals.computeIfAbsent((LocalDate) cell[0], p -> new TreeMap<>())
+                    .computeIfAbsent(keyOf.apply((String) cell[1]), k -> new long[4]);
+            long[] shardSums = (long[]) cell[2];
+            for (int i = 0; i < 4; i++) {
+                sums[i] += shardSums[i];
+            }
+        }
+
+        List<RevenueRollupRow> rows = new ArrayList<>();
+        totals.forEach((periodStart, byKey) -> byKey.forEach((key, sums) -> rows.add(new RevenueRollupRow(
+                periodStart, key, sums[0], sums[1], toMoney(sums[2]), toMoney(sums[3]), toMoney(sums[2] - sums[3])))));
+        return rows;
+    }
+
+    private Function<String, String> keyMapper(Dimension dimension) {
+        if (dimension != Dimension.REGION && dimension != Dimension.STORE_TYPE) {
+            return Function.identity();
+        }
+        Map<String, String> byStore = storeRepository.findAllIncludingDeleted().stream().collect(Collectors.toMap(
+                store -> store.getId().toString(),
+                store -> dimension == Dimension.REGION
+                        ? UsRegion.ofState(store.getState()).name()
+                        : Objects.requireNonNullElse(store.getStoreType(), Store.StoreType.STANDARD).name()));
+        return storeKey -> byStore.getOrDefault(storeKey, UsRegion.OTHER.name());
+    }
+
+    private static BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Per-transaction cell deltas, flushed before commit in key order so two transactions
+     * touching the same cells always lock them in the same order.
+     */
+    private final class PendingCells implements TransactionSynchronization {
+
+        private final TreeMap<CellKey, long[]> cells = new TreeMap<>();
+
+        void add(SaleRecordedEvent event) {
+            long[] delta = cells.computeIfAbsent(
+                    new CellKey(event.getStoreId(), event.getCategory().name(), event.getSaleDay()), key -> new long[4]);
+            delta[0]++;
+            delta[1] += event.getQuantity();
+            delta[2] += event.getRevenueCents();
+            delta[3] += event.getCostCents();
+        }
+
+        void upsert() {
+            List<Object[]> batch = new ArrayList<>(cells.size());
+            cells.forEach((key, delta) -> batch.add(new Object[]{
+                    key.storeId, key.category, Date.valueOf(key.day), delta[0], delta[1], delta[2], delta[3]}));
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            upsert();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RevenueCubeService.this);
+        }
+    }
+
+    private static final class CellKey implements Comparable<CellKey> {
+        private static final Comparator<CellKey> ORDER = Comparator.<CellKey>comparingLong(k -> k.storeId)
+                .thenComparing(k -> k.category)
+                .thenComparing(k -> k.day);
+
+        private final long storeId;
+        private final String category;
+        private final LocalDate day;
+
+        private CellKey(long storeId, String category, LocalDate day) {
+            this.storeId = storeId;
+            this.category = category;
+            this.day = day;
+        }
+
+        @Override
+        public int compareTo(CellKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.SafetyStockRunResult;
+import com.autozone.inventory.dto.SafetyStockView;
+import com.autozone.inventory.entity.SafetyStockRecommendation;
+import com.autozone.inventory.forecast.StockoutSimulator;
+import com.autozone.inventory.repository.SafetyStockRecommendationRepository;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-item safety stock from Monte Carlo simulation of each (part, store)'s recorded
+ * daily demand, replacing the fixed week of cover for items that have sales history.
+ *
+ * A run streams daily sales totals in series order and hands batches of series to one
+ * worker per core; each worker reuses its own simulator, so the scenario loop allocates
+ * nothing, and upserts its batch when done. Each series draws from a random stream
+ * seeded by its part and store, so results do not depend on thread scheduling. Holding
+ * cost follows the part's cost and stockout cost its margin, so a cheap filter ends up
+ * with more cover than an expensive battery selling at the same rate. Recommendations
+ * are kept on the shard of the sales they come from, so a run covers one shard at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SafetyStockService {
+
+    private static final int BATCH_SERIES = 500;
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    private static final String DAILY_SALES_SQL = "SELECT part_id, store_id, sale_date::date - CAST(? AS date) AS day, " +
+            "SUM(quantity_sold) FROM sales WHERE sale_date >= ? AND sale_date < ? " +
+            "GROUP BY part_id, store_id, day ORDER BY part_id, store_id, day";
+
+    private static final String PART_TERMS_SQL = "SELECT id, cost, price, supplier_lead_time_days FROM parts";
+
+    private static final String UPSERT_SQL = "INSERT INTO safety_stock_recommendations (part_id, store_id, " +
+            "safety_stock, mean_lead_time_demand, stockout_probability, expected_shortfall, annual_cost, " +
+            "baseline_safety_stock, baseline_stockout_probability, scenarios, simulated_at, created_at, updated_at, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false) " +
+            "ON CONFLICT (part_id, store_id) DO UPDATE SET safety_stock = EXCLUDED.safety_stock, " +
+            "mean_lead_time_demand = EXCLUDED.mean_lead_time_demand, stockout_probability = EXCLUDED.stockout_probability, " +
+            "expected_shortfall = EXCLUDED.expected_shortfall, annual_cost = EXCLUDED.annual_cost, " +
+            "baseline_safety_stock = EXCLUDED.baseline_safety_stock, " +
+            "baseline_stockout_probability = EXCLUDED.baseline_stockout_probability, scenarios = EXCLUDED.scenarios, " +
+            "simulated_at = EXCLUDED.simulated_at, updated_at = EXCLUDED.updated_at";
+
+    // Every order is sized for this many days, so each item is exposed to this many lead times a year
+    private static final double CYCLES_PER_YEAR = 365.0 / ReorderMath.TARGET_DAYS_OF_COVER;
+
+    private final SafetyStockRecommendationRepository recommendationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${inventory.safety-stock.history-days:364}")
+    private int historyDays;
+
+    @Value("${inventory.safety-stock.scenarios:10000}")
+    private int scenarios;
+
+    @Value("${inventory.safety-stock.block-days:7}")
+    private int blockDays;
+
+    @Value("${inventory.safety-stock.lead-time-variation:0.3}")
+    private double leadTimeVariation;
+
+    // Yearly cost of holding a unit, as a share of its cost
+    @Value("${inventory.safety-stock.holding-rate:0.25}")
+    private double holdingRate;
+
+    // Cost of a unit of missed demand, as a share of its margin
+    @Value("${inventory.safety-stock.stockout-margin-factor:1.0}")
+    private double stockoutMarginFactor;
+
+    @Value("${inventory.safety-stock.min-service-level:0.9}")
+    private double minServiceLevel;
+
+    @Value("${inventory.safety-stock.parallelism:0}")
+    private int parallelism;
+
+    @Value("${inventory.safety-stock.seed:1}")
+    private long seed;
+
+    public Optional<SafetyStockView> getRecommendation(Long partId, Long storeId) {
+        return recommendationRepository.findByPartIdAndStoreId(partId, storeId)
+                .map(r -> new SafetyStockView(partId, storeId, r.getSafetyStock(), r.getMeanLeadTimeDemand(),
+                        r.getStockoutProbability(), r.getExpectedShortfall(), r.getAnnualCost(),
+                        r.getBaselineSafetyStock(), r.getBaselineStockoutProbability(), r.getScenarios(),
+                        r.getSimulatedAt()));
+    }
+
+    /** Simulated safety stock in units, when the item has been simulated. */
+    public Optional<Integer> getSafetyStock(Long partId, Long storeId) {
+        return recommendationRepository.findByPartIdAndStoreId(partId, storeId)
+                .map(SafetyStockRecommendation::getSafetyStock);
+    }
+
+    /**
+     * Simulates every series with sales in the history window. Series with no sales left
+     * in the window are removed and fall back to the fixed-days rule.
+     *
+     * @throws IllegalStateException when a simulation is already running
+     */
+    @Scheduled(cron = "${inventory.safety-stock.cron:0 0 1 * * *}")
+    public SafetyStockRunResult simulateAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A safety stock simulation is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            long[] totals = new long[2];
+            shardRouter.forEachShard(shard -> {
+                SafetyStockRunResult result = runSimulation(shard);
+                totals[0] += result.getSeriesSimulated();
+                totals[1] += result.getSalesDaysRead();
+            });
+            return new SafetyStockRunResult(totals[0], scenarios, totals[1], (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SafetyStockRunResult runSimulation(String shard) {
+        long started = System.nanoTime();
+        LocalDate firstDay = LocalDate.now().minusDays(historyDays);
+        Timestamp simulatedAt = Timestamp.valueOf(LocalDateTime.now());
+        Map<Long, PartTerms> terms = new HashMap<>();
+        jdbcTemplate.query(PART_TERMS_SQL, rs -> {
+            terms.put(rs.getLong(1), new PartTerms(rs.getDouble(2), rs.getDouble(3), rs.getInt(4)));
+        });
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "safety-stock-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<StockoutSimulator> simulators = ThreadLocal.withInitial(
+                () -> new StockoutSimulator(scenarios, blockDays, leadTimeVariation, minServiceLevel));
+        // Bounds the batches read ahead of the workers, and with them memory
+        Semaphore inFlight = new Semaphore(threads * 2);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        AtomicLong simulated = new AtomicLong();
+        AtomicLong salesDays = new AtomicLong();
+
+        try {
+            List<Series> batch = new ArrayList<>(BATCH_SERIES);
+            Series[] current = new Series[1];
+            Runnable submit = () -> {
+                List<Series> work = new ArrayList<>(batch);
+                batch.clear();
+                inFlight.acquireUninterruptibly();
+                pending.add(CompletableFuture
+                        .runAsync(() -> {
+                            ShardContext.set(shard);
+                            simulated.addAndGet(simulateBatch(work, terms, simulators.get(), simulatedAt));
+                        }, workers)
+                        .whenComplete((result, error) -> inFlight.release()));
+            };
+            stream(ps -> {
+                ps.setDate(1, Date.valueOf(firstDay));
+                ps.setTimestamp(2, Timestamp.valueOf(firstDay.atStartOfDay()));
+                ps.setTimestamp(3, Timestamp.valueOf(LocalDate.now().atStartOfDay()));
+            }, rs -> {
+                long partId = rs.getLong(1);
+                long storeId = rs.getLong(2);
+                Series series = current[0];
+                if (series == null || series.partId != partId || series.storeId != storeId) {
+                    // Rows come in series order, so every series already in the batch is complete
+                    if (batch.size() == BATCH_SERIES) {
+                        submit.run();
+                    }
+                    series = new Series(partId, storeId, new int[historyDays]);
+                    current[0] = series;
+                    batch.add(series);
+                }
+                series.dailyDemand[rs.getInt(3)] = rs.getInt(4);
+                salesDays.incrementAndGet();
+            });
+            if (!batch.isEmpty()) {
+                submit.run();
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        } finally {
+            workers.shutdownNow();
+        }
+
+        int removed = jdbcTemplate.update("DELETE FROM safety_stock_recommendations WHERE simulated_at < ?", simulatedAt);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Simulated safety stock for {} series ({} scenarios each) in {} ms ({} stale removed)",
+                simulated.get(), scenarios, elapsedMillis, removed);
+        return new SafetyStockRunResult(simulated.get(), scenarios, salesDays.get(), elapsedMillis);
+    }
+
+    private int simulateBatch(List<Series> batch, Map<Long, PartTerms> terms, StockoutSimulator simulator,
+                              Timestamp simulatedAt) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Series series : batch) {
+            PartTerms part = terms.get(series.partId);
+            if (part == null) {
+                continue;
+            }
+            long total = 0;
+            for (int quantity : series.dailyDemand) {
+                total += quantity;
+            }
+            int baselineSafetyStock = (int) Math.ceil((double) total / historyDays * ReorderMath.DEFAULT_SAFETY_STOCK_DAYS);
+            SplittableRandom random = new SplittableRandom(seed ^ (series.partId * 0x9E3779B97F4A7C15L)
+                    ^ (series.storeId * 0xC2B2AE3D27D4EB4FL));
+            StockoutSimulator.Result result = simulator.simulate(series.dailyDemand, part.leadTimeDays,
+                    part.cost * holdingRate, Math.max(0, part.price - part.cost) * stockoutMarginFactor,
+                    CYCLES_PER_YEAR, baselineSafetyStock, random);
+            rows.add(new Object[]{series.partId, series.storeId, result.getSafetyStock(),
+                    result.getMeanLeadTimeDemand(), result.getStockoutProbability(), result.getExpectedShortfall(),
+                    result.getAnnualCost(), baselineSafetyStock, result.getBaselineStockoutProbability(), scenarios,
+                    simulatedAt, simulatedAt, simulatedAt});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        return rows.size();
+    }
+
+    // Server-side cursor: requires a transaction so the driver fetches in chunks
+    private void stream(ParameterSetter parameters, RowHandler handler) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DAILY_SALES_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            parameters.setValues(ps);
+            return ps;
+        }, rs -> {
+            handler.handle(rs);
+        }));
+    }
+
+    @FunctionalInterface
+    private interface ParameterSetter {
+        void setValues(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet rs) throws SQLException;
+    }
+
+    private static final class PartTerms {
+        private final double cost;
+        private final double price;
+        private final int leadTimeDays;
+
+        private PartTerms(double cost, double price, int leadTimeDays) {
+            this.cost = cost;
+            this.price = price;
+            this.leadTimeDays = leadTimeDays;
+        }
+    }
+
+    private static final class Series {
+        private final long partId;
+        private final long storeId;
+        private final int[] dailyDemand;
+
+        private Series(long partId, long storeId, int[] dailyDemand) {
+            this.partId = partId;
+            this.storeId = storeId;
+            this.dailyDemand = dailyDemand;
+        }
+    }
+}
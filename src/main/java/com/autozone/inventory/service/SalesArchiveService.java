@@ -0,0 +1,320 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.archive.SalesSegment;
+import com.autozone.inventory.archive.SegmentWriter;
+import com.autozone.inventory.dto.ArchiveRunResult;
+import com.autozone.inventory.dto.ArchiveSegmentView;
+import com.autozone.inventory.dto.SaleRecord;
+import com.autozone.inventory.repository.SaleRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Moves sales older than the retention horizon out of the sales table into immutable,
+ * compressed segment files (one per calendar month), and answers history queries by
+ * merging the table with the segments.
+ *
+ * A month is archived by writing and syncing its segment first and only then deleting
+ * the rows, so a crash at any point leaves the data in the table, the segment, or both.
+ * Startup recovery re-runs the delete for every segment on disk, and the query merge
+ * drops cold copies of rows that are still hot.
+ *
+ * With sharding each shard's months are archived into their own segments, named by
+ * the highest sale id, whose id block also says which shard the rows came from.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesArchiveService {
+
+    private static final String SELECT_SQL = "SELECT id, part_id, store_id, quantity_sold, unit_price, total_price, " +
+            "sale_date, sold_by FROM sales WHERE sale_date >= ? AND sale_date < ? AND id <= ? AND deleted = false " +
+            "ORDER BY store_id, sale_date, id";
+    private static final String DELETE_SQL = "DELETE FROM sales WHERE sale_date >= ? AND sale_date < ? AND id <= ?";
+    private static final int MAX_RESULTS = 10_000;
+    private static final Comparator<SaleRecord> SALE_ORDER =
+            Comparator.comparing(SaleRecord::getSaleDate).thenComparing(SaleRecord::getId);
+
+    private final SaleRepository saleRepository;
+    private final SalesPartitionService partitionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AggregateQueryCache aggregateQueryCache;
+    private final ShardRouter shardRouter;
+
+    // Queries hold the read lock across the hot and cold halves; archiving takes the write
+    // lock around delete + register, so a query never sees a month in both places or neither
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<SalesSegment> segments = new ArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${inventory.archive.directory:./data/sales-archive}")
+    private Path directory;
+
+    @Value("${inventory.archive.retention-days:1100}")
+    private int retentionDays;
+
+    @Value("${inventory.forecast.history-weeks:156}")
+    private int forecastHistoryWeeks;
+
+    public void recoverSegments() throws IOException {
+        if (retentionDays < forecastHistoryWeeks * 7) {
+            log.warn("Archive retention of {} days is shorter than the {}-week forecast history; " +
+                    "forecast refits will not see archived sales", retentionDays, forecastHistoryWeeks);
+        }
+        Files.createDirectories(directory);
+
+        List<SalesSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".seg.tmp")) {
+                    // Never renamed into place, so its rows were never deleted
+                    Files.delete(file);
+                } else if (name.startsWith("sales-") && name.endsWith(".seg")) {
+                    SalesSegment segment = SalesSegment.open(file);
+                    int removed = shardRouter.onShard(shardRouter.shardForId(segment.getMaxSaleId()),
+                            () -> deleteArchivedRows(segment));
+                    if (removed > 0) {
+                        log.info("Removed {} sales rows already archived in {}", removed, name);
+                    }
+                    loaded.add(segment);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            segments.clear();
+            segments.addAll(loaded);
+            segments.sort(Comparator.comparingLong(SalesSegment::getMinMicros));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} sales archive segments from {}", loaded.size(), directory.toAbsolutePath());
+    }
+
+    @Scheduled(cron = "${inventory.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        try {
+            archive();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled archive: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archives every whole month that ends on or before today minus the retention period.
+     *
+     * @throws IllegalStateException when another run is in progress
+     */
+    public ArchiveRunResult archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A sales archive run is already in progress");
+        }
+        try {
+            return runArchive();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ArchiveRunResult runArchive() {
+        long started = System.nanoTime();
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        LocalDate horizon = cutoff.withDayOfMonth(1);
+
+        long[] totals = new long[3];
+        shardRouter.forEachShard(shard -> {
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(sale_date) FROM sales WHERE sale_date < ?",
+                    LocalDateTime.class, Timestamp.valueOf(horizon.atStartOfDay()));
+            if (oldest != null) {
+                for (LocalDate month = oldest.toLocalDate().withDayOfMonth(1); month.isBefore(horizon); month = month.plusMonths(1)) {
+                    SalesSegment segment = archiveMonth(month, month.plusMonths(1));
+                    if (segment != null) {
+                        totals[0]++;
+                        totals[1] += segment.getRowCount();
+                        totals[2] += segment.getFileSize();
+                    }
+                }
+            }
+        });
+
+        ArchiveRunResult result = new ArchiveRunResult(cutoff, (int) totals[0], totals[1], totals[2],
+                (System.nanoTime() - started) / 1_000_000);
+        log.info("Sales archive run: {} segments, {} rows, {} bytes in {} ms",
+                totals[0], totals[1], totals[2], result.getElapsedMillis());
+        return result;
+    }
+
+    private SalesSegment archiveMonth(LocalDate start, LocalDate end) {
+        Timestamp from = Timestamp.valueOf(start.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(end.atStartOfDay());
+        // Anything at or below this id is captured; the months archived are years old, so
+        // no in-flight insert can still commit into them below it
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM sales WHERE sale_date >= ? AND sale_date < ?", Long.class, from, to);
+        if (maxId == null) {
+            return null;
+        }
+
+        Path target = directory.resolve("sales-" + start.getYear() + "-" + String.format("%02d", start.getMonthValue())
+                + "-" + maxId + ".seg");
+        SalesSegment segment;
+        try (SegmentWriter writer = SegmentWriter.create(target, start, end)) {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(10_000);
+                ps.setTimestamp(1, from);
+                ps.setTimestamp(2, to);
+                ps.setLong(3, maxId);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.append(new SaleRecord(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4),
+                            rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getTimestamp(7).toLocalDateTime(), rs.getString(8)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            segment = writer.finish();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to write sales archive segment for {}; rows stay in the sales table", start, e);
+            return null;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Dropping the month's partition is far cheaper than a bulk DELETE
+            if (!partitionService.dropArchivedPartition(start, segment.getMaxSaleId())) {
+                deleteArchivedRows(segment);
+            }
+            segments.add(segment);
+            segments.sort(Comparator.comparingLong(SalesSegment::getMinMicros));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // The rows left the sales table without per-row events
+        aggregateQueryCache.invalidate(AggregateQueryCache.Source.SALES);
+        log.info("Archived {} sales from {} into {}", segment.getRowCount(), start, target.getFileName());
+        return segment;
+    }
+
+    private int deleteArchivedRows(SalesSegment segment) {
+        Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_SQL,
+                Timestamp.valueOf(segment.getRangeStart().atStartOfDay()),
+                Timestamp.valueOf(segment.getRangeEnd().atStartOfDay()),
+                segment.getMaxSaleId()));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Sales in [start, end] from the table and the archive, oldest first, optionally
+     * filtered by store and/or part.
+     */
+    public List<SaleRecord> findSales(Long storeId, Long partId, LocalDateTime start, LocalDateTime end, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_RESULTS));
+        long fromMicros = toMicros(start);
+        long toMicros = toMicros(end);
+
+        lock.readLock().lock();
+        try {
+            // Each shard returns its own first page; the merge below trims to the chain-wide one
+            List<SaleRecord> hot = shardRouter.scatter(
+                    () -> saleRepository.findSaleRecords(storeId, partId, start, end, PageRequest.of(0, max)));
+            Set<Long> hotIds = new HashSet<>();
+            for (SaleRecord record : hot) {
+                hotIds.add(record.getId());
+            }
+
+            // Segments are ordered by first sale; stop once the next one starts after the
+            // newest row we would still return
+            List<SaleRecord> cold = new ArrayList<>();
+            for (SalesSegment segment : segments) {
+                if (cold.size() >= max && segment.getMinMicros() > toMicros(cold.get(max - 1).getSaleDate())) {
+                    break;
+                }
+                segment.scan(storeId, partId, fromMicros, toMicros, record -> {
+                    if (!hotIds.contains(record.getId())) {
+                        cold.add(record);
+                    }
+                });
+                cold.sort(SALE_ORDER);
+            }
+
+            List<SaleRecord> merged = new ArrayList<>(cold.size() + hot.size());
+            merged.addAll(cold);
+            merged.addAll(hot);
+            merged.sort(SALE_ORDER);
+            return merged.size() > max ? new ArrayList<>(merged.subList(0, max)) : merged;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Total quantity sold in [start, end] across the table and the archive. */
+    public long getTotalQuantitySold(Long storeId, Long partId, LocalDateTime start, LocalDateTime end) {
+        long fromMicros = toMicros(start);
+        long toMicros = toMicros(end);
+
+        lock.readLock().lock();
+        try {
+            AtomicLong total = new AtomicLong();
+            shardRouter.scatter(() -> List.of(saleRepository.sumQuantitySold(storeId, partId, start, end)))
+                    .forEach(total::addAndGet);
+            for (SalesSegment segment : segments) {
+                segment.scan(storeId, partId, fromMicros, toMicros, record -> total.addAndGet(record.getQuantitySold()));
+            }
+            return total.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ArchiveSegmentView> getSegments() {
+        lock.readLock().lock();
+        try {
+            return segments.stream()
+                    .map(segment -> new ArchiveSegmentView(segment.getPath().getFileName().toString(),
+                            segment.getRangeStart(), segment.getRangeEnd(), segment.getRowCount(),
+                            segment.getStoreCount(), segment.getMaxSaleId(), segment.getFileSize()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,229 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.dto.SalesAggregateRow;
+import com.autozone.inventory.dto.SalesSeriesView;
+import com.autozone.inventory.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps a columnar, off-heap copy of sales history for analytics scans. The copy is
+ * rebuilt from the sales table in one streaming pass and swapped in atomically, so
+ * scans always see a complete, immutable store as of its load time.
+ *
+ * With sharding, every shard is read through its own cursor and the cursors are merged
+ * in series order. A store's sales written before it moved stay on the primary, so one
+ * series (even one day) can come from two shards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesColumnStoreService {
+
+    private static final String LOAD_SQL = "SELECT part_id, store_id, sale_date::date AS day, SUM(quantity_sold), " +
+            "SUM(ROUND(total_price * 100)) FROM sales WHERE sale_date >= ? " +
+            "GROUP BY part_id, store_id, day ORDER BY part_id, store_id, day";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    private volatile SalesColumnStore store;
+
+    @Value("${inventory.columnar.history-days:400}")
+    private int historyDays;
+
+    @Scheduled(cron = "${inventory.columnar.reload-cron:0 30 0 * * *}")
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        SalesColumnStore.Builder builder = SalesColumnStore.builder();
+        Timestamp since = Timestamp.valueOf(LocalDate.now().minusDays(historyDays).atStartOfDay());
+
+        List<Connection> connections = new ArrayList<>();
+        try {
+            PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(ShardCursor.ORDER);
+            for (String shard : shardRouter.getShards()) {
+                Connection connection = shardRouter.dataSource(shard).getConnection();
+                connections.add(connection);
+                // Cursor-based fetch (needs a transaction) so the result is never materialized on the heap
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                PreparedStatement ps = connection.prepareStatement(LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(10_000);
+                ps.setTimestamp(1, since);
+                ShardCursor cursor = new ShardCursor(ps.executeQuery());
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            while (!cursors.isEmpty()) {
+                ShardCursor head = cursors.poll();
+                long partId = head.partId;
+                long storeId = head.storeId;
+                LocalDate day = head.day;
+                int quantity = head.quantity;
+                long cents = head.cents;
+                if (head.advance()) {
+                    cursors.add(head);
+                }
+                // Each shard has one row per key, so any other cursor on it is another shard's share
+                while (!cursors.isEmpty() && cursors.peek().isAt(partId, storeId, day)) {
+                    ShardCursor same = cursors.poll();
+                    quantity += same.quantity;
+                    cents += same.cents;
+                    if (same.advance()) {
+                        cursors.add(same);
+                    }
+                }
+                builder.append(partId, storeId, day, quantity, cents);
+            }
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("Loading columnar sales", LOAD_SQL, e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.rollback();
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to release a columnar load connection", e);
+                }
+            }
+        }
+
+        SalesColumnStore loaded = builder.build();
+        store = loaded;
+        log.info("Loaded columnar sales store: {} daily rows in {} series, {} MB off-heap, {} ms",
+                loaded.getRowCount(), loaded.getSeriesCount(), loaded.getOffHeapBytes() >> 20,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public SalesColumnStore current() {
+        SalesColumnStore current = store;
+        return current != null ? current : loadIfAbsent();
+    }
+
+    // Requests arriving while the startup load runs wait for it instead of loading again
+    private synchronized SalesColumnStore loadIfAbsent() {
+        if (store == null) {
+            reload();
+        }
+        return store;
+    }
+
+    public Optional<SalesSeriesView> getSeries(Long partId, Long storeId, LocalDate from, LocalDate to) {
+        return current().scanSeries(partId, storeId, from, to).map(scan -> {
+            List<SalesSeriesView.DailySales> days = new ArrayList<>(scan.getDays().length);
+            long totalQuantity = 0;
+            long totalCents = 0;
+            for (int i = 0; i < scan.getDays().length; i++) {
+                days.add(new SalesSeriesView.DailySales(LocalDate.ofEpochDay(scan.getDays()[i]),
+                        scan.getQuantities()[i], toMoney(scan.getCents()[i])));
+                totalQuantity += scan.getQuantities()[i];
+                totalCents += scan.getCents()[i];
+            }
+            return new SalesSeriesView(partId, storeId, from, to, totalQuantity, toMoney(totalCents), days);
+        });
+    }
+
+    /**
+     * Totals over [from, to], clamped to the loaded history. Ranges partly outside it
+     * cover only the loaded days; ranges wholly outside it are empty.
+     *
+     * @throws IllegalArgumentException when the range is inverted or longer than the loaded history
+     */
+    public List<SalesAggregateRow> aggregate(SalesColumnStore.GroupBy groupBy, LocalDate from, LocalDate to,
+                                             Long partId, Long storeId) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        // Day grouping sizes its buckets by the range, so the range bounds the request's memory
+        if (ChronoUnit.DAYS.between(from, to) > historyDays) {
+            throw new IllegalArgumentException("The range may span at most the " + (historyDays + 1) + " days of loaded sales history");
+        }
+        SalesColumnStore current = current();
+        LocalDate loadedTo = current.getLoadedAt().toLocalDate();
+        LocalDate loadedFrom = loadedTo.minusDays(historyDays);
+        if (to.isBefore(loadedFrom) || from.isAfter(loadedTo)) {
+            return List.of();
+        }
+        LocalDate clampedFrom = from.isBefore(loadedFrom) ? loadedFrom : from;
+        LocalDate clampedTo = to.isAfter(loadedTo) ? loadedTo : to;
+        SalesColumnStore.GroupTotals totals = current.aggregate(groupBy, clampedFrom, clampedTo, partId, storeId);
+        List<SalesAggregateRow> rows = new ArrayList<>(totals.getKeys().length);
+        for (int i = 0; i < totals.getKeys().length; i++) {
+            String key = groupBy == SalesColumnStore.GroupBy.DAY
+                    ? LocalDate.ofEpochDay(totals.getKeys()[i]).toString()
+                    : Long.toString(totals.getKeys()[i]);
+            rows.add(new SalesAggregateRow(key, totals.getQuantities()[i], toMoney(totals.getCents()[i])));
+        }
+        return rows;
+    }
+
+    public Map<String, Object> getStats() {
+        SalesColumnStore current = current();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rows", current.getRowCount());
+        stats.put("series", current.getSeriesCount());
+        stats.put("offHeapBytes", current.getOffHeapBytes());
+        stats.put("loadedAt", current.getLoadedAt());
+        return stats;
+    }
+
+    private static BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // One shard's result set, positioned on its current row
+    private static final class ShardCursor {
+        private static final Comparator<ShardCursor> ORDER = Comparator.<ShardCursor>comparingLong(c -> c.partId)
+                .thenComparingLong(c -> c.storeId)
+                .thenComparing(c -> c.day);
+
+        private final ResultSet rs;
+        private long partId;
+        private long storeId;
+        private LocalDate day;
+        private int quantity;
+        private long cents;
+
+        private ShardCursor(ResultSet rs) {
+            this.rs = rs;
+        }
+
+        private boolean advance() throws SQLException {
+            if (!rs.next()) {
+                return false;
+            }
+            partId = rs.getLong(1);
+            storeId = rs.getLong(2);
+            day = rs.getDate(3).toLocalDate();
+            quantity = rs.getInt(4);
+            cents = rs.getLong(5);
+            return true;
+        }
+
+        private boolean isAt(long partId, long storeId, LocalDate day) {
+            return this.partId == partId && this.storeId == storeId && this.day.equals(day);
+        }
+    }
+}
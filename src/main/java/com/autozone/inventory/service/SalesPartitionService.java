@@ -0,0 +1,280 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.SalesPartitionView;
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the sales table range-partitioned by month on sale_date.
+ *
+ * Hibernate creates sales as a plain table, so on first start it is rebuilt in one
+ * transaction as a partitioned table with the same columns, indexes and foreign keys.
+ * The primary key becomes (id, sale_date), as Postgres requires the partition key in
+ * every unique constraint, and the identity column becomes a sequence default, which
+ * partitioned tables support. Monthly partitions are created ahead of time; a default
+ * partition catches anything outside them so inserts never fail, and its rows are moved
+ * into the proper partition when that partition is created.
+ *
+ * With store sharding every shard's sales table is prepared and maintained the same way;
+ * archiving and the partition views work on the primary only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class SalesPartitionService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String DEFAULT_PARTITION = "sales_default";
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_sale_date ON sales (sale_date)",
+            "CREATE INDEX IF NOT EXISTS idx_part_store ON sales (part_id, store_id)",
+            "CREATE INDEX IF NOT EXISTS idx_sale_store_date ON sales (store_id, sale_date)");
+    private static final Map<String, String> FOREIGN_KEYS = Map.of("part", "parts", "store", "stores");
+    private static final Pattern SCANNED_PARTITION = Pattern.compile(" on (sales_\\w+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${inventory.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    // Runs before the data loader and any startup job touches sales, partitioned or not
+    @PostConstruct
+    public void initialize() {
+        shardRouter.forEachShard(shard -> prepare());
+        maintainPartitions();
+    }
+
+    private void prepare() {
+        if (enabled && !isPartitioned()) {
+            convertToPartitioned();
+        }
+        for (String index : INDEXES) {
+            jdbcTemplate.execute(index);
+        }
+        for (Map.Entry<String, String> reference : FOREIGN_KEYS.entrySet()) {
+            Boolean present = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint " +
+                    "WHERE conrelid = 'sales'::regclass AND contype = 'f' AND confrelid = ?::regclass)", Boolean.class, reference.getValue());
+            if (!Boolean.TRUE.equals(present)) {
+                jdbcTemplate.execute("ALTER TABLE sales ADD CONSTRAINT fk_sales_" + reference.getKey() +
+                        " FOREIGN KEY (" + reference.getKey() + "_id) REFERENCES " + reference.getValue() + " (id)");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('sales')", String.class);
+        return "p".equals(kind);
+    }
+
+    /**
+     * Creates partitions from the current month through months-ahead, plus one for every
+     * month that has rows sitting in the default partition (e.g. back-dated seed data),
+     * on every shard.
+     */
+    @Scheduled(cron = "${inventory.partitioning.maintenance-cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        if (enabled) {
+            shardRouter.forEachShard(shard -> createPartitions());
+        }
+    }
+
+    private void createPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(month.plusMonths(i));
+        }
+        List<LocalDate> stranded = jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', sale_date)::date FROM " + DEFAULT_PARTITION, LocalDate.class);
+        for (LocalDate strandedMonth : stranded) {
+            createPartition(strandedMonth);
+        }
+    }
+
+    /**
+     * Creates the partition for the month starting at {@code month}, moving any of its
+     * rows out of the default partition. Returns false when it already exists.
+     */
+    public boolean createPartition(LocalDate month) {
+        String name = partitionName(month);
+        Boolean created = transactionTemplate.execute(status -> {
+            if (exists(name)) {
+                return false;
+            }
+            // A partition cannot be attached while the default partition holds rows in its
+            // range, so stage them in the new table first
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE sales INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                            " WHERE sale_date >= ? AND sale_date < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+                    Timestamp.valueOf(month.atStartOfDay()), Timestamp.valueOf(month.plusMonths(1).atStartOfDay()));
+            jdbcTemplate.execute("ALTER TABLE sales ATTACH PARTITION " + name + " FOR VALUES FROM " + bounds(month));
+            if (moved > 0) {
+                log.info("Moved {} sales from the default partition into {}", moved, name);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(created)) {
+            log.info("Created sales partition {}", name);
+        }
+        return Boolean.TRUE.equals(created);
+    }
+
+    /**
+     * Drops the partition for a month whose sales have been archived up to {@code maxArchivedId}.
+     * Returns false, leaving the partition alone, when it does not exist or holds rows
+     * newer than that id; the caller then falls back to deleting rows.
+     */
+    public boolean dropArchivedPartition(LocalDate month, long maxArchivedId) {
+        if (!enabled) {
+            return false;
+        }
+        String name = partitionName(month);
+        Boolean dropped = transactionTemplate.execute(status -> {
+            if (!exists(name)) {
+                return false;
+            }
+            jdbcTemplate.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+            Boolean newer = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + " WHERE id > ?)", Boolean.class, maxArchivedId);
+            if (Boolean.TRUE.equals(newer)) {
+                return false;
+            }
+            jdbcTemplate.execute("DROP TABLE " + name);
+            return true;
+        });
+        if (Boolean.TRUE.equals(dropped)) {
+            log.info("Dropped archived sales partition {}", name);
+        }
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    public List<SalesPartitionView> getPartitions() {
+        return jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), COALESCE(s.n_live_tup, 0), " +
+                        "pg_total_relation_size(c.oid) FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid " +
+                        "WHERE i.inhparent = 'sales'::regclass ORDER BY c.relname",
+                (rs, rowNum) -> new SalesPartitionView(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+    }
+
+    /**
+     * Plan of a date-windowed sales query and the partitions it would scan, to confirm
+     * pruning. The window is bound as parameters, as the repository queries bind it.
+     */
+    public PlanCheck explainDateWindow(LocalDateTime start, LocalDateTime end) {
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT SUM(quantity_sold) FROM sales WHERE sale_date BETWEEN ? AND ?",
+                String.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        Set<String> scanned = new LinkedHashSet<>();
+        for (String line : plan) {
+            Matcher matcher = SCANNED_PARTITION.matcher(line);
+            while (matcher.find()) {
+                scanned.add(matcher.group(1));
+            }
+        }
+        return new PlanCheck(new ArrayList<>(scanned), plan);
+    }
+
+    private void convertToPartitioned() {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE sales IN ACCESS EXCLUSIVE MODE");
+
+            String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence('sales', 'id')", String.class);
+            long nextId = 1 + Math.max(
+                    jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM sales", Long.class),
+                    sequence == null ? 0 : jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class));
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(sale_date) FROM sales", LocalDateTime.class);
+
+            List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                    "SELECT conname, pg_get_constraintdef(oid) AS def FROM pg_constraint " +
+                            "WHERE conrelid = 'sales'::regclass AND contype = 'f'");
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i " +
+                            "WHERE i.indrelid = 'sales'::regclass AND NOT i.indisprimary", String.class);
+
+            jdbcTemplate.execute("ALTER TABLE sales ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("ALTER TABLE sales RENAME TO sales_unpartitioned");
+            jdbcTemplate.execute("CREATE SEQUENCE sales_id_seq START WITH " + nextId);
+            jdbcTemplate.execute("CREATE TABLE sales (LIKE sales_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (sale_date)");
+            jdbcTemplate.execute("ALTER TABLE sales ALTER COLUMN id SET DEFAULT nextval('sales_id_seq')");
+            jdbcTemplate.execute("ALTER SEQUENCE sales_id_seq OWNED BY sales.id");
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF sales DEFAULT");
+
+            LocalDate month = (oldest != null ? oldest.toLocalDate() : LocalDate.now()).withDayOfMonth(1);
+            LocalDate last = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead);
+            for (; !month.isAfter(last); month = month.plusMonths(1)) {
+                jdbcTemplate.execute("CREATE TABLE " + partitionName(month) + " PARTITION OF sales FOR VALUES FROM " + bounds(month));
+            }
+
+            jdbcTemplate.execute("INSERT INTO sales SELECT * FROM sales_unpartitioned");
+            jdbcTemplate.execute("DROP TABLE sales_unpartitioned");
+
+            // Recreated under the original names so Hibernate's schema update finds them
+            jdbcTemplate.execute("ALTER TABLE sales ADD CONSTRAINT sales_pkey PRIMARY KEY (id, sale_date)");
+            for (Map<String, Object> foreignKey : foreignKeys) {
+                jdbcTemplate.execute("ALTER TABLE sales ADD CONSTRAINT " + foreignKey.get("conname") + " " + foreignKey.get("def"));
+            }
+            for (String index : indexes) {
+                jdbcTemplate.execute(index.replace(" ON public.sales_unpartitioned ", " ON public.sales ")
+                        .replace(" ON sales_unpartitioned ", " ON sales "));
+            }
+        });
+        log.info("Converted sales to a monthly range-partitioned table in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private static String partitionName(LocalDate month) {
+        return "sales_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static String bounds(LocalDate month) {
+        return "('" + month.atStartOfDay() + "') TO ('" + month.plusMonths(1).atStartOfDay() + "')";
+    }
+
+    @Getter
+    public static final class PlanCheck {
+        private final List<String> scannedPartitions;
+        private final List<String> plan;
+
+        private PlanCheck(List<String> scannedPartitions, List<String> plan) {
+            this.scannedPartitions = scannedPartitions;
+            this.plan = plan;
+        }
+    }
+}
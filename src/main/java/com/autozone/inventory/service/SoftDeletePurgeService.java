@@ -0,0 +1,175 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps soft-deleted rows from weighing on live queries.
+ *
+ * Live queries already skip deleted rows through the entity filter on BaseEntity; the
+ * partial indexes created here cover active rows only, so they stay the size of the
+ * live data however many rows are deleted. The scheduled purge then moves rows deleted
+ * longer than the retention period into purged_rows (as JSON) and deletes them, in
+ * batches of one statement each. A row still referenced by a foreign key, such as a
+ * deleted part with sales history, stays until nothing refers to it; the references
+ * are read from the database catalog, so new tables are covered without code changes.
+ *
+ * Sync terminals whose cursor is older than the newest purged inventory deletion are
+ * told to reload a full snapshot, since the tombstones they missed are gone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class SoftDeletePurgeService {
+
+    // Children before parents, so a purged inventory row no longer holds back its part or store
+    private static final List<String> PURGED_TABLES = List.of("inventory", "parts", "stores");
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_inventory_active_store ON inventory (store_id) WHERE deleted = false",
+            "CREATE INDEX IF NOT EXISTS idx_inventory_active_part ON inventory (part_id) WHERE deleted = false",
+            "CREATE INDEX IF NOT EXISTS idx_inventory_active_reorder ON inventory (store_id) " +
+                    "WHERE deleted = false AND quantity <= reorder_point",
+            "CREATE INDEX IF NOT EXISTS idx_parts_active_category ON parts (category) WHERE deleted = false",
+            // Purge candidates, tiny next to the live rows
+            "CREATE INDEX IF NOT EXISTS idx_inventory_deleted ON inventory (updated_at) WHERE deleted = true",
+            "CREATE INDEX IF NOT EXISTS idx_parts_deleted ON parts (updated_at) WHERE deleted = true",
+            "CREATE INDEX IF NOT EXISTS idx_stores_deleted ON stores (updated_at) WHERE deleted = true");
+
+    // Single-column foreign keys pointing at a table; partitions inherit their parent's
+    private static final String REFERENCES_SQL = "SELECT c.conrelid::regclass::text, a.attname FROM pg_constraint c " +
+            "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] " +
+            "WHERE c.contype = 'f' AND c.confrelid = ?::regclass AND c.conparentid = 0 AND cardinality(c.conkey) = 1 " +
+            "ORDER BY 1, 2";
+
+    private static final String PURGE_SQL = "WITH doomed AS (SELECT t.id FROM %1$s t " +
+            "WHERE t.deleted = true AND t.updated_at < ?%2$s ORDER BY t.updated_at, t.id LIMIT ? FOR UPDATE SKIP LOCKED), " +
+            "gone AS (DELETE FROM %1$s t USING doomed d WHERE t.id = d.id RETURNING t.*) " +
+            "INSERT INTO purged_rows (table_name, row_id, deleted_at, row_data, purged_at, created_at, updated_at, deleted) " +
+            "SELECT '%1$s', gone.id, gone.updated_at, to_jsonb(gone), ?, ?, ?, false FROM gone";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${inventory.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.purge.retention:30d}")
+    private Duration retention;
+
+    @Value("${inventory.purge.batch-size:1000}")
+    private int batchSize;
+
+    // Longest a run keeps deleting before leaving the rest for the next one
+    @Value("${inventory.purge.max-duration:10m}")
+    private Duration maxDuration;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @PostConstruct
+    public void createIndexes() {
+        shardRouter.forEachShard(shard -> INDEXES.forEach(jdbcTemplate::execute));
+    }
+
+    /**
+     * Archives and deletes rows soft-deleted before the retention period on every shard.
+     * Returns the number of rows purged per table, or empty when a run is already going.
+     */
+    @Scheduled(cron = "${inventory.purge.cron:0 30 3 * * *}")
+    public Optional<Map<String, Integer>> purge() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        Map<String, Integer> purged = new LinkedHashMap<>();
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            shardRouter.forEachShard(shard -> {
+                for (String table : PURGED_TABLES) {
+                    purged.merge(table, purgeTable(table, cutoff, deadline), Integer::sum);
+                }
+            });
+        } finally {
+            running.set(false);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("finishedAt", LocalDateTime.now());
+        run.put("elapsedMillis", elapsedMillis);
+        run.put("purged", purged);
+        lastRun = run;
+        log.info("Purged soft-deleted rows older than {} in {} ms: {}", retention, elapsedMillis, purged);
+        return Optional.of(purged);
+    }
+
+    /** Sync position (transaction id) of the newest purged inventory tombstone, on the current shard. */
+    public Optional<Long> getInventoryPurgedThroughXid() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT max(coalesce((row_data->>'change_xid')::bigint, 0)) FROM purged_rows WHERE table_name = 'inventory'", Long.class));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retention", retention.toString());
+        stats.put("running", running.get());
+        stats.put("lastRun", lastRun);
+        stats.put("pending", shardRouter.scatter(() -> PURGED_TABLES.stream()
+                        .map(table -> Map.entry(table, jdbcTemplate.queryForObject(
+                                "SELECT count(*) FROM " + table + " WHERE deleted = true", Long.class)))
+                        .toList())
+                .stream()
+                .collect(Collectors.groupingBy(Map.Entry::getKey, LinkedHashMap::new, Collectors.summingLong(Map.Entry::getValue))));
+        return stats;
+    }
+
+    private int purgeTable(String table, LocalDateTime cutoff, long deadline) {
+        String unreferenced = jdbcTemplate.query(REFERENCES_SQL, (rs, rowNum) ->
+                        " AND NOT EXISTS (SELECT 1 FROM " + rs.getString(1) + " r WHERE r." + rs.getString(2) + " = t.id)", table)
+                .stream()
+                .collect(Collectors.joining());
+        String sql = String.format(PURGE_SQL, table, unreferenced);
+
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            Integer count;
+            try {
+                count = transactionTemplate.execute(status ->
+                        jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), batchSize, now, now, now));
+            } catch (RuntimeException e) {
+                // Typically a row gained a reference between the check and the delete; the next run retries
+                log.warn("Purge of {} stopped after {} rows: {}", table, total, e.toString());
+                break;
+            }
+            total += count != null ? count : 0;
+            if (count == null || count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,145 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dataloader.DataLoader;
+import com.autozone.inventory.dto.StartupPhaseTiming;
+import com.autozone.inventory.shard.ShardReferenceReplicator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runs all application-ready work in a fixed order and records how long each phase takes.
+ *
+ * Critical phases (schema upkeep, archive recovery, the catalog, shard reference data,
+ * alert state and reservation expiry) finish before the application reports ready; a
+ * failure there fails startup as before.
+ * Warm-up phases that only fill caches or seed demo data run afterwards on a background
+ * thread, so an instance in a rolling deploy takes traffic as soon as the catalog is up.
+ * Their services load lazily if a request needs them first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StartupPipeline {
+
+    private final SalesPartitionService salesPartitionService;
+    private final SalesArchiveService salesArchiveService;
+    private final CatalogService catalogService;
+    private final ReorderAlertService reorderAlertService;
+    private final DataLoader dataLoader;
+    private final StockLedgerService stockLedgerService;
+    private final RevenueCubeService revenueCubeService;
+    private final SalesColumnStoreService salesColumnStoreService;
+    private final DemandForecastService demandForecastService;
+    private final PartImportService partImportService;
+    private final ShardReferenceReplicator shardReferenceReplicator;
+    private final ReservationService reservationService;
+
+    private final List<StartupPhaseTiming> timings = new CopyOnWriteArrayList<>();
+
+    @Value("${inventory.startup.defer-warmup:true}")
+    private boolean deferWarmup;
+
+    private volatile long startedAtNanos;
+    private volatile long readyAfterMs;
+    private volatile boolean warmupComplete;
+
+    @FunctionalInterface
+    private interface Phase {
+        void run() throws Exception;
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startedAtNanos = System.nanoTime();
+        timings.add(new StartupPhaseTiming("spring-context", false, event.getTimeTaken().toMillis(), true, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() throws Exception {
+        // Command line runners (seed data) run between the started and ready events
+        timings.add(new StartupPhaseTiming("seed-data", false, (System.nanoTime() - startedAtNanos) / 1_000_000, true, null));
+
+        critical("sales-partitions", salesPartitionService::maintainPartitions);
+        critical("archive-recovery", salesArchiveService::recoverSegments);
+        critical("catalog", catalogService::load);
+        // Store rows on the other shards reference parts and stores by foreign key
+        critical("shard-reference-data", shardReferenceReplicator::replicate);
+        critical("reorder-alert-state", reorderAlertService::start);
+        critical("reservation-expiry", reservationService::start);
+        readyAfterMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Ready after {} ms: {}", readyAfterMs, summary(false));
+
+        if (deferWarmup) {
+            Thread warmup = new Thread(this::warmUp, "startup-warmup");
+            warmup.setDaemon(true);
+            warmup.start();
+        } else {
+            warmUp();
+        }
+    }
+
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("readyAfterMs", readyAfterMs);
+        report.put("warmupComplete", warmupComplete);
+        report.put("phases", List.copyOf(timings));
+        report.put("catalog", catalogService.getStats());
+        return report;
+    }
+
+    private void warmUp() {
+        deferred("seed-users", dataLoader::seedUsers);
+        deferred("stock-ledger-snapshots", stockLedgerService::takeInitialSnapshots);
+        deferred("revenue-cube", revenueCubeService::backfillIfEmpty);
+        deferred("sales-columnar", salesColumnStoreService::reload);
+        deferred("forecasts", demandForecastService::fitInitialForecasts);
+        deferred("part-imports", partImportService::resumeInterrupted);
+        warmupComplete = true;
+        log.info("Warm-up finished: {}", summary(true));
+    }
+
+    private void critical(String name, Phase phase) throws Exception {
+        long started = System.nanoTime();
+        try {
+            phase.run();
+            timings.add(new StartupPhaseTiming(name, false, (System.nanoTime() - started) / 1_000_000, true, null));
+        } catch (Exception e) {
+            timings.add(new StartupPhaseTiming(name, false, (System.nanoTime() - started) / 1_000_000, false, e.toString()));
+            throw e;
+        }
+    }
+
+    // A failed warm-up only costs a cold cache, so log it and carry on with the rest
+    private void deferred(String name, Phase phase) {
+        long started = System.nanoTime();
+        try {
+            phase.run();
+            timings.add(new StartupPhaseTiming(name, true, (System.nanoTime() - started) / 1_000_000, true, null));
+        } catch (Exception e) {
+            timings.add(new StartupPhaseTiming(name, true, (System.nanoTime() - started) / 1_000_000, false, e.toString()));
+            log.error("Startup warm-up phase {} failed", name, e);
+        }
+    }
+
+    private String summary(boolean deferred) {
+        StringBuilder summary = new StringBuilder();
+        for (StartupPhaseTiming timing : timings) {
+            if (timing.isDeferred() == deferred) {
+                summary.append(summary.isEmpty() ? "" : ", ").append(timing.getPhase()).append('=')
+                        .append(timing.getDurationMs()).append("ms").append(timing.isSucceeded() ? "" : " (failed)");
+            }
+        }
+        return summary.toString();
+    }
+}
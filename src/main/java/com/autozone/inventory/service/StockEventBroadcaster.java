@@ -0,0 +1,352 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.StockEvent;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fans committed stock changes out to Server-Sent Event subscribers.
+ *
+ * Publishing only touches each matching subscriber's pending buffer, which coalesces
+ * events per inventory row and is capped in size; the actual socket writes happen on
+ * a small dispatch pool. A slow client therefore loses intermediate updates (and is
+ * told to resync) instead of holding up the sale that produced them.
+ *
+ * A write to a client that stops reading blocks its dispatch thread. Sends that take
+ * longer than the send timeout get their subscriber dropped, and the pool gets a
+ * thread in place of the stuck one until the write fails or returns, so stalled
+ * clients cannot starve the others.
+ */
+@Service
+@Slf4j
+public class StockEventBroadcaster {
+
+    private final Map<Long, Set<Subscriber>> byStore = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byPart = new ConcurrentHashMap<>();
+    private final Set<Subscriber> chainWide = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger stalledSends = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+
+    @Value("${inventory.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${inventory.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${inventory.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${inventory.stream.send-timeout:5s}")
+    private Duration sendTimeout;
+
+    public StockEventBroadcaster(@Value("${inventory.stream.dispatch-threads:8}") int dispatchThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "stock-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a subscriber for a store, a part, both (AND), or the whole chain when
+     * neither is given. Empty when the node is at its subscriber limit.
+     */
+    public Optional<SseEmitter> subscribe(Long storeId, Long partId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, storeId, partId);
+        registry(subscriber).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return Optional.of(emitter);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockEvent> events = new ArrayList<>(2);
+        events.add(toStockEvent(StockEvent.Type.STOCK_CHANGED, change, now));
+        if (change.crossedBelowReorderPoint()) {
+            events.add(toStockEvent(StockEvent.Type.BELOW_REORDER_POINT, change, now));
+        } else if (change.crossedAboveReorderPoint()) {
+            events.add(toStockEvent(StockEvent.Type.RESTOCKED, change, now));
+        }
+
+        for (Subscriber subscriber : chainWide) {
+            offer(subscriber, events);
+        }
+        for (Subscriber subscriber : byStore.getOrDefault(change.getStoreId(), Set.of())) {
+            offer(subscriber, events);
+        }
+        // Store+part subscriptions are indexed by store, so only part-only ones live here
+        for (Subscriber subscriber : byPart.getOrDefault(change.getPartId(), Set.of())) {
+            offer(subscriber, events);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stream.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        forEachSubscriber(subscriber -> {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stream.stall-check-interval:1s}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        forEachSubscriber(subscriber -> {
+            if (subscriber.markStalled(now, sendTimeout.toNanos())) {
+                unsubscribe(subscriber);
+                resizeDispatcher(1);
+                log.info("Dropped a stock stream subscriber stuck in a send for over {} ({} stalled sends)",
+                        sendTimeout, stalledSends.incrementAndGet());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private void offer(Subscriber subscriber, List<StockEvent> events) {
+        for (StockEvent event : events) {
+            if (subscriber.matches(event)) {
+                subscriber.enqueue(event, bufferSize);
+            }
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.claimDispatch()) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.releaseDispatch();
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                Batch batch = subscriber.takeBatch();
+                if (batch == null) {
+                    return;
+                }
+                if (batch.overflowed) {
+                    send(subscriber, SseEmitter.event()
+                            .name("RESYNC")
+                            .data("Events were dropped for this slow subscriber; refetch current stock"));
+                }
+                for (StockEvent event : batch.events) {
+                    send(subscriber, SseEmitter.event()
+                            .name(event.getType().name())
+                            .data(event));
+                }
+                if (batch.heartbeat) {
+                    send(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException | TimeoutException e) {
+            log.debug("Dropping stock stream subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException, TimeoutException {
+        subscriber.startSend(System.nanoTime());
+        boolean stalled;
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            stalled = subscriber.finishSend();
+            if (stalled) {
+                // The stuck write is over; hand back the thread added in its place
+                stalledSends.decrementAndGet();
+                resizeDispatcher(-1);
+            }
+        }
+        if (stalled) {
+            throw new TimeoutException("Send took longer than " + sendTimeout);
+        }
+    }
+
+    private synchronized void resizeDispatcher(int change) {
+        if (change > 0) {
+            dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() + change);
+            dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() + change);
+        } else {
+            dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() + change);
+            dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() + change);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (registry(subscriber).remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private Set<Subscriber> registry(Subscriber subscriber) {
+        if (subscriber.storeId != null) {
+            return byStore.computeIfAbsent(subscriber.storeId, id -> ConcurrentHashMap.newKeySet());
+        }
+        if (subscriber.partId != null) {
+            return byPart.computeIfAbsent(subscriber.partId, id -> ConcurrentHashMap.newKeySet());
+        }
+        return chainWide;
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        chainWide.forEach(action);
+        byStore.values().forEach(subscribers -> subscribers.forEach(action));
+        byPart.values().forEach(subscribers -> subscribers.forEach(action));
+    }
+
+    private static StockEvent toStockEvent(StockEvent.Type type, InventoryChangedEvent change, LocalDateTime now) {
+        return new StockEvent(type, change.getInventoryId(), change.getPartId(), change.getStoreId(),
+                change.getPreviousQuantity(), change.getQuantity(), change.getReorderPoint(),
+                change.isDeleted(), now);
+    }
+
+    private static final class Batch {
+        private final List<StockEvent> events;
+        private final boolean overflowed;
+        private final boolean heartbeat;
+
+        private Batch(List<StockEvent> events, boolean overflowed, boolean heartbeat) {
+            this.events = events;
+            this.overflowed = overflowed;
+            this.heartbeat = heartbeat;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long storeId;
+        private final Long partId;
+
+        // Latest pending event per (type, inventory row), oldest first
+        private final LinkedHashMap<String, StockEvent> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean dispatching;
+        private volatile boolean heartbeatDue;
+        // When the send in progress started, or 0 between sends
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        private Subscriber(SseEmitter emitter, Long storeId, Long partId) {
+            this.emitter = emitter;
+            this.storeId = storeId;
+            this.partId = partId;
+        }
+
+        private boolean matches(StockEvent event) {
+            return (storeId == null || storeId.equals(event.getStoreId()))
+                    && (partId == null || partId.equals(event.getPartId()));
+        }
+
+        private synchronized void enqueue(StockEvent event, int capacity) {
+            String key = (event.getType() == StockEvent.Type.STOCK_CHANGED ? "s" : "t") + event.getInventoryId();
+            if (pending.remove(key) == null && pending.size() >= capacity) {
+                Iterator<String> oldest = pending.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                overflowed = true;
+            }
+            pending.put(key, event);
+        }
+
+        private synchronized void startSend(long now) {
+            sendStartedNanos = now;
+        }
+
+        // True when the send had already been marked stalled
+        private synchronized boolean finishSend() {
+            sendStartedNanos = 0;
+            return stalled;
+        }
+
+        // True for the one check that finds the send in progress past the timeout
+        private synchronized boolean markStalled(long now, long timeoutNanos) {
+            if (stalled || sendStartedNanos == 0 || now - sendStartedNanos <= timeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+
+        private synchronized boolean claimDispatch() {
+            if (dispatching) {
+                return false;
+            }
+            dispatching = true;
+            return true;
+        }
+
+        private synchronized void releaseDispatch() {
+            dispatching = false;
+        }
+
+        // Returns null (and releases the dispatch claim) once there is nothing left to send
+        private synchronized Batch takeBatch() {
+            boolean heartbeat = heartbeatDue;
+            if (pending.isEmpty() && !overflowed && !heartbeat) {
+                dispatching = false;
+                return null;
+            }
+            Batch batch = new Batch(new ArrayList<>(pending.values()), overflowed, heartbeat);
+            pending.clear();
+            overflowed = false;
+            heartbeatDue = false;
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.entity.InventoryMovement;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.repository.InventoryMovementRepository;
+import com.autozone.inventory.repository.InventoryRepository;
+import com.autozone.inventory.repository.InventorySnapshotRepository;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only stock ledger. Every stock change is an inserted InventoryMovement plus a
+ * single conditional UPDATE of Inventory.quantity, which acts as the materialized
+ * current-quantity view. No read-modify-write, so concurrent sales of the same item
+ * cannot lose updates and each holds the row lock only for one statement's work.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+@DependsOn("entityManagerFactory")
+public class StockLedgerService {
+
+    // Stamps each movement with its transaction id, which snapshots are cut by
+    private static final List<String> CHANGE_XID_DDL = List.of(
+            "CREATE OR REPLACE FUNCTION movement_stamp_change_xid() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                    "BEGIN NEW.change_xid := pg_current_xact_id()::text::bigint; RETURN NEW; END $$",
+            "CREATE OR REPLACE TRIGGER inventory_movements_change_xid BEFORE INSERT ON inventory_movements " +
+                    "FOR EACH ROW EXECUTE FUNCTION movement_stamp_change_xid()"
+    );
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final PartRepository partRepository;
+    private final StoreRepository storeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockService hotStockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    @PostConstruct
+    public void installChangeTrigger() {
+        shardRouter.forEachShard(shard -> CHANGE_XID_DDL.forEach(jdbcTemplate::execute));
+    }
+
+    /**
+     * Applies a signed quantity change and records it in the ledger.
+     * Empty when the part is not stocked at the store.
+     *
+     * @throws IllegalStateException when the change would take stock below zero
+     */
+    public Optional<StockLevel> recordMovement(Long partId, Long storeId, MovementType type,
+                                               int quantityDelta, String reason, String reference) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<StockLevel> applied = applyToRow(partId, storeId, quantityDelta, now);
+        if (applied.isEmpty()) {
+            // Split items keep their stock in slots; retry the row in case one was merged meanwhile
+            applied = hotStockService.applyDelta(partId, storeId, quantityDelta, now)
+                    .or(() -> applyToRow(partId, storeId, quantityDelta, now));
+        }
+
+        if (applied.isEmpty()) {
+            if (!inventoryRepository.existsActive(partId, storeId)) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Insufficient inventory for part " + partId + " at store " + storeId);
+        }
+
+        StockLevel level = applied.get();
+        appendMovement(partId, storeId, type, quantityDelta, reason, reference, now);
+
+        // Bulk updates bypass the entity listener, so announce the change ourselves
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                level.getInventoryId(), partId, storeId,
+                level.getQuantity() - quantityDelta, level.getQuantity(), level.getReorderPoint(), false));
+        return Optional.of(level);
+    }
+
+    /**
+     * Moves stock between two stores in one transaction. Rows are updated in store id
+     * order so two opposite transfers cannot deadlock.
+     */
+    public void transfer(Long partId, Long fromStoreId, Long toStoreId, int quantity, String reason, String reference) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Transfer quantity must be positive");
+        }
+        if (fromStoreId.equals(toStoreId)) {
+            throw new IllegalArgumentException("Cannot transfer stock to the same store");
+        }
+
+        boolean outFirst = fromStoreId < toStoreId;
+        if (outFirst) {
+            requireStocked(recordMovement(partId, fromStoreId, MovementType.TRANSFER_OUT, -quantity, reason, reference), fromStoreId);
+        }
+        requireStocked(recordMovement(partId, toStoreId, MovementType.TRANSFER_IN, quantity, reason, reference), toStoreId);
+        if (!outFirst) {
+            requireStocked(recordMovement(partId, fromStoreId, MovementType.TRANSFER_OUT, -quantity, reason, reference), fromStoreId);
+        }
+    }
+
+    /**
+     * Records a movement for a quantity change that was already written to the Inventory
+     * row (e.g. a full record update through the inventory API).
+     */
+    public void recordAppliedChange(Long partId, Long storeId, int quantityDelta, String reason) {
+        appendMovement(partId, storeId, MovementType.ADJUSTMENT, quantityDelta, reason, null, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> getRecentMovements(Long partId, Long storeId, int limit) {
+        return movementRepository.findRecent(partId, storeId, PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    /**
+     * Stock on hand at a point in time: the latest snapshot taken at or before it, plus
+     * the movements committed after its cut that occurred by then, less those committed
+     * before the cut that occurred after. The cut is by transaction id, so a movement that
+     * commits after a snapshot is counted whatever time it carries. Empty when no snapshot
+     * is old enough.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Integer> getQuantityAt(Long partId, Long storeId, LocalDateTime at) {
+        return snapshotRepository
+                .findFirstByPartIdAndStoreIdAndSnapshotAtLessThanEqualAndSnapshotXidNotNullOrderBySnapshotAtDesc(
+                        partId, storeId, at)
+                .map(snapshot -> snapshot.getQuantity()
+                        + movementRepository.sumDeltaOutsideSnapshot(partId, storeId, snapshot.getSnapshotXid(), at));
+    }
+
+    @Scheduled(cron = "${inventory.ledger.snapshot-cron:0 0 2 * * *}")
+    public void takeSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        int count = snapshotRepository.snapshotAll(now);
+        log.info("Captured {} inventory snapshots at {}", count, now);
+    }
+
+    // Without a first snapshot nothing before the next scheduled run could be answered
+    public void takeInitialSnapshots() {
+        if (!snapshotRepository.existsBySnapshotXidNotNull()) {
+            takeSnapshots();
+        }
+    }
+
+    private void appendMovement(Long partId, Long storeId, MovementType type, int quantityDelta,
+                                String reason, String reference, LocalDateTime occurredAt) {
+        movementRepository.save(InventoryMovement.builder()
+                .part(partRepository.getReferenceById(partId))
+                .store(storeRepository.getReferenceById(storeId))
+                .movementType(type)
+                .quantityDelta(quantityDelta)
+                .reason(reason)
+                .reference(reference)
+                .occurredAt(occurredAt)
+                .build());
+    }
+
+    // Timed so hot-stock detection can spot rows whose lock is contended
+    private Optional<StockLevel> applyToRow(Long partId, Long storeId, int quantityDelta, LocalDateTime now) {
+        long started = System.nanoTime();
+        List<Object[]> updated = inventoryRepository.applyQuantityDelta(partId, storeId, quantityDelta, now);
+        if (updated.isEmpty()) {
+            return Optional.empty();
+        }
+        hotStockService.recordUpdate(partId, storeId, System.nanoTime() - started);
+        Object[] row = updated.get(0);
+        return Optional.of(new StockLevel(
+                ((Number) row[0]).longValue(), partId, storeId,
+                ((Number) row[1]).intValue(), ((Number) row[2]).intValue(), ((Number) row[3]).intValue()));
+    }
+
+    private static void requireStocked(Optional<StockLevel> level, Long storeId) {
+        if (level.isEmpty()) {
+            throw new IllegalArgumentException("Part is not stocked at store " + storeId);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.autozone.inventory.service;
+
+import com.autozone.inventory.dto.NearbyStock;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.geo.KdTree;
+import com.autozone.inventory.geo.StoreLocationIndex;
+import com.autozone.inventory.geo.StoreSite;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the closest stores that can fill a part request. Stores are visited in
+ * increasing distance from the requesting store, and HUB stores are ranked as if they
+ * were hubPreferenceMiles closer, since they carry deeper stock and run the transfer
+ * routes. The walk stops as soon as no unvisited store could still make the list.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockLocatorService {
+
+    private static final int MAX_RESULTS = 50;
+
+    private final StoreLocationIndex storeLocationIndex;
+    private final PartStockCache partStockCache;
+
+    @Value("${inventory.geo.hub-preference-miles:10}")
+    private double hubPreferenceMiles;
+
+    /**
+     * Empty when the requesting store is unknown or has no location.
+     */
+    public Optional<List<NearbyStock>> findNearbyStock(Long partId, Long storeId, int minQuantity,
+                                                       int limit, double maxMiles) {
+        StoreLocationIndex.Snapshot index = storeLocationIndex.current();
+        Optional<StoreSite> origin = index.find(storeId);
+        if (origin.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int wanted = Math.max(1, Math.min(limit, MAX_RESULTS));
+        int threshold = Math.max(1, minQuantity);
+        Map<Long, Integer> stock = partStockCache.getStockByStore(partId);
+
+        // Max-heap on score holding the best candidates seen so far
+        Comparator<Candidate> byScore = Comparator.comparingDouble(candidate -> candidate.score);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(wanted + 1, byScore.reversed());
+
+        KdTree.Cursor cursor = index.nearest(origin.get().getLocation());
+        int next;
+        while ((next = cursor.next()) >= 0) {
+            double distance = cursor.lastDistanceMiles();
+            if (distance > maxMiles) {
+                break;
+            }
+            StoreSite site = index.site(next);
+            Integer quantity = stock.get(site.getStoreId());
+            if (quantity != null && quantity >= threshold && !site.getStoreId().equals(storeId)) {
+                double score = site.getStoreType() == Store.StoreType.HUB ? distance - hubPreferenceMiles : distance;
+                best.add(new Candidate(site, distance, score, quantity));
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+            // Nothing further away can beat the current worst, even with the hub bonus
+            if (best.size() == wanted && cursor.remainingLowerBoundMiles() - hubPreferenceMiles >= best.peek().score) {
+                break;
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(byScore.thenComparingDouble(candidate -> candidate.distance));
+        return Optional.of(ranked.stream()
+                .map(candidate -> new NearbyStock(
+                        candidate.site.getStoreId(),
+                        candidate.site.getStoreNumber(),
+                        candidate.site.getName(),
+                        candidate.site.getCity(),
+                        candidate.site.getState(),
+                        candidate.site.getStoreType(),
+                        Math.round(candidate.distance * 10) / 10.0,
+                        candidate.quantity))
+                .toList());
+    }
+
+    private static final class Candidate {
+        private final StoreSite site;
+        private final double distance;
+        private final double score;
+        private final int quantity;
+
+        private Candidate(StoreSite site, double distance, double score, int quantity) {
+            this.site = site;
+            this.distance = distance;
+            this.score = score;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.autozone.inventory.service;
 
 import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.event.StoreChangedEvent;
+import com.autozone.inventory.geo.GeoPoint;
+import com.autozone.inventory.geo.ZipCodeGeocoder;
 import com.autozone.inventory.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +19,8 @@ import java.util.Optional;
 public class StoreService {
 
     private final StoreRepository storeRepository;
+    private final ZipCodeGeocoder zipCodeGeocoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Store> getAllStores(){
         return storeRepository.findAll();
@@ -28,16 +34,30 @@ public class StoreService {
         return storeRepository.findByStoreNumber(storeNumber);
     }
 
+    /**
+     * @throws IllegalArgumentException for a duplicate store number, or when the store has no
+     * usable coordinates and its ZIP code is not in the centroid table
+     */
     public Store createStore(Store store){
         if (storeRepository.existsByStoreNumber(store.getStoreNumber())){
             throw new IllegalArgumentException("Store with number " + store.getStoreNumber() + " already exists");
         }
-        return storeRepository.save(store);
+        fillCoordinates(store);
+        Store saved = storeRepository.save(store);
+        eventPublisher.publishEvent(new StoreChangedEvent(saved.getId()));
+        return saved;
     }
 
+    /**
+     * @throws IllegalArgumentException when the store has no usable coordinates and its ZIP code
+     * is not in the centroid table
+     */
     public Store updateStore(Long id, Store storeDetails){
         return storeRepository.findById(id)
                 .map(store -> {
+                    // Coordinates left out of an update are kept while the ZIP code stays the same
+                    boolean keepLocation = storeDetails.getLatitude() == null && storeDetails.getLongitude() == null
+                            && store.getZipCode().equals(storeDetails.getZipCode());
                     store.setName(storeDetails.getName());
                     store.setAddress(storeDetails.getAddress());
                     store.setCity(storeDetails.getCity());
@@ -45,8 +65,14 @@ public class StoreService {
                     store.setZipCode(storeDetails.getZipCode());
                     store.setPhone(storeDetails.getPhone());
                     store.setStoreType(storeDetails.getStoreType());
-                    store.setStoreType(storeDetails.getStoreType());
-                    return storeRepository.save(store);
+                    if (!keepLocation) {
+                        store.setLatitude(storeDetails.getLatitude());
+                        store.setLongitude(storeDetails.getLongitude());
+                    }
+                    fillCoordinates(store);
+                    Store saved = storeRepository.save(store);
+                    eventPublisher.publishEvent(new StoreChangedEvent(id));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Store not found with id: " + id));
     }
@@ -54,6 +80,24 @@ public class StoreService {
         storeRepository.findById(id).ifPresent(store -> {
             store.setDeleted(true);
             storeRepository.save(store);
+            eventPublisher.publishEvent(new StoreChangedEvent(id));
         });
     }
+
+    // Stores saved without coordinates are placed at their ZIP code centroid. The bundled
+    // centroid table only covers the stores' home region, so a store elsewhere must bring
+    // its own coordinates; saving it without any would leave it out of nearby search.
+    private void fillCoordinates(Store store) {
+        if (store.getLatitude() != null && store.getLongitude() != null) {
+            if (Math.abs(store.getLatitude()) > 90 || Math.abs(store.getLongitude()) > 180) {
+                throw new IllegalArgumentException("Latitude must be within ±90 and longitude within ±180");
+            }
+            return;
+        }
+        GeoPoint point = zipCodeGeocoder.locate(store.getZipCode())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown ZIP code " + store.getZipCode() +
+                        "; supply the store's latitude and longitude"));
+        store.setLatitude(point.getLatitude());
+        store.setLongitude(point.getLongitude());
+    }
 }
@@ -0,0 +1,42 @@
+package com.autozone.inventory.shard;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * The shard the current thread's next database connection comes from. Unset means the
+ * default shard. A connection, once a transaction or an open-in-view session holds it,
+ * stays on the shard it was taken from, so the shard must be chosen before any query.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Carries the caller's shard onto the thread that writes a streamed response. */
+    public static StreamingResponseBody propagate(StreamingResponseBody body) {
+        String shard = current();
+        return out -> {
+            String previous = current();
+            set(shard);
+            try {
+                body.writeTo(out);
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
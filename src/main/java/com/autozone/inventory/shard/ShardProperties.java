@@ -0,0 +1,45 @@
+package com.autozone.inventory.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Store sharding settings bound from {@code inventory.sharding.*}. The database in
+ * {@code spring.datasource} is always the shard named {@value #PRIMARY}; it keeps the
+ * global tables and every store not assigned elsewhere.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "inventory.sharding")
+public class ShardProperties {
+
+    public static final String PRIMARY = "primary";
+
+    private boolean enabled = false;
+    // Shard for stores missing from the store map
+    private String defaultShard = PRIMARY;
+    // Threads that run chain-wide queries against all shards at once
+    private int scatterThreads = 8;
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+    // Store id -> shard name
+    private Map<Long, String> stores = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        // Default to the primary database's credentials
+        private String username;
+        private String password;
+        // Block of row ids the shard allocates from (1-31; the primary has block 0), so ids are unique chain-wide
+        private Integer idBlock;
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+    }
+}
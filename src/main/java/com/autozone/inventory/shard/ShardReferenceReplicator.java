@@ -0,0 +1,207 @@
+package com.autozone.inventory.shard;
+
+import com.autozone.inventory.event.CatalogChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies the global parts and stores tables from the primary to every other shard, so
+ * store rows there satisfy their foreign keys and joins to parts and stores work on any
+ * shard, upserting by id so ids match the primary's.
+ *
+ * A trigger on the primary stamps every part and store write with its transaction id,
+ * as for inventory sync. Each run copies the rows stamped at or after the shard's
+ * watermark, then moves the watermark to the xmin of the snapshot taken before reading:
+ * every transaction below it had finished, so a write that commits late is never left
+ * behind a watermark that has already passed it. The watermark is stored on the shard in
+ * the same transaction as the rows. Runs once at startup before traffic, after every
+ * catalog change, and on a timer for writes still open during the last run.
+ */
+@Component
+@Slf4j
+public class ShardReferenceReplicator {
+
+    // Their ids come from the primary, so shards never allocate them
+    static final List<String> TABLES = List.of("stores", "parts");
+    private static final int BATCH_SIZE = 1000;
+
+    private static final List<String> PRIMARY_DDL = List.of(
+            "ALTER TABLE stores ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0",
+            "ALTER TABLE parts ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0",
+            "CREATE OR REPLACE FUNCTION reference_stamp_change_xid() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                    "BEGIN NEW.change_xid := pg_current_xact_id()::text::bigint; RETURN NEW; END $$",
+            "CREATE OR REPLACE TRIGGER stores_change_xid BEFORE INSERT OR UPDATE ON stores " +
+                    "FOR EACH ROW EXECUTE FUNCTION reference_stamp_change_xid()",
+            "CREATE OR REPLACE TRIGGER parts_change_xid BEFORE INSERT OR UPDATE ON parts " +
+                    "FOR EACH ROW EXECUTE FUNCTION reference_stamp_change_xid()",
+            "CREATE INDEX IF NOT EXISTS idx_stores_change_xid ON stores (change_xid)",
+            "CREATE INDEX IF NOT EXISTS idx_parts_change_xid ON parts (change_xid)"
+    );
+
+    private static final String WATERMARK_TABLE_DDL = "CREATE TABLE IF NOT EXISTS shard_replication_watermarks " +
+            "(table_name VARCHAR(64) PRIMARY KEY, change_xid BIGINT NOT NULL)";
+
+    // Every transaction id below this one has finished
+    private static final String SOURCE_WATERMARK_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    private final ShardRouter shardRouter;
+    private final ExecutorService worker;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile boolean stamping;
+
+    public ShardReferenceReplicator(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        replicateLater();
+    }
+
+    // Picks up writes that were still open during the last run, and ones made by other instances
+    @Scheduled(fixedDelayString = "${inventory.sharding.replication-interval:1m}",
+            initialDelayString = "${inventory.sharding.replication-interval:1m}")
+    public void replicateLater() {
+        // Changes that arrive while a run is queued are picked up by that run
+        if (shardRouter.isEnabled() && pending.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                pending.set(false);
+                try {
+                    replicate();
+                } catch (RuntimeException e) {
+                    log.error("Copying parts and stores to the shards failed; retrying on the next catalog change", e);
+                }
+            });
+        }
+    }
+
+    public synchronized void replicate() {
+        if (shardRouter.getShards().size() > 1 && !stamping) {
+            new JdbcTemplate(shardRouter.dataSource(ShardProperties.PRIMARY)).batchUpdate(PRIMARY_DDL.toArray(String[]::new));
+            stamping = true;
+        }
+        for (String shard : shardRouter.getShards()) {
+            if (ShardProperties.PRIMARY.equals(shard)) {
+                continue;
+            }
+            for (String table : TABLES) {
+                try {
+                    int copied = copy(table, shard);
+                    if (copied > 0) {
+                        log.info("Copied {} {} rows to shard {}", copied, table, shard);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not copy " + table + " to shard " + shard, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private int copy(String table, String shard) throws SQLException {
+        try (Connection source = shardRouter.dataSource(ShardProperties.PRIMARY).getConnection();
+             Connection target = shardRouter.dataSource(shard).getConnection()) {
+            // Columns only the primary has (added outside the mapping) are left behind
+            List<String> columns = new ArrayList<>();
+            try (PreparedStatement shape = target.prepareStatement("SELECT * FROM " + table + " WHERE false");
+                 ResultSet rs = shape.executeQuery()) {
+                ResultSetMetaData metadata = rs.getMetaData();
+                for (int i = 1; i <= metadata.getColumnCount(); i++) {
+                    columns.add(metadata.getColumnName(i));
+                }
+            }
+            long since = 0L;
+            try (Statement ddl = target.createStatement()) {
+                ddl.execute(WATERMARK_TABLE_DDL);
+            }
+            try (PreparedStatement stored = target.prepareStatement(
+                    "SELECT change_xid FROM shard_replication_watermarks WHERE table_name = ?")) {
+                stored.setString(1, table);
+                try (ResultSet rs = stored.executeQuery()) {
+                    if (rs.next()) {
+                        since = rs.getLong(1);
+                    }
+                }
+            }
+
+            // Streaming needs a transaction; rows at or above the new watermark are upserted again next run
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            long watermark;
+            try (PreparedStatement xmin = source.prepareStatement(SOURCE_WATERMARK_SQL);
+                 ResultSet rs = xmin.executeQuery()) {
+                rs.next();
+                watermark = rs.getLong(1);
+            }
+            try (PreparedStatement select = source.prepareStatement("SELECT " + String.join(", ", columns) + " FROM " + table
+                    + " WHERE change_xid >= ?")) {
+                select.setLong(1, since);
+                select.setFetchSize(BATCH_SIZE);
+                int copied = 0;
+                try (ResultSet rows = select.executeQuery();
+                     PreparedStatement upsert = target.prepareStatement(upsertSql(table, columns))) {
+                    while (rows.next()) {
+                        for (int i = 1; i <= columns.size(); i++) {
+                            upsert.setObject(i, rows.getObject(i));
+                        }
+                        upsert.addBatch();
+                        if (++copied % BATCH_SIZE == 0) {
+                            upsert.executeBatch();
+                        }
+                    }
+                    if (copied % BATCH_SIZE != 0) {
+                        upsert.executeBatch();
+                    }
+                }
+                try (PreparedStatement advance = target.prepareStatement("INSERT INTO shard_replication_watermarks " +
+                        "(table_name, change_xid) VALUES (?, ?) ON CONFLICT (table_name) DO UPDATE SET change_xid = EXCLUDED.change_xid")) {
+                    advance.setString(1, table);
+                    advance.setLong(2, watermark);
+                    advance.executeUpdate();
+                }
+                target.commit();
+                source.commit();
+                return copied;
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                source.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static String upsertSql(String table, List<String> columns) {
+        List<String> updates = columns.stream()
+                .filter(column -> !column.equals("id"))
+                .map(column -> column + " = EXCLUDED." + column)
+                .toList();
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", columns.stream().map(column -> "?").toList())
+                + ") ON CONFLICT (id) DO UPDATE SET " + String.join(", ", updates);
+    }
+}
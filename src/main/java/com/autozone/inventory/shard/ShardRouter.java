@@ -0,0 +1,327 @@
+package com.autozone.inventory.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps stores to shards and runs work on the right one.
+ *
+ * Store-scoped work binds the thread to the store's shard before its first query, so a
+ * transaction (a sale, a movement, a cycle count) stays on one database. Chain-wide
+ * reads scatter the same query to every shard on worker threads, each in its own
+ * read-only transaction, and gather the rows. With sharding disabled there is one shard,
+ * the primary, and both paths run inline exactly as before.
+ *
+ * Parts, stores and users stay global on the primary; parts and stores are copied to
+ * the other shards by {@link ShardReferenceReplicator} so store rows keep their foreign
+ * keys and lazy part and store references resolve on any shard.
+ *
+ * Every shard allocates row ids from its own block of 2^48 (the primary from block 0),
+ * so ids are unique chain-wide and a row addressed only by its id routes to the shard
+ * that created it.
+ */
+@Component
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class ShardRouter {
+
+    public static final int ID_BLOCK_BITS = 48;
+    // Keeps ids below 2^53, the largest integer JSON clients read exactly
+    public static final int MAX_ID_BLOCK = 31;
+
+    private static final String SEQUENCES_SQL = "SELECT s.sequencename, t.relname, s.min_value, s.max_value, s.last_value " +
+            "FROM pg_sequences s " +
+            "JOIN pg_class c ON c.relname = s.sequencename AND c.relnamespace = to_regnamespace(s.schemaname) " +
+            "JOIN pg_depend d ON d.objid = c.oid AND d.classid = 'pg_class'::regclass " +
+            "AND d.refclassid = 'pg_class'::regclass AND d.deptype IN ('a', 'i') " +
+            "JOIN pg_class t ON t.oid = d.refobjid " +
+            "WHERE s.schemaname = current_schema()";
+
+    private final ShardProperties properties;
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectProvider<ShardingConfig.MetadataCapture> metadataCapture;
+
+    private ExecutorService scatterPool;
+
+    public ShardRouter(ShardProperties properties,
+                       DataSource dataSource,
+                       EntityManagerFactory entityManagerFactory,
+                       PlatformTransactionManager transactionManager,
+                       ObjectProvider<ShardingConfig.MetadataCapture> metadataCapture) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.metadataCapture = metadataCapture;
+    }
+
+    // Hibernate only maintains the primary's schema; bring the other shards up to the same mapping
+    @PostConstruct
+    public void initialize() {
+        if (!isEnabled()) {
+            return;
+        }
+        ShardingConfig.MetadataCapture capture = metadataCapture.getIfAvailable();
+        Metadata metadata = capture != null ? capture.getMetadata() : null;
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate mapping metadata was not captured; cannot create shard schemas");
+        }
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "update");
+        settings.put(AvailableSettings.HBM2DDL_HALT_ON_ERROR, true);
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        forEachShard(shard -> {
+            if (!ShardProperties.PRIMARY.equals(shard)) {
+                // The session factory's connections follow the shard context
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings, action -> { });
+                log.info("Schema of shard {} is up to date", shard);
+            }
+            assignIdBlock(shard);
+        });
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        scatterPool = Executors.newFixedThreadPool(Math.max(1, properties.getScatterThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return dataSource instanceof ShardRoutingDataSource;
+    }
+
+    /** Shard names, primary first. */
+    public List<String> getShards() {
+        if (!isEnabled()) {
+            return List.of(ShardProperties.PRIMARY);
+        }
+        List<String> shards = new ArrayList<>();
+        shards.add(ShardProperties.PRIMARY);
+        shards.addAll(properties.getShards().keySet());
+        return shards;
+    }
+
+    /** The shard holding a store's inventory, ledger and sales; the primary for no store. */
+    public String shardFor(Long storeId) {
+        if (!isEnabled() || storeId == null) {
+            return ShardProperties.PRIMARY;
+        }
+        return properties.getStores().getOrDefault(storeId, properties.getDefaultShard());
+    }
+
+    /** The shard that allocated a row id; the primary for ids in no configured block. */
+    public String shardForId(long id) {
+        if (!isEnabled()) {
+            return ShardProperties.PRIMARY;
+        }
+        long block = id >>> ID_BLOCK_BITS;
+        return properties.getShards().entrySet().stream()
+                .filter(shard -> shard.getValue().getIdBlock() == block)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(ShardProperties.PRIMARY);
+    }
+
+    /** The connection pool of one shard, for work that addresses a shard directly. */
+    public DataSource dataSource(String shard) {
+        if (!isEnabled()) {
+            return dataSource;
+        }
+        DataSource pool = ((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shard);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        return pool;
+    }
+
+    /**
+     * Routes the calling thread's next connection to a store's shard and returns that
+     * shard. Web requests stay bound until they complete.
+     *
+     * @throws IllegalStateException when the thread already holds a connection on
+     *                               another shard (e.g. a transfer between shards)
+     */
+    public String bind(Long storeId) {
+        return bind(shardFor(storeId), "Store " + storeId);
+    }
+
+    /**
+     * Routes the calling thread's next connection to the shard that allocated a row id,
+     * for rows addressed without their store.
+     *
+     * @throws IllegalStateException as for {@link #bind(Long)}
+     */
+    public String bindForId(long id) {
+        return bind(shardForId(id), "Row " + id);
+    }
+
+    private String bind(String shard, String subject) {
+        if (!isEnabled()) {
+            return shard;
+        }
+        String current = ShardContext.current() != null ? ShardContext.current() : ShardProperties.PRIMARY;
+        if (!shard.equals(current) && holdsConnection()) {
+            throw new IllegalStateException(subject + " is on shard " + shard
+                    + " but this transaction is already on shard " + current);
+        }
+        ShardContext.set(shard);
+        return shard;
+    }
+
+    /** Runs a task on the calling thread bound to one shard. */
+    public <T> T onShard(String shard, Supplier<T> task) {
+        if (isEnabled() && holdsConnection()) {
+            throw new IllegalStateException("Cannot switch shards while holding a connection");
+        }
+        String previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /** Runs a task once per shard on the calling thread, bound to that shard. */
+    public void forEachShard(Consumer<String> task) {
+        if (isEnabled() && holdsConnection()) {
+            throw new IllegalStateException("Cannot switch shards while holding a connection");
+        }
+        String previous = ShardContext.current();
+        try {
+            for (String shard : getShards()) {
+                ShardContext.set(shard);
+                task.accept(shard);
+            }
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs a read on every shard in parallel and concatenates the results in shard
+     * order. Callers merge rows that need it (e.g. totals per part).
+     */
+    public <T> List<T> scatter(Supplier<List<T>> query) {
+        if (!isEnabled()) {
+            return query.get();
+        }
+        List<Future<List<T>>> results = new ArrayList<>();
+        for (String shard : getShards()) {
+            results.add(scatterPool.submit(() -> {
+                ShardContext.set(shard);
+                try {
+                    return readOnlyTransaction.execute(status -> query.get());
+                } finally {
+                    ShardContext.clear();
+                }
+            }));
+        }
+
+        List<T> gathered = new ArrayList<>();
+        try {
+            for (Future<List<T>> result : results) {
+                gathered.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during a chain-wide query", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            results.forEach(result -> result.cancel(true));
+        }
+        return gathered;
+    }
+
+    // Confines a shard's id sequences to its block. Sequences already inside keep their
+    // position; parts and stores ids come from the primary and are left alone elsewhere.
+    private void assignIdBlock(String shard) {
+        long block = ShardProperties.PRIMARY.equals(shard) ? 0 : properties.getShards().get(shard).getIdBlock();
+        long first = Math.max(1, block << ID_BLOCK_BITS);
+        long last = ((block + 1) << ID_BLOCK_BITS) - 1;
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource(shard));
+        List<String> statements = new ArrayList<>();
+        jdbc.query(SEQUENCES_SQL, rs -> {
+            String sequence = rs.getString(1);
+            if ((block > 0 && ShardReferenceReplicator.TABLES.contains(rs.getString(2)))
+                    || (rs.getLong(3) == first && rs.getLong(4) == last)) {
+                return;
+            }
+            long position = rs.getLong(5);
+            boolean used = !rs.wasNull();
+            if (used && position > last) {
+                throw new IllegalStateException("Sequence " + sequence + " on shard " + shard
+                        + " is past the end of id block " + block);
+            }
+            boolean restart = !used || position < first;
+            if (restart && used) {
+                log.warn("Rows of {} on shard {} predate its id block and are only reachable through their store",
+                        rs.getString(2), shard);
+            }
+            statements.add("ALTER SEQUENCE " + sequence + " MINVALUE " + first + " MAXVALUE " + last
+                    + (restart ? " START WITH " + first + " RESTART WITH " + first : ""));
+        });
+        statements.forEach(jdbc::execute);
+        if (!statements.isEmpty()) {
+            log.info("Moved {} id sequences of shard {} into id block {}", statements.size(), shard, block);
+        }
+    }
+
+    private boolean holdsConnection() {
+        if (TransactionSynchronizationManager.hasResource(dataSource)) {
+            return true;
+        }
+        // Open-in-view keeps the request's session, and its connection, past each transaction
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        return holder != null && holder.getEntityManager().unwrap(SessionImplementor.class)
+                .getJdbcCoordinator().getLogicalConnection().isPhysicallyConnected();
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            ShardContext.clear();
+        } else {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.autozone.inventory.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+
+/**
+ * Hands out connections from the pool of the shard named in {@link ShardContext}, or the
+ * primary pool when none is set.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource pool : getResolvedDataSources().values()) {
+            if (pool instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
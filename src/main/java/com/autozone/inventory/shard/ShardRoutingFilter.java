@@ -0,0 +1,69 @@
+package com.autozone.inventory.shard;
+
+import com.autozone.inventory.ratelimit.RateLimitFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Binds inventory, sales and forecast requests to the shard of the store they act for, found the
+ * same way as for rate limiting (a store path segment, {@code storeId}, or {@code X-Store-Id}).
+ * A request whose path, parameter and header name different stores is rejected rather than
+ * routed on any one of them. It runs after authentication, so user lookups stay on the primary, and
+ * before open-in-view opens the request's session. Rows addressed only by their own
+ * id (e.g. {@code GET /api/inventory/{id}} or {@code POST /api/purchase-orders/{id}/receive})
+ * bind to the shard whose id block holds the id. Writes that name the store only in the body bind in the controller.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    // Inventory rows and purchase orders addressed by id alone
+    private static final Pattern ROW = Pattern.compile(
+            "/api/inventory/(?:calculate-reorder/)?(\\d{1,18})|/api/purchase-orders/(\\d{1,18})(?:/approve|/cancel|/receive)?");
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !shardRouter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Other endpoints may still bind in the controller, so every request is cleared
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher row = ROW.matcher(path);
+        Long storeId = path.startsWith("/api/inventory/") || path.startsWith("/api/sales/") || path.startsWith("/api/forecasts")
+                ? RateLimitFilter.storeId(request) : null;
+        // The id names its shard outright; a store header cannot send it elsewhere
+        if (row.matches()) {
+            shardRouter.bindForId(Long.parseLong(row.group(1) != null ? row.group(1) : row.group(2)));
+        } else if (storeId != null) {
+            if (RateLimitFilter.hasConflictingStores(request)) {
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"The request names more than one store\"}");
+                return;
+            }
+            shardRouter.bind(storeId);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.autozone.inventory.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces the single pooled DataSource with a {@link ShardRoutingDataSource} holding
+ * one Hikari pool per shard, and captures Hibernate's mapping metadata so
+ * {@link ShardRouter} can create the schema on the other shards.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties primary, ShardProperties properties) {
+        Map<Object, Object> pools = new LinkedHashMap<>();
+        HikariDataSource primaryPool = primary.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaryPool.setPoolName("shard-" + ShardProperties.PRIMARY);
+        pools.put(ShardProperties.PRIMARY, primaryPool);
+
+        Set<Integer> idBlocks = new HashSet<>();
+        properties.getShards().forEach((name, shard) -> {
+            if (ShardProperties.PRIMARY.equals(name) || shard.getUrl() == null) {
+                throw new IllegalStateException("Shard " + name + " needs a url and may not be named " + ShardProperties.PRIMARY);
+            }
+            Integer idBlock = shard.getIdBlock();
+            if (idBlock == null || idBlock < 1 || idBlock > ShardRouter.MAX_ID_BLOCK || !idBlocks.add(idBlock)) {
+                throw new IllegalStateException("Shard " + name + " needs an id-block between 1 and "
+                        + ShardRouter.MAX_ID_BLOCK + " that no other shard uses");
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + name);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername() != null ? shard.getUsername() : primary.determineUsername());
+            pool.setPassword(shard.getPassword() != null ? shard.getPassword() : primary.determinePassword());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pool.setMinimumIdle(shard.getMinimumIdle());
+            pools.put(name, pool);
+        });
+
+        List<String> unknown = properties.getStores().values().stream()
+                .filter(name -> !pools.containsKey(name))
+                .distinct()
+                .toList();
+        if (!pools.containsKey(properties.getDefaultShard()) || !unknown.isEmpty()) {
+            throw new IllegalStateException("Store map or default shard names an undefined shard: "
+                    + (unknown.isEmpty() ? properties.getDefaultShard() : unknown));
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(pools);
+        routing.setDefaultTargetDataSource(primaryPool);
+        // A misspelt shard must fail, not quietly read the primary
+        routing.setLenientFallback(false);
+        log.info("Store sharding enabled: shards {}, {} stores mapped, others on {}",
+                pools.keySet(), properties.getStores().size(), properties.getDefaultShard());
+        return routing;
+    }
+
+    @Bean
+    public MetadataCapture shardMetadataCapture() {
+        return new MetadataCapture();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardMetadataIntegrator(MetadataCapture capture) {
+        return hibernateProperties -> hibernateProperties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(capture));
+    }
+
+    /** Keeps the mapping metadata of the one session factory the application builds. */
+    public static class MetadataCapture implements Integrator {
+
+        private volatile Metadata metadata;
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+}
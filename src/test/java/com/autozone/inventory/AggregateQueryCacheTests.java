@@ -0,0 +1,112 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.service.AggregateQueryCache;
+import com.autozone.inventory.service.AggregateQueryCache.Source;
+import com.autozone.inventory.service.StockLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class AggregateQueryCacheTests {
+
+	@Autowired
+	private AggregateQueryCache cache;
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<Integer>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return cache.get("test-coalesce", 1, Source.SALES, () -> {
+						loads.incrementAndGet();
+						sleep(300);
+						return List.of(42);
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<List<Integer>> result : results) {
+				assertEquals(List.of(42), result.get());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+
+		@SuppressWarnings("unchecked")
+		Map<String, Long> stats = (Map<String, Long>) ((Map<String, Object>) cache.getStats().get("views")).get("test-coalesce");
+		assertEquals(1L, stats.get("misses"));
+		assertEquals(8L, stats.get("hits") + stats.get("coalesced") + stats.get("misses"));
+	}
+
+	@Test
+	void committedWritesInvalidateAndFailuresAreNotCached() {
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("test-generation", 1, Source.INVENTORY, loads::incrementAndGet);
+		assertEquals(1, (int) cache.get("test-generation", 1, Source.INVENTORY, loads::incrementAndGet));
+		// Sales do not invalidate inventory views
+		cache.invalidate(Source.SALES);
+		assertEquals(1, (int) cache.get("test-generation", 1, Source.INVENTORY, loads::incrementAndGet));
+
+		Map<String, Object> item = jdbcTemplate.queryForMap("SELECT part_id, store_id FROM inventory " +
+				"WHERE deleted = false AND slot_count = 0 ORDER BY id LIMIT 1");
+		stockLedgerService.recordMovement((Long) item.get("part_id"), (Long) item.get("store_id"),
+				MovementType.ADJUSTMENT, 1, "aggregate cache test", null).orElseThrow();
+		assertEquals(2, (int) cache.get("test-generation", 1, Source.INVENTORY, loads::incrementAndGet));
+
+		assertThrows(IllegalStateException.class, () -> cache.get("test-failure", 1, Source.SALES, () -> {
+			throw new IllegalStateException("database unavailable");
+		}));
+		assertEquals("ok", cache.get("test-failure", 1, Source.SALES, () -> "ok"));
+	}
+
+	@Test
+	void outdatedResultsAreEvicted() {
+		cache.get("test-evict", 1, Source.SALES, () -> "sales");
+		cache.get("test-evict", 2, Source.INVENTORY, () -> "inventory");
+		int before = (int) cache.getStats().get("entries");
+		cache.invalidate(Source.SALES);
+		cache.evictStale();
+
+		assertTrue((int) cache.getStats().get("entries") < before);
+		AtomicInteger loads = new AtomicInteger();
+		assertEquals("inventory", cache.get("test-evict", 2, Source.INVENTORY, () -> "reloaded-" + loads.incrementAndGet()));
+		assertEquals(0, loads.get());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
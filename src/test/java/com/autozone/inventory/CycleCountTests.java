@@ -0,0 +1,147 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.CycleCountResult;
+import com.autozone.inventory.dto.CycleCountResult.Status;
+import com.autozone.inventory.service.CatalogService;
+import com.autozone.inventory.service.CycleCountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class CycleCountTests {
+
+	@Autowired
+	private CycleCountService cycleCountService;
+
+	@Autowired
+	private CatalogService catalogService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aCountIsDiffedAgainstStockAndOnlyChangedItemsAreAdjusted() {
+		try (StockFixture fixture = StockFixture.create(jdbcTemplate, 10)) {
+			Long storeId = (Long) fixture.item().get("store_id");
+			Long counted = (Long) fixture.item().get("part_id");
+			String tag = "CC-" + storeId + "-";
+			Long matching = part(tag + "MATCH");
+			Long uncounted = part(tag + "MISSING");
+			Long unstocked = part(tag + "UNSTOCKED");
+			try {
+				stock(matching, storeId, 5);
+				stock(uncounted, storeId, 7);
+				catalogService.refreshIfChanged();
+				String countedSku = jdbcTemplate.queryForObject("SELECT sku FROM parts WHERE id = ?", String.class, counted);
+
+				// Two bins of the same part add up; unknown SKUs and bad quantities are rejected by line
+				String file = "SKU,Qty,Bin\n" +
+						countedSku + ",4,A1\n" +
+						tag + "MATCH,5,A2\n" +
+						tag + "UNSTOCKED,2,A3\n" +
+						"NO-SUCH-SKU,1,A4\n" +
+						countedSku + ",3,B1\n" +
+						tag + "MATCH,-1,B2\n";
+
+				CycleCountResult preview = reconcile(storeId, file, false, false);
+				assertFalse(preview.isApplied());
+				assertEquals(6, preview.getLinesRead());
+				assertEquals(3, preview.getItemsCounted());
+				assertEquals(1, preview.getMatched());
+				assertEquals(0, preview.getAdjusted());
+				assertEquals(1, preview.getNotStocked());
+				assertEquals(1, preview.getNotCounted());
+				assertEquals(List.of("line 5: unknown SKU 'NO-SUCH-SKU'",
+						"line 7: quantity for " + tag + "MATCH must be a whole number of 0 or more"), preview.getErrors());
+				assertEquals(3, preview.getUnitsShort());
+				assertEquals(Map.of(counted, Status.VARIANCE, uncounted, Status.NOT_COUNTED, unstocked, Status.NOT_STOCKED),
+						statuses(preview));
+				assertEquals(10, quantity(counted, storeId));
+				assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_movements WHERE store_id = ?",
+						Integer.class, storeId));
+
+				CycleCountResult applied = reconcile(storeId, file, true, true);
+				assertTrue(applied.isApplied());
+				assertEquals(2, applied.getAdjusted());
+				assertEquals(0, applied.getNotCounted());
+				assertEquals(10, applied.getUnitsShort());
+				assertEquals(0, new BigDecimal("50").compareTo(applied.getValueShort()));
+				// Largest value variance first: 7 units of the missing part, then 3 of the counted one
+				assertEquals(List.of(uncounted, counted, unstocked),
+						applied.getVariances().stream().map(CycleCountResult.Variance::getPartId).toList());
+				assertEquals(Map.of(counted, Status.ADJUSTED, uncounted, Status.ADJUSTED, unstocked, Status.NOT_STOCKED),
+						statuses(applied));
+
+				assertEquals(7, quantity(counted, storeId));
+				assertEquals(5, quantity(matching, storeId));
+				assertEquals(0, quantity(uncounted, storeId));
+				assertEquals(Map.of(counted, -3, uncounted, -7), movements(storeId, applied.getReference()));
+			} finally {
+				jdbcTemplate.update("DELETE FROM inventory_movements WHERE part_id IN (?, ?, ?)", matching, uncounted, unstocked);
+				jdbcTemplate.update("DELETE FROM inventory WHERE part_id IN (?, ?, ?)", matching, uncounted, unstocked);
+				jdbcTemplate.update("DELETE FROM parts WHERE id IN (?, ?, ?)", matching, uncounted, unstocked);
+			}
+		}
+	}
+
+	@Test
+	void aCountWithoutAQuantityColumnIsRejected() {
+		Long storeId = jdbcTemplate.queryForObject("SELECT min(id) FROM stores WHERE deleted = false", Long.class);
+		assertThrows(IllegalArgumentException.class, () -> reconcile(storeId, "sku,bin\nX,A1\n", false, false));
+		assertTrue(cycleCountService.reconcile(Long.MAX_VALUE, new ByteArrayInputStream(new byte[0]), false, false).isEmpty());
+	}
+
+	private CycleCountResult reconcile(Long storeId, String file, boolean apply, boolean missingAsZero) {
+		return cycleCountService.reconcile(storeId, new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)),
+				apply, missingAsZero).orElseThrow();
+	}
+
+	private Long part(String sku) {
+		return jdbcTemplate.queryForObject("INSERT INTO parts (sku, name, category, cost, price, supplier_lead_time_days, " +
+				"created_at, updated_at, deleted) VALUES (?, 'Count Part', 'FILTERS', 5, 10, 7, now(), now(), false) " +
+				"RETURNING id", Long.class, sku);
+	}
+
+	private void stock(Long partId, Long storeId, int quantity) {
+		jdbcTemplate.update("INSERT INTO inventory (part_id, store_id, quantity, reorder_point, reorder_quantity, " +
+				"max_stock_level, created_at, updated_at, deleted) VALUES (?, ?, ?, 0, 50, 200, now(), now(), false)",
+				partId, storeId, quantity);
+	}
+
+	private int quantity(Long partId, Long storeId) {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE part_id = ? AND store_id = ?",
+				Integer.class, partId, storeId);
+	}
+
+	private Map<Long, Status> statuses(CycleCountResult result) {
+		return result.getVariances().stream().collect(Collectors.toMap(
+				CycleCountResult.Variance::getPartId, CycleCountResult.Variance::getStatus));
+	}
+
+	private Map<Long, Integer> movements(Long storeId, String reference) {
+		return jdbcTemplate.query("SELECT part_id, quantity_delta FROM inventory_movements " +
+				"WHERE store_id = ? AND reference = ? AND reason = 'Cycle count' AND movement_type = 'ADJUSTMENT'",
+				rs -> {
+					Map<Long, Integer> deltas = new HashMap<>();
+					while (rs.next()) {
+						deltas.put(rs.getLong(1), rs.getInt(2));
+					}
+					return deltas;
+				}, storeId, reference);
+	}
+}
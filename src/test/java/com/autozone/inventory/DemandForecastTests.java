@@ -0,0 +1,96 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.forecast.ForecastState;
+import com.autozone.inventory.forecast.HoltWintersModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class DemandForecastTests {
+
+	private final HoltWintersModel model = new HoltWintersModel(0.3, 0.1, 0.2, 0.9);
+
+	@Test
+	void weeksLineUpWithMondays() {
+		LocalDate monday = LocalDate.of(2026, 10, 19);
+		int week = HoltWintersModel.weekOf(monday);
+		assertEquals(monday, HoltWintersModel.startOfWeek(week));
+		assertEquals(week, HoltWintersModel.weekOf(monday.plusDays(6)));
+		assertEquals(week + 1, HoltWintersModel.weekOf(monday.plusDays(7)));
+	}
+
+	@Test
+	void steadyDemandForecastsTheSameDemand() {
+		int[] weekly = new int[2 * HoltWintersModel.SEASON_LENGTH];
+		Arrays.fill(weekly, 10);
+		ForecastState state = model.fit(100, weekly);
+
+		assertEquals(100 + weekly.length - 1, state.getLastFittedWeek());
+		assertEquals(10.0, state.getLevel(), 1e-9);
+		assertEquals(0.0, state.getTrend(), 1e-9);
+		assertEquals(0.0, state.getMeanAbsoluteError(), 1e-9);
+		assertEquals(10.0, model.forecastWeek(state, 1), 1e-9);
+		assertEquals(20.0, model.forecastDays(state, HoltWintersModel.startOfWeek(state.getLastFittedWeek() + 1), 14), 1e-9);
+	}
+
+	@Test
+	void aYearlyPeakIsForecastForItsWeek() {
+		int firstWeek = 520;
+		int[] weekly = new int[2 * HoltWintersModel.SEASON_LENGTH];
+		Arrays.fill(weekly, 5);
+		int peakWeek = 3;
+		weekly[peakWeek] = 50;
+		weekly[peakWeek + HoltWintersModel.SEASON_LENGTH] = 50;
+		ForecastState state = model.fit(firstWeek, weekly);
+
+		// The next season starts right after the last fitted week
+		double peak = model.forecastWeek(state, peakWeek + 1);
+		double ordinary = model.forecastWeek(state, peakWeek + 2);
+		assertTrue(peak > 3 * ordinary, "peak " + peak + " vs " + ordinary);
+	}
+
+	@Test
+	void growingDemandFitsARisingTrend() {
+		int[] weekly = new int[2 * HoltWintersModel.SEASON_LENGTH];
+		for (int i = 0; i < weekly.length; i++) {
+			weekly[i] = 10 + i;
+		}
+		ForecastState state = model.fit(0, weekly);
+
+		assertTrue(state.getTrend() > 0.5, "trend " + state.getTrend());
+		assertTrue(model.forecastWeek(state, 4) > model.forecastWeek(state, 1));
+	}
+
+	@Test
+	void updatingWithAWeekMatchesFittingIt() {
+		int[] weekly = new int[70];
+		for (int i = 0; i < weekly.length; i++) {
+			weekly[i] = 8 + (i * 7) % 5;
+		}
+		ForecastState refit = model.fit(300, weekly);
+		ForecastState updated = model.fit(300, Arrays.copyOf(weekly, weekly.length - 1));
+		model.update(updated, weekly[weekly.length - 1]);
+
+		assertEquals(refit.getLastFittedWeek(), updated.getLastFittedWeek());
+		assertEquals(refit.getWeeksObserved(), updated.getWeeksObserved());
+		assertEquals(refit.getLevel(), updated.getLevel(), 1e-9);
+		assertEquals(refit.getTrend(), updated.getTrend(), 1e-9);
+		assertEquals(refit.getMeanAbsoluteError(), updated.getMeanAbsoluteError(), 1e-9);
+		assertArrayEquals(refit.getSeasonals(), updated.getSeasonals(), 1e-9);
+	}
+
+	@Test
+	void anEmptySeriesForecastsNothing() {
+		ForecastState state = model.fit(40, new int[0]);
+		assertEquals(39, state.getLastFittedWeek());
+		assertEquals(0.0, model.forecastWeek(state, 1));
+	}
+}
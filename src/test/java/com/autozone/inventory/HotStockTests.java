@@ -0,0 +1,200 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.service.HotStockService;
+import com.autozone.inventory.service.ReservationService;
+import com.autozone.inventory.service.StockLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml. Every ledger
+ * update counts as slow, and detection only runs when a test calls it.
+ */
+@SpringBootTest(properties = {
+		"inventory.hot-stock.enabled=true",
+		"inventory.hot-stock.slow-update=0ms",
+		"inventory.hot-stock.hot-threshold=5",
+		"inventory.hot-stock.detect-interval=1h"
+})
+class HotStockTests {
+
+	private static final int THREADS = 8;
+	private static final int SALES_PER_THREAD = 40;
+
+	@Autowired
+	private HotStockService hotStockService;
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private ReservationService reservationService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<StockFixture> fixtures = new ArrayList<>();
+
+	@AfterEach
+	void removeFixtures() {
+		fixtures.forEach(StockFixture::close);
+		fixtures.clear();
+	}
+
+	@Test
+	void concurrentSalesOfSplitItemKeepExactTotal() throws Exception {
+		Map<String, Object> item = stockedItem();
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		hotStockService.merge(partId, storeId);
+		jdbcTemplate.update("UPDATE inventory SET quantity = 400 WHERE part_id = ? AND store_id = ?", partId, storeId);
+
+		assertTrue(hotStockService.split(partId, storeId, 8));
+		assertThrows(IllegalStateException.class, () -> hotStockService.split(partId, storeId, 8));
+		assertEquals(8, count("SELECT count(*) FROM inventory_slots WHERE inventory_id = " + item.get("id")));
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> sales = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				sales.add(pool.submit(() -> {
+					for (int i = 0; i < SALES_PER_THREAD; i++) {
+						stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -1, "hot stock test", "HOT-1");
+					}
+				}));
+			}
+			for (Future<?> sale : sales) {
+				sale.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(80, slotTotal(item));
+
+		// Larger than any one slot, so it has to take from several
+		StockLevel level = stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -50, "hot stock test", "HOT-1")
+				.orElseThrow();
+		assertEquals(30, level.getQuantity());
+		assertThrows(IllegalStateException.class,
+				() -> stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -31, "hot stock test", "HOT-1"));
+
+		hotStockService.rebalance();
+		assertEquals(30, rowQuantity(item));
+		assertTrue(hotStockService.getSplitItems().stream().anyMatch(view -> view.getInventoryId().equals(item.get("id"))
+				&& view.getQuantity() == 30 && view.getSlots().size() == 8));
+
+		assertTrue(hotStockService.merge(partId, storeId));
+		assertFalse(hotStockService.merge(partId, storeId));
+		assertEquals(30, rowQuantity(item));
+		assertEquals(0, count("SELECT count(*) FROM inventory_slots WHERE inventory_id = " + item.get("id")));
+	}
+
+	@Test
+	void itemWithSlowUpdatesIsSplitOnDetection() {
+		Map<String, Object> item = stockedItem();
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		hotStockService.merge(partId, storeId);
+		jdbcTemplate.update("UPDATE inventory SET quantity = 100 WHERE part_id = ? AND store_id = ?", partId, storeId);
+
+		for (int i = 0; i < 5; i++) {
+			stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -1, "hot stock test", "HOT-2");
+		}
+		hotStockService.detect();
+
+		assertEquals(95, slotTotal(item));
+		assertTrue(hotStockService.merge(partId, storeId));
+		assertEquals(95, rowQuantity(item));
+	}
+
+	@Test
+	void holdsOnASplitItemAreCheckedAgainstItsSlots() {
+		Map<String, Object> item = stockedItem();
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		jdbcTemplate.update("UPDATE inventory SET quantity = 10 WHERE id = ?", item.get("id"));
+		assertTrue(hotStockService.split(partId, storeId, 2));
+
+		// The slots hold 4 while the row still says 10 until the next rebalance
+		stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -6, "hot stock test", "HOT-3");
+		String order = "HOT-HOLD-" + System.nanoTime();
+		assertThrows(IllegalStateException.class, () -> reservationService.reserve(storeId, order, null, Map.of(partId, 5)));
+		assertTrue(reservationService.reserve(storeId, order, null, Map.of(partId, 4)).isPresent());
+		assertThrows(IllegalStateException.class,
+				() -> stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -1, "hot stock test", "HOT-3"));
+		assertTrue(reservationService.release(storeId, order));
+		assertEquals(4, slotTotal(item));
+	}
+
+	@Test
+	void concurrentSalesOnDifferentSlotsNeverTakeHeldUnits() throws Exception {
+		Map<String, Object> item = stockedItem();
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		jdbcTemplate.update("UPDATE inventory SET quantity = 400 WHERE id = ?", item.get("id"));
+		assertTrue(hotStockService.split(partId, storeId, 8));
+		assertTrue(reservationService.reserve(storeId, "HOT-HOLD-" + System.nanoTime(), null, Map.of(partId, 300)).isPresent());
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		AtomicInteger sold = new AtomicInteger();
+		try {
+			List<Future<?>> sales = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				sales.add(pool.submit(() -> {
+					for (int i = 0; i < SALES_PER_THREAD; i++) {
+						try {
+							stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -1, "hot stock test", "HOT-4");
+							sold.incrementAndGet();
+						} catch (IllegalStateException e) {
+							// Only held units are left
+						}
+					}
+				}));
+			}
+			for (Future<?> sale : sales) {
+				sale.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(100, sold.get());
+		assertEquals(300, slotTotal(item));
+		assertEquals(0, count("SELECT count(*) FROM inventory_slots WHERE inventory_id = " + item.get("id")
+				+ " AND quantity < (300 + 8 - 1 - slot) / 8"));
+	}
+
+	// A store, part and row of the test's own, so no other test shares the item
+	private Map<String, Object> stockedItem() {
+		StockFixture fixture = StockFixture.create(jdbcTemplate, 0);
+		fixtures.add(fixture);
+		return fixture.item();
+	}
+
+	private long slotTotal(Map<String, Object> item) {
+		return count("SELECT coalesce(sum(quantity), 0) FROM inventory_slots WHERE inventory_id = " + item.get("id"));
+	}
+
+	private int rowQuantity(Map<String, Object> item) {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE id = ?", Integer.class, item.get("id"));
+	}
+
+	private long count(String sql) {
+		Long count = jdbcTemplate.queryForObject(sql, Long.class);
+		return count != null ? count : 0;
+	}
+}
@@ -0,0 +1,93 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.Inventory;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.service.InventoryService;
+import com.autozone.inventory.service.StockLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class InventoryRecordTests {
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aSaleDuringARecordUpdateIsNotOverwritten() throws Exception {
+		Map<String, Object> item = jdbcTemplate.queryForMap("SELECT id, part_id, store_id FROM inventory " +
+				"WHERE deleted = false AND slot_count = 0 AND reserved_quantity = 0 ORDER BY id DESC LIMIT 1");
+		Long id = (Long) item.get("id");
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		jdbcTemplate.update("UPDATE inventory SET quantity = 10 WHERE id = ?", id);
+		String reference = "RECORD-TEST-" + System.nanoTime();
+
+		CompletableFuture<Void> sale = transactionTemplate.execute(status -> {
+			Inventory update = Inventory.builder().quantity(20).reorderPoint(5).reorderQuantity(10).maxStockLevel(40).build();
+			update.setId(id);
+			inventoryService.createOrUpdateInventory(update);
+
+			// The update holds the row, so the sale waits for it instead of being overwritten by it
+			CompletableFuture<Void> pending = CompletableFuture.runAsync(() -> stockLedgerService.recordMovement(
+					partId, storeId, MovementType.SALE, -1, "Record update test", reference));
+			assertThrows(Exception.class, () -> pending.get(300, TimeUnit.MILLISECONDS));
+			return pending;
+		});
+		sale.get(10, TimeUnit.SECONDS);
+
+		assertEquals(19, jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE id = ?", Integer.class, id));
+		assertEquals(5, jdbcTemplate.queryForObject("SELECT reorder_point FROM inventory WHERE id = ?", Integer.class, id));
+		assertEquals(10, jdbcTemplate.queryForObject("SELECT quantity_delta FROM inventory_movements " +
+				"WHERE part_id = ? AND store_id = ? AND reason = 'Inventory record update' ORDER BY id DESC LIMIT 1",
+				Integer.class, partId, storeId));
+		assertEquals(-1, jdbcTemplate.queryForObject("SELECT quantity_delta FROM inventory_movements WHERE reference = ?",
+				Integer.class, reference));
+	}
+
+	@Test
+	void deletingARowKeepsASaleMadeSinceItWasRead() throws Exception {
+		try (StockFixture fixture = StockFixture.create(jdbcTemplate, 10)) {
+			Map<String, Object> item = fixture.item();
+			Long id = (Long) item.get("id");
+
+			transactionTemplate.executeWithoutResult(status -> {
+				assertEquals(10, inventoryService.getInventoryById(id).orElseThrow().getQuantity());
+				CompletableFuture.runAsync(() -> stockLedgerService.recordMovement((Long) item.get("part_id"),
+						(Long) item.get("store_id"), MovementType.SALE, -1, "Record delete test", null)).join();
+				inventoryService.deleteInventory(id);
+			});
+
+			assertEquals(Map.of("quantity", 9, "deleted", true),
+					jdbcTemplate.queryForMap("SELECT quantity, deleted FROM inventory WHERE id = ?", id));
+		}
+	}
+
+	@Test
+	void updatingAMissingRowIsRejected() {
+		Inventory update = Inventory.builder().quantity(1).build();
+		update.setId(Long.MAX_VALUE);
+		assertThrows(IllegalArgumentException.class, () -> inventoryService.createOrUpdateInventory(update));
+	}
+}
@@ -0,0 +1,103 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.InventoryChange;
+import com.autozone.inventory.dto.InventoryChangeFeed;
+import com.autozone.inventory.service.InventorySyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class InventorySyncTests {
+
+	@Autowired
+	private InventorySyncService inventorySyncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void aWriteThatCommitsLateIsNotSkippedByTheCursor() throws Exception {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, store_id FROM inventory WHERE deleted = false " +
+				"AND store_id = (SELECT min(store_id) FROM inventory WHERE deleted = false) ORDER BY id LIMIT 2");
+		Long storeId = (Long) rows.get(0).get("store_id");
+		Long slowId = (Long) rows.get(0).get("id");
+		Long fastId = (Long) rows.get(1).get("id");
+		String cursor = drain(storeId, null, new HashSet<>());
+
+		try (Connection slow = dataSource.getConnection()) {
+			slow.setAutoCommit(false);
+			try (PreparedStatement update = slow.prepareStatement("UPDATE inventory SET location = 'SYNC-SLOW' WHERE id = ?")) {
+				update.setLong(1, slowId);
+				update.executeUpdate();
+			}
+			// Starts and commits after the slow transaction, and must wait for it
+			jdbcTemplate.update("UPDATE inventory SET location = 'SYNC-FAST' WHERE id = ?", fastId);
+
+			Set<Long> seen = new HashSet<>();
+			cursor = drain(storeId, cursor, seen);
+			assertFalse(seen.contains(fastId));
+			slow.commit();
+		}
+
+		Set<Long> seen = new HashSet<>();
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!(seen.contains(slowId) && seen.contains(fastId)) && System.currentTimeMillis() < deadline) {
+			cursor = drain(storeId, cursor, seen);
+			Thread.sleep(50);
+		}
+		assertTrue(seen.contains(slowId));
+		assertTrue(seen.contains(fastId));
+	}
+
+	@Test
+	void aLongRunningTransactionIsReportedAsWatermarkLag() throws Exception {
+		Long storeId = jdbcTemplate.queryForObject("SELECT min(store_id) FROM inventory", Long.class);
+
+		try (Connection slow = dataSource.getConnection()) {
+			slow.setAutoCommit(false);
+			// Takes a transaction id without touching any row
+			try (PreparedStatement begin = slow.prepareStatement("SELECT pg_current_xact_id()")) {
+				begin.execute();
+			}
+			Thread.sleep(200);
+			assertTrue(inventorySyncService.getChangesSince(storeId, null, 10).getWatermarkLagMillis() >= 200);
+			slow.rollback();
+		}
+	}
+
+	@Test
+	void timestampCursorsMustResync() {
+		Long storeId = jdbcTemplate.queryForObject("SELECT min(store_id) FROM inventory", Long.class);
+		assertTrue(inventorySyncService.getChangesSince(storeId, "1700000000000000.12", 10).isResyncRequired());
+		assertThrows(IllegalArgumentException.class, () -> inventorySyncService.getChangesSince(storeId, "x12", 10));
+	}
+
+	private String drain(Long storeId, String cursor, Set<Long> seen) {
+		InventoryChangeFeed feed;
+		do {
+			feed = inventorySyncService.getChangesSince(storeId, cursor, 5000);
+			assertFalse(feed.isResyncRequired());
+			feed.getChanges().stream().map(InventoryChange::getId).forEach(seen::add);
+			cursor = feed.getNextCursor();
+		} while (feed.isHasMore());
+		return cursor;
+	}
+}
@@ -0,0 +1,65 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.service.InventoryVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class InventoryVersionTests {
+
+	@Autowired
+	private InventoryVersionTracker inventoryVersionTracker;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void everyCommittedChangeMovesTheETag() throws Exception {
+		try (StockFixture fixture = StockFixture.create(jdbcTemplate, 10)) {
+			Map<String, Object> item = fixture.item();
+			Long storeId = (Long) item.get("store_id");
+			String etag = inventoryVersionTracker.etag("inventory", storeId);
+			assertEquals(etag, inventoryVersionTracker.etag("inventory", storeId));
+
+			// Writes that never go through the inventory service
+			jdbcTemplate.update("UPDATE parts SET name = 'Renamed Fixture Part' WHERE id = ?", item.get("part_id"));
+			etag = assertMoved(etag, storeId);
+			jdbcTemplate.update("UPDATE inventory SET reserved_quantity = 2 WHERE id = ?", item.get("id"));
+			etag = assertMoved(etag, storeId);
+
+			// A write that commits after a later one has already been read
+			try (Connection slow = dataSource.getConnection()) {
+				slow.setAutoCommit(false);
+				try (PreparedStatement update = slow.prepareStatement("UPDATE inventory SET location = 'SLOW' WHERE id = ?")) {
+					update.setLong(1, (Long) item.get("id"));
+					update.executeUpdate();
+				}
+				jdbcTemplate.update("UPDATE stores SET name = 'Renamed Fixture Store' WHERE id = ?", storeId);
+				etag = assertMoved(etag, storeId);
+				slow.commit();
+			}
+			assertMoved(etag, storeId);
+		}
+	}
+
+	private String assertMoved(String previous, Long storeId) {
+		String current = inventoryVersionTracker.etag("inventory", storeId);
+		assertNotEquals(previous, current);
+		return current;
+	}
+}
@@ -0,0 +1,179 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.PartImportError;
+import com.autozone.inventory.entity.PartImportJob;
+import com.autozone.inventory.importer.CsvRecordReader;
+import com.autozone.inventory.repository.PartImportJobRepository;
+import com.autozone.inventory.service.PartImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml. Imports
+ * commit every two rows, so each file below spans several batches.
+ */
+@SpringBootTest(properties = "inventory.imports.batch-size=2")
+class PartImportTests {
+
+	@Autowired
+	private PartImportService partImportService;
+
+	@Autowired
+	private PartImportJobRepository jobRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final String tag = "IMPORT-" + Long.toString(System.nanoTime() % 100_000_000L, 36).toUpperCase() + "-";
+	private final List<Long> jobs = new ArrayList<>();
+
+	@AfterEach
+	void removeImports() {
+		for (Long id : jobs) {
+			jdbcTemplate.update("DELETE FROM part_import_errors WHERE job_id = ?", id);
+			jdbcTemplate.update("DELETE FROM part_import_jobs WHERE id = ?", id);
+		}
+		jdbcTemplate.update("DELETE FROM parts WHERE sku LIKE ?", tag + "%");
+	}
+
+	@Test
+	void quotedFieldsMaySpanLinesAndRecordsReportTheirOffsets() throws IOException {
+		byte[] csv = ("\uFEFFsku,name\r\n" +
+				"A,\"Fits most\r\nsedans, \"\"heavy duty\"\"\"\r\n" +
+				"\r\n" +
+				"B,Plain\n").getBytes(StandardCharsets.UTF_8);
+
+		long afterFirst;
+		try (CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(csv))) {
+			assertEquals(List.of("sku", "name"), reader.readRecord());
+			assertEquals(List.of("A", "Fits most\nsedans, \"heavy duty\""), reader.readRecord());
+			assertEquals(2, reader.getRecordLine());
+			afterFirst = reader.getPosition();
+			assertEquals(3, reader.getLineNumber());
+
+			// The blank line is skipped
+			assertEquals(List.of("B", "Plain"), reader.readRecord());
+			assertEquals(5, reader.getRecordLine());
+			assertEquals(csv.length, reader.getPosition());
+			assertNull(reader.readRecord());
+		}
+
+		try (CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(csv))) {
+			reader.readRecord();
+			reader.skipTo(afterFirst, 3);
+			assertEquals(List.of("B", "Plain"), reader.readRecord());
+			assertEquals(5, reader.getRecordLine());
+		}
+
+		try (CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream("A,\"open\nstill open".getBytes(StandardCharsets.UTF_8)))) {
+			assertThrows(IOException.class, reader::readRecord);
+		}
+	}
+
+	@Test
+	void importsUpsertBySkuAndOnlyRewriteChangedParts() throws Exception {
+		PartImportJob first = await(partImportService.submit("parts.csv", csv("129.99"), "test"));
+		assertEquals(PartImportJob.Status.COMPLETED, first.getStatus());
+		assertEquals(3, first.getRowsWritten());
+		assertEquals(0, first.getRowsUnchanged());
+		assertEquals(1, first.getRowsRejected());
+
+		List<PartImportError> errors = partImportService.getErrors(first.getId(), 0, 10);
+		assertEquals(1, errors.size());
+		assertEquals(5, errors.get(0).getLineNumber());
+		assertEquals(tag + "3", errors.get(0).getSku());
+
+		assertEquals("Fits most\nsedans", part(tag + "1").get("description"));
+		assertEquals("Battery \"Gold\"", part(tag + "2").get("name"));
+		assertEquals(0, new BigDecimal("20.00").compareTo((BigDecimal) part(tag + "4").get("cost")));
+		assertEquals(7, part(tag + "4").get("supplier_lead_time_days"));
+
+		PartImportJob second = await(partImportService.submit("parts.csv", csv("119.99"), "test"));
+		assertEquals(1, second.getRowsWritten());
+		assertEquals(2, second.getRowsUnchanged());
+		assertEquals(1, second.getRowsRejected());
+		assertEquals(0, new BigDecimal("119.99").compareTo((BigDecimal) part(tag + "2").get("price")));
+	}
+
+	@Test
+	void aResumedImportStartsFromItsCheckpoint() throws Exception {
+		byte[] csv = csv("129.99").readAllBytes();
+		long offset;
+		long lines;
+		try (CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(csv))) {
+			for (int i = 0; i < 3; i++) {
+				reader.readRecord();
+			}
+			offset = reader.getPosition();
+			lines = reader.getLineNumber();
+		}
+		Path file = Files.createTempFile("part-import", ".csv");
+		Files.write(file, csv);
+
+		// As a failed run leaves it: the header and the first two rows committed
+		PartImportJob job = jobRepository.save(PartImportJob.builder()
+				.fileName("parts.csv")
+				.storedPath(file.toString())
+				.fileBytes((long) csv.length)
+				.status(PartImportJob.Status.FAILED)
+				.bytesProcessed(offset)
+				.linesProcessed(lines)
+				.build());
+		jobs.add(job.getId());
+
+		PartImportJob resumed = await(partImportService.resume(job.getId()).orElseThrow());
+		assertEquals(PartImportJob.Status.COMPLETED, resumed.getStatus());
+		assertEquals(1, resumed.getRowsWritten());
+		assertEquals(1, resumed.getRowsRejected());
+		assertEquals(5, partImportService.getErrors(job.getId(), 0, 10).get(0).getLineNumber());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM parts WHERE sku IN (?, ?)",
+				Integer.class, tag + "1", tag + "2"));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM parts WHERE sku = ?", Integer.class, tag + "4"));
+		assertFalse(Files.exists(file));
+
+		assertThrows(IllegalStateException.class, () -> partImportService.resume(job.getId()));
+	}
+
+	// The first row spans lines 2-3; the third, on line 5, has an unknown category
+	private ByteArrayInputStream csv(String batteryPrice) {
+		String text = "sku,name,description,category,cost,price\n" +
+				tag + "1,Oil Filter,\"Fits most\nsedans\",FILTERS,4.50,9.99\n" +
+				tag + "2,\"Battery \"\"Gold\"\"\",,BATTERIES,80," + batteryPrice + "\n" +
+				tag + "3,Bad Row,,NOT_A_CATEGORY,1,2\n" +
+				tag + "4,Brake Pad,,BRAKES,$20.00,45\n";
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Map<String, Object> part(String sku) {
+		return jdbcTemplate.queryForMap("SELECT * FROM parts WHERE sku = ?", sku);
+	}
+
+	private PartImportJob await(PartImportJob job) throws InterruptedException {
+		jobs.add(job.getId());
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			PartImportJob current = partImportService.getJob(job.getId()).orElseThrow();
+			if (current.getStatus() == PartImportJob.Status.COMPLETED || current.getStatus() == PartImportJob.Status.FAILED) {
+				return current;
+			}
+			Thread.sleep(50);
+		}
+		fail("Import " + job.getId() + " did not finish");
+		return null;
+	}
+}
@@ -0,0 +1,59 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.PurchaseOrder;
+import com.autozone.inventory.service.PurchaseOrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class PurchaseOrderTests {
+
+	@Autowired
+	private PurchaseOrderService purchaseOrderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void receiveBooksNothingWhenALineIsNoLongerStocked() {
+		Map<String, Object> item = jdbcTemplate.queryForMap("SELECT id, part_id, store_id FROM inventory " +
+				"WHERE deleted = false AND slot_count = 0 ORDER BY id LIMIT 1");
+		Long storeId = (Long) item.get("store_id");
+		jdbcTemplate.update("UPDATE inventory SET quantity = 10 WHERE id = ?", item.get("id"));
+		Long unstockedPartId = jdbcTemplate.queryForObject("SELECT p.id FROM parts p WHERE NOT EXISTS " +
+				"(SELECT 1 FROM inventory i WHERE i.part_id = p.id AND i.store_id = ? AND i.deleted = false) " +
+				"ORDER BY p.id LIMIT 1", Long.class, storeId);
+
+		String poNumber = "PO-TEST-" + System.nanoTime();
+		Long orderId = jdbcTemplate.queryForObject("INSERT INTO purchase_orders (po_number, supplier_name, store_id, " +
+				"status, consolidated, run_id, total_units, total_cost, created_at, updated_at, deleted) " +
+				"VALUES (?, 'Test Supplier', ?, 'APPROVED', false, 'test', 8, 8, now(), now(), false) RETURNING id",
+				Long.class, poNumber, storeId);
+		// The stocked line comes first, so its receipt has to be rolled back
+		addLine(orderId, (Long) item.get("part_id"), storeId, 5);
+		addLine(orderId, unstockedPartId, storeId, 3);
+
+		assertThrows(IllegalStateException.class, () -> purchaseOrderService.receive(orderId));
+
+		assertEquals(10, jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE id = ?", Integer.class, item.get("id")));
+		assertEquals(PurchaseOrder.Status.APPROVED.name(),
+				jdbcTemplate.queryForObject("SELECT status FROM purchase_orders WHERE id = ?", String.class, orderId));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_movements WHERE reference = ?",
+				Integer.class, poNumber));
+	}
+
+	private void addLine(Long orderId, Long partId, Long storeId, int quantity) {
+		jdbcTemplate.update("INSERT INTO purchase_order_lines (purchase_order_id, part_id, store_id, quantity, unit_cost, " +
+				"line_cost, created_at, updated_at, deleted) VALUES (?, ?, ?, ?, 1, ?, now(), now(), false)",
+				orderId, partId, storeId, quantity, quantity);
+	}
+}
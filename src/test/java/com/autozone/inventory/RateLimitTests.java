@@ -0,0 +1,132 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.ratelimit.AdaptiveConcurrencyLimiter;
+import com.autozone.inventory.ratelimit.PriorityClass;
+import com.autozone.inventory.ratelimit.RateLimitFilter;
+import com.autozone.inventory.ratelimit.TokenBucketRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml. Standard
+ * requests get a two-request store bucket that does not refill within a test.
+ */
+@SpringBootTest(properties = {
+		"inventory.limits.classes.standard.store-rate=0.001",
+		"inventory.limits.classes.standard.store-burst=2"
+})
+class RateLimitTests {
+
+	@Autowired
+	private RateLimitFilter rateLimitFilter;
+
+	@Test
+	void onlyAStoreInTheUrlIsChargedToThatStore() throws Exception {
+		// Different callers, so only the store bucket can run out
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, status("/api/parts", "10.0.0." + i, "901"));
+		}
+		assertEquals(200, status("/api/stores/902", "10.0.1.1", null));
+		assertEquals(200, status("/api/stores/902", "10.0.1.2", null));
+		assertEquals(429, status("/api/stores/902", "10.0.1.3", null));
+		// Naming another store in the header neither spends nor escapes that store's bucket
+		assertEquals(429, status("/api/stores/902", "10.0.1.4", "903"));
+	}
+
+	@Test
+	void bucketsRefillAtTheirRateUpToTheirBurst() {
+		TokenBucketRegistry<String> registry = new TokenBucketRegistry<>();
+		long ms = 1_000_000L;
+
+		// 10 per second with a burst of 2
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, 0));
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, 0));
+		assertEquals(100 * ms, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, 0));
+		assertEquals(50 * ms, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, 50 * ms));
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, 101 * ms));
+		// Other keys and classes have their own buckets; a zero rate is unlimited
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "b", 10, 2, 100 * ms));
+		assertEquals(0, registry.tryAcquire(PriorityClass.POS_WRITE, "a", 10, 2, 100 * ms));
+		assertEquals(0, registry.tryAcquire(PriorityClass.EXPORT, "a", 0, 0, 100 * ms));
+
+		// A long idle refills no more than the burst
+		long later = 10_000 * ms;
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, later));
+		assertEquals(0, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, later));
+		assertEquals(100 * ms, registry.tryAcquire(PriorityClass.STANDARD, "a", 10, 2, later));
+
+		// Only buckets idle long enough to be full again are evicted
+		registry.evictFull(later + 100 * ms);
+		assertEquals(1, registry.size());
+		registry.evictFull(later + 300 * ms);
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	void theConcurrencyLimitGrowsWhileLatencyHoldsAndHalvesWhenItRises() {
+		long ms = 1_000_000L;
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 12, 2.0, 0, 0.5, 10_000 * ms, 0);
+
+		// Busy and fast: about one more per limit's worth of samples, up to the maximum
+		long now = 0;
+		for (int i = 0; i < 11; i++) {
+			limiter.onSample(ms, 10, now += ms);
+		}
+		assertEquals(11, limiter.getLimit());
+		for (int i = 0; i < 100; i++) {
+			limiter.onSample(ms, 12, now += ms);
+		}
+		assertEquals(12, limiter.getLimit());
+
+		// Fast but mostly idle: a limit nobody uses is not raised
+		AdaptiveConcurrencyLimiter idle = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 0, 0.5, 10_000 * ms, 0);
+		for (int i = 0; i < 100; i++) {
+			idle.onSample(ms, 1, i * ms);
+		}
+		assertEquals(10, idle.getLimit());
+
+		// Slow: cut by the backoff ratio, at most once per round trip, down to the minimum
+		limiter.onSample(10 * ms, 12, now += ms);
+		limiter.onSample(10 * ms, 12, now += ms);
+		assertTrue(limiter.getSmoothedRttNanos() > 2 * limiter.getBaselineRttNanos());
+		assertEquals(6, limiter.getLimit());
+		limiter.onSample(10 * ms, 12, now += ms);
+		assertEquals(6, limiter.getLimit());
+		limiter.onSample(10 * ms, 12, now += 10 * ms);
+		assertEquals(3, limiter.getLimit());
+		limiter.onSample(10 * ms, 12, now += 10 * ms);
+		limiter.onSample(10 * ms, 12, now += 10 * ms);
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void aClassIsAdmittedOnlyWithinItsShareOfTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 0, 0.5, 1_000_000_000L, 0);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire(0.5));
+		}
+		assertFalse(limiter.tryAcquire(0.5));
+		assertTrue(limiter.tryAcquire(1.0));
+		assertEquals(6, limiter.getInFlight());
+		limiter.release();
+		limiter.release();
+		assertTrue(limiter.tryAcquire(0.5));
+	}
+
+	private int status(String path, String address, String storeHeader) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setRemoteAddr(address);
+		if (storeHeader != null) {
+			request.addHeader(RateLimitFilter.STORE_HEADER, storeHeader);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		rateLimitFilter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,56 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.service.ReorderAlertService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class ReorderAlertTests {
+
+	@Autowired
+	private ReorderAlertService reorderAlertService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void eventsOlderThanTheCommittedRowDoNotFlipTheAlert() {
+		Map<String, Object> item = jdbcTemplate.queryForMap("SELECT id, part_id, store_id FROM inventory " +
+				"WHERE deleted = false AND slot_count = 0 ORDER BY id DESC LIMIT 1");
+		Long id = (Long) item.get("id");
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+
+		jdbcTemplate.update("UPDATE inventory SET quantity = 50, reorder_point = 10 WHERE id = ?", id);
+		reorderAlertService.onInventoryChanged(new InventoryChangedEvent(id, partId, storeId, 5, 50, 10, false));
+		long raised = stat("raised");
+		long cleared = stat("cleared");
+
+		// A sale that went below the point, delivered after the restock that followed it
+		reorderAlertService.onInventoryChanged(new InventoryChangedEvent(id, partId, storeId, 12, 5, 10, false));
+		assertEquals(raised, stat("raised"));
+
+		jdbcTemplate.update("UPDATE inventory SET quantity = 5 WHERE id = ?", id);
+		reorderAlertService.onInventoryChanged(new InventoryChangedEvent(id, partId, storeId, 50, 5, 10, false));
+		assertEquals(raised + 1, stat("raised"));
+
+		// The restock before that sale, delivered last
+		reorderAlertService.onInventoryChanged(new InventoryChangedEvent(id, partId, storeId, 5, 50, 10, false));
+		assertEquals(cleared, stat("cleared"));
+		assertEquals(raised + 1, stat("raised"));
+	}
+
+	private long stat(String name) {
+		return ((Number) reorderAlertService.getStats().get(name)).longValue();
+	}
+}
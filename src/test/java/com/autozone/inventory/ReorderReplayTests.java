@@ -0,0 +1,90 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.dto.ReorderReplayRequest;
+import com.autozone.inventory.dto.ReorderReplayResult;
+import com.autozone.inventory.forecast.ReorderReplay;
+import com.autozone.inventory.forecast.ReorderReplay.Metric;
+import com.autozone.inventory.service.ReorderPolicy;
+import com.autozone.inventory.service.ReorderReplayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class ReorderReplayTests {
+
+	@Autowired
+	private ReorderReplayService reorderReplayService;
+
+	@Test
+	void leanerPolicyRunsOutWhereTheCurrentOneDoesNot() {
+		LocalDate from = LocalDate.of(2026, 1, 1);
+		int days = 200;
+		SalesColumnStore.Builder builder = SalesColumnStore.builder();
+		for (int day = 0; day < days; day++) {
+			builder.append(1L, 1L, from.plusDays(day), 2, 2_000);
+		}
+		SalesColumnStore sales = builder.build();
+		ReorderReplay.Items items = new ReorderReplay.Items(sales.getSeriesCount(), 1, 1);
+		items.set(0, 0, 0, 7, 100);
+
+		// Reorders only once the shelf is empty, so every lead time is spent out of stock
+		ReorderPolicy lean = new ReorderPolicy(0.5, 0.3, 0.2, 0, 0.01, 0, 30, 0);
+		ReorderReplay.Totals totals = new ReorderReplay(List.of(ReorderPolicy.CURRENT, lean), 7).run(sales, items, from, days);
+
+		assertEquals(1, totals.getItemCount());
+		long replayedDays = days - ReorderReplay.WARM_UP_DAYS;
+		for (int policy = 0; policy < 2; policy++) {
+			assertEquals(replayedDays, totals.get(policy, 0, 0, Metric.ITEM_DAYS));
+			assertEquals(2 * replayedDays, totals.get(policy, 0, 0, Metric.DEMAND));
+			assertTrue(totals.get(policy, 0, 0, Metric.ORDERS) > 0);
+		}
+		assertEquals(0, totals.get(0, 0, 0, Metric.STOCKOUT_DAYS));
+		assertEquals(0, totals.get(0, 0, 0, Metric.LOST_SALES));
+		assertTrue(totals.get(1, 0, 0, Metric.STOCKOUT_DAYS) > 0);
+		assertTrue(totals.get(1, 0, 0, Metric.LOST_SALES) > 0);
+		assertTrue(totals.get(1, 0, 0, Metric.STOCK_UNIT_DAYS) < totals.get(0, 0, 0, Metric.STOCK_UNIT_DAYS));
+	}
+
+	@Test
+	void replaysStockedItemsAgainstTheCurrentPolicy() {
+		ReorderReplayRequest.Variant moreSafetyStock = new ReorderReplayRequest.Variant();
+		moreSafetyStock.setName("two-weeks-safety-stock");
+		moreSafetyStock.setSafetyStockDays(14);
+		ReorderReplayRequest request = new ReorderReplayRequest();
+		request.setHistoryDays(180);
+		request.setVariants(List.of(moreSafetyStock));
+
+		ReorderReplayResult result = reorderReplayService.replay(request);
+		assertTrue(result.getItemsReplayed() > 0);
+		assertEquals(List.of("current", "two-weeks-safety-stock"),
+				result.getPolicies().stream().map(ReorderReplayResult.PolicyOutcome::getName).toList());
+		ReorderReplayResult.Outcome current = result.getPolicies().get(0).getTotal();
+		ReorderReplayResult.Outcome safer = result.getPolicies().get(1).getTotal();
+		assertEquals(current.getDemand(), safer.getDemand());
+		assertTrue(safer.getStockoutDays() <= current.getStockoutDays());
+		assertTrue(safer.getAverageStock() >= current.getAverageStock());
+		assertEquals((long) result.getItemsReplayed(), result.getPolicies().get(0).getByStoreAndCategory().stream()
+				.mapToLong(ReorderReplayResult.Outcome::getItems).sum());
+
+		ReorderReplayRequest.Variant noWeights = new ReorderReplayRequest.Variant();
+		noWeights.setName("no-weights");
+		noWeights.setWeight30(0.0);
+		noWeights.setWeight60(0.0);
+		noWeights.setWeight90(0.0);
+		request.setVariants(List.of(noWeights));
+		assertThrows(IllegalArgumentException.class, () -> reorderReplayService.replay(request));
+		request.setVariants(List.of());
+		request.setHistoryDays(60);
+		assertThrows(IllegalArgumentException.class, () -> reorderReplayService.replay(request));
+	}
+}
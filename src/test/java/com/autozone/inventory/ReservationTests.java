@@ -0,0 +1,154 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.ReservationView;
+import com.autozone.inventory.dto.StockLevel;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.entity.StockReservation.Status;
+import com.autozone.inventory.event.InventoryChangedEvent;
+import com.autozone.inventory.reservation.TimingWheel;
+import com.autozone.inventory.service.ReservationService;
+import com.autozone.inventory.service.StockLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+@RecordApplicationEvents
+class ReservationTests {
+
+	@Autowired
+	private ReservationService reservationService;
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	private final List<StockFixture> fixtures = new ArrayList<>();
+
+	@AfterEach
+	void removeFixtures() {
+		fixtures.forEach(StockFixture::close);
+		fixtures.clear();
+	}
+
+	@Test
+	void timingWheelFiresEachDeadlineOnItsTick() {
+		// 4 buckets over 3 levels span 64 ticks, so later deadlines also exercise the top-level parking
+		TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 3, 0);
+		SplittableRandom random = new SplittableRandom(42);
+		Map<Integer, Long> deadlines = new HashMap<>();
+		List<TimingWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			long deadline = random.nextLong(0, 20_000);
+			deadlines.put(i, deadline);
+			timeouts.add(wheel.schedule(i, deadline));
+		}
+		for (int i = 0; i < 5000; i += 7) {
+			assertTrue(wheel.cancel(timeouts.get(i)));
+			deadlines.remove(i);
+		}
+		for (int i = 3; i < 5000; i += 7) {
+			long deadline = random.nextLong(0, 20_000);
+			assertTrue(wheel.reschedule(timeouts.get(i), deadline));
+			deadlines.put(i, deadline);
+		}
+
+		int fired = 0;
+		for (long now = 0; now <= 20_100; now += random.nextInt(1, 40)) {
+			for (Integer item : wheel.advance(now)) {
+				long deadline = deadlines.get(item);
+				assertTrue(deadline <= now && now - deadline < 50, "item due at " + deadline + " fired at " + now);
+				fired++;
+			}
+		}
+		assertEquals(deadlines.size(), fired);
+		assertEquals(0, wheel.size());
+		assertFalse(wheel.cancel(timeouts.get(1)));
+	}
+
+	@Test
+	void holdsReduceAvailabilityUntilPickedUp() {
+		Map<String, Object> item = stockedItem(10);
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		String order = "BOPIS-" + System.nanoTime();
+
+		ReservationView view = reservationService.reserve(storeId, order, Duration.ofMinutes(5), Map.of(partId, 7)).orElseThrow();
+		assertEquals(Status.ACTIVE, view.getStatus());
+		assertEquals(3, reservationService.getAvailability(partId, storeId).orElseThrow().getAvailable());
+
+		// Neither a counter sale nor a second order can take held units
+		assertThrows(IllegalStateException.class,
+				() -> stockLedgerService.recordMovement(partId, storeId, MovementType.SALE, -4, "reservation test", order));
+		assertThrows(IllegalStateException.class,
+				() -> reservationService.reserve(storeId, order + "-2", null, Map.of(partId, 4)));
+		// A retried request returns the same hold, a different one for the order is refused
+		assertEquals(view.getExpiresAt(), reservationService.reserve(storeId, order, Duration.ofMinutes(5), Map.of(partId, 7))
+				.orElseThrow().getExpiresAt());
+		assertThrows(IllegalStateException.class, () -> reservationService.reserve(storeId, order, null, Map.of(partId, 6)));
+		assertTrue(reservationService.reserve(storeId, order + "-3", null, Map.of(-1L, 1)).isEmpty());
+
+		List<StockLevel> levels = reservationService.fulfill(storeId, order).orElseThrow();
+		assertEquals(3, levels.get(0).getQuantity());
+		assertEquals(0, reservationService.getAvailability(partId, storeId).orElseThrow().getReserved());
+		assertEquals(Status.FULFILLED, reservationService.getReservation(storeId, order).orElseThrow().getStatus());
+		assertTrue(reservationService.fulfill(storeId, order).isEmpty());
+	}
+
+	@Test
+	void expiredHoldsGiveStockBack() throws InterruptedException {
+		Map<String, Object> item = stockedItem(5);
+		Long partId = (Long) item.get("part_id");
+		Long storeId = (Long) item.get("store_id");
+		String expiring = "BOPIS-" + System.nanoTime();
+		String extended = expiring + "-X";
+
+		reservationService.reserve(storeId, expiring, Duration.ofSeconds(1), Map.of(partId, 2));
+		reservationService.reserve(storeId, extended, Duration.ofSeconds(1), Map.of(partId, 3));
+		assertTrue(reservationService.extend(storeId, extended, Duration.ofMinutes(5)).isPresent());
+		assertEquals(0, reservationService.getAvailability(partId, storeId).orElseThrow().getAvailable());
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (reservationService.getReservation(storeId, expiring).orElseThrow().getStatus() == Status.ACTIVE
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(100);
+		}
+		assertEquals(Status.EXPIRED, reservationService.getReservation(storeId, expiring).orElseThrow().getStatus());
+		assertEquals(Status.ACTIVE, reservationService.getReservation(storeId, extended).orElseThrow().getStatus());
+		assertEquals(2, reservationService.getAvailability(partId, storeId).orElseThrow().getAvailable());
+
+		assertTrue(reservationService.release(storeId, extended));
+		assertFalse(reservationService.release(storeId, extended));
+		assertEquals(5, reservationService.getAvailability(partId, storeId).orElseThrow().getAvailable());
+		// Two holds and a release on this thread; the expiry announces itself on the ticker's
+		assertEquals(3, events.stream(InventoryChangedEvent.class).filter(event -> partId.equals(event.getPartId())).count());
+	}
+
+	// A fresh item per test, in a store and part of its own
+	private Map<String, Object> stockedItem(int quantity) {
+		StockFixture fixture = StockFixture.create(jdbcTemplate, quantity);
+		fixtures.add(fixture);
+		return fixture.item();
+	}
+}
@@ -0,0 +1,188 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.Inventory;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares JSON, CBOR and Smile for inventory lists, using the mappers the application
+ * actually serves responses with. The default suite only checks that the binary formats
+ * are smaller and decode to the same list; the timed run over a hub-sized list is tagged
+ * "benchmark" and only runs with {@code mvn test -Pbenchmark}, logging sizes and CPU time.
+ */
+@SpringBootTest
+class ResponseEncodingBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ResponseEncodingBenchmarkTests.class);
+
+	private static final int HUB_ROWS = 5000;
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private HttpMessageConverters converters;
+
+	@Autowired
+	private PartRepository partRepository;
+
+	@Autowired
+	private StoreRepository storeRepository;
+
+	@Test
+	void jsonStaysTheDefaultEncoding() {
+		List<HttpMessageConverter<?>> list = converters.getConverters();
+		int json = indexOf(list, MappingJackson2HttpMessageConverter.class);
+		assertTrue(json >= 0);
+		assertTrue(json < indexOf(list, MappingJackson2CborHttpMessageConverter.class));
+		assertTrue(json < indexOf(list, MappingJackson2SmileHttpMessageConverter.class));
+	}
+
+	@Test
+	void binaryEncodingsAreSmallerThanJson() throws IOException {
+		assertSmallerAndEquivalent(compare(inventory(200), 0, 1));
+	}
+
+	@Test
+	@Tag("benchmark")
+	void hubSizedListEncodingCost() throws IOException {
+		List<Result> results = compare(inventory(HUB_ROWS), WARMUP, ITERATIONS);
+		StringBuilder table = new StringBuilder(String.format("%d inventory rows%n%-6s %10s %10s %14s",
+				HUB_ROWS, "format", "bytes", "gzipped", "cpu us/list"));
+		for (Result result : results) {
+			table.append(String.format("%n%-6s %10d %10d %14.1f", result.format, result.bytes, result.gzippedBytes, result.cpuMicros));
+		}
+		log.info("Response encodings:\n{}", table);
+		assertSmallerAndEquivalent(results);
+	}
+
+	// JSON first, then CBOR and Smile
+	private List<Result> compare(List<Inventory> inventory, int warmup, int iterations) throws IOException {
+		return List.of(
+				measure("JSON", mapper(MappingJackson2HttpMessageConverter.class), inventory, warmup, iterations),
+				measure("CBOR", mapper(MappingJackson2CborHttpMessageConverter.class), inventory, warmup, iterations),
+				measure("Smile", mapper(MappingJackson2SmileHttpMessageConverter.class), inventory, warmup, iterations));
+	}
+
+	private static void assertSmallerAndEquivalent(List<Result> results) {
+		Result json = results.get(0);
+		for (Result binary : results.subList(1, results.size())) {
+			assertTrue(binary.bytes < json.bytes, binary.format + " is not smaller than JSON");
+			assertTrue(json.tree.equals(ResponseEncodingBenchmarkTests::compareValues, binary.tree),
+					binary.format + " does not decode to the same list");
+		}
+	}
+
+	private List<Inventory> inventory(int size) {
+		List<Part> parts = partRepository.findAll();
+		Store store = storeRepository.findAll().get(0);
+		assertFalse(parts.isEmpty());
+
+		List<Inventory> rows = new ArrayList<>(size);
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < size; i++) {
+			Inventory row = Inventory.builder()
+					.part(parts.get(i % parts.size()))
+					.store(store)
+					.quantity(i % 137)
+					.reorderPoint(10 + i % 20)
+					.reorderQuantity(50)
+					.maxStockLevel(200)
+					.location("A" + (i % 40) + "-B" + (i % 12))
+					.build();
+			row.setId((long) i + 1);
+			row.setCreatedAt(now.minusDays(i % 365));
+			row.setUpdatedAt(now);
+			row.setDeleted(false);
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private ObjectMapper mapper(Class<?> converterType) {
+		return converters.getConverters().stream()
+				.filter(converterType::isInstance)
+				.map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper())
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static Result measure(String format, ObjectMapper mapper, List<Inventory> inventory,
+								  int warmup, int iterations) throws IOException {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		byte[] body = null;
+		for (int i = 0; i < warmup; i++) {
+			body = mapper.writeValueAsBytes(inventory);
+		}
+		long start = threads.getCurrentThreadCpuTime();
+		for (int i = 0; i < iterations; i++) {
+			body = mapper.writeValueAsBytes(inventory);
+		}
+		double cpuMicros = (threads.getCurrentThreadCpuTime() - start) / 1000.0 / iterations;
+
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+			gzip.write(body);
+		}
+		return new Result(format, body.length, gzipped.size(), cpuMicros, mapper.readTree(body));
+	}
+
+	// Binary formats keep BigDecimal prices as decimals where JSON text reads back as doubles
+	private static int compareValues(JsonNode a, JsonNode b) {
+		if (a.isNumber() && b.isNumber()) {
+			return a.decimalValue().compareTo(b.decimalValue());
+		}
+		return a.equals(b) ? 0 : 1;
+	}
+
+	private static int indexOf(List<HttpMessageConverter<?>> list, Class<?> type) {
+		for (int i = 0; i < list.size(); i++) {
+			if (type.isInstance(list.get(i))) {
+				return i;
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private static final class Result {
+		private final String format;
+		private final int bytes;
+		private final int gzippedBytes;
+		private final double cpuMicros;
+		private final JsonNode tree;
+
+		private Result(String format, int bytes, int gzippedBytes, double cpuMicros, JsonNode tree) {
+			this.format = format;
+			this.bytes = bytes;
+			this.gzippedBytes = gzippedBytes;
+			this.cpuMicros = cpuMicros;
+			this.tree = tree;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.SafetyStockRunResult;
+import com.autozone.inventory.dto.SafetyStockView;
+import com.autozone.inventory.forecast.StockoutSimulator;
+import com.autozone.inventory.service.SafetyStockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class SafetyStockTests {
+
+	@Autowired
+	private SafetyStockService safetyStockService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void steadyDemandNeedsNoSafetyStock() {
+		int[] demand = new int[364];
+		Arrays.fill(demand, 2);
+		StockoutSimulator.Result result = new StockoutSimulator(2000, 7, 0, 0.95)
+				.simulate(demand, 5, 1, 20, 12, 14, new SplittableRandom(1));
+		assertEquals(10.0, result.getMeanLeadTimeDemand());
+		assertEquals(10, result.getReorderPoint());
+		assertEquals(0, result.getSafetyStock());
+		assertEquals(0.0, result.getStockoutProbability());
+	}
+
+	@Test
+	void cheapItemsGetMoreCoverThanExpensiveOnes() {
+		// Mostly quiet days with occasional bulk purchases
+		SplittableRandom history = new SplittableRandom(7);
+		int[] demand = new int[364];
+		for (int day = 0; day < demand.length; day++) {
+			demand[day] = history.nextInt(10) == 0 ? history.nextInt(5, 20) : history.nextInt(3);
+		}
+		StockoutSimulator simulator = new StockoutSimulator(10_000, 7, 0.3, 0.9);
+		StockoutSimulator.Result filter = simulator.simulate(demand, 7, 0.75, 4, 12, 20, new SplittableRandom(3));
+		StockoutSimulator.Result battery = simulator.simulate(demand, 7, 50, 40, 12, 20, new SplittableRandom(3));
+
+		assertTrue(filter.getSafetyStock() > battery.getSafetyStock(),
+				filter.getSafetyStock() + " vs " + battery.getSafetyStock());
+		assertTrue(filter.getStockoutProbability() < battery.getStockoutProbability());
+		assertTrue(battery.getStockoutProbability() <= 0.1);
+		// Same stream, same answer
+		assertEquals(filter.getSafetyStock(),
+				simulator.simulate(demand, 7, 0.75, 4, 12, 20, new SplittableRandom(3)).getSafetyStock());
+	}
+
+	@Test
+	void chainWideRunStoresARecommendationPerSeries() {
+		SafetyStockRunResult run = safetyStockService.simulateAll();
+		Long series = jdbcTemplate.queryForObject("SELECT count(DISTINCT (part_id, store_id)) FROM sales " +
+				"WHERE sale_date >= current_date - 364 AND sale_date < current_date", Long.class);
+		assertEquals(series, run.getSeriesSimulated());
+
+		Map<String, Object> item = jdbcTemplate.queryForMap("SELECT part_id, store_id FROM safety_stock_recommendations " +
+				"ORDER BY id LIMIT 1");
+		SafetyStockView view = safetyStockService.getRecommendation((Long) item.get("part_id"), (Long) item.get("store_id"))
+				.orElseThrow();
+		assertTrue(view.getStockoutProbability() <= 0.1);
+		assertTrue(view.getSafetyStock() >= 0);
+	}
+}
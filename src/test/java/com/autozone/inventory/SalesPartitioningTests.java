@@ -0,0 +1,100 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.SalesPartitionView;
+import com.autozone.inventory.entity.Sale;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.SaleRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.service.SalesPartitionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class SalesPartitioningTests {
+
+	@Autowired
+	private SalesPartitionService partitionService;
+
+	@Autowired
+	private SaleRepository saleRepository;
+
+	@Autowired
+	private PartRepository partRepository;
+
+	@Autowired
+	private StoreRepository storeRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void salesTableIsPartitionedAheadOfTime() {
+		assertTrue(partitionService.isPartitioned());
+
+		List<String> names = partitionService.getPartitions().stream().map(SalesPartitionView::getName).toList();
+		LocalDate month = LocalDate.now().withDayOfMonth(1);
+		for (int i = 0; i <= 3; i++) {
+			assertTrue(names.contains(partitionName(month.plusMonths(i))), "missing partition for " + month.plusMonths(i));
+		}
+		assertTrue(names.contains("sales_default"));
+	}
+
+	@Test
+	void dateWindowQueryScansOnlyMatchingPartition() {
+		LocalDate month = LocalDate.now().withDayOfMonth(1);
+
+		SalesPartitionService.PlanCheck check = partitionService.explainDateWindow(
+				month.plusDays(2).atStartOfDay(), month.plusDays(9).atStartOfDay());
+
+		assertEquals(List.of(partitionName(month)), check.getScannedPartitions(), String.join("\n", check.getPlan()));
+	}
+
+	@Test
+	void saleOutsidePartitionsMovesIntoNewPartitionAndPartitionDrops() {
+		LocalDate month = LocalDate.of(2199, 1, 1);
+		partitionService.dropArchivedPartition(month, Long.MAX_VALUE);
+
+		Sale sale = saleRepository.save(Sale.builder()
+				.part(partRepository.findAll().get(0))
+				.store(storeRepository.findAll().get(0))
+				.quantitySold(1)
+				.unitPrice(BigDecimal.ONE)
+				.totalPrice(BigDecimal.ONE)
+				.saleDate(month.plusDays(14).atStartOfDay())
+				.build());
+		assertNotNull(sale.getId());
+		assertEquals(1, count("sales_default", sale.getId()));
+
+		assertTrue(partitionService.createPartition(month));
+		assertEquals(0, count("sales_default", sale.getId()));
+		assertEquals(1, count(partitionName(month), sale.getId()));
+
+		assertFalse(partitionService.dropArchivedPartition(month, sale.getId() - 1));
+		assertTrue(partitionService.dropArchivedPartition(month, sale.getId()));
+		assertEquals(0, count("sales", sale.getId()));
+
+		// The sale also landed in the revenue cube, which outlives dropped partitions
+		jdbcTemplate.update("DELETE FROM revenue_cube WHERE sale_day >= ?", month);
+	}
+
+	private int count(String table, long id) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+	}
+
+	private static String partitionName(LocalDate month) {
+		return "sales_" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+	}
+
+}
@@ -0,0 +1,384 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.columnar.SalesColumnStore;
+import com.autozone.inventory.controller.SaleController;
+import com.autozone.inventory.dto.InventorySummary;
+import com.autozone.inventory.dto.PurchaseOrderRunResult;
+import com.autozone.inventory.dto.SalesAggregateRow;
+import com.autozone.inventory.entity.Inventory;
+import com.autozone.inventory.entity.InventoryMovement.MovementType;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.PurchaseOrder;
+import com.autozone.inventory.entity.PurchaseOrderLine;
+import com.autozone.inventory.entity.Sale;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.repository.InventoryRepository;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.SaleRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.service.InventoryService;
+import com.autozone.inventory.service.PurchaseOrderService;
+import com.autozone.inventory.service.SalesColumnStoreService;
+import com.autozone.inventory.service.StockLedgerService;
+import com.autozone.inventory.shard.ShardContext;
+import com.autozone.inventory.shard.ShardReferenceReplicator;
+import com.autozone.inventory.shard.ShardRouter;
+import com.autozone.inventory.shard.ShardRoutingFilter;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with two extra shards, each a freshly created database with its own pool on the
+ * local Postgres server configured in application.yml. Store 1 lives on east, store 2
+ * on west and every other store on the primary.
+ */
+@SpringBootTest(properties = {
+		"inventory.sharding.enabled=true",
+		"inventory.sharding.stores[1]=east",
+		"inventory.sharding.stores[2]=west",
+		"inventory.sharding.shards.east.id-block=1",
+		"inventory.sharding.shards.west.id-block=2"
+})
+class ShardingTests {
+
+	private static final String SERVER = "jdbc:postgresql://localhost:5433/";
+	private static final List<String> SHARDS = List.of("east", "west");
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private ShardRoutingFilter shardRoutingFilter;
+
+	@Autowired
+	private ShardReferenceReplicator shardReferenceReplicator;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private InventoryRepository inventoryRepository;
+
+	@Autowired
+	private SaleRepository saleRepository;
+
+	@Autowired
+	private PartRepository partRepository;
+
+	@Autowired
+	private StoreRepository storeRepository;
+
+	@Autowired
+	private SaleController saleController;
+
+	@Autowired
+	private PurchaseOrderService purchaseOrderService;
+
+	@Autowired
+	private SalesColumnStoreService salesColumnStoreService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@DynamicPropertySource
+	static void shards(DynamicPropertyRegistry registry) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(SERVER + "autozone_inventory", "autozone_user", "autozone_pass");
+			 Statement statement = connection.createStatement()) {
+			for (String shard : SHARDS) {
+				statement.execute("DROP DATABASE IF EXISTS az_shard_" + shard);
+				statement.execute("CREATE DATABASE az_shard_" + shard);
+				registry.add("inventory.sharding.shards." + shard + ".url", () -> SERVER + "az_shard_" + shard);
+			}
+		}
+	}
+
+	@AfterEach
+	void unbind() {
+		ShardContext.clear();
+	}
+
+	@Test
+	void shardsGetSchemaPartitionsAndReferenceData() {
+		assertEquals(List.of("primary", "east", "west"), shardRouter.getShards());
+		JdbcTemplate primary = jdbc("primary");
+		for (String shard : SHARDS) {
+			JdbcTemplate jdbc = jdbc(shard);
+			assertEquals("p", jdbc.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('sales')", String.class));
+			for (String table : List.of("parts", "stores")) {
+				assertEquals(count(primary, "SELECT count(*) FROM " + table), count(jdbc, "SELECT count(*) FROM " + table), table + " on " + shard);
+			}
+		}
+	}
+
+	@Test
+	void aPartEditThatCommitsLateStillReachesTheShards() throws Exception {
+		JdbcTemplate primary = jdbc("primary");
+		List<Long> ids = primary.queryForList("SELECT id FROM parts ORDER BY id LIMIT 2", Long.class);
+		String slowName = "Late " + System.nanoTime();
+		String fastName = "Early " + System.nanoTime();
+		List<String> original = ids.stream()
+				.map(id -> primary.queryForObject("SELECT description FROM parts WHERE id = ?", String.class, id)).toList();
+
+		try (Connection slow = shardRouter.dataSource("primary").getConnection()) {
+			slow.setAutoCommit(false);
+			try (Statement begin = slow.createStatement()) {
+				begin.execute("SELECT pg_current_xact_id()");
+			}
+			// Starts after the slow transaction, so its transaction id and now() are both later
+			primary.update("UPDATE parts SET description = ?, updated_at = now() WHERE id = ?", fastName, ids.get(1));
+			shardReferenceReplicator.replicate();
+			assertEquals(fastName, description("east", ids.get(1)));
+
+			try (PreparedStatement update = slow.prepareStatement("UPDATE parts SET description = ?, updated_at = now() WHERE id = ?")) {
+				update.setString(1, slowName);
+				update.setLong(2, ids.get(0));
+				update.executeUpdate();
+			}
+			slow.commit();
+		}
+
+		shardReferenceReplicator.replicate();
+		assertEquals(slowName, description("east", ids.get(0)));
+		assertEquals(slowName, description("west", ids.get(0)));
+		for (int i = 0; i < ids.size(); i++) {
+			primary.update("UPDATE parts SET description = ? WHERE id = ?", original.get(i), ids.get(i));
+		}
+	}
+
+	@Test
+	void theUrlsStoreDecidesTheShardAndAConflictingHeaderIsRejected() throws Exception {
+		assertEquals("east", routedShard("/api/inventory/store/1", null, null));
+		assertEquals("east", routedShard("/api/inventory/reorder/store/1", null, "1"));
+		assertEquals("west", routedShard("/api/sales/recent", "2", null));
+		assertEquals("west", routedShard("/api/inventory/movements", null, "2"));
+
+		assertEquals("400", routedShard("/api/inventory/store/1", null, "2"));
+		assertEquals("400", routedShard("/api/inventory/store/1", "2", "1"));
+	}
+
+	@Test
+	void storeWritesCommitOnTheStoresShardOnly() {
+		Part part = parts().get(0);
+		Store store = storeRepository.findById(1L).orElseThrow();
+
+		assertEquals("east", shardRouter.bind(1L));
+		inventoryService.createOrUpdateInventory(stock(part, store, 10));
+		stockLedgerService.recordMovement(part.getId(), 1L, MovementType.SALE, -3, "shard test", "SHARD-1");
+		ShardContext.clear();
+
+		JdbcTemplate east = jdbc("east");
+		assertEquals(7, east.queryForObject("SELECT quantity FROM inventory WHERE part_id = ? AND store_id = 1", Integer.class, part.getId()));
+		assertEquals(2, count(east, "SELECT count(*) FROM inventory_movements WHERE part_id = " + part.getId()));
+		assertEquals(0, count(jdbc("primary"), "SELECT count(*) FROM inventory_movements WHERE reference = 'SHARD-1'"));
+		assertEquals(0, count(jdbc("west"), "SELECT count(*) FROM inventory_movements WHERE reference = 'SHARD-1'"));
+	}
+
+	@Test
+	void topSellersSumSalesFromEveryShard() {
+		Part part = parts().get(1);
+		sell(part, 1L, 5);
+		sell(part, 2L, 4);
+
+		long expected = 0;
+		for (String shard : shardRouter.getShards()) {
+			expected += count(jdbc(shard), "SELECT coalesce(sum(quantity_sold), 0) FROM sales WHERE part_id = " + part.getId());
+		}
+		List<Map<String, Object>> top = saleController.getTopSellingParts(10_000).getBody();
+		assertNotNull(top);
+		Map<String, Object> row = top.stream().filter(r -> part.getId().equals(r.get("partId"))).findFirst().orElseThrow();
+		assertEquals(expected, ((Number) row.get("totalQuantity")).longValue());
+		for (int i = 1; i < top.size(); i++) {
+			assertTrue(((Number) top.get(i - 1).get("totalQuantity")).longValue() >= ((Number) top.get(i).get("totalQuantity")).longValue());
+		}
+	}
+
+	@Test
+	void reorderListGathersEveryShard() {
+		Part part = parts().get(2);
+		shardRouter.bind(2L);
+		inventoryService.createOrUpdateInventory(stock(part, storeRepository.findById(2L).orElseThrow(), 1));
+		ShardContext.clear();
+
+		long expected = 0;
+		for (String shard : shardRouter.getShards()) {
+			expected += count(jdbc(shard), "SELECT count(*) FROM inventory WHERE quantity <= reorder_point AND deleted = false");
+		}
+		List<InventorySummary> reorder = shardRouter.scatter(inventoryService::getItemsNeedingReorder);
+		assertEquals(expected, reorder.size());
+		assertTrue(reorder.stream().anyMatch(item -> item.getStoreId() == 2L && item.getPartId().equals(part.getId())
+				&& item.getQuantity() == 1));
+	}
+
+	@Test
+	void rowIdsAreUniqueAcrossShardsAndNameTheirShard() {
+		Part part = parts().get(3);
+		shardRouter.bind(1L);
+		Inventory east = inventoryService.createOrUpdateInventory(stock(part, storeRepository.findById(1L).orElseThrow(), 4));
+		shardRouter.bind(2L);
+		Inventory west = inventoryService.createOrUpdateInventory(stock(part, storeRepository.findById(2L).orElseThrow(), 6));
+		ShardContext.clear();
+
+		assertEquals(1L, east.getId() >>> ShardRouter.ID_BLOCK_BITS);
+		assertEquals(2L, west.getId() >>> ShardRouter.ID_BLOCK_BITS);
+		assertEquals("east", shardRouter.shardForId(east.getId()));
+		assertEquals("west", shardRouter.shardForId(west.getId()));
+		assertEquals("primary", shardRouter.shardForId(1L));
+
+		// An id-only lookup reaches the row's own shard and store
+		shardRouter.bindForId(west.getId());
+		Inventory found = inventoryService.getInventoryById(west.getId()).orElseThrow();
+		assertEquals(2L, found.getStore().getId());
+		assertEquals(6, found.getQuantity());
+	}
+
+	@Test
+	void purchaseOrdersAreRaisedAndReceivedOnTheStoresShard() {
+		Part part = parts().get(4);
+		shardRouter.bind(1L);
+		inventoryService.createOrUpdateInventory(stock(part, storeRepository.findById(1L).orElseThrow(), 1));
+		ShardContext.clear();
+
+		PurchaseOrderRunResult run = purchaseOrderService.generatePurchaseOrders(false);
+		assertEquals(0, run.getFailedPartitions());
+		PurchaseOrder order = purchaseOrderService.getPurchaseOrders(null, run.getRunId()).stream()
+				.filter(candidate -> candidate.getStore().getId() == 1L)
+				.filter(candidate -> candidate.getLines().stream().anyMatch(line -> line.getPart().getId().equals(part.getId())))
+				.findFirst().orElseThrow();
+		assertEquals("east", shardRouter.shardForId(order.getId()));
+		int ordered = order.getLines().stream()
+				.filter(line -> line.getPart().getId().equals(part.getId()))
+				.mapToInt(PurchaseOrderLine::getQuantity)
+				.sum();
+
+		shardRouter.bindForId(order.getId());
+		purchaseOrderService.approve(order.getId()).orElseThrow();
+		ShardContext.clear();
+		shardRouter.bindForId(order.getId());
+		assertEquals(PurchaseOrder.Status.RECEIVED, purchaseOrderService.receive(order.getId()).orElseThrow().getStatus());
+		ShardContext.clear();
+
+		assertEquals(1 + ordered, jdbc("east").queryForObject(
+				"SELECT quantity FROM inventory WHERE part_id = ? AND store_id = 1", Integer.class, part.getId()));
+	}
+
+	@Test
+	void columnStoreLoadsSalesFromEveryShard() {
+		Part part = parts().get(5);
+		sell(part, 1L, 3);
+		sell(part, 2L, 2);
+		salesColumnStoreService.reload();
+
+		LocalDate today = LocalDate.now();
+		List<SalesAggregateRow> byStore = salesColumnStoreService.aggregate(SalesColumnStore.GroupBy.STORE, today, today, part.getId(), null);
+		Map<String, Long> quantities = new HashMap<>();
+		byStore.forEach(row -> quantities.put(row.getKey(), row.getQuantity()));
+		assertTrue(quantities.getOrDefault("1", 0L) >= 3, "east sales");
+		assertTrue(quantities.getOrDefault("2", 0L) >= 2, "west sales");
+	}
+
+	@Test
+	void transactionCannotSpanShards() {
+		shardRouter.bind(1L);
+		transactionTemplate.executeWithoutResult(status -> {
+			inventoryRepository.count();
+			assertEquals("east", shardRouter.bind(1L));
+			assertThrows(IllegalStateException.class, () -> shardRouter.bind(2L));
+			assertThrows(IllegalStateException.class, () -> shardRouter.bind(3L));
+		});
+		// Without a held connection the thread may move freely
+		assertEquals("west", shardRouter.bind(2L));
+		assertEquals("primary", shardRouter.shardFor(3L));
+	}
+
+	private List<Part> parts() {
+		return partRepository.findAll().stream().filter(part -> !part.getDeleted()).toList();
+	}
+
+	private void sell(Part part, Long storeId, int quantity) {
+		shardRouter.bind(storeId);
+		try {
+			saleRepository.save(Sale.builder()
+					.part(part)
+					.store(storeRepository.getReferenceById(storeId))
+					.quantitySold(quantity)
+					.unitPrice(BigDecimal.ONE)
+					.totalPrice(BigDecimal.valueOf(quantity))
+					.saleDate(LocalDateTime.now())
+					.build());
+		} finally {
+			ShardContext.clear();
+		}
+	}
+
+	private static Inventory stock(Part part, Store store, int quantity) {
+		return Inventory.builder()
+				.part(part)
+				.store(store)
+				.quantity(quantity)
+				.reorderPoint(2)
+				.reorderQuantity(5)
+				.maxStockLevel(20)
+				.build();
+	}
+
+	// The shard the request ran on, or its status when it never reached the chain
+	private String routedShard(String path, String storeParam, String storeHeader) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		if (storeParam != null) {
+			request.setParameter("storeId", storeParam);
+		}
+		if (storeHeader != null) {
+			request.addHeader("X-Store-Id", storeHeader);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String[] shard = new String[1];
+		shardRoutingFilter.doFilter(request, response, new MockFilterChain() {
+			@Override
+			public void doFilter(ServletRequest req, ServletResponse res) {
+				shard[0] = ShardContext.current();
+			}
+		});
+		return shard[0] != null ? shard[0] : String.valueOf(response.getStatus());
+	}
+
+	private String description(String shard, Long partId) {
+		return jdbc(shard).queryForObject("SELECT description FROM parts WHERE id = ?", String.class, partId);
+	}
+
+	private JdbcTemplate jdbc(String shard) {
+		return new JdbcTemplate(shardRouter.dataSource(shard));
+	}
+
+	private static long count(JdbcTemplate jdbc, String sql) {
+		Long count = jdbc.queryForObject(sql, Long.class);
+		return count != null ? count : 0;
+	}
+}
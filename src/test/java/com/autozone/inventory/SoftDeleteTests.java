@@ -0,0 +1,110 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.dto.InventoryChangeFeed;
+import com.autozone.inventory.entity.Inventory;
+import com.autozone.inventory.entity.Part;
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.repository.PartRepository;
+import com.autozone.inventory.repository.StoreRepository;
+import com.autozone.inventory.service.InventoryService;
+import com.autozone.inventory.service.InventorySyncService;
+import com.autozone.inventory.service.PartService;
+import com.autozone.inventory.service.SoftDeletePurgeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class SoftDeleteTests {
+
+	@Autowired
+	private PartService partService;
+
+	@Autowired
+	private PartRepository partRepository;
+
+	@Autowired
+	private StoreRepository storeRepository;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private InventorySyncService inventorySyncService;
+
+	@Autowired
+	private SoftDeletePurgeService purgeService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void deletedRowsAreHiddenFromQueriesButNotFromLookupsById() {
+		Part part = partService.createPart(part("SD-HIDE"));
+		partService.deletePart(part.getId());
+
+		assertTrue(partRepository.findAll().stream().noneMatch(p -> p.getId().equals(part.getId())));
+		assertTrue(partRepository.findByCategory(Part.PartCategory.FILTERS).stream().noneMatch(p -> p.getId().equals(part.getId())));
+		assertTrue(partRepository.searchByName(part.getName()).isEmpty());
+		assertTrue(partRepository.findBySku(part.getSku()).isEmpty());
+		assertTrue(partRepository.findById(part.getId()).orElseThrow().getDeleted());
+		// The SKU stays taken
+		assertThrows(IllegalArgumentException.class, () -> partService.createPart(part(part.getSku())));
+	}
+
+	@Test
+	void purgeArchivesOldDeletedRowsNothingRefersTo() {
+		Store store = storeRepository.findAll().get(0);
+		Part unreferenced = partService.createPart(part("SD-GONE"));
+		Part referenced = partService.createPart(part("SD-KEPT"));
+		Inventory stock = inventoryService.createOrUpdateInventory(Inventory.builder()
+				.part(referenced).store(store).quantity(0).reorderPoint(0).reorderQuantity(1).maxStockLevel(1).build());
+		partService.deletePart(unreferenced.getId());
+		partService.deletePart(referenced.getId());
+		inventoryService.deleteInventory(stock.getId());
+		// Deleted long ago, except the stock row, so the referenced part only goes once its row does
+		jdbcTemplate.update("UPDATE parts SET updated_at = now() - interval '60 days' WHERE id IN (?, ?)",
+				unreferenced.getId(), referenced.getId());
+
+		purgeService.purge().orElseThrow();
+		assertEquals(0, count("SELECT count(*) FROM parts WHERE id = " + unreferenced.getId()));
+		assertEquals(1, count("SELECT count(*) FROM purged_rows WHERE table_name = 'parts' " +
+				"AND row_id = " + unreferenced.getId() + " AND row_data->>'sku' = '" + unreferenced.getSku() + "'"));
+		assertEquals(1, count("SELECT count(*) FROM parts WHERE id = " + referenced.getId()));
+
+		jdbcTemplate.update("UPDATE inventory SET updated_at = now() - interval '60 days' WHERE id = ?", stock.getId());
+		Map<String, Integer> purged = purgeService.purge().orElseThrow();
+		assertTrue(purged.get("inventory") >= 1);
+		assertEquals(0, count("SELECT count(*) FROM parts WHERE id = " + referenced.getId()));
+
+		// A terminal that last synced before the purged deletion cannot see its tombstone any more
+		InventoryChangeFeed stale = inventorySyncService.getChangesSince(store.getId(), "x0.0", 10);
+		assertTrue(stale.isResyncRequired());
+		assertTrue(stale.getChanges().isEmpty());
+		assertFalse(inventorySyncService.getChangesSince(store.getId(), null, 10).isResyncRequired());
+	}
+
+	private static Part part(String sku) {
+		Part part = new Part();
+		part.setSku(sku.startsWith("SD-") && sku.length() < 10 ? sku + "-" + System.nanoTime() : sku);
+		part.setName("Soft delete test " + part.getSku());
+		part.setCategory(Part.PartCategory.FILTERS);
+		part.setCost(BigDecimal.ONE);
+		part.setPrice(BigDecimal.TEN);
+		return part;
+	}
+
+	private long count(String sql) {
+		Long count = jdbcTemplate.queryForObject(sql, Long.class);
+		return count != null ? count : 0;
+	}
+}
@@ -0,0 +1,74 @@
+package com.autozone.inventory;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A store, part and inventory row that one test creates for itself and removes again,
+ * with everything the test wrote against them, so tests never depend on which other
+ * rows the shared database holds.
+ */
+final class StockFixture implements AutoCloseable {
+
+	// Children first; purchase orders go with their lines
+	private static final List<String> CLEANUP = List.of(
+			"DELETE FROM inventory_slots WHERE inventory_id IN (SELECT id FROM inventory WHERE store_id = ?)",
+			"DELETE FROM inventory_movements WHERE store_id = ?",
+			"DELETE FROM inventory_snapshots WHERE store_id = ?",
+			"DELETE FROM stock_reservations WHERE store_id = ?",
+			"DELETE FROM reorder_alerts WHERE store_id = ?",
+			"DELETE FROM safety_stock_recommendations WHERE store_id = ?",
+			"DELETE FROM demand_forecasts WHERE store_id = ?",
+			"DELETE FROM purchase_order_lines WHERE store_id = ? OR purchase_order_id IN " +
+					"(SELECT id FROM purchase_orders WHERE store_id = ?)",
+			"DELETE FROM purchase_orders WHERE store_id = ?",
+			"DELETE FROM sales WHERE store_id = ?",
+			"DELETE FROM revenue_cube WHERE store_id = ?",
+			"DELETE FROM inventory WHERE store_id = ?"
+	);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Long inventoryId;
+	private final Long partId;
+	private final Long storeId;
+
+	private StockFixture(JdbcTemplate jdbcTemplate, Long inventoryId, Long partId, Long storeId) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.inventoryId = inventoryId;
+		this.partId = partId;
+		this.storeId = storeId;
+	}
+
+	static StockFixture create(JdbcTemplate jdbcTemplate, int quantity) {
+		String tag = Long.toString(System.nanoTime() % 100_000_000L, 36).toUpperCase();
+		Long storeId = jdbcTemplate.queryForObject("INSERT INTO stores (store_number, name, address, city, state, " +
+				"zip_code, store_type, latitude, longitude, created_at, updated_at, deleted) VALUES (?, 'Fixture Store', " +
+				"'1 Test Way', 'Memphis', 'TN', '38103', 'STANDARD', 35.15, -90.05, now(), now(), false) RETURNING id",
+				Long.class, "T" + tag);
+		Long partId = jdbcTemplate.queryForObject("INSERT INTO parts (sku, name, category, cost, price, " +
+				"supplier_lead_time_days, created_at, updated_at, deleted) VALUES (?, 'Fixture Part', 'FILTERS', 5, 10, 7, " +
+				"now(), now(), false) RETURNING id", Long.class, "FIXTURE-" + tag);
+		Long inventoryId = jdbcTemplate.queryForObject("INSERT INTO inventory (part_id, store_id, quantity, reorder_point, " +
+				"reorder_quantity, max_stock_level, created_at, updated_at, deleted) VALUES (?, ?, ?, 0, 50, 200, now(), " +
+				"now(), false) RETURNING id", Long.class, partId, storeId, quantity);
+		return new StockFixture(jdbcTemplate, inventoryId, partId, storeId);
+	}
+
+	/** The row as the tests address it: id, part_id and store_id. */
+	Map<String, Object> item() {
+		return Map.of("id", inventoryId, "part_id", partId, "store_id", storeId);
+	}
+
+	@Override
+	public void close() {
+		for (String sql : CLEANUP) {
+			Object[] args = sql.chars().filter(c -> c == '?').mapToObj(c -> storeId).toArray();
+			jdbcTemplate.update(sql, args);
+		}
+		jdbcTemplate.update("DELETE FROM sales WHERE part_id = ?", partId);
+		jdbcTemplate.update("DELETE FROM parts WHERE id = ?", partId);
+		jdbcTemplate.update("DELETE FROM stores WHERE id = ?", storeId);
+	}
+}
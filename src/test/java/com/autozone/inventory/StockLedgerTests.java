@@ -0,0 +1,66 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.service.StockLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class StockLedgerTests {
+
+	@Autowired
+	private StockLedgerService stockLedgerService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void aBackDatedMovementThatCommitsAfterASnapshotIsStillCounted() throws Exception {
+		try (StockFixture fixture = StockFixture.create(jdbcTemplate, 10)) {
+			Map<String, Object> item = fixture.item();
+			Long partId = (Long) item.get("part_id");
+			Long storeId = (Long) item.get("store_id");
+
+			try (Connection slow = dataSource.getConnection()) {
+				slow.setAutoCommit(false);
+				try (PreparedStatement update = slow.prepareStatement(
+						"UPDATE inventory SET quantity = quantity - 3 WHERE id = ?")) {
+					update.setLong(1, (Long) item.get("id"));
+					update.executeUpdate();
+				}
+				// Stamped well before the snapshot, as a sale that took long to commit would be
+				try (PreparedStatement insert = slow.prepareStatement("INSERT INTO inventory_movements (part_id, store_id, " +
+						"movement_type, quantity_delta, reason, occurred_at, created_at, updated_at, deleted) " +
+						"VALUES (?, ?, 'SALE', -3, 'Late commit test', now() - interval '2 minutes', now(), now(), false)")) {
+					insert.setLong(1, partId);
+					insert.setLong(2, storeId);
+					insert.executeUpdate();
+				}
+
+				stockLedgerService.takeSnapshots();
+				slow.commit();
+			}
+
+			Optional<Integer> quantity = stockLedgerService.getQuantityAt(partId, storeId, LocalDateTime.now());
+			assertEquals(Optional.of(7), quantity);
+			assertEquals(10, jdbcTemplate.queryForObject("SELECT quantity FROM inventory_snapshots " +
+					"WHERE part_id = ? AND store_id = ?", Integer.class, partId, storeId));
+		}
+	}
+}
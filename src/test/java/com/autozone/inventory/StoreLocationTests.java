@@ -0,0 +1,56 @@
+package com.autozone.inventory;
+
+import com.autozone.inventory.entity.Store;
+import com.autozone.inventory.service.StoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the local Postgres instance configured in application.yml.
+ */
+@SpringBootTest
+class StoreLocationTests {
+
+	@Autowired
+	private StoreService storeService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aStoreOutsideTheCentroidTableNeedsCoordinates() {
+		String storeNumber = "G" + System.nanoTime() % 100_000_000L;
+		assertThrows(IllegalArgumentException.class, () -> storeService.createStore(store(storeNumber, null, null)));
+
+		Store created = storeService.createStore(store(storeNumber, 61.2181, -149.9003));
+		try {
+			assertEquals(61.2181, created.getLatitude());
+			// The ZIP is unchanged, so an update that leaves out coordinates keeps them
+			Store updated = storeService.updateStore(created.getId(), store(storeNumber, null, null));
+			assertEquals(-149.9003, updated.getLongitude());
+			assertThrows(IllegalArgumentException.class,
+					() -> storeService.updateStore(created.getId(), store(storeNumber, 95.0, 0.0)));
+		} finally {
+			// Deleting through the service drops it from the caches; the row itself must not outlive the test
+			storeService.deleteStore(created.getId());
+			jdbcTemplate.update("DELETE FROM stores WHERE id = ?", created.getId());
+		}
+	}
+
+	private static Store store(String storeNumber, Double latitude, Double longitude) {
+		Store store = new Store();
+		store.setStoreNumber(storeNumber);
+		store.setName("Anchorage Test");
+		store.setAddress("1 Test Way");
+		store.setCity("Anchorage");
+		store.setState("AK");
+		store.setZipCode("99501");
+		store.setLatitude(latitude);
+		store.setLongitude(longitude);
+		return store;
+	}
+}